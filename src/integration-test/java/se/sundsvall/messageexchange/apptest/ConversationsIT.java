@@ -2,10 +2,13 @@ package se.sundsvall.messageexchange.apptest;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.HttpHeaders.LOCATION;
+import static org.springframework.http.HttpMethod.DELETE;
 import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.PATCH;
 import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.ACCEPTED;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -83,11 +86,16 @@ class ConversationsIT extends AbstractAppTest {
 
 	@Test
 	void test04_deleteConversation() {
+		setupCall()
+			.withServicePath(PATH + "/" + CONVERSATION_ID)
+			.withHttpMethod(DELETE)
+			.withExpectedResponseStatus(ACCEPTED)
+			.sendRequestAndVerifyResponse();
+
 		setupCall()
 			.withServicePath(PATH + "/" + CONVERSATION_ID)
 			.withHttpMethod(GET)
-			.withExpectedResponseStatus(OK)
-			.withExpectedResponseHeader(CONTENT_TYPE, List.of(APPLICATION_JSON_VALUE))
+			.withExpectedResponseStatus(NOT_FOUND)
 			.sendRequestAndVerifyResponse();
 	}
 
@@ -113,4 +121,15 @@ class ConversationsIT extends AbstractAppTest {
 			.sendRequestAndVerifyResponse();
 	}
 
+	@Test
+	void test07_getConversationsWithoutTotal() {
+		setupCall()
+			.withServicePath(PATH + "?withTotal=false")
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponseHeader(CONTENT_TYPE, List.of(APPLICATION_JSON_VALUE))
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
 }
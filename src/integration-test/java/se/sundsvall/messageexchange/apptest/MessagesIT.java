@@ -95,6 +95,56 @@ class MessagesIT extends AbstractAppTest {
 			.sendRequestAndVerifyResponse();
 	}
 
+	@Test
+	void test07_findMessagesByCursor() {
+		setupCall()
+			.withServicePath(PATH + "?afterSequence=0&limit=1&setReadBy=false")
+			.withHeader(SENT_BY_HEADER, "joe01doe; type=adAccount")
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponseHeader(CONTENT_TYPE, List.of(APPLICATION_JSON_VALUE))
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test08_markAsReadUpTo() {
+		setupCall()
+			.withServicePath(PATH + "/mark-as-read-up-to")
+			.withHeader(SENT_BY_HEADER, "joe01doe; type=adAccount")
+			.withHttpMethod(POST)
+			.withRequest(REQUEST_FILE)
+			.withExpectedResponseStatus(NO_CONTENT)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test09_createMessagesInBatch() {
+		setupCall()
+			.withServicePath("/" + MUNICIPALITY_ID + "/" + NAMESPACE_1 + "/messages/batch")
+			.withHeader(SENT_BY_HEADER, "joe01doe; type=adAccount")
+			.withHttpMethod(POST)
+			.withRequest(REQUEST_FILE)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponseHeader(CONTENT_TYPE, List.of(APPLICATION_JSON_VALUE))
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test10_createMessageWithUsedIdempotencyKey() throws FileNotFoundException {
+		setupCall()
+			.withServicePath(PATH)
+			.withHeader(SENT_BY_HEADER, "joe01doe; type=adAccount")
+			.withHeader("Idempotency-Key", "retry-key-1")
+			.withHttpMethod(POST)
+			.withContentType(MULTIPART_FORM_DATA)
+			.withRequestFile("message", REQUEST_FILE)
+			.withExpectedResponseStatus(CREATED)
+			.withExpectedResponseHeader(LOCATION, List.of(PATH + "/m2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6"))
+			.sendRequestAndVerifyResponse();
+	}
+
 	@Test
 	void test04_readAttachment() throws IOException {
 		setupCall()
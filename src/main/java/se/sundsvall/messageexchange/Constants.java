@@ -2,8 +2,10 @@ package se.sundsvall.messageexchange;
 
 public final class Constants {
 
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 	public static final String NAMESPACE_REGEXP = "[\\w|\\-]+";
 	public static final String NAMESPACE_VALIDATION_MESSAGE = "can only contain A-Z, a-z, 0-9, - and _";
+	public static final String WITH_TOTAL_DESCRIPTION = "Whether the total number of elements should be calculated. When false, a slice without totals is returned and no count query is executed. Defaults to true.";
 
 	private Constants() {}
 }
@@ -29,18 +29,21 @@ import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.messageexchange.api.model.Conversation;
 import se.sundsvall.messageexchange.api.model.ReadByStatistics;
+import se.sundsvall.messageexchange.api.model.Slice;
 import se.sundsvall.messageexchange.api.validation.ValidNamespace;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 import se.sundsvall.messageexchange.service.ConversationService;
 
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+import static org.springframework.http.ResponseEntity.accepted;
 import static org.springframework.http.ResponseEntity.created;
-import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
+import static se.sundsvall.messageexchange.Constants.WITH_TOTAL_DESCRIPTION;
 
 @RestController
 @Validated
@@ -52,6 +55,8 @@ import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 @Tag(name = "Conversation resource", description = "Conversation operations")
 class ConversationResource {
 
+	private static final String CONVERSATIONS_DESCRIPTION = "Get all conversations with or without filters. The resource allows the client a wide range of variations on how to filter the result.";
+
 	private final ConversationService service;
 
 	ConversationResource(final ConversationService service) {
@@ -59,7 +64,7 @@ class ConversationResource {
 	}
 
 	@GetMapping(produces = APPLICATION_JSON_VALUE)
-	@Operation(description = "Get all conversations with or without filters. The resource allows the client a wide range of variations on how to filter the result.", responses = {
+	@Operation(description = CONVERSATIONS_DESCRIPTION, responses = {
 		@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true)
 	})
 	ResponseEntity<Page<Conversation>> getConversations(
@@ -72,6 +77,21 @@ class ConversationResource {
 		return ok(service.readConversations(namespace, municipalityId, filter, pageable));
 	}
 
+	@GetMapping(produces = APPLICATION_JSON_VALUE, params = "withTotal=false")
+	@Operation(description = CONVERSATIONS_DESCRIPTION, responses = {
+		@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true)
+	})
+	@Parameter(in = QUERY, name = "withTotal", description = WITH_TOTAL_DESCRIPTION, example = "false", schema = @Schema(type = "boolean", defaultValue = "true"))
+	ResponseEntity<Slice<Conversation>> getConversationSlice(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "namespace", description = "Namespace", example = "MY_NAMESPACE") @ValidNamespace @PathVariable final String namespace,
+		@Parameter(description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
+			example = "topic:'My topic' and messages.createdBy.value:'joe01doe' and messages.created>'2023-01-01T00:00:00Z'",
+			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<ConversationEntity> filter,
+		@ParameterObject final Pageable pageable) {
+		return ok(service.readConversationSlice(namespace, municipalityId, filter, pageable));
+	}
+
 	@GetMapping(path = "/{conversationId}", produces = APPLICATION_JSON_VALUE)
 	@Operation(description = "Get a conversation", responses = {
 		@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true),
@@ -132,8 +152,8 @@ class ConversationResource {
 	}
 
 	@DeleteMapping(path = "/{conversationId}", produces = APPLICATION_JSON_VALUE)
-	@Operation(description = "Delete a conversation", responses = {
-		@ApiResponse(responseCode = "204", description = "No Content - Successful operation", useReturnTypeSchema = true),
+	@Operation(description = "Delete a conversation. The conversation is removed immediately from all operations, while its messages and attachments are removed in the background.", responses = {
+		@ApiResponse(responseCode = "202", description = "Accepted - Successful operation", useReturnTypeSchema = true),
 		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<Void> deleteConversation(
@@ -142,7 +162,7 @@ class ConversationResource {
 		@Parameter(name = "conversationId", description = "Conversation ID", example = "b82bd8ac-1507-4d9a-958d-369261eecc15") @ValidUuid @PathVariable final String conversationId) {
 
 		service.deleteConversation(namespace, municipalityId, conversationId);
-		return noContent().build();
+		return accepted().build();
 	}
 
 }
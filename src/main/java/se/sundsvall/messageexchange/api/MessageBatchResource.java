@@ -0,0 +1,62 @@
+package se.sundsvall.messageexchange.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
+import se.sundsvall.messageexchange.api.model.MessageBatchRequest;
+import se.sundsvall.messageexchange.api.model.MessageBatchResponse;
+import se.sundsvall.messageexchange.api.validation.ValidNamespace;
+import se.sundsvall.messageexchange.service.MessageService;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+import static org.springframework.http.ResponseEntity.ok;
+import static se.sundsvall.dept44.support.Identifier.HEADER_NAME;
+
+@RestController
+@Validated
+@RequestMapping("/{municipalityId}/{namespace}/messages")
+@ApiResponse(responseCode = "400", description = "Bad request", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(oneOf = {
+	Problem.class, ConstraintViolationProblem.class
+})))
+@ApiResponse(responseCode = "500", description = "Internal Server error", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+@Tag(name = "Message resource", description = "Message operations")
+class MessageBatchResource {
+
+	private final MessageService service;
+
+	MessageBatchResource(final MessageService service) {
+		this.service = service;
+	}
+
+	@PostMapping(path = "/batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(description = "Post a batch of messages, without attachments, to one or more conversations in a namespace. The result is reported per message, in the order of the request. Only messages posted to a conversation that does not exist are reported as failed per message, while the rest of the batch is created. Invalid messages reject the whole request, and any other failure fails the whole batch.",
+		responses = {
+			@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true)
+		})
+	ResponseEntity<MessageBatchResponse> postMessages(
+		@Parameter(name = HEADER_NAME,
+			description = "User ID of the request sender, used to log who sent the messages. The value must follow the format: type=TYPE; VALUE. Valid types are 'adAccount' and 'partyId'.",
+			example = "type=adAccount; joe01doe") @RequestHeader(name = HEADER_NAME, required = false) final String senderId,
+		@PathVariable @ValidMunicipalityId @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") final String municipalityId,
+		@PathVariable @ValidNamespace @Parameter(name = "namespace", description = "Namespace", example = "MY_NAMESPACE") final String namespace,
+		@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Messages to be posted") @Valid @RequestBody final MessageBatchRequest request) {
+
+		return ok(service.createMessages(municipalityId, namespace, request.getMessages()));
+	}
+}
@@ -8,8 +8,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
@@ -33,12 +37,16 @@ import se.sundsvall.dept44.common.validators.annotation.ValidUuid;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.messageexchange.api.model.MarkAsReadRequest;
+import se.sundsvall.messageexchange.api.model.MarkAsReadUpToRequest;
 import se.sundsvall.messageexchange.api.model.Message;
+import se.sundsvall.messageexchange.api.model.MessageWindow;
+import se.sundsvall.messageexchange.api.model.Slice;
 import se.sundsvall.messageexchange.api.validation.ValidMultipartFiles;
 import se.sundsvall.messageexchange.api.validation.ValidNamespace;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
 import se.sundsvall.messageexchange.service.MessageService;
 
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -49,6 +57,8 @@ import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 import static se.sundsvall.dept44.support.Identifier.HEADER_NAME;
+import static se.sundsvall.messageexchange.Constants.IDEMPOTENCY_KEY_HEADER;
+import static se.sundsvall.messageexchange.Constants.WITH_TOTAL_DESCRIPTION;
 
 @RestController
 @Validated
@@ -61,6 +71,9 @@ import static se.sundsvall.dept44.support.Identifier.HEADER_NAME;
 @Tag(name = "Message resource", description = "Message operations")
 class MessageResource {
 
+	private static final String MESSAGES_DESCRIPTION = "Get messages for a conversation, paginated. Paging is done by page and size, or by sequence number when limit is provided.";
+	private static final int MAX_LIMIT = 1000;
+
 	private final MessageService service;
 
 	MessageResource(final MessageService service) {
@@ -69,19 +82,23 @@ class MessageResource {
 
 	@PostMapping(consumes = MULTIPART_FORM_DATA_VALUE, produces = ALL_VALUE)
 	@Operation(description = "Post a message with attachment", responses = {
-		@ApiResponse(responseCode = "201", description = "Created - Successful operation", useReturnTypeSchema = true)
+		@ApiResponse(responseCode = "201", description = "Created - Successful operation", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "409", description = "Conflict - The idempotency key is used by a concurrent request", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<Void> postMessage(
 		@Parameter(name = HEADER_NAME,
 			description = "User ID of the request sender, used to log who sent the message. The value must follow the format: type=TYPE; VALUE. Valid types are 'adAccount' and 'partyId'.",
 			example = "type=adAccount; joe01doe") @RequestHeader(name = HEADER_NAME, required = false) final String senderId,
+		@Parameter(name = IDEMPOTENCY_KEY_HEADER,
+			description = "Client generated key that makes the post idempotent. A retried post with the same key in the same conversation returns the message created by the first post, without creating a new message.",
+			example = "5f8b2c4e-0d7a-4a51-9a8e-3c6d1b2a7e90") @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) @Size(min = 1, max = 255) final String idempotencyKey,
 		@PathVariable @ValidMunicipalityId @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") final String municipalityId,
 		@PathVariable @ValidNamespace @Parameter(name = "namespace", description = "Namespace", example = "MY_NAMESPACE") final String namespace,
 		@PathVariable @ValidUuid @Parameter(name = "conversationId", description = "Conversation ID", example = "b82bd8ac-1507-4d9a-958d-369261eecc15") final String conversationId,
 		@RequestPart("message") @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Message to be posted") final Message message,
 		@RequestPart(value = "attachments", required = false) @ValidMultipartFiles @Parameter(name = "attachments", description = "List of attachments") final List<MultipartFile> attachments) {
 
-		final var messageId = service.createMessage(municipalityId, namespace, conversationId, message, attachments);
+		final var messageId = service.createMessage(municipalityId, namespace, conversationId, message, attachments, idempotencyKey);
 
 		return created(fromPath("/{municipalityId}/{namespace}/conversations/{id}/messages/{messageId}")
 			.buildAndExpand(municipalityId, namespace, conversationId, messageId).toUri())
@@ -90,7 +107,7 @@ class MessageResource {
 	}
 
 	@GetMapping(produces = APPLICATION_JSON_VALUE)
-	@Operation(description = "Get all messages for a conversation, paginated.", responses = {
+	@Operation(description = MESSAGES_DESCRIPTION, responses = {
 		@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true)
 	})
 	ResponseEntity<Page<Message>> getMessages(
@@ -111,6 +128,64 @@ class MessageResource {
 		return ok(service.getMessages(municipalityId, namespace, conversationId, filter, pageable, setReadBy));
 	}
 
+	@GetMapping(produces = APPLICATION_JSON_VALUE, params = {
+		"withTotal=false", "!limit"
+	})
+	@Operation(description = MESSAGES_DESCRIPTION, responses = {
+		@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true)
+	})
+	@Parameter(in = QUERY, name = "withTotal", description = WITH_TOTAL_DESCRIPTION, example = "false", schema = @Schema(type = "boolean", defaultValue = "true"))
+	ResponseEntity<Slice<Message>> getMessageSlice(
+		@Parameter(name = HEADER_NAME,
+			description = "User ID of the request sender, used to log who read the message. The value must follow the format: type=TYPE; VALUE. Valid types are 'adAccount' and 'partyId'.",
+			example = "type=adAccount; joe01doe") @RequestHeader(name = HEADER_NAME, required = false) final String senderId,
+		@PathVariable @ValidMunicipalityId @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") final String municipalityId,
+		@PathVariable @ValidNamespace @Parameter(name = "namespace", description = "Namespace", example = "MY_NAMESPACE") final String namespace,
+		@PathVariable @ValidUuid @Parameter(name = "conversationId", description = "Conversation ID", example = "b82bd8ac-1507-4d9a-958d-369261eecc15") final String conversationId,
+		@Parameter(description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
+			example = "content:'My content' and createdBy.value:'joe01doe' and created>'2023-01-01T00:00:00Z'",
+			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<MessageEntity> filter,
+		@Parameter(name = "setReadBy",
+			description = "Whether the request sender should be marked as having read the returned messages. Defaults to true.",
+			example = "true") @RequestParam(name = "setReadBy", defaultValue = "true") final boolean setReadBy,
+		@ParameterObject final Pageable pageable) {
+
+		return ok(service.getMessageSlice(municipalityId, namespace, conversationId, filter, pageable, setReadBy));
+	}
+
+	@GetMapping(produces = APPLICATION_JSON_VALUE, params = "limit")
+	@Operation(description = MESSAGES_DESCRIPTION, responses = {
+		@ApiResponse(responseCode = "200", description = "OK - Successful operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<MessageWindow> getMessageWindow(
+		@Parameter(name = HEADER_NAME,
+			description = "User ID of the request sender, used to log who read the message. The value must follow the format: type=TYPE; VALUE. Valid types are 'adAccount' and 'partyId'.",
+			example = "type=adAccount; joe01doe") @RequestHeader(name = HEADER_NAME, required = false) final String senderId,
+		@PathVariable @ValidMunicipalityId @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") final String municipalityId,
+		@PathVariable @ValidNamespace @Parameter(name = "namespace", description = "Namespace", example = "MY_NAMESPACE") final String namespace,
+		@PathVariable @ValidUuid @Parameter(name = "conversationId", description = "Conversation ID", example = "b82bd8ac-1507-4d9a-958d-369261eecc15") final String conversationId,
+		@Parameter(description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
+			example = "content:'My content' and createdBy.value:'joe01doe' and created>'2023-01-01T00:00:00Z'",
+			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<MessageEntity> filter,
+		@Parameter(name = "afterSequence",
+			description = "Return messages with a sequence number greater than this value, in ascending order. Cannot be combined with beforeSequence.",
+			example = "120") @RequestParam(name = "afterSequence", required = false) final Long afterSequence,
+		@Parameter(name = "beforeSequence",
+			description = "Return messages with a sequence number less than this value, in descending order. Cannot be combined with afterSequence.",
+			example = "120") @RequestParam(name = "beforeSequence", required = false) final Long beforeSequence,
+		@Parameter(name = "cursor",
+			description = "Opaque cursor from nextCursor of a previous response. Takes precedence over afterSequence and beforeSequence.",
+			example = "QUZURVI6MTIw") @RequestParam(name = "cursor", required = false) final String cursor,
+		@Parameter(name = "limit",
+			description = "Maximum number of messages to return. Providing this parameter selects sequence number based pagination instead of page based.",
+			example = "50") @RequestParam(name = "limit", required = false) @Min(1) @Max(MAX_LIMIT) final Integer limit,
+		@Parameter(name = "setReadBy",
+			description = "Whether the request sender should be marked as having read the returned messages. Defaults to true.",
+			example = "true") @RequestParam(name = "setReadBy", defaultValue = "true") final boolean setReadBy) {
+
+		return ok(service.getMessageWindow(municipalityId, namespace, conversationId, filter, afterSequence, beforeSequence, cursor, limit, setReadBy));
+	}
+
 	@PostMapping(path = "/mark-as-read", consumes = APPLICATION_JSON_VALUE, produces = ALL_VALUE)
 	@Operation(description = "Mark a list of messages as read by an identifier and/or a part", responses = {
 		@ApiResponse(responseCode = "204", description = "No Content - Successful operation", useReturnTypeSchema = true)
@@ -125,6 +200,20 @@ class MessageResource {
 		return noContent().build();
 	}
 
+	@PostMapping(path = "/mark-as-read-up-to", consumes = APPLICATION_JSON_VALUE, produces = ALL_VALUE)
+	@Operation(description = "Mark all messages up to and including a sequence number as read by an identifier and/or a part", responses = {
+		@ApiResponse(responseCode = "204", description = "No Content - Successful operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<Void> markAsReadUpTo(
+		@PathVariable @ValidMunicipalityId @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") final String municipalityId,
+		@PathVariable @ValidNamespace @Parameter(name = "namespace", description = "Namespace", example = "MY_NAMESPACE") final String namespace,
+		@PathVariable @ValidUuid @Parameter(name = "conversationId", description = "Conversation ID", example = "b82bd8ac-1507-4d9a-958d-369261eecc15") final String conversationId,
+		@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Sequence number to mark as read up to") @Valid @RequestBody final MarkAsReadUpToRequest request) {
+
+		service.markMessagesAsReadUpTo(municipalityId, namespace, conversationId, request);
+		return noContent().build();
+	}
+
 	@DeleteMapping(path = "/{messageId}", produces = ALL_VALUE)
 	@Operation(description = "Delete a message", responses = {
 		@ApiResponse(responseCode = "204", description = "No Content - Successful operation", useReturnTypeSchema = true)
@@ -140,9 +229,12 @@ class MessageResource {
 	}
 
 	@GetMapping(path = "/{messageId}/attachments/{attachmentId}", produces = ALL_VALUE)
-	@Operation(summary = "Read attachment", description = "Fetches the attachment that matches the provided message id and attachment id", responses = {
+	@Operation(summary = "Read attachment", description = "Fetches the attachment that matches the provided message id and attachment id. Supports range requests and conditional requests, with the hash of the attachment as entity tag", responses = {
 		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "206", description = "Partial Content", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "304", description = "Not Modified"),
 		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class))),
+		@ApiResponse(responseCode = "416", description = "Range Not Satisfiable", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class))),
 	})
 	void readErrandAttachment(
 		@PathVariable @ValidMunicipalityId @Parameter(name = "municipalityId", description = "Municipality id", example = "2281") final String municipalityId,
@@ -150,8 +242,9 @@ class MessageResource {
 		@PathVariable @ValidUuid @Parameter(name = "conversationId", description = "Conversation ID", example = "b82bd8ac-1507-4d9a-958d-369261eecc15") final String conversationId,
 		@PathVariable @ValidUuid @Parameter(name = "messageId", description = "Message ID", example = "d82bd8ac-1507-4d9a-958d-369261eecc15") final String messageId,
 		@PathVariable @ValidUuid @Parameter(name = "attachmentId", description = "Errand attachment id", example = "5f79a808-0ef3-4985-99b9-b12f23e202a7") final String attachmentId,
+		final HttpServletRequest request,
 		final HttpServletResponse response) {
 
-		service.readErrandAttachment(namespace, municipalityId, conversationId, messageId, attachmentId, response);
+		service.readErrandAttachment(namespace, municipalityId, conversationId, messageId, attachmentId, request, response);
 	}
 }
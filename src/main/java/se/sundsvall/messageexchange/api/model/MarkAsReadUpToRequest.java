@@ -0,0 +1,91 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.util.Objects;
+import se.sundsvall.messageexchange.api.validation.ValidMarkAsReadRequest;
+
+@ValidMarkAsReadRequest
+@Schema(description = "Request for marking all messages in a conversation up to and including a sequence number as read by an identifier and/or a part.")
+public class MarkAsReadUpToRequest {
+
+	@NotNull
+	@Min(1)
+	@Schema(description = "The sequence number of the last message to mark as read.", examples = "120")
+	private Long sequenceNumber;
+
+	@Valid
+	@Schema(description = "The identifier of the person that read the messages. Either this and/or part must be provided.")
+	private Identifier identifier;
+
+	@Schema(description = "The part that read the messages. Either this and/or identifier must be provided.", examples = "errand-123")
+	private String part;
+
+	public static MarkAsReadUpToRequest create() {
+		return new MarkAsReadUpToRequest();
+	}
+
+	public Long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public void setSequenceNumber(final Long sequenceNumber) {
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	public MarkAsReadUpToRequest withSequenceNumber(final Long sequenceNumber) {
+		this.sequenceNumber = sequenceNumber;
+		return this;
+	}
+
+	public Identifier getIdentifier() {
+		return identifier;
+	}
+
+	public void setIdentifier(final Identifier identifier) {
+		this.identifier = identifier;
+	}
+
+	public MarkAsReadUpToRequest withIdentifier(final Identifier identifier) {
+		this.identifier = identifier;
+		return this;
+	}
+
+	public String getPart() {
+		return part;
+	}
+
+	public void setPart(final String part) {
+		this.part = part;
+	}
+
+	public MarkAsReadUpToRequest withPart(final String part) {
+		this.part = part;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MarkAsReadUpToRequest that = (MarkAsReadUpToRequest) o;
+		return Objects.equals(sequenceNumber, that.sequenceNumber) && Objects.equals(identifier, that.identifier) && Objects.equals(part, that.part);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(sequenceNumber, identifier, part);
+	}
+
+	@Override
+	public String toString() {
+		return "MarkAsReadUpToRequest{" +
+			"sequenceNumber=" + sequenceNumber +
+			", identifier=" + identifier +
+			", part='" + part + '\'' +
+			'}';
+	}
+}
@@ -0,0 +1,72 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.Objects;
+import se.sundsvall.dept44.common.validators.annotation.ValidUuid;
+
+@Schema(description = "A message to create in a conversation.")
+public class MessageBatchItem {
+
+	@ValidUuid
+	@Schema(description = "The id of the conversation to create the message in.", examples = "b82bd8ac-1507-4d9a-958d-369261eecc15")
+	private String conversationId;
+
+	@NotNull
+	@Valid
+	@Schema(description = "The message to create.")
+	private Message message;
+
+	public static MessageBatchItem create() {
+		return new MessageBatchItem();
+	}
+
+	public String getConversationId() {
+		return conversationId;
+	}
+
+	public void setConversationId(final String conversationId) {
+		this.conversationId = conversationId;
+	}
+
+	public MessageBatchItem withConversationId(final String conversationId) {
+		this.conversationId = conversationId;
+		return this;
+	}
+
+	public Message getMessage() {
+		return message;
+	}
+
+	public void setMessage(final Message message) {
+		this.message = message;
+	}
+
+	public MessageBatchItem withMessage(final Message message) {
+		this.message = message;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MessageBatchItem that = (MessageBatchItem) o;
+		return Objects.equals(conversationId, that.conversationId) && Objects.equals(message, that.message);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(conversationId, message);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageBatchItem{" +
+			"conversationId='" + conversationId + '\'' +
+			", message=" + message +
+			'}';
+	}
+}
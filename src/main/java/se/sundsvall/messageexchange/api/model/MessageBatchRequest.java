@@ -0,0 +1,57 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "Request for creating a batch of messages in one or more conversations within a namespace.")
+public class MessageBatchRequest {
+
+	@ArraySchema(schema = @Schema(implementation = MessageBatchItem.class, description = "The messages to create, in the order they should be created."))
+	@NotEmpty
+	@Size(max = 1000)
+	@Valid
+	private List<MessageBatchItem> messages;
+
+	public static MessageBatchRequest create() {
+		return new MessageBatchRequest();
+	}
+
+	public List<MessageBatchItem> getMessages() {
+		return messages;
+	}
+
+	public void setMessages(final List<MessageBatchItem> messages) {
+		this.messages = messages;
+	}
+
+	public MessageBatchRequest withMessages(final List<MessageBatchItem> messages) {
+		this.messages = messages;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MessageBatchRequest that = (MessageBatchRequest) o;
+		return Objects.equals(messages, that.messages);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(messages);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageBatchRequest{" +
+			"messages=" + messages +
+			'}';
+	}
+}
@@ -0,0 +1,51 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "Result of a batch of messages, with one result per message in the order of the request.")
+public class MessageBatchResponse {
+
+	@ArraySchema(schema = @Schema(implementation = MessageBatchResult.class, description = "The results, in the order of the messages in the request."))
+	private List<MessageBatchResult> results;
+
+	public static MessageBatchResponse create() {
+		return new MessageBatchResponse();
+	}
+
+	public List<MessageBatchResult> getResults() {
+		return results;
+	}
+
+	public void setResults(final List<MessageBatchResult> results) {
+		this.results = results;
+	}
+
+	public MessageBatchResponse withResults(final List<MessageBatchResult> results) {
+		this.results = results;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MessageBatchResponse that = (MessageBatchResponse) o;
+		return Objects.equals(results, that.results);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(results);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageBatchResponse{" +
+			"results=" + results +
+			'}';
+	}
+}
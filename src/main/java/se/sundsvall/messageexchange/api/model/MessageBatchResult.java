@@ -0,0 +1,117 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Objects;
+
+@Schema(description = "Result of creating a single message in a batch.")
+public class MessageBatchResult {
+
+	@Schema(description = "The id of the conversation the message was posted to.", examples = "b82bd8ac-1507-4d9a-958d-369261eecc15")
+	private String conversationId;
+
+	@Schema(description = "The id of the created message. Only present when the message was created.", examples = "7f77f9fd-d01d-4742-974a-714b911e3496")
+	private String messageId;
+
+	@Schema(description = "The sequence number of the created message in the conversation. Only present when the message was created.", examples = "1")
+	private Long sequenceNumber;
+
+	@Schema(description = "HTTP status describing the outcome for the message, 201 when it was created or 404 when the conversation does not exist.", examples = "201")
+	private Integer status;
+
+	@Schema(description = "Description of why the message was not created. Only present when the message was not created.", examples = "Conversation with id b82bd8ac-1507-4d9a-958d-369261eecc15 not found")
+	private String detail;
+
+	public static MessageBatchResult create() {
+		return new MessageBatchResult();
+	}
+
+	public String getConversationId() {
+		return conversationId;
+	}
+
+	public void setConversationId(final String conversationId) {
+		this.conversationId = conversationId;
+	}
+
+	public MessageBatchResult withConversationId(final String conversationId) {
+		this.conversationId = conversationId;
+		return this;
+	}
+
+	public String getMessageId() {
+		return messageId;
+	}
+
+	public void setMessageId(final String messageId) {
+		this.messageId = messageId;
+	}
+
+	public MessageBatchResult withMessageId(final String messageId) {
+		this.messageId = messageId;
+		return this;
+	}
+
+	public Long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public void setSequenceNumber(final Long sequenceNumber) {
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	public MessageBatchResult withSequenceNumber(final Long sequenceNumber) {
+		this.sequenceNumber = sequenceNumber;
+		return this;
+	}
+
+	public Integer getStatus() {
+		return status;
+	}
+
+	public void setStatus(final Integer status) {
+		this.status = status;
+	}
+
+	public MessageBatchResult withStatus(final Integer status) {
+		this.status = status;
+		return this;
+	}
+
+	public String getDetail() {
+		return detail;
+	}
+
+	public void setDetail(final String detail) {
+		this.detail = detail;
+	}
+
+	public MessageBatchResult withDetail(final String detail) {
+		this.detail = detail;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MessageBatchResult that = (MessageBatchResult) o;
+		return Objects.equals(conversationId, that.conversationId) && Objects.equals(messageId, that.messageId) && Objects.equals(sequenceNumber, that.sequenceNumber) && Objects.equals(status, that.status) && Objects.equals(detail, that.detail);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(conversationId, messageId, sequenceNumber, status, detail);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageBatchResult{" +
+			"conversationId='" + conversationId + '\'' +
+			", messageId='" + messageId + '\'' +
+			", sequenceNumber=" + sequenceNumber +
+			", status=" + status +
+			", detail='" + detail + '\'' +
+			'}';
+	}
+}
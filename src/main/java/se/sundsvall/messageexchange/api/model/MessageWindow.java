@@ -0,0 +1,103 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "A window of messages in a conversation, selected by sequence number rather than by page offset.")
+public class MessageWindow {
+
+	@ArraySchema(schema = @Schema(implementation = Message.class, description = "The messages in the window, ordered by sequence number in the requested direction."))
+	private List<Message> content;
+
+	@Schema(description = "The maximum number of messages requested for the window.", examples = "50", accessMode = Schema.AccessMode.READ_ONLY)
+	private Integer limit;
+
+	@Schema(description = "Whether there are more messages beyond this window in the requested direction.", examples = "true", accessMode = Schema.AccessMode.READ_ONLY)
+	private Boolean hasNext;
+
+	@Schema(description = "Opaque cursor to pass as the cursor parameter to fetch the next window. Only present when hasNext is true.", examples = "QUZURVI6MTIz",
+		accessMode = Schema.AccessMode.READ_ONLY)
+	private String nextCursor;
+
+	public static MessageWindow create() {
+		return new MessageWindow();
+	}
+
+	public List<Message> getContent() {
+		return content;
+	}
+
+	public void setContent(final List<Message> content) {
+		this.content = content;
+	}
+
+	public MessageWindow withContent(final List<Message> content) {
+		this.content = content;
+		return this;
+	}
+
+	public Integer getLimit() {
+		return limit;
+	}
+
+	public void setLimit(final Integer limit) {
+		this.limit = limit;
+	}
+
+	public MessageWindow withLimit(final Integer limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(final Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	public MessageWindow withHasNext(final Boolean hasNext) {
+		this.hasNext = hasNext;
+		return this;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(final String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public MessageWindow withNextCursor(final String nextCursor) {
+		this.nextCursor = nextCursor;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MessageWindow that = (MessageWindow) o;
+		return Objects.equals(content, that.content) && Objects.equals(limit, that.limit) && Objects.equals(hasNext, that.hasNext) && Objects.equals(nextCursor, that.nextCursor);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(content, limit, hasNext, nextCursor);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageWindow{" +
+			"content=" + content +
+			", limit=" + limit +
+			", hasNext=" + hasNext +
+			", nextCursor='" + nextCursor + '\'' +
+			'}';
+	}
+}
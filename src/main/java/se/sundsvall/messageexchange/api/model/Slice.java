@@ -0,0 +1,102 @@
+package se.sundsvall.messageexchange.api.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "A slice of elements. Unlike a page it holds no totals, so no count query is needed to produce it.")
+public class Slice<T> {
+
+	@ArraySchema(arraySchema = @Schema(description = "The elements in the slice."))
+	private List<T> content;
+
+	@Schema(description = "Zero-based index of the slice.", examples = "0", accessMode = Schema.AccessMode.READ_ONLY)
+	private Integer number;
+
+	@Schema(description = "The requested size of the slice.", examples = "20", accessMode = Schema.AccessMode.READ_ONLY)
+	private Integer size;
+
+	@Schema(description = "Whether there is a next slice.", examples = "true", accessMode = Schema.AccessMode.READ_ONLY)
+	private Boolean hasNext;
+
+	public static <T> Slice<T> create() {
+		return new Slice<>();
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(final List<T> content) {
+		this.content = content;
+	}
+
+	public Slice<T> withContent(final List<T> content) {
+		this.content = content;
+		return this;
+	}
+
+	public Integer getNumber() {
+		return number;
+	}
+
+	public void setNumber(final Integer number) {
+		this.number = number;
+	}
+
+	public Slice<T> withNumber(final Integer number) {
+		this.number = number;
+		return this;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(final Integer size) {
+		this.size = size;
+	}
+
+	public Slice<T> withSize(final Integer size) {
+		this.size = size;
+		return this;
+	}
+
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(final Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	public Slice<T> withHasNext(final Boolean hasNext) {
+		this.hasNext = hasNext;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final Slice<?> that = (Slice<?>) o;
+		return Objects.equals(content, that.content) && Objects.equals(number, that.number) && Objects.equals(size, that.size) && Objects.equals(hasNext, that.hasNext);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(content, number, size, hasNext);
+	}
+
+	@Override
+	public String toString() {
+		return "Slice{" +
+			"content=" + content +
+			", number=" + number +
+			", size=" + size +
+			", hasNext=" + hasNext +
+			'}';
+	}
+}
@@ -7,8 +7,11 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import se.sundsvall.messageexchange.api.validation.impl.MarkAsReadRequestValidator;
+import se.sundsvall.messageexchange.api.validation.impl.MarkAsReadUpToRequestValidator;
 
-@Constraint(validatedBy = MarkAsReadRequestValidator.class)
+@Constraint(validatedBy = {
+	MarkAsReadRequestValidator.class, MarkAsReadUpToRequestValidator.class
+})
 @Target({
 	ElementType.TYPE
 })
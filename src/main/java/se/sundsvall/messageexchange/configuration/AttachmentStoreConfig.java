@@ -0,0 +1,9 @@
+package se.sundsvall.messageexchange.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AttachmentStoreProperties.class)
+public class AttachmentStoreConfig {
+}
@@ -0,0 +1,53 @@
+package se.sundsvall.messageexchange.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+
+/**
+ * Storage of attachment content.
+ *
+ * @param defaultStorage the storage of namespaces without a storage of their own
+ * @param namespaces     the storage per namespace
+ * @param fileSystem     the settings of the file system storage, required when any namespace is stored on the file
+ *                       system
+ * @param migration      the settings of the migration of content from the database to the file system
+ */
+@ConfigurationProperties(prefix = "attachment-store")
+public record AttachmentStoreProperties(
+	@DefaultValue("DATABASE") StorageType defaultStorage,
+	Map<String, StorageType> namespaces,
+	FileSystem fileSystem,
+	@DefaultValue Migration migration) {
+
+	public AttachmentStoreProperties {
+		namespaces = namespaces == null ? Map.of() : Map.copyOf(namespaces);
+	}
+
+	/**
+	 * Returns the storage of new attachment content in a namespace.
+	 *
+	 * @param  namespace the namespace
+	 * @return           the storage of the namespace
+	 */
+	public StorageType storageOf(final String namespace) {
+		return namespaces.getOrDefault(namespace, defaultStorage);
+	}
+
+	/**
+	 * @param root       the directory under which the files are stored
+	 * @param shardDepth the number of directory levels, named after two characters of the hash each, above every file
+	 */
+	public record FileSystem(Path root, @DefaultValue("2") int shardDepth) {
+	}
+
+	/**
+	 * @param batchSize           the number of files moved between each pause
+	 * @param pauseBetweenBatches the pause after each batch, to throttle the load on the database
+	 */
+	public record Migration(@DefaultValue("10") int batchSize, @DefaultValue("PT1S") Duration pauseBetweenBatches) {
+	}
+}
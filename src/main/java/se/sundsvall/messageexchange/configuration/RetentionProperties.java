@@ -0,0 +1,25 @@
+package se.sundsvall.messageexchange.configuration;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Retention policy of conversations and messages.
+ *
+ * @param batchSize           the maximum number of messages deleted per transaction
+ * @param pauseBetweenBatches the pause after each batch of deleted messages, to throttle the load on the database
+ * @param namespaces          the retention period per namespace. Namespaces without a period are retained indefinitely
+ */
+@ConfigurationProperties(prefix = "retention")
+public record RetentionProperties(
+	@DefaultValue("500") int batchSize,
+	@DefaultValue("PT0.1S") Duration pauseBetweenBatches,
+	Map<String, Period> namespaces) {
+
+	public RetentionProperties {
+		namespaces = namespaces == null ? Map.of() : Map.copyOf(namespaces);
+	}
+}
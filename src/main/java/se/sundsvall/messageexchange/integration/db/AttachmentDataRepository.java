@@ -0,0 +1,132 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+
+/**
+ * Attachment data is content addressed by the SHA-256 hash and size of the file, and shared by every attachment with
+ * the same content. The reference count of a row is the number of attachments pointing to it, and a row is only deleted
+ * when no attachment references it anymore. None of the queries read the file itself.
+ */
+@CircuitBreaker(name = "attachmentDataRepository")
+public interface AttachmentDataRepository extends JpaRepository<AttachmentDataEntity, String> {
+
+	/**
+	 * Finds the attachment data with any of the given hashes that is still referenced. The rows are locked until the end
+	 * of the transaction, so that they are not deleted before the new references have been added.
+	 *
+	 * @param  hashes the SHA-256 hashes of the content
+	 * @return        the matching attachment data, ordered by id
+	 */
+	@Query(nativeQuery = true, value = """
+		select id, hash, file_size as fileSize from attachment_data
+		where hash in (:hashes) and file_size is not null and reference_count > 0
+		order by id
+		for update
+		""")
+	List<StoredContent> findByHashesForUpdate(@Param("hashes") Collection<String> hashes);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "update attachment_data set reference_count = reference_count + :count where id in (:ids)")
+	int incrementReferenceCounts(@Param("ids") Collection<String> ids, @Param("count") int count);
+
+	/**
+	 * Recounts the references of attachment data from the attachments pointing to it. Must be called after attachments
+	 * have been deleted or moved, and before {@link #deleteUnreferenced(Collection)}.
+	 *
+	 * @param  ids the ids of the attachment data
+	 * @return     the number of updated rows
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		update attachment_data d
+		set d.reference_count = (select count(*) from attachment a where a.attachment_data_id = d.id)
+		where d.id in (:ids)
+		""")
+	int updateReferenceCounts(@Param("ids") Collection<String> ids);
+
+	@Query(nativeQuery = true, value = "select distinct hash from attachment_data where id in (:ids) and reference_count = 0 and storage = :storage")
+	List<String> findUnreferencedHashes(@Param("ids") Collection<String> ids, @Param("storage") String storage);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from attachment_data where id in (:ids) and reference_count = 0")
+	int deleteUnreferenced(@Param("ids") Collection<String> ids);
+
+	/**
+	 * Counts the attachment data with the given hash and storage. All rows with the hash are locked until the end of the
+	 * transaction, and when there are none, so is the gap in the hash index where they would be inserted.
+	 *
+	 * @param  hash    the SHA-256 hash of the content
+	 * @param  storage the storage
+	 * @return         the number of matching rows
+	 */
+	@Query(nativeQuery = true, value = "select count(*) from attachment_data where hash = :hash and storage = :storage for update")
+	long countByHashAndStorageForUpdate(@Param("hash") String hash, @Param("storage") String storage);
+
+	@Query(nativeQuery = true, value = "select id from attachment_data where id = :id for update")
+	String lockById(@Param("id") String id);
+
+	/**
+	 * Finds attachment data with content in the database that is referenced from any of the given namespaces. Rows
+	 * without a hash are left until their hash has been backfilled, as content on the file system is addressed by it.
+	 *
+	 * @param  namespaces the namespaces
+	 * @param  afterId    the id after which to start, in id order
+	 * @param  limit      the maximum number of ids
+	 * @return            the ids of the attachment data, in id order
+	 */
+	@Query(nativeQuery = true, value = """
+		select distinct d.id from attachment_data d
+		join attachment a on a.attachment_data_id = d.id
+		join message m on m.id = a.message_id
+		join conversation c on c.id = m.conversation_id
+		where (d.storage is null or d.storage = 'DATABASE') and d.hash is not null and c.namespace in (:namespaces) and d.id > :afterId
+		order by d.id
+		limit :limit
+		""")
+	List<String> findIdsStoredInDatabase(@Param("namespaces") Collection<String> namespaces, @Param("afterId") String afterId, @Param("limit") int limit);
+
+	@Query(nativeQuery = true, value = """
+		select hash, file_size as fileSize from attachment_data
+		where hash is not null and file_size is not null
+		group by hash, file_size
+		having count(*) > 1
+		limit :limit
+		""")
+	List<DuplicateKey> findDuplicateKeys(@Param("limit") int limit);
+
+	@Query(nativeQuery = true, value = "select id from attachment_data where hash = :hash and file_size = :fileSize order by id")
+	List<String> findIdsByHashAndFileSize(@Param("hash") String hash, @Param("fileSize") int fileSize);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "update attachment set attachment_data_id = :targetId where attachment_data_id in (:ids)")
+	int moveAttachments(@Param("ids") Collection<String> ids, @Param("targetId") String targetId);
+
+	/**
+	 * Id and content of an attachment data row.
+	 */
+	interface StoredContent {
+
+		String getId();
+
+		String getHash();
+
+		Integer getFileSize();
+	}
+
+	/**
+	 * Hash and size shared by more than one attachment data row.
+	 */
+	interface DuplicateKey {
+
+		String getHash();
+
+		Integer getFileSize();
+	}
+}
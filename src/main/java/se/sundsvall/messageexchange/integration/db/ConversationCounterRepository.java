@@ -0,0 +1,118 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import se.sundsvall.messageexchange.integration.db.model.ConversationCounterEntity;
+
+@CircuitBreaker(name = "conversationCounterRepository")
+public interface ConversationCounterRepository extends JpaRepository<ConversationCounterEntity, String> {
+
+	@Query("""
+		select coalesce(sum(c.total), 0) from ConversationCounterEntity c
+		where c.conversation.id = :conversationId
+		and c.counterType = se.sundsvall.messageexchange.integration.db.model.CounterType.MESSAGES
+		and (:includeSystemMessages = true or c.messageType <> se.sundsvall.messageexchange.integration.db.model.MessageType.SYSTEM_CREATED)
+		""")
+	long countMessages(@Param("conversationId") String conversationId, @Param("includeSystemMessages") boolean includeSystemMessages);
+
+	@Query("""
+		select i.type as type, i.value as value, sum(c.total) as count from ConversationCounterEntity c
+		join IdentifierEntity i on i.id = c.counterKey
+		where c.conversation.id = :conversationId
+		and c.counterType = se.sundsvall.messageexchange.integration.db.model.CounterType.READ_BY
+		and (:includeSystemMessages = true or c.messageType <> se.sundsvall.messageexchange.integration.db.model.MessageType.SYSTEM_CREATED)
+		group by i.type, i.value
+		having sum(c.total) > 0
+		""")
+	List<ReadByCountProjection> countReadByGroupedByIdentifier(@Param("conversationId") String conversationId, @Param("includeSystemMessages") boolean includeSystemMessages);
+
+	@Query("""
+		select c.counterKey as part, sum(c.total) as count from ConversationCounterEntity c
+		where c.conversation.id = :conversationId
+		and c.counterType = se.sundsvall.messageexchange.integration.db.model.CounterType.READ_BY_PART
+		and (:includeSystemMessages = true or c.messageType <> se.sundsvall.messageexchange.integration.db.model.MessageType.SYSTEM_CREATED)
+		group by c.counterKey
+		having sum(c.total) > 0
+		""")
+	List<ReadByPartCountProjection> countReadByGroupedByPart(@Param("conversationId") String conversationId, @Param("includeSystemMessages") boolean includeSystemMessages);
+
+	/**
+	 * Adds a delta to a counter, creating the counter if it does not exist. A counter never goes below zero.
+	 *
+	 * @param  conversationId the id of the conversation
+	 * @param  messageType    the type of the counted messages
+	 * @param  counterType    the type of the counter
+	 * @param  counterKey     the identifier id or part of a read by counter, or an empty string for a message counter
+	 * @param  delta          the value to add, negative to subtract
+	 * @return                the number of affected rows
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+		values (uuid(), :conversationId, :messageType, :counterType, :counterKey, greatest(:delta, 0))
+		on duplicate key update total = greatest(total + :delta, 0)
+		""")
+	int increment(@Param("conversationId") String conversationId, @Param("messageType") String messageType, @Param("counterType") String counterType,
+		@Param("counterKey") String counterKey, @Param("delta") long delta);
+
+	/**
+	 * Counts a set of messages onto the read by counters of an identifier. Must be executed with the message ids returned
+	 * by {@link MessageRepository#insertMissingReadBy}, so that only the read receipts that were actually inserted are
+	 * counted.
+	 *
+	 * @param  messageIds   the ids of the messages that read receipts were inserted for
+	 * @param  identifierId the id of the identifier that has read the messages
+	 * @return              the number of affected rows
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+		select uuid(), m.conversation_id, m.type, 'READ_BY', :identifierId, count(*) from message m
+		where m.id in (:messageIds)
+		group by m.conversation_id, m.type
+		on duplicate key update total = total + values(total)
+		""")
+	int incrementReadBy(@Param("messageIds") Collection<String> messageIds, @Param("identifierId") String identifierId);
+
+	/*
+	 * The statements below rebuild the counters of a conversation from the messages and read receipts, and are used by
+	 * the reconciliation job.
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from conversation_counter where conversation_id = :conversationId")
+	int deleteByConversation(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+		select uuid(), m.conversation_id, m.type, 'MESSAGES', '', count(*) from message m
+		where m.conversation_id = :conversationId
+		group by m.conversation_id, m.type
+		""")
+	int insertMessageCounters(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+		select uuid(), m.conversation_id, m.type, 'READ_BY', r.identifier_id, count(*) from message m
+		join message_read_by r on r.message_id = m.id
+		where m.conversation_id = :conversationId
+		group by m.conversation_id, m.type, r.identifier_id
+		""")
+	int insertReadByCounters(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+		select uuid(), m.conversation_id, m.type, 'READ_BY_PART', rp.part, count(*) from message m
+		join message_read_by_part rp on rp.message_id = m.id
+		where m.conversation_id = :conversationId
+		group by m.conversation_id, m.type, rp.part
+		""")
+	int insertReadByPartCounters(@Param("conversationId") String conversationId);
+}
@@ -0,0 +1,91 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+
+/**
+ * Set based deletes used to purge deleted conversations and messages past their retention. The queries bypass the
+ * entity model, as deleted conversations are excluded from all queries on {@link ConversationEntity}, and are meant to be
+ * run in bounded batches, children before parents, within a transaction managed by the caller. Attachment data is
+ * shared between attachments and released through {@link AttachmentDataRepository}.
+ */
+@CircuitBreaker(name = "conversationPurgeRepository")
+public interface ConversationPurgeRepository extends Repository<ConversationEntity, String> {
+
+	@Query(nativeQuery = true, value = "select id from conversation where deleted_at is not null order by deleted_at, id limit :limit")
+	List<String> findDeletedConversationIds(@Param("limit") int limit);
+
+	@Query(nativeQuery = true, value = "select id from message where conversation_id = :conversationId limit :limit")
+	List<String> findMessageIds(@Param("conversationId") String conversationId, @Param("limit") int limit);
+
+	@Query(nativeQuery = true, value = """
+		select id from message
+		where conversation_id = :conversationId and created < :createdBefore
+		order by created, id
+		limit :limit
+		""")
+	List<String> findMessageIdsCreatedBefore(@Param("conversationId") String conversationId, @Param("createdBefore") OffsetDateTime createdBefore, @Param("limit") int limit);
+
+	@Query(nativeQuery = true, value = "select attachment_data_id from attachment where message_id in (:messageIds)")
+	List<String> findAttachmentDataIds(@Param("messageIds") Collection<String> messageIds);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from message_read_by where message_id in (:messageIds)")
+	int deleteReadBy(@Param("messageIds") Collection<String> messageIds);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from message_read_by_part where message_id in (:messageIds)")
+	int deleteReadByPart(@Param("messageIds") Collection<String> messageIds);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from attachment where message_id in (:messageIds)")
+	int deleteAttachments(@Param("messageIds") Collection<String> messageIds);
+
+	/**
+	 * Deletes messages. Idempotency keys of the messages are removed by the database, through the foreign key.
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from message where id in (:messageIds)")
+	int deleteMessages(@Param("messageIds") Collection<String> messageIds);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from conversation_participants where conversation_id = :conversationId")
+	int deleteParticipants(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		delete from conversation_metadata_values
+		where conversation_metadata_id in (select id from conversation_metadata where conversation_id = :conversationId)
+		""")
+	int deleteMetadataValues(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from conversation_metadata where conversation_id = :conversationId")
+	int deleteMetadata(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		delete from conversation_external_reference_values
+		where conversation_external_reference_id in (select id from conversation_external_reference where conversation_id = :conversationId)
+		""")
+	int deleteExternalReferenceValues(@Param("conversationId") String conversationId);
+
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from conversation_external_reference where conversation_id = :conversationId")
+	int deleteExternalReferences(@Param("conversationId") String conversationId);
+
+	/**
+	 * Deletes a deleted conversation. Counters and read markers of the conversation are removed by the database, through
+	 * the foreign keys.
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = "delete from conversation where id = :conversationId and deleted_at is not null")
+	int deleteConversation(@Param("conversationId") String conversationId);
+}
@@ -1,13 +1,90 @@
 package se.sundsvall.messageexchange.integration.db;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 
 @CircuitBreaker(name = "conversationRepository")
 public interface ConversationRepository extends JpaRepository<ConversationEntity, String>, JpaSpecificationExecutor<ConversationEntity> {
 
 	Optional<ConversationEntity> findByNamespaceAndMunicipalityIdAndId(String namespace, String municipalityId, String id);
+
+	List<ConversationEntity> findByNamespaceAndMunicipalityIdAndIdIn(String namespace, String municipalityId, Collection<String> ids);
+
+	boolean existsByNamespaceAndMunicipalityIdAndId(String namespace, String municipalityId, String id);
+
+	@Query("select c.id from ConversationEntity c where c.id > :afterId order by c.id")
+	List<String> findIdsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+	@Query("select distinct c.namespace from ConversationEntity c")
+	List<String> findNamespaces();
+
+	@Query("select c.id from ConversationEntity c where c.namespace = :namespace and c.id > :afterId order by c.id")
+	List<String> findIdsByNamespaceAfter(@Param("namespace") String namespace, @Param("afterId") String afterId, Pageable pageable);
+
+	/**
+	 * Moves the denormalized latest sequence number and last activity timestamp of a conversation forward. The update is
+	 * monotonic, i.e. a lower sequence number than the one already stored is ignored, which makes it safe for concurrent
+	 * message creation.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("""
+		update ConversationEntity c
+		set c.latestSequenceNumber = :sequenceNumber, c.lastActivityAt = :activityAt
+		where c.id = :conversationId
+		and (c.latestSequenceNumber is null or c.latestSequenceNumber < :sequenceNumber)
+		""")
+	int updateLatestSequenceNumber(@Param("conversationId") String conversationId, @Param("sequenceNumber") long sequenceNumber, @Param("activityAt") OffsetDateTime activityAt);
+
+	/**
+	 * Allocates the next message sequence number of a conversation by incrementing the last allocated number. The
+	 * conversation row stays locked until the surrounding transaction completes, and the new number is read with
+	 * {@link #findLastSequenceNumber(String)} within the same transaction.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("""
+		update ConversationEntity c
+		set c.lastSequenceNumber = coalesce(c.lastSequenceNumber, 0) + 1
+		where c.id = :conversationId
+		""")
+	int incrementLastSequenceNumber(@Param("conversationId") String conversationId);
+
+	/**
+	 * Marks a conversation as deleted, which excludes it from all queries on the entity. The conversation and its messages
+	 * are removed later by the purge of deleted conversations.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update ConversationEntity c set c.deletedAt = :deletedAt where c.id = :conversationId")
+	int markDeleted(@Param("conversationId") String conversationId, @Param("deletedAt") OffsetDateTime deletedAt);
+
+	/**
+	 * Marks the conversations in a namespace without any activity since a point in time as deleted. A conversation without
+	 * a stored last activity timestamp falls back to the creation time of its oldest message.
+	 */
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		update conversation c
+		set c.deleted_at = :deletedAt
+		where c.namespace = :namespace
+		and c.deleted_at is null
+		and coalesce(c.last_activity_at, (select min(m.created) from message m where m.conversation_id = c.id)) < :lastActivityBefore
+		""")
+	int markInactiveDeleted(@Param("namespace") String namespace, @Param("lastActivityBefore") OffsetDateTime lastActivityBefore, @Param("deletedAt") OffsetDateTime deletedAt);
+
+	@Query("select c.lastSequenceNumber from ConversationEntity c where c.id = :conversationId")
+	Optional<Long> findLastSequenceNumber(@Param("conversationId") String conversationId);
 }
@@ -0,0 +1,40 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messageexchange.integration.db.model.IdempotencyKeyEntity;
+
+@CircuitBreaker(name = "idempotencyKeyRepository")
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+	@Query("select k.message.id from IdempotencyKeyEntity k where k.id = :id")
+	Optional<String> findMessageId(@Param("id") String id);
+
+	/**
+	 * Stores an idempotency key for a message. The insert fails with a duplicate key error if the key is already stored,
+	 * which happens when the same key is used by concurrent requests.
+	 *
+	 * @param  id        the id of the idempotency key
+	 * @param  messageId the id of the message created with the key
+	 * @param  created   the time the key was stored
+	 * @return           the number of inserted rows
+	 */
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into message_idempotency_key (id, message_id, created)
+		values (:id, :messageId, :created)
+		""")
+	int insert(@Param("id") String id, @Param("messageId") String messageId, @Param("created") OffsetDateTime created);
+
+	@Transactional
+	@Modifying
+	@Query("delete from IdempotencyKeyEntity k where k.created <= :createdBefore")
+	int deleteByCreatedBefore(@Param("createdBefore") OffsetDateTime createdBefore);
+}
@@ -0,0 +1,20 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import org.hibernate.Interceptor;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+
+/**
+ * Tells Hibernate that an identifier with an id is never transient. Identifiers are written to the dictionary by
+ * {@link se.sundsvall.messageexchange.service.IdentifierResolver} before they are referenced, so Hibernate does not
+ * have to select the row to find out whether a detached identifier has been saved.
+ */
+public class IdentifierInterceptor implements Interceptor {
+
+	@Override
+	public Boolean isTransient(final Object entity) {
+		if (entity instanceof final IdentifierEntity identifier && identifier.getId() != null) {
+			return Boolean.FALSE;
+		}
+		return null;
+	}
+}
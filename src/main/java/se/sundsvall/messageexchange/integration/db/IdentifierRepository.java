@@ -0,0 +1,29 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+
+@CircuitBreaker(name = "identifierRepository")
+public interface IdentifierRepository extends JpaRepository<IdentifierEntity, String> {
+
+	/**
+	 * Adds an identifier to the identifier dictionary, unless it is already present.
+	 *
+	 * @param  id    the id of the identifier, derived from the type and value
+	 * @param  type  the type of the identifier
+	 * @param  value the value of the identifier
+	 * @return       the number of inserted rows
+	 */
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert ignore into identifier (id, type, value)
+		values (:id, :type, :value)
+		""")
+	int insertIgnore(@Param("id") String id, @Param("type") String type, @Param("value") String value);
+}
@@ -0,0 +1,16 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection holding the metadata of an attachment belonging to a specific message, without the attachment data.
+ */
+public record MessageAttachmentProjection(
+	String messageId,
+	String id,
+	String fileName,
+	int fileSize,
+	String mimeType,
+	String hash,
+	OffsetDateTime created) {
+}
@@ -0,0 +1,18 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import java.time.OffsetDateTime;
+import se.sundsvall.messageexchange.integration.db.model.MessageType;
+
+/**
+ * Projection holding the scalar values of a message, read without hydrating the message entity.
+ */
+public record MessageProjection(
+	String id,
+	Long sequenceNumber,
+	String inReplyToMessageId,
+	OffsetDateTime created,
+	String createdByType,
+	String createdByValue,
+	String content,
+	MessageType type) {
+}
@@ -0,0 +1,112 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.JoinType;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+
+/**
+ * Executes specification queries for messages that select the scalar values of each message into a
+ * {@link MessageProjection}. No message entities are hydrated, which means that nothing is added to the persistence
+ * context and nothing has to be dirty checked.
+ */
+@Component
+@CircuitBreaker(name = "messageProjectionQueryExecutor")
+public class MessageProjectionQueryExecutor {
+
+	private final EntityManager entityManager;
+
+	public MessageProjectionQueryExecutor(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	public Page<MessageProjection> findPage(final Specification<MessageEntity> specification, final Pageable pageable) {
+		final var typedQuery = createQuery(specification, pageable.getSort());
+		if (pageable.isPaged()) {
+			typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+			typedQuery.setMaxResults(pageable.getPageSize());
+		}
+
+		return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(specification));
+	}
+
+	/**
+	 * Finds a slice of messages by fetching one row more than the requested page size, so that no count query is needed.
+	 */
+	public Slice<MessageProjection> findSlice(final Specification<MessageEntity> specification, final Pageable pageable) {
+		final var typedQuery = createQuery(specification, pageable.getSort());
+		if (pageable.isUnpaged()) {
+			return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+		}
+
+		typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+		typedQuery.setMaxResults(pageable.getPageSize() + 1);
+
+		final var content = typedQuery.getResultList();
+		final var hasNext = content.size() > pageable.getPageSize();
+
+		return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+	}
+
+	/**
+	 * Finds the first messages in the given order, e.g. a keyset window of messages.
+	 */
+	public List<MessageProjection> findFirst(final Specification<MessageEntity> specification, final Sort sort, final int limit) {
+		return createQuery(specification, sort)
+			.setMaxResults(limit)
+			.getResultList();
+	}
+
+	private TypedQuery<MessageProjection> createQuery(final Specification<MessageEntity> specification, final Sort sort) {
+		final var criteriaBuilder = entityManager.getCriteriaBuilder();
+		final var query = criteriaBuilder.createQuery(MessageProjection.class);
+		final var root = query.from(MessageEntity.class);
+		final var createdBy = root.<MessageEntity, IdentifierEntity>join("createdBy", JoinType.LEFT);
+
+		final var predicate = specification.toPredicate(root, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.select(criteriaBuilder.construct(MessageProjection.class,
+			root.get("id"),
+			root.get("sequenceNumber"),
+			root.get("inReplyToMessageId"),
+			root.get("created"),
+			createdBy.get("type"),
+			createdBy.get("value"),
+			root.get("content"),
+			root.get("type")));
+
+		if (sort.isSorted()) {
+			query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+		}
+
+		return entityManager.createQuery(query);
+	}
+
+	private long count(final Specification<MessageEntity> specification) {
+		final var criteriaBuilder = entityManager.getCriteriaBuilder();
+		final var query = criteriaBuilder.createQuery(Long.class);
+		final var root = query.from(MessageEntity.class);
+
+		final var predicate = specification.toPredicate(root, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.select(query.isDistinct() ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root));
+
+		return entityManager.createQuery(query).getSingleResult();
+	}
+}
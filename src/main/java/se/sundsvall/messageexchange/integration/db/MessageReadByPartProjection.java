@@ -0,0 +1,12 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection holding a part that has read a specific message.
+ */
+public record MessageReadByPartProjection(
+	String messageId,
+	String part,
+	OffsetDateTime readAt) {
+}
@@ -0,0 +1,13 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection holding an identifier (type + value) that has read a specific message.
+ */
+public record MessageReadByProjection(
+	String messageId,
+	String type,
+	String value,
+	OffsetDateTime readAt) {
+}
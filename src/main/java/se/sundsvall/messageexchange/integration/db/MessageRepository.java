@@ -1,49 +1,63 @@
 package se.sundsvall.messageexchange.integration.db;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
 
 @CircuitBreaker(name = "messageRepository")
 public interface MessageRepository extends JpaRepository<MessageEntity, String>, JpaSpecificationExecutor<MessageEntity> {
 
-	Page<MessageEntity> findByConversation(ConversationEntity conversation, Pageable pageable);
-
-	Optional<MessageEntity> findTopByConversationIdOrderBySequenceNumberDesc(String conversationId);
-
 	List<MessageEntity> findByConversationIdAndIdIn(String conversationId, Collection<String> ids);
 
-	@Query("""
-		select count(m) from MessageEntity m
-		where m.conversation.id = :conversationId
-		and (:includeSystemMessages = true or m.type <> se.sundsvall.messageexchange.integration.db.model.MessageType.SYSTEM_CREATED)
-		""")
-	long countMessages(@Param("conversationId") String conversationId, @Param("includeSystemMessages") boolean includeSystemMessages);
+	Optional<MessageEntity> findByIdAndConversationId(String id, String conversationId);
 
 	@Query("""
-		select r.identifier.type as type, r.identifier.value as value, count(m) as count from MessageEntity m
+		select new se.sundsvall.messageexchange.integration.db.MessageReadByProjection(m.id, i.type, i.value, r.readAt) from MessageEntity m
 		join m.readBy r
-		where m.conversation.id = :conversationId
-		and (:includeSystemMessages = true or m.type <> se.sundsvall.messageexchange.integration.db.model.MessageType.SYSTEM_CREATED)
-		group by r.identifier.type, r.identifier.value
+		join r.identifier i
+		where m.id in :ids
 		""")
-	List<ReadByCountProjection> countReadByGroupedByIdentifier(@Param("conversationId") String conversationId, @Param("includeSystemMessages") boolean includeSystemMessages);
+	List<MessageReadByProjection> findReadByProjections(@Param("ids") Collection<String> ids);
 
 	@Query("""
-		select rp.part as part, count(m) as count from MessageEntity m
+		select new se.sundsvall.messageexchange.integration.db.MessageReadByPartProjection(m.id, rp.part, rp.readAt) from MessageEntity m
 		join m.readByPart rp
-		where m.conversation.id = :conversationId
-		and (:includeSystemMessages = true or m.type <> se.sundsvall.messageexchange.integration.db.model.MessageType.SYSTEM_CREATED)
-		group by rp.part
+		where m.id in :ids
+		""")
+	List<MessageReadByPartProjection> findReadByPartProjections(@Param("ids") Collection<String> ids);
+
+	@Query("""
+		select new se.sundsvall.messageexchange.integration.db.MessageAttachmentProjection(a.messageEntity.id, a.id, a.fileName, a.fileSize, a.mimeType, a.hash, a.created) from AttachmentEntity a
+		where a.messageEntity.id in :ids
+		""")
+	List<MessageAttachmentProjection> findAttachmentProjections(@Param("ids") Collection<String> ids);
+
+	/**
+	 * Marks a set of messages as read by an identifier in the identifier dictionary. Messages already read by the
+	 * identifier are excluded by an anti-join, and the unique constraint on message id and identifier id makes the insert
+	 * ignore receipts written concurrently. The ids of the messages that receipts were actually inserted for are returned
+	 * by the insert itself.
+	 *
+	 * @param  messageIds   the ids of the messages that have been read
+	 * @param  identifierId the id of the identifier that has read the messages
+	 * @param  readAt       the time when the messages were read
+	 * @return              the ids of the messages that receipts were inserted for
+	 */
+	@Query(nativeQuery = true, value = """
+		insert ignore into message_read_by (id, identifier_id, message_id, read_at)
+		select uuid(), :identifierId, m.id, :readAt from message m
+		where m.id in (:messageIds)
+		and not exists (
+			select 1 from message_read_by r
+			where r.message_id = m.id and r.identifier_id = :identifierId)
+		returning message_id
 		""")
-	List<ReadByPartCountProjection> countReadByGroupedByPart(@Param("conversationId") String conversationId, @Param("includeSystemMessages") boolean includeSystemMessages);
+	List<String> insertMissingReadBy(@Param("messageIds") Collection<String> messageIds, @Param("identifierId") String identifierId, @Param("readAt") LocalDateTime readAt);
 }
@@ -0,0 +1,45 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import se.sundsvall.messageexchange.integration.db.model.ReadMarkerEntity;
+
+@CircuitBreaker(name = "readMarkerRepository")
+public interface ReadMarkerRepository extends JpaRepository<ReadMarkerEntity, String> {
+
+	/**
+	 * Reads the read markers of a conversation together with their identifiers.
+	 *
+	 * @param  conversationId the id of the conversation
+	 * @return                the read markers of the conversation
+	 */
+	@Query("select m from ReadMarkerEntity m left join fetch m.identifier where m.conversation.id = :conversationId")
+	List<ReadMarkerEntity> findByConversationId(@Param("conversationId") String conversationId);
+
+	/**
+	 * Creates the read marker for an identifier or a part in a conversation, or moves an existing marker forward. A marker
+	 * is never moved backwards, so marking an older sequence number as read leaves the marker untouched.
+	 *
+	 * @param  conversationId the id of the conversation
+	 * @param  identifierId   the id of the identifier in the identifier dictionary, or null for a part marker
+	 * @param  part           the part, or null for an identifier marker
+	 * @param  sequenceNumber the highest sequence number that has been read
+	 * @param  updated        the time when the marker is updated
+	 * @return                the number of affected rows
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+		insert into conversation_read_marker (id, conversation_id, identifier_id, part, sequence_number, updated)
+		values (uuid(), :conversationId, :identifierId, :part, :sequenceNumber, :updated)
+		on duplicate key update
+			updated = if(values(sequence_number) > sequence_number, values(updated), updated),
+			sequence_number = greatest(sequence_number, values(sequence_number))
+		""")
+	int upsertReadMarker(@Param("conversationId") String conversationId, @Param("identifierId") String identifierId, @Param("part") String part,
+		@Param("sequenceNumber") long sequenceNumber, @Param("updated") LocalDateTime updated);
+}
@@ -0,0 +1,54 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes specification queries that return a {@link Slice} instead of a page. A slice is produced by fetching one
+ * row more than the requested page size, which means that the count query a page requires is never executed.
+ */
+@Component
+@CircuitBreaker(name = "sliceQueryExecutor")
+public class SliceQueryExecutor {
+
+	private final EntityManager entityManager;
+
+	public SliceQueryExecutor(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	public <T> Slice<T> findSlice(final Class<T> domainClass, final Specification<T> specification, final Pageable pageable) {
+		final var criteriaBuilder = entityManager.getCriteriaBuilder();
+		final var query = criteriaBuilder.createQuery(domainClass);
+		final var root = query.from(domainClass);
+
+		final var predicate = specification.toPredicate(root, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.select(root);
+
+		if (pageable.getSort().isSorted()) {
+			query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+		}
+
+		final var typedQuery = entityManager.createQuery(query);
+		if (pageable.isUnpaged()) {
+			return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+		}
+
+		typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+		typedQuery.setMaxResults(pageable.getPageSize() + 1);
+
+		final var content = typedQuery.getResultList();
+		final var hasNext = content.size() > pageable.getPageSize();
+
+		return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+	}
+}
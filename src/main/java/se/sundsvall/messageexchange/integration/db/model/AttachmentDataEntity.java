@@ -2,7 +2,10 @@ package se.sundsvall.messageexchange.integration.db.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
 import java.sql.Blob;
@@ -10,7 +13,10 @@ import java.util.Objects;
 import org.hibernate.annotations.UuidGenerator;
 
 @Entity
-@Table(name = "attachment_data")
+@Table(name = "attachment_data",
+	indexes = {
+		@Index(name = "idx_attachment_data_hash_file_size", columnList = "hash, file_size")
+	})
 public class AttachmentDataEntity {
 
 	@Id
@@ -22,6 +28,19 @@ public class AttachmentDataEntity {
 	@Lob
 	private Blob file;
 
+	@Column(name = "hash", length = 64)
+	private String hash;
+
+	@Column(name = "file_size")
+	private Integer fileSize;
+
+	@Column(name = "reference_count")
+	private Integer referenceCount;
+
+	@Column(name = "storage", columnDefinition = "VARCHAR(15)")
+	@Enumerated(EnumType.STRING)
+	private StorageType storage;
+
 	public static AttachmentDataEntity create() {
 		return new AttachmentDataEntity();
 	}
@@ -52,6 +71,58 @@ public class AttachmentDataEntity {
 		return this;
 	}
 
+	public String getHash() {
+		return hash;
+	}
+
+	public void setHash(final String hash) {
+		this.hash = hash;
+	}
+
+	public AttachmentDataEntity withHash(final String hash) {
+		this.hash = hash;
+		return this;
+	}
+
+	public Integer getFileSize() {
+		return fileSize;
+	}
+
+	public void setFileSize(final Integer fileSize) {
+		this.fileSize = fileSize;
+	}
+
+	public AttachmentDataEntity withFileSize(final Integer fileSize) {
+		this.fileSize = fileSize;
+		return this;
+	}
+
+	public Integer getReferenceCount() {
+		return referenceCount;
+	}
+
+	public void setReferenceCount(final Integer referenceCount) {
+		this.referenceCount = referenceCount;
+	}
+
+	public AttachmentDataEntity withReferenceCount(final Integer referenceCount) {
+		this.referenceCount = referenceCount;
+		return this;
+	}
+
+	public StorageType getStorage() {
+		return storage;
+	}
+
+	public void setStorage(final StorageType storage) {
+		this.storage = storage;
+	}
+
+	public AttachmentDataEntity withStorage(final StorageType storage) {
+		this.storage = storage;
+		return this;
+	}
+
 	@Override
 	public boolean equals(final Object o) {
 		if (this == o) {
@@ -61,18 +132,23 @@ public class AttachmentDataEntity {
 			return false;
 		}
 		final AttachmentDataEntity that = (AttachmentDataEntity) o;
-		return Objects.equals(id, that.id) && Objects.equals(file, that.file);
+		return Objects.equals(id, that.id) && Objects.equals(file, that.file) && Objects.equals(hash, that.hash) && Objects.equals(fileSize, that.fileSize)
+			&& Objects.equals(referenceCount, that.referenceCount) && Objects.equals(storage, that.storage);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, file);
+		return Objects.hash(id, file, hash, fileSize, referenceCount, storage);
 	}
 
 	@Override
 	public String toString() {
 		return "AttachmentDataEntity{" + "id='" + id + '\''
 			+ ", file" + file
+			+ ", hash='" + hash + '\''
+			+ ", fileSize=" + fileSize
+			+ ", referenceCount=" + referenceCount
+			+ ", storage=" + storage
 			+ '}';
 	}
 }
@@ -0,0 +1,166 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.util.Objects;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UuidGenerator;
+
+import static jakarta.persistence.FetchType.LAZY;
+
+/**
+ * Incrementally maintained counter for the read by statistics of a conversation. There is one counter per conversation,
+ * message type and counter type, and for the read by counters also one per identifier (the counter key is the id of the
+ * identifier) or part (the counter key is the part). Message counters have an empty counter key.
+ */
+@Entity
+@Table(name = "conversation_counter",
+	uniqueConstraints = {
+		@UniqueConstraint(name = "uq_conversation_counter", columnNames = {
+			"conversation_id", "message_type", "counter_type", "counter_key"
+		})
+	})
+public class ConversationCounterEntity {
+
+	@Id
+	@UuidGenerator
+	@Column(name = "id")
+	private String id;
+
+	@ManyToOne(fetch = LAZY)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JoinColumn(name = "conversation_id", nullable = false, foreignKey = @ForeignKey(name = "fk_conversation_counter_conversation_id"))
+	private ConversationEntity conversation;
+
+	@Column(name = "message_type", columnDefinition = "VARCHAR(15)", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private MessageType messageType;
+
+	@Column(name = "counter_type", columnDefinition = "VARCHAR(15)", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private CounterType counterType;
+
+	@Column(name = "counter_key", nullable = false)
+	private String counterKey;
+
+	@Column(name = "total", nullable = false)
+	private Long total;
+
+	public static ConversationCounterEntity create() {
+		return new ConversationCounterEntity();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(final String id) {
+		this.id = id;
+	}
+
+	public ConversationCounterEntity withId(final String id) {
+		this.id = id;
+		return this;
+	}
+
+	public ConversationEntity getConversation() {
+		return conversation;
+	}
+
+	public void setConversation(final ConversationEntity conversation) {
+		this.conversation = conversation;
+	}
+
+	public ConversationCounterEntity withConversation(final ConversationEntity conversation) {
+		this.conversation = conversation;
+		return this;
+	}
+
+	public MessageType getMessageType() {
+		return messageType;
+	}
+
+	public void setMessageType(final MessageType messageType) {
+		this.messageType = messageType;
+	}
+
+	public ConversationCounterEntity withMessageType(final MessageType messageType) {
+		this.messageType = messageType;
+		return this;
+	}
+
+	public CounterType getCounterType() {
+		return counterType;
+	}
+
+	public void setCounterType(final CounterType counterType) {
+		this.counterType = counterType;
+	}
+
+	public ConversationCounterEntity withCounterType(final CounterType counterType) {
+		this.counterType = counterType;
+		return this;
+	}
+
+	public String getCounterKey() {
+		return counterKey;
+	}
+
+	public void setCounterKey(final String counterKey) {
+		this.counterKey = counterKey;
+	}
+
+	public ConversationCounterEntity withCounterKey(final String counterKey) {
+		this.counterKey = counterKey;
+		return this;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public void setTotal(final Long total) {
+		this.total = total;
+	}
+
+	public ConversationCounterEntity withTotal(final Long total) {
+		this.total = total;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final ConversationCounterEntity that = (ConversationCounterEntity) o;
+		return Objects.equals(id, that.id) && Objects.equals(conversation, that.conversation) && messageType == that.messageType && counterType == that.counterType && Objects.equals(
+			counterKey, that.counterKey) && Objects.equals(total, that.total);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, conversation, messageType, counterType, counterKey, total);
+	}
+
+	@Override
+	public String toString() {
+		return "ConversationCounterEntity{" +
+			"id='" + id + '\'' +
+			", conversation=" + conversation +
+			", messageType=" + messageType +
+			", counterType=" + counterType +
+			", counterKey='" + counterKey + '\'' +
+			", total=" + total +
+			'}';
+	}
+}
@@ -7,23 +7,30 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TimeZoneStorage;
 import org.hibernate.annotations.UuidGenerator;
 
 import static jakarta.persistence.CascadeType.ALL;
 import static jakarta.persistence.FetchType.EAGER;
 import static jakarta.persistence.FetchType.LAZY;
+import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
 
 @Entity
 @Table(name = "conversation",
 	indexes = {
 		@Index(name = "idx_conversation_topic", columnList = "topic"),
-		@Index(name = "idx_conversation_namespace_municipality_id_id", columnList = "namespace, municipality_id, id")
+		@Index(name = "idx_conversation_namespace_municipality_id_id", columnList = "namespace, municipality_id, id"),
+		@Index(name = "idx_conversation_deleted_at", columnList = "deleted_at")
 	})
+@SQLRestriction("deleted_at is null")
 public class ConversationEntity {
 
 	@Id
@@ -31,13 +38,14 @@ public class ConversationEntity {
 	@Column(name = "id")
 	private String id;
 
-	@OneToMany(fetch = EAGER, cascade = ALL, orphanRemoval = true)
+	@ManyToMany(fetch = EAGER)
 	@JoinTable(
 		name = "conversation_participants",
 		joinColumns = @JoinColumn(name = "conversation_id", foreignKey = @ForeignKey(name = "fk_conversation_participants_conversation_id")),
 		inverseJoinColumns = @JoinColumn(name = "identifier_id", foreignKey = @ForeignKey(name = "fk_conversation_participants_identifier_id")),
-		uniqueConstraints = @UniqueConstraint(name = "uq_conversation_participants_identifier_id", columnNames = {
-			"identifier_id"
+		indexes = @Index(name = "idx_conversation_participants_identifier_id", columnList = "identifier_id"),
+		uniqueConstraints = @UniqueConstraint(name = "uq_conversation_participants_conversation_id_identifier_id", columnNames = {
+			"conversation_id", "identifier_id"
 		}))
 	private List<IdentifierEntity> participants;
 
@@ -61,6 +69,36 @@ public class ConversationEntity {
 	@OneToMany(mappedBy = "conversation", fetch = LAZY, cascade = ALL, orphanRemoval = true)
 	private List<MessageEntity> messages;
 
+	/**
+	 * Denormalized sequence number of the latest message in the conversation. Maintained by
+	 * {@link se.sundsvall.messageexchange.integration.db.ConversationRepository#updateLatestSequenceNumber} and therefore
+	 * never written through the entity.
+	 */
+	@Column(name = "latest_sequence_number", insertable = false, updatable = false)
+	private Long latestSequenceNumber;
+
+	/**
+	 * The last message sequence number allocated in the conversation. Maintained by
+	 * {@link se.sundsvall.messageexchange.integration.db.ConversationRepository#incrementLastSequenceNumber} and therefore
+	 * never written through the entity.
+	 */
+	@Column(name = "last_sequence_number", insertable = false, updatable = false)
+	private Long lastSequenceNumber;
+
+	@Column(name = "last_activity_at", insertable = false, updatable = false)
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime lastActivityAt;
+
+	/**
+	 * Time when the conversation was deleted. Deleted conversations are excluded from all queries on the entity and are
+	 * removed, together with their messages, by {@link se.sundsvall.messageexchange.service.ConversationPurger}. Set by
+	 * {@link se.sundsvall.messageexchange.integration.db.ConversationRepository#markDeleted} and therefore never written
+	 * through the entity.
+	 */
+	@Column(name = "deleted_at", insertable = false, updatable = false)
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime deletedAt;
+
 	public static ConversationEntity create() {
 		return new ConversationEntity();
 	}
@@ -169,6 +207,58 @@ public class ConversationEntity {
 		return this;
 	}
 
+	public Long getLatestSequenceNumber() {
+		return latestSequenceNumber;
+	}
+
+	public void setLatestSequenceNumber(final Long latestSequenceNumber) {
+		this.latestSequenceNumber = latestSequenceNumber;
+	}
+
+	public ConversationEntity withLatestSequenceNumber(final Long latestSequenceNumber) {
+		this.latestSequenceNumber = latestSequenceNumber;
+		return this;
+	}
+
+	public Long getLastSequenceNumber() {
+		return lastSequenceNumber;
+	}
+
+	public void setLastSequenceNumber(final Long lastSequenceNumber) {
+		this.lastSequenceNumber = lastSequenceNumber;
+	}
+
+	public ConversationEntity withLastSequenceNumber(final Long lastSequenceNumber) {
+		this.lastSequenceNumber = lastSequenceNumber;
+		return this;
+	}
+
+	public OffsetDateTime getLastActivityAt() {
+		return lastActivityAt;
+	}
+
+	public void setLastActivityAt(final OffsetDateTime lastActivityAt) {
+		this.lastActivityAt = lastActivityAt;
+	}
+
+	public ConversationEntity withLastActivityAt(final OffsetDateTime lastActivityAt) {
+		this.lastActivityAt = lastActivityAt;
+		return this;
+	}
+
+	public OffsetDateTime getDeletedAt() {
+		return deletedAt;
+	}
+
+	public void setDeletedAt(final OffsetDateTime deletedAt) {
+		this.deletedAt = deletedAt;
+	}
+
+	public ConversationEntity withDeletedAt(final OffsetDateTime deletedAt) {
+		this.deletedAt = deletedAt;
+		return this;
+	}
+
 	@Override
 	public boolean equals(final Object o) {
 		if (o == null || getClass() != o.getClass()) {
@@ -176,12 +266,14 @@ public class ConversationEntity {
 		}
 		final ConversationEntity that = (ConversationEntity) o;
 		return Objects.equals(id, that.id) && Objects.equals(participants, that.participants) && Objects.equals(municipalityId, that.municipalityId) && Objects.equals(namespace, that.namespace)
-			&& Objects.equals(externalReferences, that.externalReferences) && Objects.equals(metadata, that.metadata) && Objects.equals(topic, that.topic) && Objects.equals(messages, that.messages);
+			&& Objects.equals(externalReferences, that.externalReferences) && Objects.equals(metadata, that.metadata) && Objects.equals(topic, that.topic) && Objects.equals(messages, that.messages)
+			&& Objects.equals(latestSequenceNumber, that.latestSequenceNumber) && Objects.equals(lastSequenceNumber, that.lastSequenceNumber) && Objects.equals(lastActivityAt, that.lastActivityAt)
+			&& Objects.equals(deletedAt, that.deletedAt);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(id, participants, municipalityId, namespace, externalReferences, metadata, topic, messages);
+		return Objects.hash(id, participants, municipalityId, namespace, externalReferences, metadata, topic, messages, latestSequenceNumber, lastSequenceNumber, lastActivityAt, deletedAt);
 	}
 
 	@Override
@@ -195,6 +287,10 @@ public class ConversationEntity {
 			", metadata=" + metadata +
 			", topic='" + topic + '\'' +
 			", messages=" + messages +
+			", latestSequenceNumber=" + latestSequenceNumber +
+			", lastSequenceNumber=" + lastSequenceNumber +
+			", lastActivityAt=" + lastActivityAt +
+			", deletedAt=" + deletedAt +
 			'}';
 	}
 }
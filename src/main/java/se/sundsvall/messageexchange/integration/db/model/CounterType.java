@@ -0,0 +1,7 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+public enum CounterType {
+	MESSAGES,
+	READ_BY,
+	READ_BY_PART
+}
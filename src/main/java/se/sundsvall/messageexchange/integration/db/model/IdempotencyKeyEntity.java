@@ -0,0 +1,108 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import static jakarta.persistence.FetchType.LAZY;
+
+/**
+ * Idempotency key of a posted message, used to return the originally created message when a client retries a post.
+ * The id is derived from the municipality id, namespace, conversation id and the key sent by the client, and is
+ * assigned by {@link se.sundsvall.messageexchange.service.IdempotencyKeys}. Keys are purged when their time to live has
+ * passed, and are removed together with their message.
+ */
+@Entity
+@Table(name = "message_idempotency_key",
+	indexes = {
+		@Index(name = "idx_message_idempotency_key_created", columnList = "created")
+	})
+public class IdempotencyKeyEntity {
+
+	@Id
+	@Column(name = "id")
+	private String id;
+
+	@ManyToOne(fetch = LAZY)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JoinColumn(name = "message_id", nullable = false, foreignKey = @ForeignKey(name = "fk_message_idempotency_key_message_id"))
+	private MessageEntity message;
+
+	@Column(name = "created", nullable = false)
+	private OffsetDateTime created;
+
+	public static IdempotencyKeyEntity create() {
+		return new IdempotencyKeyEntity();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(final String id) {
+		this.id = id;
+	}
+
+	public IdempotencyKeyEntity withId(final String id) {
+		this.id = id;
+		return this;
+	}
+
+	public MessageEntity getMessage() {
+		return message;
+	}
+
+	public void setMessage(final MessageEntity message) {
+		this.message = message;
+	}
+
+	public IdempotencyKeyEntity withMessage(final MessageEntity message) {
+		this.message = message;
+		return this;
+	}
+
+	public OffsetDateTime getCreated() {
+		return created;
+	}
+
+	public void setCreated(final OffsetDateTime created) {
+		this.created = created;
+	}
+
+	public IdempotencyKeyEntity withCreated(final OffsetDateTime created) {
+		this.created = created;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final IdempotencyKeyEntity that = (IdempotencyKeyEntity) o;
+		return Objects.equals(id, that.id) && Objects.equals(message, that.message) && Objects.equals(created, that.created);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, message, created);
+	}
+
+	@Override
+	public String toString() {
+		return "IdempotencyKeyEntity{" +
+			"id='" + id + '\'' +
+			", message=" + message +
+			", created=" + created +
+			'}';
+	}
+}
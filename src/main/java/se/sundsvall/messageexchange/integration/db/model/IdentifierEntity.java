@@ -4,15 +4,25 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.util.Objects;
-import org.hibernate.annotations.UuidGenerator;
 
+/**
+ * Entry in the identifier dictionary. There is one row per type and value, shared by every message, read receipt and
+ * conversation that refers to the identifier. The id is derived from the type and value and is assigned by
+ * {@link se.sundsvall.messageexchange.service.IdentifierResolver}, which also makes sure that the row exists. Rows are
+ * therefore never written through the associations that refer to them.
+ */
 @Entity
-@Table(name = "identifier")
+@Table(name = "identifier",
+	uniqueConstraints = {
+		@UniqueConstraint(name = "uq_identifier_type_value", columnNames = {
+			"type", "value"
+		})
+	})
 public class IdentifierEntity {
 
 	@Id
-	@UuidGenerator
 	@Column(name = "id")
 	private String id;
 
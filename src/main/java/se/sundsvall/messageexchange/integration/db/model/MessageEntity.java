@@ -10,7 +10,6 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
@@ -23,7 +22,7 @@ import org.hibernate.annotations.TimeZoneStorage;
 import org.hibernate.annotations.UuidGenerator;
 
 import static jakarta.persistence.CascadeType.ALL;
-import static jakarta.persistence.FetchType.EAGER;
+import static jakarta.persistence.FetchType.LAZY;
 import static java.time.OffsetDateTime.now;
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
@@ -33,15 +32,12 @@ import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
 	indexes = {
 		@Index(name = "idx_message_conversation_id", columnList = "conversation_id"),
 		@Index(name = "idx_message_conversation_id_created", columnList = "conversation_id, created"),
-		@Index(name = "idx_message_conversation_id_sequence_number", columnList = "conversation_id, sequence_number"),
+		@Index(name = "idx_message_created_by", columnList = "created_by"),
 		@Index(name = "idx_message_in_reply_to_message_id", columnList = "in_reply_to_message_id")
 	},
 	uniqueConstraints = {
-		@UniqueConstraint(name = "uq_message_sequence_number", columnNames = {
-			"sequence_number"
-		}),
-		@UniqueConstraint(name = "uq_message_created_by", columnNames = {
-			"created_by"
+		@UniqueConstraint(name = "uq_message_conversation_id_sequence_number", columnNames = {
+			"conversation_id", "sequence_number"
 		})
 	})
 public class MessageEntity {
@@ -51,9 +47,12 @@ public class MessageEntity {
 	@Column(name = "id")
 	private String id;
 
-	@OneToOne(fetch = EAGER, cascade = ALL, orphanRemoval = true)
-	@JoinColumn(name = "sequence_number", nullable = false, foreignKey = @ForeignKey(name = "fk_message_sequence_number"))
-	private SequenceEntity sequenceNumber;
+	/**
+	 * Sequence number of the message within its conversation, allocated by
+	 * {@link se.sundsvall.messageexchange.service.MessageSequenceAllocator}.
+	 */
+	@Column(name = "sequence_number", nullable = false)
+	private Long sequenceNumber;
 
 	@Column(name = "in_reply_to_message_id")
 	private String inReplyToMessageId;
@@ -62,22 +61,22 @@ public class MessageEntity {
 	@TimeZoneStorage(NORMALIZE)
 	private OffsetDateTime created;
 
-	@OneToOne(fetch = EAGER, cascade = ALL, orphanRemoval = true)
+	@ManyToOne(fetch = LAZY)
 	@JoinColumn(name = "created_by", nullable = true, foreignKey = @ForeignKey(name = "fk_message_created_by"))
 	private IdentifierEntity createdBy;
 
 	@Column(name = "content", length = Length.LONG32)
 	private String content;
 
-	@OneToMany(fetch = EAGER, cascade = ALL, orphanRemoval = true)
+	@OneToMany(fetch = LAZY, cascade = ALL, orphanRemoval = true)
 	@JoinColumn(name = "message_id", nullable = false, foreignKey = @ForeignKey(name = "fk_message_read_by"))
 	private List<ReadByEntity> readBy;
 
-	@OneToMany(fetch = EAGER, cascade = ALL, orphanRemoval = true)
+	@OneToMany(fetch = LAZY, cascade = ALL, orphanRemoval = true)
 	@JoinColumn(name = "message_id", nullable = false, foreignKey = @ForeignKey(name = "fk_message_read_by_part"))
 	private List<ReadByPartEntity> readByPart;
 
-	@ManyToOne(fetch = EAGER)
+	@ManyToOne(fetch = LAZY)
 	@JoinColumn(name = "conversation_id", nullable = false, foreignKey = @ForeignKey(name = "fk_message_conversation_id"))
 	private ConversationEntity conversation;
 
@@ -110,15 +109,15 @@ public class MessageEntity {
 		return this;
 	}
 
-	public SequenceEntity getSequenceNumber() {
+	public Long getSequenceNumber() {
 		return sequenceNumber;
 	}
 
-	public void setSequenceNumber(final SequenceEntity sequenceNumber) {
+	public void setSequenceNumber(final Long sequenceNumber) {
 		this.sequenceNumber = sequenceNumber;
 	}
 
-	public MessageEntity withSequenceNumber(final SequenceEntity sequenceNumber) {
+	public MessageEntity withSequenceNumber(final Long sequenceNumber) {
 		this.sequenceNumber = sequenceNumber;
 		return this;
 	}
@@ -260,7 +259,7 @@ public class MessageEntity {
 	public String toString() {
 		return "MessageEntity{" +
 			"id='" + id + '\'' +
-			", sequenceNumber='" + sequenceNumber + '\'' +
+			", sequenceNumber=" + sequenceNumber +
 			", inReplyToMessageId='" + inReplyToMessageId + '\'' +
 			", created=" + created +
 			", createdBy=" + createdBy +
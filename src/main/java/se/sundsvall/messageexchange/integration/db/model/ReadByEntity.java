@@ -6,7 +6,7 @@ import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import java.time.OffsetDateTime;
@@ -14,18 +14,17 @@ import java.util.Objects;
 import org.hibernate.annotations.TimeZoneStorage;
 import org.hibernate.annotations.UuidGenerator;
 
-import static jakarta.persistence.CascadeType.ALL;
 import static jakarta.persistence.FetchType.EAGER;
 import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
 
 @Entity
 @Table(name = "message_read_by",
 	indexes = {
-		@Index(name = "idx_message_read_by_message_id_identifier_id", columnList = "message_id, identifier_id")
+		@Index(name = "idx_message_read_by_identifier_id", columnList = "identifier_id")
 	},
 	uniqueConstraints = {
-		@UniqueConstraint(name = "uq_message_read_by_identifier_id", columnNames = {
-			"identifier_id"
+		@UniqueConstraint(name = "uq_message_read_by_message_id_identifier_id", columnNames = {
+			"message_id", "identifier_id"
 		})
 	})
 public class ReadByEntity {
@@ -35,7 +34,7 @@ public class ReadByEntity {
 	@Column(name = "id")
 	private String id;
 
-	@OneToOne(fetch = EAGER, cascade = ALL, orphanRemoval = true)
+	@ManyToOne(fetch = EAGER)
 	@JoinColumn(name = "identifier_id", nullable = false, foreignKey = @ForeignKey(name = "fk_read_by_identifier_id"))
 	private IdentifierEntity identifier;
 
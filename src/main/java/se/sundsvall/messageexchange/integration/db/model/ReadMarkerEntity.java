@@ -0,0 +1,171 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.TimeZoneStorage;
+import org.hibernate.annotations.UuidGenerator;
+
+import static jakarta.persistence.FetchType.EAGER;
+import static jakarta.persistence.FetchType.LAZY;
+import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
+
+/**
+ * Read high-water mark for a conversation. A marker belongs either to an identifier in the identifier dictionary or to
+ * a part, and holds the highest sequence number of the conversation that has been read by it. Every message with a sequence number
+ * up to and including the marker is considered read.
+ */
+@Entity
+@Table(name = "conversation_read_marker",
+	uniqueConstraints = {
+		@UniqueConstraint(name = "uq_conversation_read_marker_identifier_id", columnNames = {
+			"conversation_id", "identifier_id"
+		}),
+		@UniqueConstraint(name = "uq_conversation_read_marker_part", columnNames = {
+			"conversation_id", "part"
+		})
+	})
+public class ReadMarkerEntity {
+
+	@Id
+	@UuidGenerator
+	@Column(name = "id")
+	private String id;
+
+	@ManyToOne(fetch = LAZY)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JoinColumn(name = "conversation_id", nullable = false, foreignKey = @ForeignKey(name = "fk_conversation_read_marker_conversation_id"))
+	private ConversationEntity conversation;
+
+	@ManyToOne(fetch = EAGER)
+	@JoinColumn(name = "identifier_id", foreignKey = @ForeignKey(name = "fk_conversation_read_marker_identifier_id"))
+	private IdentifierEntity identifier;
+
+	@Column(name = "part")
+	private String part;
+
+	@Column(name = "sequence_number", nullable = false)
+	private Long sequenceNumber;
+
+	@Column(name = "updated", nullable = false)
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime updated;
+
+	public static ReadMarkerEntity create() {
+		return new ReadMarkerEntity();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(final String id) {
+		this.id = id;
+	}
+
+	public ReadMarkerEntity withId(final String id) {
+		this.id = id;
+		return this;
+	}
+
+	public ConversationEntity getConversation() {
+		return conversation;
+	}
+
+	public void setConversation(final ConversationEntity conversation) {
+		this.conversation = conversation;
+	}
+
+	public ReadMarkerEntity withConversation(final ConversationEntity conversation) {
+		this.conversation = conversation;
+		return this;
+	}
+
+	public IdentifierEntity getIdentifier() {
+		return identifier;
+	}
+
+	public void setIdentifier(final IdentifierEntity identifier) {
+		this.identifier = identifier;
+	}
+
+	public ReadMarkerEntity withIdentifier(final IdentifierEntity identifier) {
+		this.identifier = identifier;
+		return this;
+	}
+
+	public String getPart() {
+		return part;
+	}
+
+	public void setPart(final String part) {
+		this.part = part;
+	}
+
+	public ReadMarkerEntity withPart(final String part) {
+		this.part = part;
+		return this;
+	}
+
+	public Long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public void setSequenceNumber(final Long sequenceNumber) {
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	public ReadMarkerEntity withSequenceNumber(final Long sequenceNumber) {
+		this.sequenceNumber = sequenceNumber;
+		return this;
+	}
+
+	public OffsetDateTime getUpdated() {
+		return updated;
+	}
+
+	public void setUpdated(final OffsetDateTime updated) {
+		this.updated = updated;
+	}
+
+	public ReadMarkerEntity withUpdated(final OffsetDateTime updated) {
+		this.updated = updated;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final ReadMarkerEntity that = (ReadMarkerEntity) o;
+		return Objects.equals(id, that.id) && Objects.equals(conversation, that.conversation) && Objects.equals(identifier, that.identifier)
+			&& Objects.equals(part, that.part) && Objects.equals(sequenceNumber, that.sequenceNumber) && Objects.equals(updated, that.updated);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, conversation, identifier, part, sequenceNumber, updated);
+	}
+
+	@Override
+	public String toString() {
+		return "ReadMarkerEntity{" +
+			"id='" + id + '\'' +
+			", conversation=" + conversation +
+			", identifier=" + identifier +
+			", part='" + part + '\'' +
+			", sequenceNumber=" + sequenceNumber +
+			", updated=" + updated +
+			'}';
+	}
+}
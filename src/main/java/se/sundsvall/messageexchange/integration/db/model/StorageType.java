@@ -0,0 +1,6 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+public enum StorageType {
+	DATABASE,
+	FILE_SYSTEM
+}
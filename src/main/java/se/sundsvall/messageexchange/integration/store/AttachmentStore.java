@@ -0,0 +1,102 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+
+/**
+ * Storage of the content of attachment data. The attachment data row is always kept in the database, while its content
+ * is kept by the store recorded in the row. Content is addressed by its SHA-256 hash and never changes once written.
+ */
+public interface AttachmentStore {
+
+	/**
+	 * @return the type of storage, recorded in the attachment data rows written by this store
+	 */
+	StorageType storageType();
+
+	/**
+	 * Writes the content of attachment data, and records this store in the attachment data.
+	 *
+	 * @param  attachmentData the attachment data, with hash and file size set
+	 * @param  content        the content, owned by the store and read before the transaction is committed
+	 * @param  size           the size of the content
+	 * @throws IOException    if the content could not be written
+	 */
+	void write(AttachmentDataEntity attachmentData, InputStream content, long size) throws IOException;
+
+	/**
+	 * Creates a staging file that an upload is spooled to while its hash is computed, so that the upload is read only
+	 * once. Staged content is either handed to {@link #write(AttachmentDataEntity, Path, long)} or deleted by the caller.
+	 *
+	 * @return             the staging file
+	 * @throws IOException if the staging file could not be created
+	 */
+	default Path createStagingFile() throws IOException {
+		return Files.createTempFile("attachment-", ".staging");
+	}
+
+	/**
+	 * Writes staged content of attachment data, and records this store in the attachment data. The store takes over the
+	 * staging file, also when the write fails. The default implementation reads the staging file with
+	 * {@link #write(AttachmentDataEntity, InputStream, long)} and deletes it afterwards, which requires that the content is
+	 * consumed before that method returns.
+	 *
+	 * @param  attachmentData the attachment data, with hash and file size set
+	 * @param  stagingFile    the staging file holding the content, created by {@link #createStagingFile()}
+	 * @param  size           the size of the content
+	 * @throws IOException    if the content could not be written
+	 */
+	default void write(final AttachmentDataEntity attachmentData, final Path stagingFile, final long size) throws IOException {
+		try (var content = Files.newInputStream(stagingFile)) {
+			write(attachmentData, content, size);
+		} finally {
+			Files.deleteIfExists(stagingFile);
+		}
+	}
+
+	/**
+	 * Opens the content of attachment data written by this store. The stream must be closed by the caller.
+	 *
+	 * @param  attachmentData the attachment data
+	 * @return                the content
+	 * @throws IOException    if the content could not be read
+	 */
+	InputStream read(AttachmentDataEntity attachmentData) throws IOException;
+
+	/**
+	 * Writes a part of the content of attachment data written by this store to an output stream, reading only the
+	 * requested part.
+	 *
+	 * @param  attachmentData the attachment data
+	 * @param  position       the position of the first byte to write
+	 * @param  length         the number of bytes to write
+	 * @param  outputStream   the output stream, left open
+	 * @throws IOException    if the content could not be read or written
+	 */
+	void transferTo(AttachmentDataEntity attachmentData, long position, long length, OutputStream outputStream) throws IOException;
+
+	/**
+	 * Returns the local file holding the content of attachment data written by this store, for stores that keep content
+	 * in files. The file can be written to a response without reading it into the Java heap.
+	 *
+	 * @param  attachmentData the attachment data
+	 * @return                the file, or empty if the content is not kept in a local file
+	 */
+	default Optional<Path> file(final AttachmentDataEntity attachmentData) {
+		return Optional.empty();
+	}
+
+	/**
+	 * Deletes content that is no longer referenced by any attachment data row.
+	 *
+	 * @param  hash        the SHA-256 hash of the content
+	 * @throws IOException if the content could not be deleted
+	 */
+	void delete(String hash) throws IOException;
+}
@@ -0,0 +1,64 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+
+import static java.util.Objects.requireNonNullElse;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+
+/**
+ * Selects the attachment store to write new content of a namespace to, and the store to read existing content from.
+ * Content is always read from the store recorded in its attachment data row, so that changing the storage of a namespace
+ * only affects new content.
+ */
+@Component
+public class AttachmentStores {
+
+	private final AttachmentStoreProperties attachmentStoreProperties;
+	private final Map<StorageType, AttachmentStore> stores = new EnumMap<>(StorageType.class);
+
+	public AttachmentStores(final AttachmentStoreProperties attachmentStoreProperties, final List<AttachmentStore> attachmentStores) {
+		this.attachmentStoreProperties = attachmentStoreProperties;
+		attachmentStores.forEach(store -> stores.put(store.storageType(), store));
+
+		Stream.concat(Stream.of(attachmentStoreProperties.defaultStorage()), attachmentStoreProperties.namespaces().values().stream())
+			.filter(storageType -> !stores.containsKey(storageType))
+			.findFirst()
+			.ifPresent(storageType -> {
+				throw new IllegalStateException("No attachment store of type %s is configured".formatted(storageType));
+			});
+	}
+
+	/**
+	 * @param  namespace the namespace
+	 * @return           the store that new content of the namespace is written to
+	 */
+	public AttachmentStore forNamespace(final String namespace) {
+		return stores.get(attachmentStoreProperties.storageOf(namespace));
+	}
+
+	/**
+	 * @param  attachmentData the attachment data
+	 * @return                the store that holds the content of the attachment data
+	 */
+	public AttachmentStore forAttachmentData(final AttachmentDataEntity attachmentData) {
+		final var storageType = requireNonNullElse(attachmentData.getStorage(), DATABASE);
+		return get(storageType)
+			.orElseThrow(() -> new IllegalStateException("No attachment store of type %s is configured".formatted(storageType)));
+	}
+
+	/**
+	 * @param  storageType the type of storage
+	 * @return             the store of the given type, or empty if it is not configured
+	 */
+	public Optional<AttachmentStore> get(final StorageType storageType) {
+		return Optional.ofNullable(stores.get(storageType));
+	}
+}
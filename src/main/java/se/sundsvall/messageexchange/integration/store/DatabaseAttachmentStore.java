@@ -0,0 +1,109 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.SQLException;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+
+/**
+ * Keeps the content in the {@code file} blob of the attachment data row. The content is streamed by the database driver
+ * when the row is inserted, and deleted together with the row.
+ */
+@Component
+public class DatabaseAttachmentStore implements AttachmentStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseAttachmentStore.class);
+
+	private final EntityManager entityManager;
+
+	public DatabaseAttachmentStore(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public StorageType storageType() {
+		return DATABASE;
+	}
+
+	@Override
+	public void write(final AttachmentDataEntity attachmentData, final InputStream content, final long size) {
+		attachmentData.setFile(entityManager.unwrap(Session.class).getLobHelper().createBlob(content, size));
+		attachmentData.setStorage(DATABASE);
+	}
+
+	/**
+	 * Streams the staging file into the blob when the row is inserted. The staging file is kept open until the
+	 * surrounding transaction completes, and is deleted then.
+	 */
+	@Override
+	public void write(final AttachmentDataEntity attachmentData, final Path stagingFile, final long size) throws IOException {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			Files.deleteIfExists(stagingFile);
+			throw new IllegalStateException("Staged content can only be written within a transaction");
+		}
+
+		final InputStream content;
+		try {
+			content = Files.newInputStream(stagingFile);
+		} catch (final IOException e) {
+			Files.deleteIfExists(stagingFile);
+			throw e;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(final int status) {
+				try (content) {
+					Files.deleteIfExists(stagingFile);
+				} catch (final IOException e) {
+					LOGGER.warn("Failed to delete staging file {}", stagingFile, e);
+				}
+			}
+		});
+		write(attachmentData, content, size);
+	}
+
+	@Override
+	public InputStream read(final AttachmentDataEntity attachmentData) throws IOException {
+		try {
+			return blob(attachmentData).getBinaryStream();
+		} catch (final SQLException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void transferTo(final AttachmentDataEntity attachmentData, final long position, final long length, final OutputStream outputStream) throws IOException {
+		// Positions in a blob start at one
+		try (final var content = blob(attachmentData).getBinaryStream(position + 1, length)) {
+			content.transferTo(outputStream);
+		} catch (final SQLException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void delete(final String hash) {
+		// The content is deleted together with the attachment data row
+	}
+
+	private static Blob blob(final AttachmentDataEntity attachmentData) throws IOException {
+		if (attachmentData.getFile() == null) {
+			throw new IOException("Attachment data with id '%s' has no content in the database".formatted(attachmentData.getId()));
+		}
+		return attachmentData.getFile();
+	}
+}
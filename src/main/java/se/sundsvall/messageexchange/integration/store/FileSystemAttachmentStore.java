@@ -0,0 +1,120 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+import se.sundsvall.messageexchange.util.FileTransfer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+/**
+ * Keeps the content in files named after the SHA-256 hash of the content, in directories named after the first
+ * characters of the hash, e.g. {@code <root>/9f/86/9f86d081...} with a shard depth of two. Attachment data rows with the
+ * same content share one file.
+ * <p>
+ * Files are written to a temporary file in the target directory and moved in place, so that a file is either complete
+ * or missing. Uploads are spooled to a staging file in the {@code staging} directory below the root while their hash is
+ * computed, and the staging file is then renamed to its target without copying the content again. The store is only
+ * available when a root directory is configured.
+ */
+@Component
+@ConditionalOnProperty(prefix = "attachment-store.file-system", name = "root")
+public class FileSystemAttachmentStore implements AttachmentStore {
+
+	private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+	private static final String STAGING_DIRECTORY = "staging";
+
+	private final Path root;
+	private final int shardDepth;
+
+	public FileSystemAttachmentStore(final AttachmentStoreProperties attachmentStoreProperties) {
+		this.root = attachmentStoreProperties.fileSystem().root().toAbsolutePath().normalize();
+		this.shardDepth = attachmentStoreProperties.fileSystem().shardDepth();
+	}
+
+	@Override
+	public StorageType storageType() {
+		return FILE_SYSTEM;
+	}
+
+	@Override
+	public void write(final AttachmentDataEntity attachmentData, final InputStream content, final long size) throws IOException {
+		final var target = path(attachmentData.getHash());
+		Files.createDirectories(target.getParent());
+
+		final var temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+		try (content) {
+			Files.copy(content, temporary, REPLACE_EXISTING);
+			Files.move(temporary, target, ATOMIC_MOVE, REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+
+		attachmentData.setFile(null);
+		attachmentData.setStorage(FILE_SYSTEM);
+	}
+
+	@Override
+	public Path createStagingFile() throws IOException {
+		final var directory = root.resolve(STAGING_DIRECTORY);
+		Files.createDirectories(directory);
+		return Files.createTempFile(directory, "attachment-", ".staging");
+	}
+
+	@Override
+	public void write(final AttachmentDataEntity attachmentData, final Path stagingFile, final long size) throws IOException {
+		try {
+			final var target = path(attachmentData.getHash());
+			Files.createDirectories(target.getParent());
+			Files.move(stagingFile, target, ATOMIC_MOVE, REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(stagingFile);
+		}
+
+		attachmentData.setFile(null);
+		attachmentData.setStorage(FILE_SYSTEM);
+	}
+
+	@Override
+	public InputStream read(final AttachmentDataEntity attachmentData) throws IOException {
+		return Files.newInputStream(path(attachmentData.getHash()));
+	}
+
+	@Override
+	public void transferTo(final AttachmentDataEntity attachmentData, final long position, final long length, final OutputStream outputStream) throws IOException {
+		FileTransfer.transfer(path(attachmentData.getHash()), position, length, outputStream);
+	}
+
+	@Override
+	public Optional<Path> file(final AttachmentDataEntity attachmentData) {
+		return Optional.of(path(attachmentData.getHash()));
+	}
+
+	@Override
+	public void delete(final String hash) throws IOException {
+		Files.deleteIfExists(path(hash));
+	}
+
+	Path path(final String hash) {
+		if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+			throw new IllegalArgumentException("Invalid content hash '%s'".formatted(hash));
+		}
+
+		var directory = root;
+		for (var level = 0; level < shardDepth; level++) {
+			directory = directory.resolve(hash.substring(level * 2, level * 2 + 2));
+		}
+		return directory.resolve(hash);
+	}
+}
@@ -0,0 +1,55 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.scheduling.Dept44Scheduled;
+import se.sundsvall.messageexchange.service.AttachmentDataCompactor;
+
+/**
+ * Merges duplicated attachment data, one batch per run. The scheduler cancels itself when there is nothing left to
+ * merge.
+ */
+@Component
+public class AttachmentDataCompactionScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentDataCompactionScheduler.class);
+
+	private final AttachmentDataCompactor attachmentDataCompactor;
+	private final ScheduledTaskHolder scheduledTaskHolder;
+
+	public AttachmentDataCompactionScheduler(
+		final AttachmentDataCompactor attachmentDataCompactor,
+		final ScheduledTaskHolder scheduledTaskHolder) {
+		this.attachmentDataCompactor = attachmentDataCompactor;
+		this.scheduledTaskHolder = scheduledTaskHolder;
+	}
+
+	@Dept44Scheduled(
+		name = "attachment-data-compaction",
+		cron = "${scheduler.attachment-data-compaction.cron}",
+		lockAtMostFor = "${scheduler.attachment-data-compaction.lock-at-most-for}")
+	public void compactAttachmentData() {
+		final var result = attachmentDataCompactor.compact();
+		if (result.groups() == 0 && result.failed() == 0) {
+			cancelSelf();
+			return;
+		}
+		LOGGER.info("Compaction of attachment data complete, {} group(s) merged and {} failed, {} duplicate(s) removed in {} ms",
+			result.groups(), result.failed(), result.deleted(), result.elapsed().toMillis());
+	}
+
+	private void cancelSelf() {
+		scheduledTaskHolder.getScheduledTasks()
+			.stream()
+			.filter(t -> t.getTask().getRunnable() instanceof ScheduledMethodRunnable smr
+				&& smr.getMethod().getDeclaringClass().equals(getClass()))
+			.findFirst()
+			.ifPresent(task -> {
+				task.cancel();
+				LOGGER.info("No duplicated attachment data left, compaction scheduler cancelled");
+			});
+	}
+}
@@ -31,7 +31,13 @@ public class AttachmentHashBackfillWorker {
 					var dis = new DigestInputStream(stream, digest)) {
 					dis.transferTo(OutputStream.nullOutputStream());
 				}
-				attachment.setHash(HexFormat.of().formatHex(digest.digest()));
+				final var hash = HexFormat.of().formatHex(digest.digest());
+				attachment.setHash(hash);
+				// Makes the attachment data addressable by its content, so that duplicates can be merged
+				if (attachment.getAttachmentData().getHash() == null) {
+					attachment.getAttachmentData().setHash(hash);
+					attachment.getAttachmentData().setFileSize(attachment.getFileSize());
+				}
 				attachmentRepository.save(attachment);
 			} catch (final Exception e) {
 				LOGGER.warn("Failed to compute hash for attachment {}", attachmentId, e);
@@ -0,0 +1,35 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.scheduling.Dept44Scheduled;
+import se.sundsvall.messageexchange.service.AttachmentStoreMigrator;
+
+/**
+ * Moves attachment content from the database to the file system for namespaces configured to store attachments on the
+ * file system.
+ */
+@Component
+public class AttachmentStoreMigrationScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentStoreMigrationScheduler.class);
+
+	private final AttachmentStoreMigrator attachmentStoreMigrator;
+
+	public AttachmentStoreMigrationScheduler(final AttachmentStoreMigrator attachmentStoreMigrator) {
+		this.attachmentStoreMigrator = attachmentStoreMigrator;
+	}
+
+	@Dept44Scheduled(
+		name = "attachment-store-migration",
+		cron = "${scheduler.attachment-store-migration.cron}",
+		lockAtMostFor = "${scheduler.attachment-store-migration.lock-at-most-for}")
+	public void migrateAttachmentStore() {
+		final var result = attachmentStoreMigrator.migrate();
+		if (result.migrated() > 0 || result.failed() > 0) {
+			LOGGER.info("Migration of attachment content complete, {} attachment(s) moved and {} failed, {} byte(s) moved in {} ms",
+				result.migrated(), result.failed(), result.bytes(), result.elapsed().toMillis());
+		}
+	}
+}
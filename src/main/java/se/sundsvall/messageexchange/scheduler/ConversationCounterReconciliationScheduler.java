@@ -0,0 +1,57 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.scheduling.Dept44Scheduled;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.service.ConversationCounters;
+
+/**
+ * Rebuilds the read by statistics counters of all conversations from their messages and read receipts, one
+ * conversation per transaction, to correct counters that have drifted.
+ */
+@Component
+public class ConversationCounterReconciliationScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConversationCounterReconciliationScheduler.class);
+	private static final int BATCH_SIZE = 500;
+
+	private final ConversationRepository conversationRepository;
+	private final ConversationCounters conversationCounters;
+
+	public ConversationCounterReconciliationScheduler(final ConversationRepository conversationRepository, final ConversationCounters conversationCounters) {
+		this.conversationRepository = conversationRepository;
+		this.conversationCounters = conversationCounters;
+	}
+
+	@Dept44Scheduled(
+		name = "conversation-counter-reconciliation",
+		cron = "${scheduler.conversation-counter-reconciliation.cron}",
+		lockAtMostFor = "${scheduler.conversation-counter-reconciliation.lock-at-most-for}")
+	public void reconcileCounters() {
+		LOGGER.info("Starting reconciliation of conversation counters");
+
+		var reconciled = 0;
+		var failed = 0;
+		var afterId = "";
+		List<String> ids;
+		do {
+			ids = conversationRepository.findIdsAfter(afterId, PageRequest.ofSize(BATCH_SIZE));
+			for (final var id : ids) {
+				try {
+					conversationCounters.rebuild(id);
+					reconciled++;
+				} catch (final RuntimeException e) {
+					failed++;
+					LOGGER.warn("Failed to reconcile counters for conversation {}", id, e);
+				}
+			}
+			afterId = ids.isEmpty() ? afterId : ids.getLast();
+		} while (ids.size() == BATCH_SIZE);
+
+		LOGGER.info("Reconciliation of conversation counters complete, {} reconciled and {} failed", reconciled, failed);
+	}
+}
@@ -0,0 +1,35 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.scheduling.Dept44Scheduled;
+import se.sundsvall.messageexchange.service.ConversationPurger;
+
+/**
+ * Removes conversations that have been deleted, together with their messages and attachments.
+ */
+@Component
+public class ConversationPurgeScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConversationPurgeScheduler.class);
+
+	private final ConversationPurger conversationPurger;
+
+	public ConversationPurgeScheduler(final ConversationPurger conversationPurger) {
+		this.conversationPurger = conversationPurger;
+	}
+
+	@Dept44Scheduled(
+		name = "conversation-purge",
+		cron = "${scheduler.conversation-purge.cron}",
+		lockAtMostFor = "${scheduler.conversation-purge.lock-at-most-for}")
+	public void purgeConversations() {
+		final var result = conversationPurger.purgeDeletedConversations();
+		if (result.conversations() == 0 && result.failed() == 0) {
+			return;
+		}
+		LOGGER.info("Purge of deleted conversations complete, {} purged and {} failed, {} message(s) and {} attachment(s) removed in {} ms ({} messages/s)",
+			result.conversations(), result.failed(), result.messages(), result.attachments(), result.elapsed().toMillis(), result.messagesPerSecond());
+	}
+}
@@ -0,0 +1,31 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.scheduling.Dept44Scheduled;
+import se.sundsvall.messageexchange.service.IdempotencyKeys;
+
+/**
+ * Removes the idempotency keys of posted messages whose time to live has passed.
+ */
+@Component
+public class IdempotencyKeyPurgeScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeyPurgeScheduler.class);
+
+	private final IdempotencyKeys idempotencyKeys;
+
+	public IdempotencyKeyPurgeScheduler(final IdempotencyKeys idempotencyKeys) {
+		this.idempotencyKeys = idempotencyKeys;
+	}
+
+	@Dept44Scheduled(
+		name = "idempotency-key-purge",
+		cron = "${scheduler.idempotency-key-purge.cron}",
+		lockAtMostFor = "${scheduler.idempotency-key-purge.lock-at-most-for}")
+	public void purgeIdempotencyKeys() {
+		final var purged = idempotencyKeys.purgeExpired();
+		LOGGER.info("Purge of idempotency keys complete, {} purged", purged);
+	}
+}
@@ -0,0 +1,32 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.scheduling.Dept44Scheduled;
+import se.sundsvall.messageexchange.service.RetentionEnforcer;
+
+/**
+ * Deletes conversations and messages that are older than the retention period of their namespace.
+ */
+@Component
+public class RetentionScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RetentionScheduler.class);
+
+	private final RetentionEnforcer retentionEnforcer;
+
+	public RetentionScheduler(final RetentionEnforcer retentionEnforcer) {
+		this.retentionEnforcer = retentionEnforcer;
+	}
+
+	@Dept44Scheduled(
+		name = "retention",
+		cron = "${scheduler.retention.cron}",
+		lockAtMostFor = "${scheduler.retention.lock-at-most-for}")
+	public void enforceRetention() {
+		final var result = retentionEnforcer.enforce();
+		LOGGER.info("Retention complete, {} conversation(s) marked as deleted and {} message(s) and {} attachment(s) deleted in {} ms",
+			result.conversations(), result.messages(), result.attachments(), result.elapsed().toMillis());
+	}
+}
@@ -0,0 +1,95 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository;
+
+/**
+ * Merges attachment data rows with the same content into one.
+ * <p>
+ * Attachment data stored before it was content addressed, or by concurrent uploads of the same file, may exist more
+ * than once. For every hash and size shared by several rows, the attachments are moved to the row with the lowest id,
+ * the references are recounted and the rows left without references are released. Each group of duplicates is merged in
+ * its own transaction, and at most one batch of groups is merged per call. No file content is read.
+ */
+@Component
+public class AttachmentDataCompactor {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentDataCompactor.class);
+
+	private final AttachmentDataRepository attachmentDataRepository;
+	private final AttachmentDataResolver attachmentDataResolver;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+
+	public AttachmentDataCompactor(
+		final AttachmentDataRepository attachmentDataRepository,
+		final AttachmentDataResolver attachmentDataResolver,
+		final PlatformTransactionManager transactionManager,
+		@Value("${attachment-data-compaction.batch-size:100}") final int batchSize) {
+
+		this.attachmentDataRepository = attachmentDataRepository;
+		this.attachmentDataResolver = attachmentDataResolver;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Merges one batch of duplicated attachment data. A group that fails to be merged is left as it is and retried by the
+	 * next call.
+	 *
+	 * @return the outcome of the compaction
+	 */
+	public Result compact() {
+		final var started = System.nanoTime();
+		var groups = 0;
+		var failed = 0;
+		var deleted = 0;
+
+		for (final var key : attachmentDataRepository.findDuplicateKeys(batchSize)) {
+			try {
+				deleted += transactionTemplate.execute(status -> merge(key.getHash(), key.getFileSize()));
+				groups++;
+			} catch (final RuntimeException e) {
+				failed++;
+				LOGGER.warn("Failed to merge attachment data with hash {}", key.getHash(), e);
+			}
+		}
+
+		return new Result(groups, failed, deleted, Duration.ofNanos(System.nanoTime() - started));
+	}
+
+	/**
+	 * Merges the attachment data with the given content into the row with the lowest id. Must be called within a
+	 * transaction.
+	 *
+	 * @param  hash     the SHA-256 hash of the content
+	 * @param  fileSize the size of the content
+	 * @return          the number of deleted rows
+	 */
+	int merge(final String hash, final int fileSize) {
+		final var ids = attachmentDataRepository.findIdsByHashAndFileSize(hash, fileSize);
+		if (ids.size() < 2) {
+			return 0;
+		}
+
+		attachmentDataRepository.moveAttachments(ids.subList(1, ids.size()), ids.getFirst());
+		return attachmentDataResolver.release(ids);
+	}
+
+	/**
+	 * Outcome of a compaction.
+	 *
+	 * @param groups  the number of merged groups of duplicates
+	 * @param failed  the number of groups that failed to be merged
+	 * @param deleted the number of deleted attachment data rows
+	 * @param elapsed the time the compaction took
+	 */
+	public record Result(int groups, int failed, int deleted, Duration elapsed) {
+	}
+}
@@ -0,0 +1,201 @@
+package se.sundsvall.messageexchange.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.transaction.TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+/**
+ * Resolves the content of uploaded attachments to shared attachment data rows.
+ * <p>
+ * Attachment data is addressed by the SHA-256 hash and size of the file. An upload with the same content as existing
+ * data references that row and increments its reference count, instead of storing the file again. All uploads of a
+ * message are looked up with one query, and the rows found are locked until the end of the transaction so that they
+ * are not deleted in the meantime. Concurrent uploads of the same new file may still create one row each, which are
+ * merged later by the {@link AttachmentDataCompactor}.
+ * <p>
+ * Data is released when attachments are deleted, and rows without references are deleted. Content kept on the file
+ * system is deleted when the transaction has been committed, unless another row with the same content remains. Files
+ * are shared by every row with the same hash, so writes and deletes of a file are serialized on the rows with its hash:
+ * a file is only written while its row is locked, see {@link #beforeWrite(AttachmentDataEntity, AttachmentStore)}, and
+ * deleted while the rows with its hash are locked, which blocks writers until the deletion is committed. Files written
+ * in a transaction that is rolled back are deleted the same way.
+ */
+@Component
+public class AttachmentDataResolver {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentDataResolver.class);
+
+	private final AttachmentDataRepository attachmentDataRepository;
+	private final AttachmentStores attachmentStores;
+	private final TransactionTemplate requiresNewTransactionTemplate;
+
+	public AttachmentDataResolver(final AttachmentDataRepository attachmentDataRepository, final AttachmentStores attachmentStores, final PlatformTransactionManager transactionManager) {
+		this.attachmentDataRepository = attachmentDataRepository;
+		this.attachmentStores = attachmentStores;
+		this.requiresNewTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.requiresNewTransactionTemplate.setPropagationBehavior(PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Returns the existing attachment data with the given contents, with one reference added per occurrence of a content.
+	 * Must be called within a transaction.
+	 *
+	 * @param  contents the contents of the uploads
+	 * @return          the existing attachment data by content, without the contents that are not stored yet
+	 */
+	public Map<Content, AttachmentDataEntity> reuse(final List<Content> contents) {
+		if (contents.isEmpty()) {
+			return Map.of();
+		}
+
+		final var requested = Set.copyOf(contents);
+		final var existingIds = new HashMap<Content, String>();
+		attachmentDataRepository.findByHashesForUpdate(requested.stream().map(Content::hash).collect(toSet())).stream()
+			.filter(stored -> requested.contains(new Content(stored.getHash(), stored.getFileSize())))
+			.forEach(stored -> existingIds.putIfAbsent(new Content(stored.getHash(), stored.getFileSize()), stored.getId()));
+		if (existingIds.isEmpty()) {
+			return Map.of();
+		}
+
+		// Contents occurring more than once get all their references in one update
+		contents.stream()
+			.filter(existingIds::containsKey)
+			.collect(groupingBy(identity(), counting()))
+			.entrySet().stream()
+			.collect(groupingBy(entry -> entry.getValue().intValue(), mapping(entry -> existingIds.get(entry.getKey()), toSet())))
+			.forEach((count, ids) -> attachmentDataRepository.incrementReferenceCounts(ids, count));
+
+		final var result = new HashMap<Content, AttachmentDataEntity>();
+		existingIds.forEach((content, id) -> result.put(content, attachmentDataRepository.getReferenceById(id)));
+		return result;
+	}
+
+	/**
+	 * Prepares attachment data for its content to be written to a store. Must be called within a transaction, right before
+	 * the content is written.
+	 * <p>
+	 * Content kept on the file system is shared by every row with the same hash, and is only written while a row with the
+	 * hash is locked by the transaction: a new row is inserted, and an existing row is locked. A concurrent deletion of the
+	 * file therefore either completes before the file is written, or waits until the transaction has ended and sees its
+	 * row. The file is deleted if the transaction is rolled back, unless a committed row still references it.
+	 *
+	 * @param attachmentData the attachment data, with hash and file size set
+	 * @param store          the store that the content is written to
+	 */
+	public void beforeWrite(final AttachmentDataEntity attachmentData, final AttachmentStore store) {
+		if (store.storageType() != FILE_SYSTEM) {
+			return;
+		}
+
+		if (attachmentData.getId() == null) {
+			attachmentData.setStorage(FILE_SYSTEM);
+			attachmentDataRepository.saveAndFlush(attachmentData);
+		} else {
+			attachmentDataRepository.lockById(attachmentData.getId());
+		}
+		afterRollback(() -> deleteFiles(List.of(attachmentData.getHash())));
+	}
+
+	/**
+	 * Recounts the references of attachment data and deletes the rows that are no longer referenced. Must be called
+	 * within a transaction, after the attachments have been deleted from the database.
+	 *
+	 * @param  ids the ids of the attachment data that lost references
+	 * @return     the number of deleted rows
+	 */
+	public int release(final Collection<String> ids) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+
+		final var distinctIds = Set.copyOf(ids);
+		attachmentDataRepository.updateReferenceCounts(distinctIds);
+		final var unreferencedFiles = attachmentDataRepository.findUnreferencedHashes(distinctIds, FILE_SYSTEM.name());
+		final var deleted = attachmentDataRepository.deleteUnreferenced(distinctIds);
+		if (!unreferencedFiles.isEmpty()) {
+			afterCommit(() -> deleteFiles(unreferencedFiles));
+		}
+		return deleted;
+	}
+
+	private void deleteFiles(final List<String> hashes) {
+		attachmentStores.get(FILE_SYSTEM).ifPresent(store -> hashes.forEach(hash -> {
+			try {
+				requiresNewTransactionTemplate.executeWithoutResult(status -> deleteFile(store, hash));
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Failed to delete attachment content with hash {}", hash, e);
+			}
+		}));
+	}
+
+	private void deleteFile(final AttachmentStore store, final String hash) {
+		// The rows with the hash, or the gap where they would be, stay locked until the file has been deleted
+		if (attachmentDataRepository.countByHashAndStorageForUpdate(hash, FILE_SYSTEM.name()) > 0) {
+			return;
+		}
+		try {
+			store.delete(hash);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void afterCommit(final Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private static void afterRollback(final Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(final int status) {
+				if (status == STATUS_ROLLED_BACK) {
+					action.run();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Content of an attachment.
+	 *
+	 * @param hash     the SHA-256 hash of the content
+	 * @param fileSize the size of the content
+	 */
+	public record Content(String hash, int fileSize) {
+	}
+}
@@ -0,0 +1,145 @@
+package se.sundsvall.messageexchange.service;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+/**
+ * Moves attachment content from the database to the file system, for attachment data referenced from namespaces that
+ * are stored on the file system.
+ * <p>
+ * The rows are walked in id order. Every row is moved in its own transaction, so that at most one blob is held in
+ * memory at a time, and the migration pauses after each batch of rows to throttle the load on the database. The file is
+ * written before the row is updated, which means that a migration that is interrupted leaves the content readable from
+ * the database and is resumed by running it again.
+ */
+@Component
+public class AttachmentStoreMigrator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentStoreMigrator.class);
+
+	private final AttachmentStoreProperties attachmentStoreProperties;
+	private final AttachmentStores attachmentStores;
+	private final AttachmentDataRepository attachmentDataRepository;
+	private final AttachmentDataResolver attachmentDataResolver;
+	private final ConversationRepository conversationRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	public AttachmentStoreMigrator(
+		final AttachmentStoreProperties attachmentStoreProperties,
+		final AttachmentStores attachmentStores,
+		final AttachmentDataRepository attachmentDataRepository,
+		final AttachmentDataResolver attachmentDataResolver,
+		final ConversationRepository conversationRepository,
+		final PlatformTransactionManager transactionManager) {
+
+		this.attachmentStoreProperties = attachmentStoreProperties;
+		this.attachmentStores = attachmentStores;
+		this.attachmentDataRepository = attachmentDataRepository;
+		this.attachmentDataResolver = attachmentDataResolver;
+		this.conversationRepository = conversationRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Moves the content of all attachment data referenced from namespaces stored on the file system. Rows that fail to be
+	 * moved are logged and left in the database, and retried by the next call.
+	 *
+	 * @return the outcome of the migration
+	 */
+	public Result migrate() {
+		final var started = System.nanoTime();
+		final var target = attachmentStores.get(FILE_SYSTEM).orElse(null);
+		final var namespaces = conversationRepository.findNamespaces().stream()
+			.filter(namespace -> attachmentStoreProperties.storageOf(namespace) == FILE_SYSTEM)
+			.toList();
+		if (target == null || namespaces.isEmpty()) {
+			return new Result(0, 0, 0, Duration.ofNanos(System.nanoTime() - started));
+		}
+
+		final var batchSize = attachmentStoreProperties.migration().batchSize();
+		var migrated = 0;
+		var failed = 0;
+		var bytes = 0L;
+		var afterId = "";
+		List<String> ids;
+		do {
+			ids = attachmentDataRepository.findIdsStoredInDatabase(namespaces, afterId, batchSize);
+			for (final var id : ids) {
+				try {
+					bytes += transactionTemplate.execute(status -> move(id, target));
+					migrated++;
+				} catch (final RuntimeException e) {
+					failed++;
+					LOGGER.warn("Failed to move content of attachment data {} to the file system", id, e);
+				}
+			}
+			afterId = ids.isEmpty() ? afterId : ids.getLast();
+			if (!ids.isEmpty()) {
+				pause();
+			}
+		} while (ids.size() == batchSize && !Thread.currentThread().isInterrupted());
+
+		return new Result(migrated, failed, bytes, Duration.ofNanos(System.nanoTime() - started));
+	}
+
+	/**
+	 * Moves the content of attachment data to another store. Must be called within a transaction.
+	 *
+	 * @param  id     the id of the attachment data
+	 * @param  target the store to move the content to
+	 * @return        the number of bytes moved
+	 */
+	long move(final String id, final AttachmentStore target) {
+		final var attachmentData = attachmentDataRepository.findById(id)
+			.orElseThrow(() -> new IllegalStateException("Attachment data with id '%s' not found".formatted(id)));
+		if (attachmentData.getFile() == null) {
+			throw new IllegalStateException("Attachment data with id '%s' has no content in the database".formatted(id));
+		}
+
+		try {
+			final var size = attachmentData.getFile().length();
+			attachmentDataResolver.beforeWrite(attachmentData, target);
+			target.write(attachmentData, attachmentData.getFile().getBinaryStream(), size);
+			return size;
+		} catch (final IOException | SQLException e) {
+			throw new IllegalStateException("Failed to move content of attachment data with id '%s'".formatted(id), e);
+		}
+	}
+
+	private void pause() {
+		final var pause = attachmentStoreProperties.migration().pauseBetweenBatches();
+		if (pause == null || pause.isZero() || pause.isNegative()) {
+			return;
+		}
+		try {
+			Thread.sleep(pause);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Outcome of a migration.
+	 *
+	 * @param migrated the number of attachment data rows moved
+	 * @param failed   the number of attachment data rows that failed to be moved
+	 * @param bytes    the number of bytes moved
+	 * @param elapsed  the time the migration took
+	 */
+	public record Result(int migrated, int failed, long bytes, Duration elapsed) {
+	}
+}
@@ -0,0 +1,121 @@
+package se.sundsvall.messageexchange.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messageexchange.integration.db.ConversationCounterRepository;
+import se.sundsvall.messageexchange.integration.db.model.CounterType;
+import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageType;
+import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
+import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
+
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNullElse;
+import static se.sundsvall.messageexchange.integration.db.model.CounterType.MESSAGES;
+import static se.sundsvall.messageexchange.integration.db.model.CounterType.READ_BY;
+import static se.sundsvall.messageexchange.integration.db.model.CounterType.READ_BY_PART;
+
+/**
+ * Maintains the read by statistics counters of conversations. The counters are updated in the transaction that creates,
+ * reads or deletes messages, so that the statistics can be read without aggregating the messages of a conversation.
+ * Counters that have drifted, e.g. due to concurrent first reads of the same messages, are corrected by
+ * {@link #rebuild(String)}.
+ */
+@Component
+public class ConversationCounters {
+
+	private static final String NO_KEY = "";
+
+	private final ConversationCounterRepository conversationCounterRepository;
+
+	public ConversationCounters(final ConversationCounterRepository conversationCounterRepository) {
+		this.conversationCounterRepository = conversationCounterRepository;
+	}
+
+	/**
+	 * Counts a created message, including the receipts it has been created with.
+	 *
+	 * @param message the created message
+	 */
+	public void messageCreated(final MessageEntity message) {
+		count(message, 1);
+	}
+
+	/**
+	 * Counts a batch of created messages, including the receipts they have been created with. Each counter is updated
+	 * once for the whole batch.
+	 *
+	 * @param messages the created messages
+	 */
+	public void messagesCreated(final Collection<MessageEntity> messages) {
+		final var deltas = new LinkedHashMap<CounterKey, Long>();
+		messages.forEach(message -> collect(message, 1, deltas));
+		apply(deltas);
+	}
+
+	/**
+	 * Removes a message that is about to be deleted, including its receipts, from the counters.
+	 *
+	 * @param message the message to delete
+	 */
+	public void messageDeleted(final MessageEntity message) {
+		count(message, -1);
+	}
+
+	public void readBy(final String conversationId, final MessageType messageType, final String identifierId, final long count) {
+		increment(conversationId, messageType, READ_BY, identifierId, count);
+	}
+
+	public void readByPart(final String conversationId, final MessageType messageType, final String part, final long count) {
+		increment(conversationId, messageType, READ_BY_PART, part, count);
+	}
+
+	/**
+	 * Rebuilds the counters of a conversation from its messages and read receipts, in a transaction of its own.
+	 *
+	 * @param conversationId the id of the conversation
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void rebuild(final String conversationId) {
+		conversationCounterRepository.deleteByConversation(conversationId);
+		conversationCounterRepository.insertMessageCounters(conversationId);
+		conversationCounterRepository.insertReadByCounters(conversationId);
+		conversationCounterRepository.insertReadByPartCounters(conversationId);
+	}
+
+	private void count(final MessageEntity message, final long delta) {
+		final var deltas = new LinkedHashMap<CounterKey, Long>();
+		collect(message, delta, deltas);
+		apply(deltas);
+	}
+
+	private static void collect(final MessageEntity message, final long delta, final Map<CounterKey, Long> deltas) {
+		final var conversationId = message.getConversation().getId();
+		final var messageType = message.getType();
+
+		deltas.merge(new CounterKey(conversationId, messageType, MESSAGES, NO_KEY), delta, Long::sum);
+		requireNonNullElse(message.getReadBy(), emptyList()).stream()
+			.map(ReadByEntity::getIdentifier)
+			.forEach(identifier -> deltas.merge(new CounterKey(conversationId, messageType, READ_BY, identifier.getId()), delta, Long::sum));
+		requireNonNullElse(message.getReadByPart(), emptyList()).stream()
+			.map(ReadByPartEntity::getPart)
+			.forEach(part -> deltas.merge(new CounterKey(conversationId, messageType, READ_BY_PART, part), delta, Long::sum));
+	}
+
+	private void apply(final Map<CounterKey, Long> deltas) {
+		deltas.forEach((key, delta) -> increment(key.conversationId(), key.messageType(), key.counterType(), key.counterKey(), delta));
+	}
+
+	private void increment(final String conversationId, final MessageType messageType, final CounterType counterType, final String counterKey, final long delta) {
+		if (delta != 0) {
+			conversationCounterRepository.increment(conversationId, messageType.name(), counterType.name(), counterKey, delta);
+		}
+	}
+
+	private record CounterKey(String conversationId, MessageType messageType, CounterType counterType, String counterKey) {
+	}
+}
@@ -0,0 +1,100 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+
+/**
+ * In-process cache of conversations known to exist within a namespace and municipality.
+ * <p>
+ * Cache misses are resolved with an existence query, which does not load the conversation and its eagerly fetched
+ * associations. Only existing conversations are cached, and each entry expires after the configured time to live. The
+ * cache is bounded: when it reaches its capacity, expired entries are removed and, if that is not enough, the cache is
+ * cleared. Entries are evicted when a conversation is deleted by this instance, either directly or by the retention
+ * policy, while the time to live bounds how long other instances may consider a deleted conversation to exist.
+ */
+@Component
+public class ConversationExistenceCache {
+
+	private final ConversationRepository conversationRepository;
+	private final int capacity;
+	private final long timeToLiveNanos;
+	private final Map<ConversationKey, Long> cache = new ConcurrentHashMap<>();
+
+	public ConversationExistenceCache(
+		final ConversationRepository conversationRepository,
+		@Value("${conversation-existence-cache.capacity:10000}") final int capacity,
+		@Value("${conversation-existence-cache.time-to-live:PT5M}") final Duration timeToLive) {
+
+		this.conversationRepository = conversationRepository;
+		this.capacity = capacity;
+		this.timeToLiveNanos = timeToLive.toNanos();
+	}
+
+	/**
+	 * Checks if a conversation exists in a namespace and municipality.
+	 *
+	 * @param  namespace      the namespace of the conversation
+	 * @param  municipalityId the municipality id of the conversation
+	 * @param  conversationId the id of the conversation
+	 * @return                true if the conversation exists, false otherwise
+	 */
+	public boolean exists(final String namespace, final String municipalityId, final String conversationId) {
+		final var key = new ConversationKey(namespace, municipalityId, conversationId);
+		final var now = System.nanoTime();
+		final var expiresAt = cache.get(key);
+		if (expiresAt != null) {
+			if (now - expiresAt < 0) {
+				return true;
+			}
+			cache.remove(key, expiresAt);
+		}
+
+		if (!conversationRepository.existsByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId)) {
+			return false;
+		}
+		put(key, now + timeToLiveNanos);
+		return true;
+	}
+
+	/**
+	 * Removes a conversation from the cache.
+	 *
+	 * @param namespace      the namespace of the conversation
+	 * @param municipalityId the municipality id of the conversation
+	 * @param conversationId the id of the conversation
+	 */
+	public void evict(final String namespace, final String municipalityId, final String conversationId) {
+		cache.remove(new ConversationKey(namespace, municipalityId, conversationId));
+	}
+
+	/**
+	 * Removes all conversations in a namespace from the cache.
+	 *
+	 * @param namespace the namespace of the conversations
+	 */
+	public void evictNamespace(final String namespace) {
+		cache.keySet().removeIf(key -> key.namespace().equals(namespace));
+	}
+
+	int getCacheSize() {
+		return cache.size();
+	}
+
+	private void put(final ConversationKey key, final long expiresAt) {
+		if (cache.size() >= capacity) {
+			final var now = System.nanoTime();
+			cache.values().removeIf(existing -> now - existing >= 0);
+			if (cache.size() >= capacity) {
+				cache.clear();
+			}
+		}
+		cache.put(key, expiresAt);
+	}
+
+	private record ConversationKey(String namespace, String municipalityId, String conversationId) {
+	}
+}
@@ -0,0 +1,154 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.messageexchange.integration.db.ConversationPurgeRepository;
+
+/**
+ * Removes conversations that have been marked as deleted, together with their messages, read receipts and attachments.
+ * <p>
+ * Messages are removed with set based deletes in batches of the configured size, one transaction per batch, so that no
+ * entities are loaded and no transaction holds more than one batch of rows. Rows are deleted children before parents,
+ * which means that a purge that is interrupted can be resumed by running it again. The conversation itself is deleted
+ * when it has no messages left.
+ */
+@Component
+public class ConversationPurger {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConversationPurger.class);
+
+	private final ConversationPurgeRepository conversationPurgeRepository;
+	private final AttachmentDataResolver attachmentDataResolver;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+
+	public ConversationPurger(
+		final ConversationPurgeRepository conversationPurgeRepository,
+		final AttachmentDataResolver attachmentDataResolver,
+		final PlatformTransactionManager transactionManager,
+		@Value("${conversation-purge.batch-size:500}") final int batchSize) {
+
+		this.conversationPurgeRepository = conversationPurgeRepository;
+		this.attachmentDataResolver = attachmentDataResolver;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Purges the deleted conversations, at most one batch of conversations per call. A conversation that fails to be
+	 * purged is left as it is and retried by the next call.
+	 *
+	 * @return the outcome of the purge
+	 */
+	public Result purgeDeletedConversations() {
+		final var started = System.nanoTime();
+		var purged = 0;
+		var failed = 0;
+		var messages = 0L;
+		var attachments = 0L;
+
+		for (final var conversationId : conversationPurgeRepository.findDeletedConversationIds(batchSize)) {
+			try {
+				final var result = purge(conversationId);
+				purged++;
+				messages += result.messages();
+				attachments += result.attachments();
+			} catch (final RuntimeException e) {
+				failed++;
+				LOGGER.warn("Failed to purge deleted conversation {}", conversationId, e);
+			}
+		}
+
+		return new Result(purged, failed, messages, attachments, Duration.ofNanos(System.nanoTime() - started));
+	}
+
+	/**
+	 * Purges a deleted conversation.
+	 *
+	 * @param  conversationId the id of the conversation
+	 * @return                the number of purged messages and attachments
+	 */
+	Result purge(final String conversationId) {
+		final var started = System.nanoTime();
+		var messages = 0L;
+		var attachments = 0L;
+
+		Batch batch;
+		do {
+			batch = transactionTemplate.execute(status -> purgeMessageBatch(conversationId));
+			messages += batch.messages();
+			attachments += batch.attachments();
+			if (batch.messages() > 0) {
+				LOGGER.debug("Purged {} message(s) of deleted conversation {}, {} so far", batch.messages(), conversationId, messages);
+			}
+		} while (batch.messages() == batchSize);
+
+		transactionTemplate.executeWithoutResult(status -> purgeConversation(conversationId));
+
+		final var result = new Result(1, 0, messages, attachments, Duration.ofNanos(System.nanoTime() - started));
+		LOGGER.info("Purged deleted conversation {} with {} message(s) and {} attachment(s) in {} ms ({} messages/s)",
+			conversationId, messages, attachments, result.elapsed().toMillis(), result.messagesPerSecond());
+		return result;
+	}
+
+	private Batch purgeMessageBatch(final String conversationId) {
+		final var messageIds = conversationPurgeRepository.findMessageIds(conversationId, batchSize);
+		if (messageIds.isEmpty()) {
+			return new Batch(0, 0);
+		}
+
+		return new Batch(messageIds.size(), deleteMessages(messageIds));
+	}
+
+	/**
+	 * Deletes messages together with their read receipts and attachments. Attachment data is only deleted when it is no
+	 * longer referenced by any attachment. Must be called within a transaction.
+	 *
+	 * @param  messageIds the ids of the messages
+	 * @return            the number of deleted attachments
+	 */
+	int deleteMessages(final List<String> messageIds) {
+		final var attachmentDataIds = conversationPurgeRepository.findAttachmentDataIds(messageIds);
+		conversationPurgeRepository.deleteReadBy(messageIds);
+		conversationPurgeRepository.deleteReadByPart(messageIds);
+		conversationPurgeRepository.deleteAttachments(messageIds);
+		attachmentDataResolver.release(attachmentDataIds);
+		conversationPurgeRepository.deleteMessages(messageIds);
+		return attachmentDataIds.size();
+	}
+
+	private void purgeConversation(final String conversationId) {
+		conversationPurgeRepository.deleteParticipants(conversationId);
+		conversationPurgeRepository.deleteMetadataValues(conversationId);
+		conversationPurgeRepository.deleteMetadata(conversationId);
+		conversationPurgeRepository.deleteExternalReferenceValues(conversationId);
+		conversationPurgeRepository.deleteExternalReferences(conversationId);
+		conversationPurgeRepository.deleteConversation(conversationId);
+	}
+
+	/**
+	 * Outcome of a purge.
+	 *
+	 * @param conversations the number of purged conversations
+	 * @param failed        the number of conversations that failed to be purged
+	 * @param messages      the number of purged messages
+	 * @param attachments   the number of purged attachments
+	 * @param elapsed       the time the purge took
+	 */
+	public record Result(int conversations, int failed, long messages, long attachments, Duration elapsed) {
+
+		public long messagesPerSecond() {
+			final var millis = elapsed.toMillis();
+			return millis == 0 ? messages : messages * 1000 / millis;
+		}
+	}
+
+	private record Batch(int messages, int attachments) {
+	}
+}
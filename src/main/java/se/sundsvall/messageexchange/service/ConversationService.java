@@ -1,26 +1,31 @@
 package se.sundsvall.messageexchange.service;
 
+import java.time.OffsetDateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.messageexchange.api.model.Conversation;
 import se.sundsvall.messageexchange.api.model.ReadByStatistics;
+import se.sundsvall.messageexchange.api.model.Slice;
+import se.sundsvall.messageexchange.integration.db.ConversationCounterRepository;
 import se.sundsvall.messageexchange.integration.db.ConversationRepository;
 import se.sundsvall.messageexchange.integration.db.MessageRepository;
+import se.sundsvall.messageexchange.integration.db.SliceQueryExecutor;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageType;
-import se.sundsvall.messageexchange.integration.db.model.SequenceEntity;
+import se.sundsvall.messageexchange.service.mapper.ConversationDiff;
 
+import static java.util.Optional.ofNullable;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.CONVERSATION_CREATED_MSG;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.conversationDiffMessage;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.toConversation;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.toConversationEntity;
-import static se.sundsvall.messageexchange.service.mapper.Mapper.toConversations;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.toIdentifierEntity;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.toReadByStatistics;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.updateConversationEntity;
@@ -32,68 +37,108 @@ public class ConversationService {
 
 	private final ConversationRepository conversationRepository;
 	private final MessageRepository messageRepository;
-
-	public ConversationService(final ConversationRepository conversationRepository, final MessageRepository messageRepository) {
+	private final SliceQueryExecutor sliceQueryExecutor;
+	private final IdentifierResolver identifierResolver;
+	private final ConversationCounters conversationCounters;
+	private final ConversationCounterRepository conversationCounterRepository;
+	private final ConversationExistenceCache conversationExistenceCache;
+	private final MessageSequenceAllocator messageSequenceAllocator;
+
+	public ConversationService(final ConversationRepository conversationRepository, final MessageRepository messageRepository, final SliceQueryExecutor sliceQueryExecutor,
+		final IdentifierResolver identifierResolver, final ConversationCounters conversationCounters, final ConversationCounterRepository conversationCounterRepository,
+		final ConversationExistenceCache conversationExistenceCache, final MessageSequenceAllocator messageSequenceAllocator) {
 		this.conversationRepository = conversationRepository;
 		this.messageRepository = messageRepository;
+		this.sliceQueryExecutor = sliceQueryExecutor;
+		this.identifierResolver = identifierResolver;
+		this.conversationCounters = conversationCounters;
+		this.conversationCounterRepository = conversationCounterRepository;
+		this.conversationExistenceCache = conversationExistenceCache;
+		this.messageSequenceAllocator = messageSequenceAllocator;
 	}
 
 	public Page<Conversation> readConversations(final String namespace, final String municipalityId, final Specification<ConversationEntity> filter, final Pageable pageable) {
 
 		final var fullFilter = withNamespace(namespace).and(withMunicipalityId(municipalityId)).and(filter);
 		final var matches = conversationRepository.findAll(fullFilter, pageable);
-		final var conversations = toConversations(matches.getContent());
-		conversations.forEach(conversation -> messageRepository.findTopByConversationIdOrderBySequenceNumberDesc(conversation.getId())
-			.ifPresent(message -> conversation.setLatestSequenceNumber(message.getSequenceNumber().getId())));
+		final var conversations = matches.getContent().stream()
+			.map(ConversationService::toConversationWithLatestSequenceNumber)
+			.toList();
 
 		return new PageImpl<>(conversations, pageable, matches.getTotalElements());
 	}
 
-	public Conversation readConversation(final String namespace, final String municipalityId, final String conversationId) {
+	public Slice<Conversation> readConversationSlice(final String namespace, final String municipalityId, final Specification<ConversationEntity> filter, final Pageable pageable) {
 
-		final var entity = findExistingConversation(municipalityId, namespace, conversationId);
-		final var latestSequence = messageRepository.findTopByConversationIdOrderBySequenceNumberDesc(conversationId);
+		final var fullFilter = withNamespace(namespace).and(withMunicipalityId(municipalityId)).and(filter);
+		final var matches = sliceQueryExecutor.findSlice(ConversationEntity.class, fullFilter, pageable);
+
+		return Slice.<Conversation>create()
+			.withContent(matches.getContent().stream()
+				.map(ConversationService::toConversationWithLatestSequenceNumber)
+				.toList())
+			.withNumber(matches.getNumber())
+			.withSize(matches.getSize())
+			.withHasNext(matches.hasNext());
+	}
 
-		return toConversation(entity).withLatestSequenceNumber(latestSequence.map(MessageEntity::getSequenceNumber).map(SequenceEntity::getId).orElse(null));
+	public Conversation readConversation(final String namespace, final String municipalityId, final String conversationId) {
+
+		return toConversationWithLatestSequenceNumber(findExistingConversation(municipalityId, namespace, conversationId));
 	}
 
+	@Transactional
 	public String createConversation(final String namespace, final String municipalityId, final Conversation conversation) {
 
 		final var entity = toConversationEntity(municipalityId, namespace, conversation);
+		resolveParticipants(entity);
 		final var savedConversation = conversationRepository.save(entity);
-		final var message = createSystemMessage(CONVERSATION_CREATED_MSG, savedConversation);
-		messageRepository.save(message);
+		saveSystemMessage(CONVERSATION_CREATED_MSG, savedConversation);
 		return savedConversation.getId();
 	}
 
+	@Transactional
 	public Conversation updateConversation(final String namespace, final String municipalityId, final String conversationId, final Conversation conversation) {
 
 		final var entity = findExistingConversation(municipalityId, namespace, conversationId);
 
-		conversationDiffMessage(entity, conversation).ifPresent(msg -> {
-			final var message = createSystemMessage(msg, entity);
-			messageRepository.save(message);
-		});
+		final var diff = ConversationDiff.of(entity, conversation);
+		conversationDiffMessage(diff).ifPresent(msg -> saveSystemMessage(msg, entity));
 
-		return toConversation(conversationRepository.save(updateConversationEntity(entity, conversation)));
+		// Resolving inserts new identifiers and flushes, so the participants are resolved before the entity is changed
+		ofNullable(conversation.getParticipants())
+			.ifPresent(participants -> participants.forEach(participant -> identifierResolver.resolveId(participant.getType(), participant.getValue())));
+		final var updatedEntity = updateConversationEntity(entity, conversation, diff);
+		resolveParticipants(updatedEntity);
+
+		return toConversation(conversationRepository.save(updatedEntity));
 	}
 
 	public ReadByStatistics countReadBy(final String namespace, final String municipalityId, final String conversationId, final boolean includeSystemMessages) {
 
-		findExistingConversation(municipalityId, namespace, conversationId);
+		verifyConversationExists(municipalityId, namespace, conversationId);
 
-		final var messageCount = messageRepository.countMessages(conversationId, includeSystemMessages);
-		final var readByCounts = messageRepository.countReadByGroupedByIdentifier(conversationId, includeSystemMessages);
-		final var readByPartCounts = messageRepository.countReadByGroupedByPart(conversationId, includeSystemMessages);
+		final var messageCount = conversationCounterRepository.countMessages(conversationId, includeSystemMessages);
+		final var readByCounts = conversationCounterRepository.countReadByGroupedByIdentifier(conversationId, includeSystemMessages);
+		final var readByPartCounts = conversationCounterRepository.countReadByGroupedByPart(conversationId, includeSystemMessages);
 
 		return toReadByStatistics(messageCount, readByCounts, readByPartCounts);
 	}
 
+	/**
+	 * Deletes a conversation. The conversation is marked as deleted, which hides it immediately, while the conversation
+	 * and its messages are removed later by {@link ConversationPurger}.
+	 *
+	 * @param namespace      the namespace of the conversation
+	 * @param municipalityId the municipality id of the conversation
+	 * @param conversationId the id of the conversation
+	 */
 	public void deleteConversation(final String namespace, final String municipalityId, final String conversationId) {
 
-		findExistingConversation(municipalityId, namespace, conversationId);
+		verifyConversationExists(municipalityId, namespace, conversationId);
 
-		conversationRepository.deleteById(conversationId);
+		conversationRepository.markDeleted(conversationId, OffsetDateTime.now());
+		conversationExistenceCache.evict(namespace, municipalityId, conversationId);
 	}
 
 	private ConversationEntity findExistingConversation(final String municipalityId, final String namespace, final String conversationId) {
@@ -101,12 +146,35 @@ public class ConversationService {
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "Conversation with id %s not found".formatted(conversationId)));
 	}
 
+	private void verifyConversationExists(final String municipalityId, final String namespace, final String conversationId) {
+		if (!conversationExistenceCache.exists(namespace, municipalityId, conversationId)) {
+			throw Problem.valueOf(NOT_FOUND, "Conversation with id %s not found".formatted(conversationId));
+		}
+	}
+
+	private void resolveParticipants(final ConversationEntity entity) {
+		ofNullable(entity.getParticipants()).ifPresent(participants -> participants.forEach(identifierResolver::resolve));
+	}
+
+	private static Conversation toConversationWithLatestSequenceNumber(final ConversationEntity entity) {
+		return toConversation(entity).withLatestSequenceNumber(entity.getLatestSequenceNumber());
+	}
+
+	private void saveSystemMessage(final String content, final ConversationEntity conversationEntity) {
+		final var message = createSystemMessage(content, conversationEntity);
+		messageRepository.save(message);
+		conversationCounters.messageCreated(message);
+
+		conversationRepository.updateLatestSequenceNumber(conversationEntity.getId(), message.getSequenceNumber(),
+			ofNullable(message.getCreated()).orElseGet(OffsetDateTime::now));
+	}
+
 	private MessageEntity createSystemMessage(String content, ConversationEntity conversationEntity) {
 		return MessageEntity.create()
 			.withType(MessageType.SYSTEM_CREATED)
 			.withContent(content)
-			.withSequenceNumber(new SequenceEntity())
+			.withSequenceNumber(messageSequenceAllocator.next(conversationEntity))
 			.withConversation(conversationEntity)
-			.withCreatedBy(toIdentifierEntity(se.sundsvall.dept44.support.Identifier.get()));
+			.withCreatedBy(identifierResolver.resolve(toIdentifierEntity(se.sundsvall.dept44.support.Identifier.get())));
 	}
 }
@@ -0,0 +1,97 @@
+package se.sundsvall.messageexchange.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.messageexchange.integration.db.IdempotencyKeyRepository;
+
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+/**
+ * Keeps track of the idempotency keys sent by clients when posting messages, so that a retried post returns the message
+ * created by the first attempt instead of creating a duplicate.
+ * <p>
+ * A key is scoped to the conversation it was used in, and is stored in the same transaction as the message it created.
+ * Keys are kept for at least the configured time to live, after which they are removed by a scheduled purge. When the
+ * same key is used by concurrent requests, only the first one to be committed creates a message, while the others fail
+ * with a conflict.
+ */
+@Component
+public class IdempotencyKeys {
+
+	private final IdempotencyKeyRepository idempotencyKeyRepository;
+	private final Duration timeToLive;
+
+	public IdempotencyKeys(
+		final IdempotencyKeyRepository idempotencyKeyRepository,
+		@Value("${idempotency-key.time-to-live:P1D}") final Duration timeToLive) {
+
+		this.idempotencyKeyRepository = idempotencyKeyRepository;
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Returns the id of the message created with an idempotency key in a conversation.
+	 *
+	 * @param  municipalityId the municipality id of the conversation
+	 * @param  namespace      the namespace of the conversation
+	 * @param  conversationId the id of the conversation
+	 * @param  idempotencyKey the idempotency key sent by the client, may be null
+	 * @return                the id of the message, or empty if no message has been created with the key
+	 */
+	public Optional<String> findMessageId(final String municipalityId, final String namespace, final String conversationId, final String idempotencyKey) {
+		if (idempotencyKey == null) {
+			return Optional.empty();
+		}
+		return idempotencyKeyRepository.findMessageId(toId(municipalityId, namespace, conversationId, idempotencyKey));
+	}
+
+	/**
+	 * Stores the idempotency key that a message was created with. Does nothing if no key was sent.
+	 *
+	 * @param  municipalityId the municipality id of the conversation
+	 * @param  namespace      the namespace of the conversation
+	 * @param  conversationId the id of the conversation
+	 * @param  idempotencyKey the idempotency key sent by the client, may be null
+	 * @param  messageId      the id of the created message
+	 * @throws Problem        with status 409 if the key has been stored by a concurrent request
+	 */
+	public void register(final String municipalityId, final String namespace, final String conversationId, final String idempotencyKey, final String messageId) {
+		if (idempotencyKey == null) {
+			return;
+		}
+
+		try {
+			idempotencyKeyRepository.insert(toId(municipalityId, namespace, conversationId, idempotencyKey), messageId, OffsetDateTime.now().truncatedTo(MILLIS));
+		} catch (final DataIntegrityViolationException e) {
+			throw Problem.valueOf(CONFLICT, "Idempotency key %s is already in use by another request".formatted(idempotencyKey));
+		}
+	}
+
+	/**
+	 * Removes the idempotency keys whose time to live has passed.
+	 *
+	 * @return the number of removed keys
+	 */
+	public int purgeExpired() {
+		return idempotencyKeyRepository.deleteByCreatedBefore(OffsetDateTime.now().minus(timeToLive));
+	}
+
+	static String toId(final String municipalityId, final String namespace, final String conversationId, final String idempotencyKey) {
+		final var key = String.join("|", municipalityId, namespace, conversationId, idempotencyKey);
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+}
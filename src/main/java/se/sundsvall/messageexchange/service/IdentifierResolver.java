@@ -0,0 +1,155 @@
+package se.sundsvall.messageexchange.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.messageexchange.integration.db.IdentifierRepository;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+
+/**
+ * Resolves identifiers to their row in the identifier dictionary.
+ * <p>
+ * The id of an identifier is the SHA-256 hash of its length prefixed type and value, which means that it can be
+ * computed without a lookup and that every reference to the same identifier ends up on the same row. The row is created
+ * with an {@code insert ignore} the first time an identifier is seen. Identifiers known to exist are kept in an
+ * in-process cache, so that the insert is skipped for them. Identifiers inserted in the current transaction are only
+ * added to the cache when the transaction has been committed, and are not inserted again within the same transaction.
+ * The cache is cleared when it reaches its capacity.
+ * <p>
+ * Note that the insert flushes the persistence context, so identifiers must be resolved before they are added to a
+ * managed entity.
+ */
+@Component
+public class IdentifierResolver {
+
+	private final IdentifierRepository identifierRepository;
+	private final int capacity;
+	private final Map<IdentifierKey, String> cache = new ConcurrentHashMap<>();
+
+	public IdentifierResolver(
+		final IdentifierRepository identifierRepository,
+		@Value("${identifier-cache.capacity:10000}") final int capacity) {
+
+		this.identifierRepository = identifierRepository;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Assigns the dictionary id to an identifier entity, making sure that the row exists. Entities that already have an
+	 * id are returned as they are.
+	 *
+	 * @param  identifier the identifier entity to resolve, may be null
+	 * @return            the same identifier entity, with its id set
+	 */
+	public IdentifierEntity resolve(final IdentifierEntity identifier) {
+		if (identifier == null || identifier.getId() != null) {
+			return identifier;
+		}
+		return identifier.withId(resolveId(identifier.getType(), identifier.getValue()));
+	}
+
+	/**
+	 * Returns the dictionary id of an identifier, making sure that the row exists.
+	 *
+	 * @param  type  the type of the identifier
+	 * @param  value the value of the identifier
+	 * @return       the id of the identifier
+	 */
+	public String resolveId(final String type, final String value) {
+		final var key = new IdentifierKey(type, value);
+		final var cachedId = cache.get(key);
+		if (cachedId != null) {
+			return cachedId;
+		}
+
+		final var pending = pendingInTransaction();
+		if (pending == null) {
+			final var id = toId(type, value);
+			identifierRepository.insertIgnore(id, type, value);
+			cacheId(key, id);
+			return id;
+		}
+
+		return pending.computeIfAbsent(key, k -> {
+			final var id = toId(type, value);
+			identifierRepository.insertIgnore(id, type, value);
+			return id;
+		});
+	}
+
+	int getCacheSize() {
+		return cache.size();
+	}
+
+	static String toId(final String type, final String value) {
+		final var key = encode(type) + encode(value);
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+
+	/**
+	 * Encodes a part of an identifier as its length in code points followed by a colon and the part itself, or as a dash
+	 * when the part is null. The encoding keeps null and empty parts apart and cannot be confused with the separator.
+	 */
+	private static String encode(final String part) {
+		return part == null ? "-" : part.codePointCount(0, part.length()) + ":" + part;
+	}
+
+	private void cacheId(final IdentifierKey key, final String id) {
+		if (cache.size() >= capacity) {
+			cache.clear();
+		}
+		cache.put(key, id);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<IdentifierKey, String> pendingInTransaction() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+
+		final var existing = (Map<IdentifierKey, String>) TransactionSynchronizationManager.getResource(this);
+		if (existing != null) {
+			return existing;
+		}
+
+		final var pending = new HashMap<IdentifierKey, String>();
+		TransactionSynchronizationManager.bindResource(this, pending);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void suspend() {
+				TransactionSynchronizationManager.unbindResourceIfPossible(IdentifierResolver.this);
+			}
+
+			@Override
+			public void resume() {
+				TransactionSynchronizationManager.bindResource(IdentifierResolver.this, pending);
+			}
+
+			@Override
+			public void afterCommit() {
+				pending.forEach(IdentifierResolver.this::cacheId);
+			}
+
+			@Override
+			public void afterCompletion(final int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(IdentifierResolver.this);
+			}
+		});
+		return pending;
+	}
+
+	private record IdentifierKey(String type, String value) {
+	}
+}
@@ -0,0 +1,85 @@
+package se.sundsvall.messageexchange.service;
+
+import java.util.Base64;
+import java.util.Objects;
+import se.sundsvall.dept44.problem.Problem;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Position in the message sequence of a conversation, used for keyset pagination. The cursor is exposed to clients as
+ * an opaque base64url encoded string and should not be interpreted by them.
+ */
+final class MessageCursor {
+
+	enum Direction {
+		AFTER,
+		BEFORE
+	}
+
+	private static final String SEPARATOR = ":";
+
+	private final Direction direction;
+	private final Long sequenceNumber;
+
+	private MessageCursor(final Direction direction, final Long sequenceNumber) {
+		this.direction = direction;
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	static MessageCursor after(final Long sequenceNumber) {
+		return new MessageCursor(Direction.AFTER, sequenceNumber);
+	}
+
+	static MessageCursor before(final Long sequenceNumber) {
+		return new MessageCursor(Direction.BEFORE, sequenceNumber);
+	}
+
+	static MessageCursor decode(final String cursor) {
+		try {
+			final var parts = new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split(SEPARATOR, 2);
+			return new MessageCursor(Direction.valueOf(parts[0]), Long.valueOf(parts[1]));
+		} catch (final IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw Problem.valueOf(BAD_REQUEST, "Invalid cursor '%s'".formatted(cursor));
+		}
+	}
+
+	String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString((direction + SEPARATOR + sequenceNumber).getBytes(UTF_8));
+	}
+
+	boolean isAscending() {
+		return direction == Direction.AFTER;
+	}
+
+	Direction getDirection() {
+		return direction;
+	}
+
+	Long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		final MessageCursor that = (MessageCursor) o;
+		return direction == that.direction && Objects.equals(sequenceNumber, that.sequenceNumber);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(direction, sequenceNumber);
+	}
+
+	@Override
+	public String toString() {
+		return "MessageCursor{" +
+			"direction=" + direction +
+			", sequenceNumber=" + sequenceNumber +
+			'}';
+	}
+}
@@ -0,0 +1,42 @@
+package se.sundsvall.messageexchange.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+
+import static org.springframework.transaction.annotation.Propagation.MANDATORY;
+
+/**
+ * Allocates the sequence numbers of messages, which increase monotonically within each conversation.
+ * <p>
+ * A sequence number is allocated by incrementing the last allocated number stored on the conversation row, with a single
+ * update that needs no sequence table and no in-process state. The update keeps the conversation row locked until the
+ * transaction completes, which serializes the messages written to the same conversation, while messages in different
+ * conversations are allocated independently. Numbers of messages that are rolled back are released together with the
+ * increment, so the sequence only has gaps where messages have been deleted.
+ */
+@Component
+public class MessageSequenceAllocator {
+
+	private final ConversationRepository conversationRepository;
+
+	public MessageSequenceAllocator(final ConversationRepository conversationRepository) {
+		this.conversationRepository = conversationRepository;
+	}
+
+	/**
+	 * Returns the next sequence number of a conversation. Must be called within a transaction, which keeps the conversation
+	 * row locked until it completes, so it should be called as late as possible in the transaction.
+	 *
+	 * @param  conversation the conversation to allocate a sequence number in, saved in the current transaction
+	 * @return              the allocated sequence number
+	 */
+	@Transactional(propagation = MANDATORY)
+	public long next(final ConversationEntity conversation) {
+		final var conversationId = conversation.getId();
+		conversationRepository.incrementLastSequenceNumber(conversationId);
+		return conversationRepository.findLastSequenceNumber(conversationId)
+			.orElseThrow(() -> new IllegalStateException("No sequence number allocated for conversation with id %s".formatted(conversationId)));
+	}
+}
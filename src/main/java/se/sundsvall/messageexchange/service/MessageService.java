@@ -1,197 +1,650 @@
 package se.sundsvall.messageexchange.service;
 
-import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.support.Identifier;
 import se.sundsvall.messageexchange.api.model.MarkAsReadRequest;
+import se.sundsvall.messageexchange.api.model.MarkAsReadUpToRequest;
 import se.sundsvall.messageexchange.api.model.Message;
+import se.sundsvall.messageexchange.api.model.MessageBatchItem;
+import se.sundsvall.messageexchange.api.model.MessageBatchResponse;
+import se.sundsvall.messageexchange.api.model.MessageBatchResult;
+import se.sundsvall.messageexchange.api.model.MessageWindow;
+import se.sundsvall.messageexchange.api.model.Slice;
 import se.sundsvall.messageexchange.integration.db.AttachmentRepository;
 import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.integration.db.MessageProjection;
+import se.sundsvall.messageexchange.integration.db.MessageProjectionQueryExecutor;
 import se.sundsvall.messageexchange.integration.db.MessageRepository;
+import se.sundsvall.messageexchange.integration.db.ReadMarkerRepository;
 import se.sundsvall.messageexchange.integration.db.model.AttachmentEntity;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageType;
 import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
-import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
-import se.sundsvall.messageexchange.integration.db.model.SequenceEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
 import se.sundsvall.messageexchange.service.mapper.AttachmentMapper;
 import se.sundsvall.messageexchange.service.mapper.Mapper;
+import se.sundsvall.messageexchange.util.ByteRanges;
+import se.sundsvall.messageexchange.util.ByteRanges.ByteRange;
+import se.sundsvall.messageexchange.util.ByteRanges.UnsatisfiableRangeException;
+import se.sundsvall.messageexchange.util.FileTransfer;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Comparator.comparing;
 import static java.util.Optional.ofNullable;
+import static java.util.function.BinaryOperator.maxBy;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.http.HttpHeaders.ACCEPT_RANGES;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
 import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.IF_RANGE;
+import static org.springframework.http.HttpHeaders.RANGE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
+import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.toIdentifierEntity;
 import static se.sundsvall.messageexchange.service.mapper.Mapper.toMessageEntity;
-import static se.sundsvall.messageexchange.util.MessageSpecificationBuilder.withConversation;
+import static se.sundsvall.messageexchange.util.MessageSpecificationBuilder.withConversationId;
+import static se.sundsvall.messageexchange.util.MessageSpecificationBuilder.withSequenceNumberAfter;
+import static se.sundsvall.messageexchange.util.MessageSpecificationBuilder.withSequenceNumberBefore;
 
 @Service
 public class MessageService {
 
+	private static final String SEQUENCE_NUMBER_PROPERTY = "sequenceNumber";
+	private static final String IMMUTABLE_CACHE_CONTROL = "max-age=31536000, immutable";
+
 	private final MessageRepository messageRepository;
 	private final ConversationRepository conversationRepository;
-	private final EntityManager entityManager;
 	private final AttachmentRepository attachmentRepository;
+	private final MessageProjectionQueryExecutor messageProjectionQueryExecutor;
+	private final ReadReceiptBuffer readReceiptBuffer;
+	private final ReadMarkerRepository readMarkerRepository;
+	private final IdentifierResolver identifierResolver;
+	private final ConversationCounters conversationCounters;
+	private final ConversationExistenceCache conversationExistenceCache;
+	private final MessageSequenceAllocator messageSequenceAllocator;
+	private final IdempotencyKeys idempotencyKeys;
+	private final AttachmentDataResolver attachmentDataResolver;
+	private final AttachmentStores attachmentStores;
 
 	public MessageService(
 		final MessageRepository messageRepository,
 		final ConversationRepository conversationRepository,
-		final EntityManager entityManager,
-		final AttachmentRepository attachmentRepository) {
+		final AttachmentRepository attachmentRepository,
+		final MessageProjectionQueryExecutor messageProjectionQueryExecutor,
+		final ReadReceiptBuffer readReceiptBuffer,
+		final ReadMarkerRepository readMarkerRepository,
+		final IdentifierResolver identifierResolver,
+		final ConversationCounters conversationCounters,
+		final ConversationExistenceCache conversationExistenceCache,
+		final MessageSequenceAllocator messageSequenceAllocator,
+		final IdempotencyKeys idempotencyKeys,
+		final AttachmentDataResolver attachmentDataResolver,
+		final AttachmentStores attachmentStores) {
 
 		this.messageRepository = messageRepository;
 		this.conversationRepository = conversationRepository;
-		this.entityManager = entityManager;
 		this.attachmentRepository = attachmentRepository;
+		this.messageProjectionQueryExecutor = messageProjectionQueryExecutor;
+		this.readReceiptBuffer = readReceiptBuffer;
+		this.readMarkerRepository = readMarkerRepository;
+		this.identifierResolver = identifierResolver;
+		this.conversationCounters = conversationCounters;
+		this.conversationExistenceCache = conversationExistenceCache;
+		this.messageSequenceAllocator = messageSequenceAllocator;
+		this.idempotencyKeys = idempotencyKeys;
+		this.attachmentDataResolver = attachmentDataResolver;
+		this.attachmentStores = attachmentStores;
 	}
 
-	public String createMessage(final String municipalityId, final String namespace, final String conversationId, final Message message, final List<MultipartFile> attachments) {
+	/**
+	 * Creates a message in a conversation. When an idempotency key is sent, a retried post with the same key returns the
+	 * id of the message created by the first attempt, without reading the attachments or writing anything.
+	 *
+	 * @param  municipalityId the municipality id of the conversation
+	 * @param  namespace      the namespace of the conversation
+	 * @param  conversationId the id of the conversation
+	 * @param  message        the message to create
+	 * @param  attachments    the attachments of the message
+	 * @param  idempotencyKey the idempotency key sent by the client, may be null
+	 * @return                the id of the created message
+	 */
+	@Transactional
+	public String createMessage(final String municipalityId, final String namespace, final String conversationId, final Message message, final List<MultipartFile> attachments,
+		final String idempotencyKey) {
+
+		final var existingMessageId = idempotencyKeys.findMessageId(municipalityId, namespace, conversationId, idempotencyKey);
+		if (existingMessageId.isPresent()) {
+			return existingMessageId.get();
+		}
 
 		final var conversationEntity = findExistingConversation(municipalityId, namespace, conversationId);
-		final var entity = toMessageEntity(conversationEntity, message)
-			.withSequenceNumber(new SequenceEntity());
-		entity.setAttachments(AttachmentMapper.toAttachmentEntities(attachments, entityManager, entity));
+		final var entity = toMessageEntity(conversationEntity, message);
+		entity.setCreatedBy(identifierResolver.resolve(entity.getCreatedBy()));
+		// The author is the first reader of the message
+		ofNullable(entity.getReadBy()).ifPresent(readBy -> readBy.forEach(r -> r.setIdentifier(entity.getCreatedBy())));
+		entity.setAttachments(AttachmentMapper.toAttachmentEntities(attachments, entity, attachmentDataResolver, attachmentStores.forNamespace(namespace)));
+		addSenderAsParticipant(conversationEntity);
+		// Allocated after the attachments have been written, as the allocation locks the conversation row until commit
+		entity.setSequenceNumber(messageSequenceAllocator.next(conversationEntity));
+
+		final var savedEntity = messageRepository.saveAndFlush(entity);
+		idempotencyKeys.register(municipalityId, namespace, conversationId, idempotencyKey, savedEntity.getId());
+		conversationCounters.messageCreated(savedEntity);
+		conversationRepository.updateLatestSequenceNumber(conversationId, savedEntity.getSequenceNumber(),
+			ofNullable(savedEntity.getCreated()).orElseGet(OffsetDateTime::now));
+
+		return savedEntity.getId();
+	}
 
-		if (conversationEntity.getParticipants() == null) {
-			conversationEntity.setParticipants(new ArrayList<>());
+	/**
+	 * Creates a batch of messages in one or more conversations within a namespace, in one transaction. Each conversation
+	 * is loaded and updated once for the whole batch, and the messages are written with a single flush. Messages posted to
+	 * a conversation that does not exist are reported as not found in the result, while the rest of the batch is created.
+	 * A missing conversation is the only failure reported per message. Invalid items are rejected with the whole request
+	 * before this method is called, and any other failure rolls back the transaction and fails the whole batch, as the
+	 * messages are written together.
+	 *
+	 * @param  municipalityId the municipality id of the conversations
+	 * @param  namespace      the namespace of the conversations
+	 * @param  items          the messages to create
+	 * @return                one result per message, in the order of the items
+	 */
+	@Transactional
+	public MessageBatchResponse createMessages(final String municipalityId, final String namespace, final List<MessageBatchItem> items) {
+
+		final var conversationIds = items.stream()
+			.map(MessageBatchItem::getConversationId)
+			.collect(toSet());
+		final var conversations = conversationRepository.findByNamespaceAndMunicipalityIdAndIdIn(namespace, municipalityId, conversationIds).stream()
+			.collect(toMap(ConversationEntity::getId, identity()));
+		conversations.values().forEach(this::addSenderAsParticipant);
+
+		final var results = new ArrayList<MessageBatchResult>();
+		final var createdMessages = new ArrayList<CreatedMessage>();
+		for (final var item : items) {
+			final var result = MessageBatchResult.create().withConversationId(item.getConversationId());
+			results.add(result);
+
+			final var conversationEntity = conversations.get(item.getConversationId());
+			if (conversationEntity == null) {
+				result.withStatus(NOT_FOUND.value()).withDetail("Conversation with id %s not found".formatted(item.getConversationId()));
+				continue;
+			}
+
+			final var entity = toMessageEntity(conversationEntity, item.getMessage())
+				.withSequenceNumber(messageSequenceAllocator.next(conversationEntity));
+			entity.setCreatedBy(identifierResolver.resolve(entity.getCreatedBy()));
+			ofNullable(entity.getReadBy()).ifPresent(readBy -> readBy.forEach(r -> r.setIdentifier(entity.getCreatedBy())));
+			createdMessages.add(new CreatedMessage(entity, result));
 		}
 
-		if (Identifier.get() != null && identifierNotPresent(conversationEntity.getParticipants().stream())) {
-			conversationEntity.getParticipants().add(toIdentifierEntity(Identifier.get()));
-			conversationRepository.save(conversationEntity);
-		}
+		final var entities = createdMessages.stream().map(CreatedMessage::entity).toList();
+		messageRepository.saveAll(entities);
+		messageRepository.flush();
+		conversationCounters.messagesCreated(entities);
+
+		entities.stream()
+			.collect(toMap(entity -> entity.getConversation().getId(), identity(), maxBy(comparing(MessageEntity::getSequenceNumber))))
+			.forEach((conversationId, latest) -> conversationRepository.updateLatestSequenceNumber(conversationId, latest.getSequenceNumber(),
+				ofNullable(latest.getCreated()).orElseGet(OffsetDateTime::now)));
 
-		return messageRepository.saveAndFlush(entity).getId();
+		createdMessages.forEach(created -> created.result()
+			.withMessageId(created.entity().getId())
+			.withSequenceNumber(created.entity().getSequenceNumber())
+			.withStatus(CREATED.value()));
+
+		return MessageBatchResponse.create().withResults(results);
 	}
 
+	@Transactional
 	public Page<Message> getMessages(final String municipalityId, final String namespace, final String conversationId, final Specification<MessageEntity> filter, final Pageable pageable, final boolean setReadBy) {
 
-		final var conversationEntity = findExistingConversation(municipalityId, namespace, conversationId);
+		verifyConversationExists(municipalityId, namespace, conversationId);
+
+		final var fullFilter = withConversationId(conversationId).and(filter);
+		final var messages = readMessages(fullFilter, pageable);
+		Mapper.applyReadMarkers(messages.getContent(), readMarkerRepository.findByConversationId(conversationId));
+		if (setReadBy) {
+			updateReadBy(messages.map(Message::getId).getContent());
+		}
+		return messages;
+	}
+
+	/**
+	 * Reads a page of messages as projections. The messages and their read by, read by part and attachment rows are
+	 * selected straight into DTOs, so no entities are hydrated into (and dirty checked by) the persistence context.
+	 */
+	private Page<Message> readMessages(final Specification<MessageEntity> filter, final Pageable pageable) {
+		final var matches = messageProjectionQueryExecutor.findPage(filter, pageable);
+		return new PageImpl<>(toMessages(matches.getContent()), pageable, matches.getTotalElements());
+	}
+
+	/**
+	 * Maps message projections to messages, reading the read by, read by part and attachment rows of all messages with one
+	 * query each.
+	 */
+	private List<Message> toMessages(final List<MessageProjection> projections) {
+		if (projections.isEmpty()) {
+			return List.of();
+		}
+
+		final var ids = projections.stream()
+			.map(MessageProjection::id)
+			.toList();
+
+		return Mapper.toMessages(projections,
+			messageRepository.findReadByProjections(ids),
+			messageRepository.findReadByPartProjections(ids),
+			messageRepository.findAttachmentProjections(ids));
+	}
 
-		final var fullFilter = withConversation(conversationEntity).and(filter);
-		final var matches = messageRepository.findAll(fullFilter, pageable);
+	@Transactional
+	public Slice<Message> getMessageSlice(final String municipalityId, final String namespace, final String conversationId, final Specification<MessageEntity> filter, final Pageable pageable,
+		final boolean setReadBy) {
 
-		final var messages = Mapper.toMessages(matches.getContent());
+		verifyConversationExists(municipalityId, namespace, conversationId);
+
+		final var fullFilter = withConversationId(conversationId).and(filter);
+		final var matches = messageProjectionQueryExecutor.findSlice(fullFilter, pageable);
+
+		final var messages = Mapper.applyReadMarkers(toMessages(matches.getContent()), readMarkerRepository.findByConversationId(conversationId));
+		if (setReadBy) {
+			updateReadBy(messages.stream().map(Message::getId).toList());
+		}
+
+		return Slice.<Message>create()
+			.withContent(messages)
+			.withNumber(matches.getNumber())
+			.withSize(matches.getSize())
+			.withHasNext(matches.hasNext());
+	}
+
+	@Transactional
+	public MessageWindow getMessageWindow(final String municipalityId, final String namespace, final String conversationId, final Specification<MessageEntity> filter, final Long afterSequence,
+		final Long beforeSequence, final String cursor, final int limit, final boolean setReadBy) {
+
+		verifyConversationExists(municipalityId, namespace, conversationId);
+		final var position = toMessageCursor(afterSequence, beforeSequence, cursor);
+
+		final var fullFilter = withConversationId(conversationId)
+			.and(position.isAscending() ? withSequenceNumberAfter(position.getSequenceNumber()) : withSequenceNumberBefore(position.getSequenceNumber()))
+			.and(filter);
+		final var sort = Sort.by(position.isAscending() ? ASC : DESC, SEQUENCE_NUMBER_PROPERTY);
+
+		// Fetch one extra row to find out if there is a next window without having to count
+		final var matches = messageProjectionQueryExecutor.findFirst(fullFilter, sort, limit + 1);
+		final var hasNext = matches.size() > limit;
+		final var window = hasNext ? matches.subList(0, limit) : matches;
+
+		final var messages = Mapper.applyReadMarkers(toMessages(window), readMarkerRepository.findByConversationId(conversationId));
 		if (setReadBy) {
-			updateReadBy(matches);
-			messageRepository.saveAll(matches);
+			updateReadBy(messages.stream().map(Message::getId).toList());
 		}
-		return new PageImpl<>(messages, pageable, matches.getTotalElements());
+
+		return MessageWindow.create()
+			.withContent(messages)
+			.withLimit(limit)
+			.withHasNext(hasNext)
+			.withNextCursor(hasNext ? toNextCursor(position, window.getLast()).encode() : null);
 	}
 
+	@Transactional
 	public void markMessagesAsRead(final String municipalityId, final String namespace, final String conversationId, final MarkAsReadRequest request) {
 
-		findExistingConversation(municipalityId, namespace, conversationId);
+		verifyConversationExists(municipalityId, namespace, conversationId);
 
 		final var messages = messageRepository.findByConversationIdAndIdIn(conversationId, request.getMessageIds());
+		final var identifierEntity = ofNullable(request.getIdentifier()).map(Mapper::toIdentifierEntity).map(identifierResolver::resolve);
+
+		final var part = ofNullable(request.getPart()).filter(p -> !p.isBlank());
+		final var readByAdded = new EnumMap<MessageType, Long>(MessageType.class);
+		final var readByPartAdded = new EnumMap<MessageType, Long>(MessageType.class);
 
 		messages.forEach(message -> {
-			ofNullable(request.getIdentifier()).ifPresent(identifier -> message.setReadBy(addReadBy(message, identifier)));
-			ofNullable(request.getPart()).filter(part -> !part.isBlank()).ifPresent(part -> message.setReadByPart(addReadByPart(message, part)));
+			identifierEntity.filter(identifier -> addReadBy(message, identifier))
+				.ifPresent(identifier -> readByAdded.merge(message.getType(), 1L, Long::sum));
+			part.filter(p -> addReadByPart(message, p))
+				.ifPresent(p -> readByPartAdded.merge(message.getType(), 1L, Long::sum));
 		});
 
 		messageRepository.saveAll(messages);
+		identifierEntity.ifPresent(identifier -> readByAdded.forEach((type, count) -> conversationCounters.readBy(conversationId, type, identifier.getId(), count)));
+		part.ifPresent(p -> readByPartAdded.forEach((type, count) -> conversationCounters.readByPart(conversationId, type, p, count)));
+	}
+
+	/**
+	 * Marks all messages in a conversation up to and including a sequence number as read, by moving the read marker of
+	 * the identifier and/or part forward. This is a single statement per marker regardless of the number of messages.
+	 */
+	@Transactional
+	public void markMessagesAsReadUpTo(final String municipalityId, final String namespace, final String conversationId, final MarkAsReadUpToRequest request) {
+
+		verifyConversationExists(municipalityId, namespace, conversationId);
+		final var updated = LocalDateTime.now(ZoneId.systemDefault());
+
+		ofNullable(request.getIdentifier()).map(identifier -> identifierResolver.resolveId(identifier.getType(), identifier.getValue()))
+			.ifPresent(identifierId -> readMarkerRepository.upsertReadMarker(conversationId, identifierId, null, request.getSequenceNumber(), updated));
+		ofNullable(request.getPart()).filter(part -> !part.isBlank())
+			.ifPresent(part -> readMarkerRepository.upsertReadMarker(conversationId, null, part, request.getSequenceNumber(), updated));
 	}
 
-	private List<ReadByEntity> addReadBy(final MessageEntity message, final se.sundsvall.messageexchange.api.model.Identifier identifier) {
+	private boolean addReadBy(final MessageEntity message, final IdentifierEntity identifier) {
 		final var list = ofNullable(message.getReadBy()).orElseGet(ArrayList::new);
+		message.setReadBy(list);
 
 		final var alreadyPresent = list.stream()
 			.map(ReadByEntity::getIdentifier)
 			.anyMatch(existing -> Objects.equals(existing.getType(), identifier.getType()) && Objects.equals(existing.getValue(), identifier.getValue()));
 
-		if (!alreadyPresent) {
-			list.add(Mapper.toReadByEntity(identifier));
+		if (alreadyPresent) {
+			return false;
 		}
-		return list;
+		return list.add(ReadByEntity.create()
+			.withIdentifier(identifier)
+			.withReadAt(OffsetDateTime.now(ZoneId.systemDefault())));
 	}
 
-	private List<ReadByPartEntity> addReadByPart(final MessageEntity message, final String part) {
+	private boolean addReadByPart(final MessageEntity message, final String part) {
 		final var list = ofNullable(message.getReadByPart()).orElseGet(ArrayList::new);
+		message.setReadByPart(list);
 
-		if (list.stream().noneMatch(existing -> part.equals(existing.getPart()))) {
-			list.add(Mapper.toReadByPartEntity(part));
+		if (list.stream().anyMatch(existing -> part.equals(existing.getPart()))) {
+			return false;
 		}
-		return list;
+		return list.add(Mapper.toReadByPartEntity(part));
 	}
 
+	/**
+	 * Deletes a message together with its attachments. Attachment data shared with other attachments is kept, while data
+	 * that is no longer referenced is deleted. The message is looked up within the conversation, so a message that belongs
+	 * to another conversation is left untouched.
+	 *
+	 * @param municipalityId the municipality id of the conversation
+	 * @param namespace      the namespace of the conversation
+	 * @param conversationId the id of the conversation
+	 * @param messageId      the id of the message
+	 */
+	@Transactional
 	public void deleteMessage(final String municipalityId, final String namespace, final String conversationId, final String messageId) {
-		findExistingConversation(municipalityId, namespace, conversationId);
-		messageRepository.deleteById(messageId);
+		verifyConversationExists(municipalityId, namespace, conversationId);
+		messageRepository.findByIdAndConversationId(messageId, conversationId).ifPresent(message -> {
+			conversationCounters.messageDeleted(message);
+			final var attachmentDataIds = ofNullable(message.getAttachments()).orElse(List.of()).stream()
+				.map(attachment -> attachment.getAttachmentData().getId())
+				.toList();
+
+			messageRepository.delete(message);
+			if (!attachmentDataIds.isEmpty()) {
+				messageRepository.flush();
+				attachmentDataResolver.release(attachmentDataIds);
+			}
+		});
 	}
 
-	public void readErrandAttachment(final String namespace, final String municipalityId, final String conversationId, final String messageId, final String attachmentId, final HttpServletResponse response) {
-		findExistingConversation(municipalityId, namespace, conversationId);
+	public void readErrandAttachment(final String namespace, final String municipalityId, final String conversationId, final String messageId, final String attachmentId, final HttpServletRequest request,
+		final HttpServletResponse response) {
+		verifyConversationExists(municipalityId, namespace, conversationId);
 		final var attachmentEntity = attachmentRepository.findByIdAndMessageEntityId(attachmentId, messageId)
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "Attachment with ID:'%s' not found".formatted(attachmentId)));
 
-		streamAttachmentData(attachmentEntity, response);
+		streamAttachmentData(attachmentEntity, request, response);
 	}
 
-	void streamAttachmentData(final AttachmentEntity attachment, final HttpServletResponse response) {
+	/**
+	 * Writes the content of an attachment to the response. The hash of the attachment is used as strong entity tag.
+	 * Conditional requests with a matching entity tag in the {@code If-None-Match} header are answered with 304 Not
+	 * Modified, and as the content of an attachment never changes it may be cached indefinitely. Range requests are
+	 * answered with the requested parts of the content, see {@link ByteRanges}, unless the entity tag in the
+	 * {@code If-Range} header of the request does not match. Content kept in a local file is written without
+	 * passing through the Java heap, see {@link FileTransfer}, while other content is read from its attachment store.
+	 */
+	void streamAttachmentData(final AttachmentEntity attachment, final HttpServletRequest request, final HttpServletResponse response) {
 		final var fileSize = attachment.getFileSize();
 
 		if (fileSize == 0) {
 			throw Problem.valueOf(NOT_FOUND, "Attachment with id '%s' has no data".formatted(attachment.getId()));
 		}
 
+		final var entityTag = entityTag(attachment);
+		response.setHeader(ACCEPT_RANGES, "bytes");
+		if (entityTag != null) {
+			response.setHeader(ETAG, entityTag);
+			if (matchesAny(request.getHeader(IF_NONE_MATCH), entityTag)) {
+				// Answered from the attachment alone, without reading its attachment data
+				response.setHeader(CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+				response.setStatus(NOT_MODIFIED.value());
+				return;
+			}
+		}
+
+		final List<ByteRange> ranges;
+		try {
+			ranges = rangeApplies(request, entityTag) ? ByteRanges.parse(request.getHeader(RANGE), fileSize).orElse(List.of()) : List.of();
+		} catch (final UnsatisfiableRangeException e) {
+			response.setHeader(CONTENT_RANGE, e.contentRange());
+			throw Problem.valueOf(REQUESTED_RANGE_NOT_SATISFIABLE, "Requested range of attachment with id '%s' is not satisfiable".formatted(attachment.getId()));
+		}
+
+		final var attachmentData = attachment.getAttachmentData();
+		final var attachmentStore = attachmentStores.forAttachmentData(attachmentData);
 		try {
-			response.addHeader(CONTENT_TYPE, attachment.getMimeType());
-			response.addHeader(CONTENT_DISPOSITION, "attachment; filename=\"" + attachment.getFileName() + "\"");
-			response.setContentLength(fileSize);
-			StreamUtils.copy(attachment.getAttachmentData().getFile().getBinaryStream(), response.getOutputStream());
-		} catch (final IOException | SQLException e) {
+			switch (ranges.size()) {
+				case 0 -> writeContent(attachment, attachmentStore, request, response);
+				case 1 -> writeRange(attachment, attachmentStore, ranges.getFirst(), request, response);
+				default -> writeRanges(attachment, attachmentStore, ranges, response);
+			}
+		} catch (final IOException e) {
 			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "%s occurred when copying file with attachment id '%s' to response: %s".formatted(e.getClass().getSimpleName(), attachment.getId(), e.getMessage()));
 		}
 	}
 
+	private static void writeContent(final AttachmentEntity attachment, final AttachmentStore attachmentStore, final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+		final var attachmentData = attachment.getAttachmentData();
+		final var file = attachmentStore.file(attachmentData);
+		if (file.isPresent()) {
+			verifyExists(file.get());
+			addAttachmentHeaders(attachment, attachment.getMimeType(), attachment.getFileSize(), response);
+			FileTransfer.transfer(file.get(), 0, attachment.getFileSize(), request, response);
+			return;
+		}
+
+		try (final var content = attachmentStore.read(attachmentData)) {
+			addAttachmentHeaders(attachment, attachment.getMimeType(), attachment.getFileSize(), response);
+			StreamUtils.copy(content, response.getOutputStream());
+		}
+	}
+
+	private static void writeRange(final AttachmentEntity attachment, final AttachmentStore attachmentStore, final ByteRange range, final HttpServletRequest request, final HttpServletResponse response)
+		throws IOException {
+		final var attachmentData = attachment.getAttachmentData();
+		final var file = attachmentStore.file(attachmentData);
+		if (file.isPresent()) {
+			verifyExists(file.get());
+		}
+
+		response.setStatus(PARTIAL_CONTENT.value());
+		response.setHeader(CONTENT_RANGE, range.contentRange(attachment.getFileSize()));
+		addAttachmentHeaders(attachment, attachment.getMimeType(), range.length(), response);
+		if (file.isPresent()) {
+			FileTransfer.transfer(file.get(), range.start(), range.length(), request, response);
+		} else {
+			attachmentStore.transferTo(attachmentData, range.start(), range.length(), response.getOutputStream());
+		}
+	}
+
+	/**
+	 * Writes several ranges of the content as a multipart/byteranges body, reading only the requested ranges.
+	 */
+	private static void writeRanges(final AttachmentEntity attachment, final AttachmentStore attachmentStore, final List<ByteRange> ranges, final HttpServletResponse response) throws IOException {
+		final var boundary = MimeTypeUtils.generateMultipartBoundaryString();
+		final var partHeaders = ranges.stream()
+			.map(range -> "\r\n--%s\r\n%s: %s\r\n%s: %s\r\n\r\n".formatted(boundary, CONTENT_TYPE, attachment.getMimeType(), CONTENT_RANGE, range.contentRange(attachment.getFileSize()))
+				.getBytes(US_ASCII))
+			.toList();
+		final var end = "\r\n--%s--\r\n".formatted(boundary).getBytes(US_ASCII);
+		final var contentLength = end.length
+			+ partHeaders.stream().mapToLong(partHeader -> partHeader.length).sum()
+			+ ranges.stream().mapToLong(ByteRange::length).sum();
+
+		response.setStatus(PARTIAL_CONTENT.value());
+		addAttachmentHeaders(attachment, "multipart/byteranges; boundary=" + boundary, contentLength, response);
+		final var outputStream = response.getOutputStream();
+		for (var i = 0; i < ranges.size(); i++) {
+			outputStream.write(partHeaders.get(i));
+			attachmentStore.transferTo(attachment.getAttachmentData(), ranges.get(i).start(), ranges.get(i).length(), outputStream);
+		}
+		outputStream.write(end);
+	}
+
+	private static void addAttachmentHeaders(final AttachmentEntity attachment, final String contentType, final long contentLength, final HttpServletResponse response) {
+		response.setHeader(CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+		response.addHeader(CONTENT_TYPE, contentType);
+		response.addHeader(CONTENT_DISPOSITION, "attachment; filename=\"" + attachment.getFileName() + "\"");
+		response.setContentLengthLong(contentLength);
+	}
+
+	private static void verifyExists(final Path file) throws NoSuchFileException {
+		if (Files.notExists(file)) {
+			throw new NoSuchFileException(file.toString());
+		}
+	}
+
+	/**
+	 * Returns the strong entity tag of an attachment, based on the SHA-256 hash of its content.
+	 *
+	 * @param  attachment the attachment
+	 * @return            the entity tag, or null if the hash of the attachment has not been computed yet
+	 */
+	private static String entityTag(final AttachmentEntity attachment) {
+		return attachment.getHash() == null ? null : "\"" + attachment.getHash() + "\"";
+	}
+
+	/**
+	 * Compares the entity tags of an {@code If-None-Match} header with the entity tag of an attachment, using the weak
+	 * comparison.
+	 *
+	 * @param  header    the value of the header, may be null
+	 * @param  entityTag the entity tag of the attachment
+	 * @return           true if the header is {@code *} or contains the entity tag, weak or not
+	 */
+	static boolean matchesAny(final String header, final String entityTag) {
+		if (header == null) {
+			return false;
+		}
+		return Stream.of(header.split(","))
+			.map(String::strip)
+			.map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate)
+			.anyMatch(candidate -> "*".equals(candidate) || entityTag.equals(candidate));
+	}
+
+	/**
+	 * A range request only applies when it has no {@code If-Range} header, or when the entity tag of the header matches
+	 * the entity tag of the attachment. Dates are not used as validators, as attachments have no modification date.
+	 */
+	private static boolean rangeApplies(final HttpServletRequest request, final String entityTag) {
+		final var ifRange = request.getHeader(IF_RANGE);
+		return ifRange == null || (entityTag != null && entityTag.equals(ifRange.strip()));
+	}
+
 	private ConversationEntity findExistingConversation(final String municipalityId, final String namespace, final String conversationId) {
 		return conversationRepository.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId)
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, "Conversation with id %s not found".formatted(conversationId)));
 
 	}
 
-	void updateReadBy(final Page<MessageEntity> matches) {
-		if (matches == null || matches.isEmpty()) {
-			return;
+	private void verifyConversationExists(final String municipalityId, final String namespace, final String conversationId) {
+		if (!conversationExistenceCache.exists(namespace, municipalityId, conversationId)) {
+			throw Problem.valueOf(NOT_FOUND, "Conversation with id %s not found".formatted(conversationId));
 		}
+	}
 
-		final var readByEntity = Mapper.toReadByEntity(Identifier.get());
-
-		if (readByEntity != null && readByEntity.getIdentifier() != null) {
-			matches.stream().forEach(message -> message.setReadBy(updateReadBy(message, readByEntity)));
+	private static MessageCursor toMessageCursor(final Long afterSequence, final Long beforeSequence, final String cursor) {
+		if (cursor != null) {
+			return MessageCursor.decode(cursor);
+		}
+		if (afterSequence != null && beforeSequence != null) {
+			throw Problem.valueOf(BAD_REQUEST, "Only one of afterSequence and beforeSequence can be provided");
 		}
+		return beforeSequence != null ? MessageCursor.before(beforeSequence) : MessageCursor.after(afterSequence);
+	}
+
+	private static MessageCursor toNextCursor(final MessageCursor position, final MessageProjection lastMessage) {
+		final var sequenceNumber = lastMessage.sequenceNumber();
+		return position.isAscending() ? MessageCursor.after(sequenceNumber) : MessageCursor.before(sequenceNumber);
 	}
 
-	private List<ReadByEntity> updateReadBy(final MessageEntity message, final ReadByEntity readByEntity) {
+	/**
+	 * Marks the given messages as read by the identifier of the current request. The receipts are handed to the
+	 * {@link ReadReceiptBuffer}, which writes them set-based for all messages that are not already read by the
+	 * identifier.
+	 *
+	 * @param messageIds the ids of the messages to mark as read
+	 */
+	void updateReadBy(final List<String> messageIds) {
+		final var identifier = Identifier.get();
+		if (messageIds == null || messageIds.isEmpty() || identifier == null) {
+			return;
+		}
 
-		final var list = ofNullable(message.getReadBy())
-			.orElseGet(ArrayList::new);
+		readReceiptBuffer.add(messageIds, identifier.getTypeString(), identifier.getValue());
+	}
 
-		if (identifierNotPresent(list.stream().map(ReadByEntity::getIdentifier))) {
-			list.add(readByEntity);
+	private void addSenderAsParticipant(final ConversationEntity conversationEntity) {
+		if (conversationEntity.getParticipants() == null) {
+			conversationEntity.setParticipants(new ArrayList<>());
+		}
+
+		if (Identifier.get() != null && identifierNotPresent(conversationEntity.getParticipants().stream())) {
+			conversationEntity.getParticipants().add(identifierResolver.resolve(toIdentifierEntity(Identifier.get())));
+			conversationRepository.save(conversationEntity);
 		}
-		return list;
 	}
 
 	private boolean identifierNotPresent(final Stream<IdentifierEntity> identifierEntityStream) {
 		return identifierEntityStream.noneMatch(identifier -> identifier.getType().equals(Identifier.get().getTypeString()) &&
 			identifier.getValue().equals(Identifier.get().getValue()));
 	}
+
+	private record CreatedMessage(MessageEntity entity, MessageBatchResult result) {
+	}
 }
@@ -0,0 +1,189 @@
+package se.sundsvall.messageexchange.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory write-behind buffer for read receipts.
+ * <p>
+ * Receipts are keyed by message id and identifier, so a receipt that is already waiting to be written is not buffered
+ * again. The buffer is split into stripes to reduce contention between request threads, and is bounded: when it is
+ * full, or disabled, receipts are written directly instead. Buffered receipts are written in batches when the flush
+ * threshold is reached, on a fixed interval and when the application shuts down.
+ * <p>
+ * The interval flush uses a plain scheduled method rather than a cluster wide locked one, since every instance has to
+ * flush its own buffer.
+ */
+@Component
+public class ReadReceiptBuffer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReadReceiptBuffer.class);
+	private static final int STRIPES = 16;
+	private static final int MAX_BATCH_SIZE = 500;
+
+	private final ReadReceiptWriter readReceiptWriter;
+	private final boolean enabled;
+	private final int capacity;
+	private final int flushThreshold;
+	private final List<Map<ReadReceipt, LocalDateTime>> stripes;
+	private final AtomicInteger depth = new AtomicInteger();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final Timer flushTimer;
+	private final Counter failedReceiptsCounter;
+
+	public ReadReceiptBuffer(
+		final ReadReceiptWriter readReceiptWriter,
+		final MeterRegistry meterRegistry,
+		@Value("${read-receipt-buffer.enabled:true}") final boolean enabled,
+		@Value("${read-receipt-buffer.capacity:10000}") final int capacity,
+		@Value("${read-receipt-buffer.flush-threshold:1000}") final int flushThreshold) {
+
+		this.readReceiptWriter = readReceiptWriter;
+		this.enabled = enabled;
+		this.capacity = capacity;
+		this.flushThreshold = flushThreshold;
+		this.stripes = IntStream.range(0, STRIPES)
+			.<Map<ReadReceipt, LocalDateTime>>mapToObj(i -> new ConcurrentHashMap<>())
+			.toList();
+
+		Gauge.builder("message.read.receipt.buffer.depth", depth, AtomicInteger::get)
+			.description("Number of read receipts waiting to be written")
+			.register(meterRegistry);
+		this.flushTimer = Timer.builder("message.read.receipt.buffer.flush")
+			.description("Time spent writing buffered read receipts")
+			.register(meterRegistry);
+		this.failedReceiptsCounter = Counter.builder("message.read.receipt.buffer.failed")
+			.description("Number of buffered read receipts that could not be written")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Adds read receipts for the given messages and identifier to the buffer. Receipts that do not fit in the buffer are
+	 * written directly.
+	 *
+	 * @param messageIds the ids of the messages that have been read
+	 * @param type       the type of the identifier that has read the messages
+	 * @param value      the value of the identifier that has read the messages
+	 */
+	public void add(final Collection<String> messageIds, final String type, final String value) {
+		final var readAt = LocalDateTime.now(ZoneId.systemDefault());
+		if (!enabled) {
+			readReceiptWriter.write(messageIds, type, value, readAt);
+			return;
+		}
+
+		final var overflow = new ArrayList<String>();
+		messageIds.forEach(messageId -> {
+			if (!offer(new ReadReceipt(messageId, type, value), readAt)) {
+				overflow.add(messageId);
+			}
+		});
+
+		if (!overflow.isEmpty()) {
+			readReceiptWriter.write(overflow, type, value, readAt);
+		}
+		if (depth.get() >= flushThreshold && flushLock.tryLock()) {
+			try {
+				drain();
+			} finally {
+				flushLock.unlock();
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${read-receipt-buffer.flush-interval:PT2S}")
+	public void flush() {
+		flushLock.lock();
+		try {
+			drain();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	@PreDestroy
+	void flushOnShutdown() {
+		LOGGER.info("Flushing {} buffered read receipt(s) on shutdown", depth.get());
+		flush();
+	}
+
+	int getDepth() {
+		return depth.get();
+	}
+
+	private boolean offer(final ReadReceipt receipt, final LocalDateTime readAt) {
+		final var stripe = stripeOf(receipt);
+		if (stripe.containsKey(receipt)) {
+			return true;
+		}
+		if (depth.incrementAndGet() > capacity) {
+			depth.decrementAndGet();
+			return false;
+		}
+		if (stripe.putIfAbsent(receipt, readAt) != null) {
+			depth.decrementAndGet();
+		}
+		return true;
+	}
+
+	private void drain() {
+		if (depth.get() == 0) {
+			return;
+		}
+
+		final var receiptsPerIdentifier = new HashMap<ReadReceiptIdentifier, List<String>>();
+		final var earliestReadAtPerIdentifier = new HashMap<ReadReceiptIdentifier, LocalDateTime>();
+		stripes.forEach(stripe -> stripe.keySet().forEach(receipt -> {
+			final var readAt = stripe.remove(receipt);
+			if (readAt != null) {
+				depth.decrementAndGet();
+				final var identifier = new ReadReceiptIdentifier(receipt.type(), receipt.value());
+				receiptsPerIdentifier.computeIfAbsent(identifier, key -> new ArrayList<>()).add(receipt.messageId());
+				earliestReadAtPerIdentifier.merge(identifier, readAt, (existing, candidate) -> existing.isBefore(candidate) ? existing : candidate);
+			}
+		}));
+
+		flushTimer.record(() -> receiptsPerIdentifier.forEach((identifier, messageIds) -> write(identifier, messageIds, earliestReadAtPerIdentifier.get(identifier))));
+	}
+
+	private void write(final ReadReceiptIdentifier identifier, final List<String> messageIds, final LocalDateTime readAt) {
+		for (var fromIndex = 0; fromIndex < messageIds.size(); fromIndex += MAX_BATCH_SIZE) {
+			final var batch = messageIds.subList(fromIndex, Math.min(fromIndex + MAX_BATCH_SIZE, messageIds.size()));
+			try {
+				readReceiptWriter.write(batch, identifier.type(), identifier.value(), readAt);
+			} catch (final RuntimeException e) {
+				failedReceiptsCounter.increment(batch.size());
+				LOGGER.warn("Failed to write {} buffered read receipt(s)", batch.size(), e);
+			}
+		}
+	}
+
+	private Map<ReadReceipt, LocalDateTime> stripeOf(final ReadReceipt receipt) {
+		return stripes.get(Math.floorMod(receipt.hashCode(), STRIPES));
+	}
+
+	private record ReadReceipt(String messageId, String type, String value) {
+	}
+
+	private record ReadReceiptIdentifier(String type, String value) {
+	}
+}
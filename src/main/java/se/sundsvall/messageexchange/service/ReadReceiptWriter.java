@@ -0,0 +1,37 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messageexchange.integration.db.ConversationCounterRepository;
+import se.sundsvall.messageexchange.integration.db.MessageRepository;
+
+/**
+ * Writes read receipts for a set of messages and one identifier with a set-based insert, in a transaction of its own.
+ * The read by counters of the conversations are then incremented for the receipts that the insert actually wrote, in the
+ * same transaction, so that receipts written concurrently are only counted once.
+ */
+@Component
+public class ReadReceiptWriter {
+
+	private final MessageRepository messageRepository;
+	private final IdentifierResolver identifierResolver;
+	private final ConversationCounterRepository conversationCounterRepository;
+
+	public ReadReceiptWriter(final MessageRepository messageRepository, final IdentifierResolver identifierResolver, final ConversationCounterRepository conversationCounterRepository) {
+		this.messageRepository = messageRepository;
+		this.identifierResolver = identifierResolver;
+		this.conversationCounterRepository = conversationCounterRepository;
+	}
+
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void write(final Collection<String> messageIds, final String type, final String value, final LocalDateTime readAt) {
+		final var identifierId = identifierResolver.resolveId(type, value);
+		final var insertedMessageIds = messageRepository.insertMissingReadBy(messageIds, identifierId, readAt);
+		if (!insertedMessageIds.isEmpty()) {
+			conversationCounterRepository.incrementReadBy(insertedMessageIds, identifierId);
+		}
+	}
+}
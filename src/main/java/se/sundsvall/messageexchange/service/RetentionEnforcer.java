@@ -0,0 +1,173 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.messageexchange.configuration.RetentionProperties;
+import se.sundsvall.messageexchange.integration.db.ConversationPurgeRepository;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+
+/**
+ * Enforces the retention policy configured per namespace.
+ * <p>
+ * Conversations without any activity within the retention period are marked as deleted and removed by
+ * {@link ConversationPurger}, and the namespace is evicted from the {@link ConversationExistenceCache}. Messages older
+ * than the retention period in the remaining conversations are deleted together with their read receipts and
+ * attachments. The conversations of a namespace are walked in id order and their expired messages are deleted oldest
+ * first, in batches of the configured size with one transaction per batch and a pause after each batch, so that the
+ * retention runs alongside the regular load without long locks. The counters of a conversation are rebuilt when
+ * messages have been deleted from it.
+ */
+@Component
+public class RetentionEnforcer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RetentionEnforcer.class);
+
+	private final RetentionProperties retentionProperties;
+	private final ConversationRepository conversationRepository;
+	private final ConversationPurgeRepository conversationPurgeRepository;
+	private final ConversationPurger conversationPurger;
+	private final ConversationCounters conversationCounters;
+	private final ConversationExistenceCache conversationExistenceCache;
+	private final TransactionTemplate transactionTemplate;
+
+	public RetentionEnforcer(
+		final RetentionProperties retentionProperties,
+		final ConversationRepository conversationRepository,
+		final ConversationPurgeRepository conversationPurgeRepository,
+		final ConversationPurger conversationPurger,
+		final ConversationCounters conversationCounters,
+		final ConversationExistenceCache conversationExistenceCache,
+		final PlatformTransactionManager transactionManager) {
+
+		this.retentionProperties = retentionProperties;
+		this.conversationRepository = conversationRepository;
+		this.conversationPurgeRepository = conversationPurgeRepository;
+		this.conversationPurger = conversationPurger;
+		this.conversationCounters = conversationCounters;
+		this.conversationExistenceCache = conversationExistenceCache;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Enforces the retention policy of every namespace that has one. A namespace that fails is logged and skipped.
+	 *
+	 * @return the outcome of the retention
+	 */
+	public Result enforce() {
+		final var started = System.nanoTime();
+		final var now = OffsetDateTime.now();
+		var conversations = 0;
+		var messages = 0L;
+		var attachments = 0L;
+
+		for (final var policy : new TreeMap<>(retentionProperties.namespaces()).entrySet()) {
+			if (Thread.currentThread().isInterrupted()) {
+				break;
+			}
+			try {
+				final var result = enforce(policy.getKey(), now.minus(policy.getValue()));
+				conversations += result.conversations();
+				messages += result.messages();
+				attachments += result.attachments();
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Failed to enforce retention of namespace {}", policy.getKey(), e);
+			}
+		}
+
+		return new Result(conversations, messages, attachments, Duration.ofNanos(System.nanoTime() - started));
+	}
+
+	/**
+	 * Enforces the retention of a namespace.
+	 *
+	 * @param  namespace     the namespace
+	 * @param  createdBefore conversations without activity and messages created before this point in time are deleted
+	 * @return               the outcome of the retention
+	 */
+	Result enforce(final String namespace, final OffsetDateTime createdBefore) {
+		final var started = System.nanoTime();
+		final var conversations = conversationRepository.markInactiveDeleted(namespace, createdBefore, OffsetDateTime.now());
+		if (conversations > 0) {
+			conversationExistenceCache.evictNamespace(namespace);
+		}
+		var messages = 0L;
+		var attachments = 0L;
+
+		final var batchSize = retentionProperties.batchSize();
+		var afterId = "";
+		List<String> ids;
+		do {
+			ids = conversationRepository.findIdsByNamespaceAfter(namespace, afterId, PageRequest.ofSize(batchSize));
+			for (final var id : ids) {
+				final var deleted = deleteExpiredMessages(id, createdBefore);
+				messages += deleted.messages();
+				attachments += deleted.attachments();
+			}
+			afterId = ids.isEmpty() ? afterId : ids.getLast();
+		} while (ids.size() == batchSize);
+
+		final var result = new Result(conversations, messages, attachments, Duration.ofNanos(System.nanoTime() - started));
+		LOGGER.info("Retention of namespace {} complete, {} conversation(s) marked as deleted and {} message(s) and {} attachment(s) deleted in {} ms",
+			namespace, conversations, messages, attachments, result.elapsed().toMillis());
+		return result;
+	}
+
+	private Batch deleteExpiredMessages(final String conversationId, final OffsetDateTime createdBefore) {
+		final var batchSize = retentionProperties.batchSize();
+		var messages = 0L;
+		var attachments = 0L;
+
+		Batch batch;
+		do {
+			batch = transactionTemplate.execute(status -> {
+				final var messageIds = conversationPurgeRepository.findMessageIdsCreatedBefore(conversationId, createdBefore, batchSize);
+				return messageIds.isEmpty() ? new Batch(0, 0) : new Batch(messageIds.size(), conversationPurger.deleteMessages(messageIds));
+			});
+			messages += batch.messages();
+			attachments += batch.attachments();
+			if (batch.messages() > 0) {
+				pause();
+			}
+		} while (batch.messages() == batchSize);
+
+		if (messages > 0) {
+			conversationCounters.rebuild(conversationId);
+		}
+		return new Batch(messages, attachments);
+	}
+
+	private void pause() {
+		final var pause = retentionProperties.pauseBetweenBatches();
+		if (pause == null || pause.isZero() || pause.isNegative()) {
+			return;
+		}
+		try {
+			Thread.sleep(pause);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while enforcing retention", e);
+		}
+	}
+
+	/**
+	 * Outcome of a retention.
+	 *
+	 * @param conversations the number of conversations marked as deleted
+	 * @param messages      the number of deleted messages
+	 * @param attachments   the number of deleted attachments
+	 * @param elapsed       the time the retention took
+	 */
+	public record Result(int conversations, long messages, long attachments, Duration elapsed) {
+	}
+
+	private record Batch(long messages, long attachments) {
+	}
+}
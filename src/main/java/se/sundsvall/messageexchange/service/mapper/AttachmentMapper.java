@@ -1,60 +1,84 @@
 package se.sundsvall.messageexchange.service.mapper;
 
-import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.security.DigestInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.messageexchange.api.model.Attachment;
+import se.sundsvall.messageexchange.integration.db.MessageAttachmentProjection;
 import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
 import se.sundsvall.messageexchange.integration.db.model.AttachmentEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.service.AttachmentDataResolver;
+import se.sundsvall.messageexchange.service.AttachmentDataResolver.Content;
 
 import static java.util.Collections.emptyList;
 import static org.apache.commons.lang3.ObjectUtils.anyNull;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
-import static se.sundsvall.messageexchange.util.ServiceUtil.detectMimeTypeFromStream;
+import static se.sundsvall.messageexchange.util.ServiceUtil.MIME_TYPE_DETECTION_LENGTH;
+import static se.sundsvall.messageexchange.util.ServiceUtil.detectMimeType;
 
 public final class AttachmentMapper {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentMapper.class);
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private AttachmentMapper() {}
 
-	public static AttachmentEntity toAttachmentEntity(final MultipartFile attachment, final EntityManager entityManager, final MessageEntity messageEntity) {
+	/**
+	 * Maps an uploaded file to an attachment entity.
+	 *
+	 * @see #toAttachmentEntities(List, MessageEntity, AttachmentDataResolver, AttachmentStore)
+	 */
+	public static AttachmentEntity toAttachmentEntity(final MultipartFile attachment, final MessageEntity messageEntity, final AttachmentDataResolver attachmentDataResolver,
+		final AttachmentStore attachmentStore) {
 		if (anyNull(attachment)) {
 			return null;
 		}
+		return toAttachmentEntities(List.of(attachment), messageEntity, attachmentDataResolver, attachmentStore).getFirst();
+	}
 
-		try {
-			final var digest = MessageDigest.getInstance("SHA-256");
-			try (var dis = new DigestInputStream(attachment.getInputStream(), digest)) {
-				dis.transferTo(OutputStream.nullOutputStream());
+	/**
+	 * Reads an uploaded file in a single pass, feeding every byte to the digest, to a staging file of the attachment store
+	 * and, for the first bytes, to a bounded buffer for mime type detection. The staging file is deleted if the upload
+	 * could not be read.
+	 */
+	static Inspection inspect(final MultipartFile attachment, final AttachmentStore attachmentStore) throws IOException, NoSuchAlgorithmException {
+		final var digest = MessageDigest.getInstance("SHA-256");
+		final var prefix = new ByteArrayOutputStream();
+		final var buffer = new byte[BUFFER_SIZE];
+		final var stagingFile = attachmentStore.createStagingFile();
+		var size = 0L;
+
+		try (var stream = attachment.getInputStream(); var staged = Files.newOutputStream(stagingFile)) {
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+				staged.write(buffer, 0, read);
+				if (prefix.size() < MIME_TYPE_DETECTION_LENGTH) {
+					prefix.write(buffer, 0, Math.min(read, MIME_TYPE_DETECTION_LENGTH - prefix.size()));
+				}
+				size += read;
 			}
-			final var hash = HexFormat.of().formatHex(digest.digest());
-
-			final Session session = entityManager.unwrap(Session.class);
-			return AttachmentEntity.create()
-				.withMessageEntity(messageEntity)
-				.withFileSize(Math.toIntExact(attachment.getSize()))
-				.withHash(hash)
-				.withAttachmentData(new AttachmentDataEntity().withFile(session.getLobHelper().createBlob(attachment.getInputStream(), attachment.getSize())))
-				.withFileName(attachment.getOriginalFilename())
-				.withMimeType(detectMimeTypeFromStream(attachment.getOriginalFilename(), attachment.getInputStream()));
-		} catch (final IOException | NoSuchAlgorithmException e) {
-			LOGGER.warn("Exception when reading file", e);
-			throw Problem.valueOf(BAD_REQUEST, "Could not read input stream!");
+		} catch (final IOException | RuntimeException e) {
+			Files.deleteIfExists(stagingFile);
+			throw e;
 		}
+		return new Inspection(HexFormat.of().formatHex(digest.digest()), prefix.toByteArray(), size, stagingFile);
 	}
 
 	public static List<Attachment> toAttachments(final List<AttachmentEntity> attachmentEntities) {
@@ -76,10 +100,97 @@ public final class AttachmentMapper {
 			.orElse(null);
 	}
 
-	public static List<AttachmentEntity> toAttachmentEntities(final List<MultipartFile> attachments, final EntityManager entityManager, final MessageEntity messageEntity) {
-		return Optional.ofNullable(attachments)
-			.orElse(emptyList()).stream()
-			.map(attachment -> AttachmentMapper.toAttachmentEntity(attachment, entityManager, messageEntity))
-			.toList();
+	public static Attachment toAttachment(final MessageAttachmentProjection projection) {
+		return Attachment.create()
+			.withFileName(projection.fileName())
+			.withFileSize(projection.fileSize())
+			.withCreated(projection.created())
+			.withId(projection.id())
+			.withMimeType(projection.mimeType())
+			.withHash(projection.hash());
+	}
+
+	/**
+	 * Maps uploaded files to attachment entities. Each upload is read once, computing its hash, capturing the first bytes
+	 * used for mime type detection and spooling it to a staging file of the attachment store. Attachment data with the same
+	 * content as an upload is reused, and uploads with the same content share one new attachment data row. The staging
+	 * files of uploads with new content are handed to the attachment store, while the others are deleted.
+	 */
+	public static List<AttachmentEntity> toAttachmentEntities(final List<MultipartFile> attachments, final MessageEntity messageEntity, final AttachmentDataResolver attachmentDataResolver,
+		final AttachmentStore attachmentStore) {
+		final var uploads = new ArrayList<Upload>();
+		final var stagingFiles = new ArrayList<Path>();
+		try {
+			for (final var attachment : Optional.ofNullable(attachments).orElse(emptyList())) {
+				if (attachment != null) {
+					final var upload = new Upload(attachment, inspect(attachment, attachmentStore));
+					uploads.add(upload);
+					stagingFiles.add(upload.inspection().stagingFile());
+				}
+			}
+			if (uploads.isEmpty()) {
+				return emptyList();
+			}
+
+			final var existingData = attachmentDataResolver.reuse(uploads.stream().map(Upload::content).toList());
+			final var newData = new HashMap<Content, AttachmentDataEntity>();
+			final var attachmentEntities = new ArrayList<AttachmentEntity>();
+			for (final var upload : uploads) {
+				var attachmentData = existingData.get(upload.content());
+				if (attachmentData == null) {
+					attachmentData = newData.get(upload.content());
+					if (attachmentData == null) {
+						attachmentData = toAttachmentDataEntity(upload, attachmentDataResolver, attachmentStore);
+						// The attachment store has taken over the staging file
+						stagingFiles.remove(upload.inspection().stagingFile());
+						newData.put(upload.content(), attachmentData);
+					} else {
+						attachmentData.setReferenceCount(attachmentData.getReferenceCount() + 1);
+					}
+				}
+
+				attachmentEntities.add(AttachmentEntity.create()
+					.withMessageEntity(messageEntity)
+					.withFileSize(upload.content().fileSize())
+					.withHash(upload.content().hash())
+					.withAttachmentData(attachmentData)
+					.withFileName(upload.file().getOriginalFilename())
+					.withMimeType(detectMimeType(upload.file().getOriginalFilename(), upload.inspection().prefix())));
+			}
+			return attachmentEntities;
+		} catch (final IOException | NoSuchAlgorithmException e) {
+			LOGGER.warn("Exception when reading file", e);
+			throw Problem.valueOf(BAD_REQUEST, "Could not read input stream!");
+		} finally {
+			stagingFiles.forEach(AttachmentMapper::deleteStagingFile);
+		}
+	}
+
+	private static void deleteStagingFile(final Path stagingFile) {
+		try {
+			Files.deleteIfExists(stagingFile);
+		} catch (final IOException e) {
+			LOGGER.warn("Failed to delete staging file {}", stagingFile, e);
+		}
+	}
+
+	private static AttachmentDataEntity toAttachmentDataEntity(final Upload upload, final AttachmentDataResolver attachmentDataResolver, final AttachmentStore attachmentStore) throws IOException {
+		final var attachmentData = AttachmentDataEntity.create()
+			.withHash(upload.content().hash())
+			.withFileSize(upload.content().fileSize())
+			.withReferenceCount(1);
+		attachmentDataResolver.beforeWrite(attachmentData, attachmentStore);
+		attachmentStore.write(attachmentData, upload.inspection().stagingFile(), upload.inspection().size());
+		return attachmentData;
+	}
+
+	record Inspection(String hash, byte[] prefix, long size, Path stagingFile) {
+	}
+
+	private record Upload(MultipartFile file, Inspection inspection, Content content) {
+
+		private Upload(final MultipartFile file, final Inspection inspection) {
+			this(file, inspection, new Content(inspection.hash(), Math.toIntExact(inspection.size())));
+		}
 	}
 }
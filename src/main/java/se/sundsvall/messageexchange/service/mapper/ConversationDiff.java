@@ -0,0 +1,134 @@
+package se.sundsvall.messageexchange.service.mapper;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import se.sundsvall.messageexchange.api.model.Conversation;
+import se.sundsvall.messageexchange.api.model.Identifier;
+import se.sundsvall.messageexchange.api.model.KeyValues;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+import se.sundsvall.messageexchange.integration.db.model.ExternalReferencesEntity;
+import se.sundsvall.messageexchange.integration.db.model.MetadataEntity;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNullElse;
+import static java.util.function.Function.identity;
+
+/**
+ * The changes an update request makes to a stored conversation.
+ * <p>
+ * Both sides are indexed once, participants by type and value and metadata and external references by key, so that the
+ * diff is computed in a single pass over each collection. Collections that are not part of the request are not
+ * compared, and metadata and external references are compared value by value for each key. When a key occurs more than
+ * once, its first occurrence is used.
+ *
+ * @param previousTopic             the topic before the update, or null if the topic is not changed
+ * @param topic                     the topic after the update, or null if the topic is not changed
+ * @param addedParticipants         participants in the request that the conversation does not have
+ * @param removedParticipants       participants of the conversation that are not in the request
+ * @param addedMetadata             metadata values in the request that the conversation does not have, per key
+ * @param removedMetadata           metadata values of the conversation that are not in the request, per key
+ * @param addedExternalReferences   external reference values in the request that the conversation does not have, per
+ *                                  key
+ * @param removedExternalReferences external reference values of the conversation that are not in the request, per key
+ */
+public record ConversationDiff(
+	String previousTopic,
+	String topic,
+	Set<Identifier> addedParticipants,
+	Set<Identifier> removedParticipants,
+	Map<String, Set<String>> addedMetadata,
+	Map<String, Set<String>> removedMetadata,
+	Map<String, Set<String>> addedExternalReferences,
+	Map<String, Set<String>> removedExternalReferences) {
+
+	public static ConversationDiff of(final ConversationEntity entity, final Conversation conversation) {
+		final var topicChanged = conversation.getTopic() != null && !conversation.getTopic().equals(entity.getTopic());
+
+		Set<Identifier> addedParticipants = emptySet();
+		Set<Identifier> removedParticipants = emptySet();
+		if (conversation.getParticipants() != null) {
+			final var before = toSet(entity.getParticipants(), Mapper::toIdentifier);
+			final var after = toSet(conversation.getParticipants(), identity());
+			addedParticipants = difference(after, before);
+			removedParticipants = difference(before, after);
+		}
+
+		Map<String, Set<String>> addedMetadata = emptyMap();
+		Map<String, Set<String>> removedMetadata = emptyMap();
+		if (conversation.getMetadata() != null) {
+			final var before = toValuesByKey(entity.getMetadata(), MetadataEntity::getKey, MetadataEntity::getValues);
+			final var after = toValuesByKey(conversation.getMetadata(), KeyValues::getKey, KeyValues::getValues);
+			addedMetadata = differenceByKey(after, before);
+			removedMetadata = differenceByKey(before, after);
+		}
+
+		Map<String, Set<String>> addedExternalReferences = emptyMap();
+		Map<String, Set<String>> removedExternalReferences = emptyMap();
+		if (conversation.getExternalReferences() != null) {
+			final var before = toValuesByKey(entity.getExternalReferences(), ExternalReferencesEntity::getKey, ExternalReferencesEntity::getValues);
+			final var after = toValuesByKey(conversation.getExternalReferences(), KeyValues::getKey, KeyValues::getValues);
+			addedExternalReferences = differenceByKey(after, before);
+			removedExternalReferences = differenceByKey(before, after);
+		}
+
+		return new ConversationDiff(
+			topicChanged ? entity.getTopic() : null,
+			topicChanged ? conversation.getTopic() : null,
+			addedParticipants,
+			removedParticipants,
+			addedMetadata,
+			removedMetadata,
+			addedExternalReferences,
+			removedExternalReferences);
+	}
+
+	public boolean isTopicChanged() {
+		return topic != null;
+	}
+
+	public boolean isEmpty() {
+		return !isTopicChanged()
+			&& addedParticipants.isEmpty()
+			&& removedParticipants.isEmpty()
+			&& addedMetadata.isEmpty()
+			&& removedMetadata.isEmpty()
+			&& addedExternalReferences.isEmpty()
+			&& removedExternalReferences.isEmpty();
+	}
+
+	private static <T, R> Set<R> toSet(final List<T> elements, final Function<T, R> converter) {
+		final var result = new LinkedHashSet<R>();
+		requireNonNullElse(elements, emptyList()).forEach(element -> result.add(converter.apply(element)));
+		return result;
+	}
+
+	private static <T> Map<String, Set<String>> toValuesByKey(final List<T> elements, final Function<T, String> keyExtractor, final Function<T, List<String>> valuesExtractor) {
+		final var result = new LinkedHashMap<String, Set<String>>();
+		requireNonNullElse(elements, emptyList()).forEach(element -> result.computeIfAbsent(keyExtractor.apply(element),
+			key -> new LinkedHashSet<>(requireNonNullElse(valuesExtractor.apply(element), emptyList()))));
+		return result;
+	}
+
+	private static <T> Set<T> difference(final Set<T> minuend, final Set<T> subtrahend) {
+		final var result = new LinkedHashSet<>(minuend);
+		result.removeAll(subtrahend);
+		return result;
+	}
+
+	private static Map<String, Set<String>> differenceByKey(final Map<String, Set<String>> minuend, final Map<String, Set<String>> subtrahend) {
+		final var result = new LinkedHashMap<String, Set<String>>();
+		minuend.forEach((key, values) -> {
+			final var difference = difference(values, subtrahend.getOrDefault(key, emptySet()));
+			if (!difference.isEmpty()) {
+				result.put(key, difference);
+			}
+		});
+		return result;
+	}
+}
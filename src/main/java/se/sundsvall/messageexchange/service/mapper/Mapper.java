@@ -3,12 +3,16 @@ package se.sundsvall.messageexchange.service.mapper;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import se.sundsvall.messageexchange.api.model.Attachment;
 import se.sundsvall.messageexchange.api.model.Conversation;
 import se.sundsvall.messageexchange.api.model.Identifier;
 import se.sundsvall.messageexchange.api.model.KeyValues;
@@ -19,6 +23,10 @@ import se.sundsvall.messageexchange.api.model.ReadByCount;
 import se.sundsvall.messageexchange.api.model.ReadByPart;
 import se.sundsvall.messageexchange.api.model.ReadByPartCount;
 import se.sundsvall.messageexchange.api.model.ReadByStatistics;
+import se.sundsvall.messageexchange.integration.db.MessageAttachmentProjection;
+import se.sundsvall.messageexchange.integration.db.MessageProjection;
+import se.sundsvall.messageexchange.integration.db.MessageReadByPartProjection;
+import se.sundsvall.messageexchange.integration.db.MessageReadByProjection;
 import se.sundsvall.messageexchange.integration.db.ReadByCountProjection;
 import se.sundsvall.messageexchange.integration.db.ReadByPartCountProjection;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
@@ -28,7 +36,7 @@ import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
 import se.sundsvall.messageexchange.integration.db.model.MetadataEntity;
 import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
 import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
-import se.sundsvall.messageexchange.integration.db.model.SequenceEntity;
+import se.sundsvall.messageexchange.integration.db.model.ReadMarkerEntity;
 
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
@@ -75,118 +83,95 @@ public final class Mapper {
 			.withTopic(entity.getTopic());
 	}
 
-	public static ConversationEntity updateConversationEntity(final ConversationEntity entity, final Conversation conversation) {
+	/**
+	 * Applies an update request to a conversation entity. Only the changes found by the diff of the request are applied,
+	 * so that elements present both before and after are left untouched, the collections are not marked as changed, and
+	 * no rows are deleted and inserted again, when the same elements are sent.
+	 */
+	public static ConversationEntity updateConversationEntity(final ConversationEntity entity, final Conversation conversation, final ConversationDiff diff) {
 
-		Optional.ofNullable(conversation.getTopic()).ifPresent(entity::setTopic);
-		Optional.ofNullable(conversation.getParticipants()).ifPresent(participants -> updateParticipants(entity, participants));
-		Optional.ofNullable(conversation.getMetadata()).ifPresent(metaData -> updateMetadata(entity, metaData));
-		Optional.ofNullable(conversation.getExternalReferences()).ifPresent(externalReferences -> updateExternalReferences(entity, externalReferences));
+		if (diff.isTopicChanged()) {
+			entity.setTopic(diff.topic());
+		}
+		Optional.ofNullable(conversation.getParticipants()).ifPresent(participants -> updateParticipants(entity, diff));
+		Optional.ofNullable(conversation.getMetadata()).ifPresent(metadata -> updateMetadata(entity, metadata, diff));
+		Optional.ofNullable(conversation.getExternalReferences()).ifPresent(externalReferences -> updateExternalReferences(entity, externalReferences, diff));
 
 		return entity;
 	}
 
-	public static Optional<String> conversationDiffMessage(final ConversationEntity entity, final Conversation conversation) {
+	public static Optional<String> conversationDiffMessage(final ConversationDiff diff) {
 		final var changes = new ArrayList<String>();
 
-		checkTopicDiff(entity, conversation, changes);
-		checkParticipantsDiff(entity, conversation, changes);
-		checkExternalReferenceDiff(entity, conversation, changes);
+		if (diff.isTopicChanged()) {
+			changes.add(TOPIC_CHANGED_MSG.formatted(diff.previousTopic(), diff.topic()));
+		}
+		if (!diff.addedParticipants().isEmpty()) {
+			changes.add(PARTICIPANT_ADDED_MSG.formatted(diff.addedParticipants().size()));
+		}
+		if (!diff.removedParticipants().isEmpty()) {
+			changes.add(PARTICIPANT_REMOVED_MSG.formatted(diff.removedParticipants().size()));
+		}
+		if (!diff.addedExternalReferences().isEmpty()) {
+			changes.add(EXTERNAL_REFERENCE_ADDED_MSG);
+		}
+		if (!diff.removedExternalReferences().isEmpty()) {
+			changes.add(EXTERNAL_REFERENCE_REMOVED_MSG);
+		}
 
 		return changes.isEmpty() ? Optional.empty() : Optional.of(String.join(". ", changes).concat("."));
 	}
 
-	private static void checkExternalReferenceDiff(ConversationEntity entity, Conversation conversation, ArrayList<String> changes) {
-		Optional.ofNullable(conversation.getExternalReferences()).ifPresent(externalReferences -> {
-			var added = false;
-			var removed = false;
-
-			for (var key : externalReferences.stream().map(KeyValues::getKey).toList()) {
-				var addedValuesForKey = addedObjects(getExternalReferenceValuesByKey(entity, key), getExternalReferenceValuesByKey(conversation, key), s -> s);
-				if (!addedValuesForKey.isEmpty()) {
-					added = true;
-					break;
-				}
-			}
-
-			for (var key : ofNullable(entity.getExternalReferences()).orElse(new ArrayList<>()).stream().map(ExternalReferencesEntity::getKey).toList()) {
-				var removedValuesForKey = removedObjects(getExternalReferenceValuesByKey(entity, key), getExternalReferenceValuesByKey(conversation, key), s -> s);
-				if (!removedValuesForKey.isEmpty()) {
-					removed = true;
-					break;
-				}
-			}
-
-			if (added) {
-				changes.add(EXTERNAL_REFERENCE_ADDED_MSG);
-			}
-			if (removed) {
-				changes.add(EXTERNAL_REFERENCE_REMOVED_MSG);
-			}
-		});
-	}
-
-	private static void checkParticipantsDiff(ConversationEntity entity, Conversation conversation, ArrayList<String> changes) {
-		Optional.ofNullable(conversation.getParticipants()).ifPresent(participants -> {
-			var added = addedObjects(entity.getParticipants(), conversation.getParticipants(), Mapper::toIdentifier);
-			if (!added.isEmpty()) {
-				changes.add(PARTICIPANT_ADDED_MSG.formatted(added.size()));
-			}
-			var removed = removedObjects(entity.getParticipants(), conversation.getParticipants(), Mapper::toIdentifierEntity);
-			if (!removed.isEmpty()) {
-				changes.add(PARTICIPANT_REMOVED_MSG.formatted(removed.size()));
-			}
-		});
+	private static void updateParticipants(final ConversationEntity entity, final ConversationDiff diff) {
+		if (entity.getParticipants() == null) {
+			entity.setParticipants(new ArrayList<>());
+		}
+		if (!diff.removedParticipants().isEmpty()) {
+			entity.getParticipants().removeIf(participant -> diff.removedParticipants().contains(toIdentifier(participant)));
+		}
+		if (!diff.addedParticipants().isEmpty()) {
+			entity.getParticipants().addAll(toIdentifierEntities(List.copyOf(diff.addedParticipants())));
+		}
 	}
 
-	private static void checkTopicDiff(ConversationEntity entity, Conversation conversation, ArrayList<String> changes) {
-		Optional.ofNullable(conversation.getTopic()).ifPresent(topic -> {
-			if (!topic.equals(entity.getTopic())) {
-				changes.add(TOPIC_CHANGED_MSG.formatted(entity.getTopic(), topic));
-			}
-		});
+	private static void updateMetadata(final ConversationEntity entity, final List<KeyValues> metadata, final ConversationDiff diff) {
+		if (entity.getMetadata() == null) {
+			entity.setMetadata(new ArrayList<>());
+		}
+		updateKeyValues(entity.getMetadata(), metadata, MetadataEntity::getKey, changedKeys(diff.addedMetadata(), diff.removedMetadata()), Mapper::toMetadataEntities);
 	}
 
-	private static List<String> getExternalReferenceValuesByKey(ConversationEntity entity, String key) {
-		return ofNullable(entity.getExternalReferences()).orElse(new ArrayList<>()).stream()
-			.filter(item -> item.getKey().equals(key))
-			.findFirst()
-			.map(ExternalReferencesEntity::getValues)
-			.orElse(new ArrayList<>());
+	private static void updateExternalReferences(final ConversationEntity entity, final List<KeyValues> externalReferences, final ConversationDiff diff) {
+		if (entity.getExternalReferences() == null) {
+			entity.setExternalReferences(new ArrayList<>());
+		}
+		updateKeyValues(entity.getExternalReferences(), externalReferences, ExternalReferencesEntity::getKey,
+			changedKeys(diff.addedExternalReferences(), diff.removedExternalReferences()), Mapper::toExternalReferencesEntities);
 	}
 
-	private static List<String> getExternalReferenceValuesByKey(Conversation conversation, String key) {
-		return ofNullable(conversation.getExternalReferences()).orElse(new ArrayList<>()).stream()
-			.filter(item -> item.getKey().equals(key))
-			.findFirst()
-			.map(KeyValues::getValues)
-			.orElse(new ArrayList<>());
+	private static Set<String> changedKeys(final Map<String, Set<String>> added, final Map<String, Set<String>> removed) {
+		final var changedKeys = new HashSet<>(added.keySet());
+		changedKeys.addAll(removed.keySet());
+		return changedKeys;
 	}
 
-	private static <T, R> Set<R> addedObjects(List<T> before, List<R> after, Function<T, R> converter) {
-		var added = new HashSet<>(after);
-		added.removeAll(ofNullable(before).orElse(new ArrayList<>()).stream().map(converter).collect(Collectors.toSet()));
-		return added;
-	}
+	/**
+	 * Replaces the elements of the keys that the diff reports as changed, removes the elements of keys that are no longer
+	 * requested and adds the keys that are new. The first occurrence of a requested key is used, as in the diff.
+	 */
+	private static <E> void updateKeyValues(final List<E> current, final List<KeyValues> requested, final Function<E, String> keyExtractor, final Set<String> changedKeys,
+		final Function<List<KeyValues>, List<E>> toEntities) {
 
-	private static <T, R> Set<R> removedObjects(List<R> before, List<T> after, Function<T, R> converter) {
-		var removed = new HashSet<>(before);
-		removed.removeAll(ofNullable(after).orElse(new ArrayList<>()).stream().map(converter).collect(Collectors.toSet()));
-		return removed;
-	}
+		final var requestedKeys = requested.stream().map(KeyValues::getKey).collect(Collectors.toSet());
+		current.removeIf(element -> changedKeys.contains(keyExtractor.apply(element)) || !requestedKeys.contains(keyExtractor.apply(element)));
 
-	private static void updateExternalReferences(final ConversationEntity entity, final List<KeyValues> externalReferences) {
-		ofNullable(entity.getExternalReferences()).ifPresentOrElse(List::clear, () -> entity.setExternalReferences(new ArrayList<>()));
-		entity.getExternalReferences().addAll(toExternalReferencesEntities(externalReferences));
-	}
-
-	private static void updateParticipants(final ConversationEntity entity, final List<Identifier> identifiers) {
-		ofNullable(entity.getParticipants()).ifPresentOrElse(List::clear, () -> entity.setParticipants(new ArrayList<>()));
-		entity.getParticipants().addAll(toIdentifierEntities(identifiers));
-	}
-
-	private static void updateMetadata(final ConversationEntity entity, final List<KeyValues> metadata) {
-		ofNullable(entity.getMetadata()).ifPresentOrElse(List::clear, () -> entity.setMetadata(new ArrayList<>()));
-		entity.getMetadata().addAll(toMetadataEntities(metadata));
+		final var currentKeys = current.stream().map(keyExtractor).collect(Collectors.toCollection(HashSet::new));
+		final var added = requested.stream()
+			.filter(keyValues -> currentKeys.add(keyValues.getKey()))
+			.toList();
+		if (!added.isEmpty()) {
+			current.addAll(toEntities.apply(added));
+		}
 	}
 
 	public static List<Message> toMessages(final List<MessageEntity> entities) {
@@ -199,7 +184,7 @@ public final class Mapper {
 
 		return Message.create()
 			.withId(entity.getId())
-			.withSequenceNumber(Optional.ofNullable(entity.getSequenceNumber()).map(SequenceEntity::getId).orElse(null))
+			.withSequenceNumber(entity.getSequenceNumber())
 			.withInReplyToMessageId(entity.getInReplyToMessageId())
 			.withCreated(entity.getCreated())
 			.withCreatedBy(toIdentifier(entity.getCreatedBy()))
@@ -211,6 +196,86 @@ public final class Mapper {
 
 	}
 
+	public static List<Message> toMessages(final List<MessageProjection> messages, final List<MessageReadByProjection> readBy, final List<MessageReadByPartProjection> readByPart,
+		final List<MessageAttachmentProjection> attachments) {
+
+		final var readByPerMessage = readBy.stream()
+			.collect(Collectors.groupingBy(MessageReadByProjection::messageId, Collectors.mapping(Mapper::toReadBy, Collectors.toList())));
+		final var readByPartPerMessage = readByPart.stream()
+			.collect(Collectors.groupingBy(MessageReadByPartProjection::messageId, Collectors.mapping(Mapper::toReadByPart, Collectors.toList())));
+		final var attachmentsPerMessage = attachments.stream()
+			.collect(Collectors.groupingBy(MessageAttachmentProjection::messageId, Collectors.mapping(AttachmentMapper::toAttachment, Collectors.toList())));
+
+		return messages.stream()
+			.map(message -> toMessage(message, readByPerMessage, readByPartPerMessage, attachmentsPerMessage))
+			.toList();
+	}
+
+	private static Message toMessage(final MessageProjection projection, final Map<String, List<ReadBy>> readByPerMessage, final Map<String, List<ReadByPart>> readByPartPerMessage,
+		final Map<String, List<Attachment>> attachmentsPerMessage) {
+
+		return Message.create()
+			.withId(projection.id())
+			.withSequenceNumber(projection.sequenceNumber())
+			.withInReplyToMessageId(projection.inReplyToMessageId())
+			.withCreated(projection.created())
+			.withCreatedBy(toIdentifier(projection.createdByType(), projection.createdByValue()))
+			.withContent(projection.content())
+			.withReadBy(readByPerMessage.getOrDefault(projection.id(), emptyList()))
+			.withReadByPart(readByPartPerMessage.getOrDefault(projection.id(), emptyList()))
+			.withAttachments(attachmentsPerMessage.getOrDefault(projection.id(), emptyList()))
+			.withType(MessageType.valueOf(projection.type().toString()));
+	}
+
+	/**
+	 * Adds the identifiers and parts whose read marker has reached the sequence number of a message to the read by and
+	 * read by part of that message, unless they are already present. The read time of such an entry is the time when the
+	 * marker was last moved. The markers are ordered by sequence number once, so that only the markers that have reached
+	 * a message are visited for it.
+	 *
+	 * @param  messages    the messages to add read markers to
+	 * @param  readMarkers the read markers of the conversation that the messages belong to
+	 * @return             the messages
+	 */
+	public static List<Message> applyReadMarkers(final List<Message> messages, final List<ReadMarkerEntity> readMarkers) {
+		if (readMarkers == null || readMarkers.isEmpty()) {
+			return messages;
+		}
+
+		final var markers = readMarkers.stream()
+			.sorted(Comparator.comparing(ReadMarkerEntity::getSequenceNumber).reversed())
+			.toList();
+
+		messages.stream()
+			.filter(message -> message.getSequenceNumber() != null)
+			.forEach(message -> {
+				final var readBy = new ArrayList<>(ofNullable(message.getReadBy()).orElse(emptyList()));
+				final var readByPart = new ArrayList<>(ofNullable(message.getReadByPart()).orElse(emptyList()));
+				final var identifiers = readBy.stream().map(ReadBy::getIdentifier).filter(Objects::nonNull).collect(Collectors.toCollection(HashSet::new));
+				final var parts = readByPart.stream().map(ReadByPart::getPart).collect(Collectors.toCollection(HashSet::new));
+
+				markers.stream()
+					.takeWhile(marker -> marker.getSequenceNumber() >= message.getSequenceNumber())
+					.forEach(marker -> {
+						if (marker.getPart() != null) {
+							if (parts.add(marker.getPart())) {
+								readByPart.add(ReadByPart.create().withPart(marker.getPart()).withReadAt(marker.getUpdated()));
+							}
+							return;
+						}
+						final var identifier = toIdentifier(marker.getIdentifier());
+						if (identifier != null && identifiers.add(identifier)) {
+							readBy.add(ReadBy.create().withIdentifier(identifier).withReadAt(marker.getUpdated()));
+						}
+					});
+
+				message.setReadBy(readBy);
+				message.setReadByPart(readByPart);
+			});
+
+		return messages;
+	}
+
 	public static MessageEntity toMessageEntity(final ConversationEntity entity, final Message message) {
 
 		final var identifier = se.sundsvall.dept44.support.Identifier.get();
@@ -244,10 +309,20 @@ public final class Mapper {
 			.orElse(null);
 	}
 
+	private static Identifier toIdentifier(final String type, final String value) {
+		if (type == null && value == null) {
+			return null;
+		}
+		return Identifier.create()
+			.withType(type)
+			.withValue(value);
+	}
+
 	public static List<IdentifierEntity> toIdentifierEntities(final List<Identifier> identifiers) {
 		return Optional.ofNullable(identifiers)
 			.orElse(emptyList()).stream()
 			.map(Mapper::toIdentifierEntity)
+			.distinct()
 			.toList();
 	}
 
@@ -340,6 +415,12 @@ public final class Mapper {
 			.orElse(null);
 	}
 
+	public static ReadBy toReadBy(final MessageReadByProjection projection) {
+		return ReadBy.create()
+			.withIdentifier(toIdentifier(projection.type(), projection.value()))
+			.withReadAt(projection.readAt());
+	}
+
 	public static ReadByEntity toReadByEntity(final Identifier identifier) {
 		return Optional.ofNullable(identifier)
 			.map(p -> ReadByEntity.create()
@@ -371,6 +452,12 @@ public final class Mapper {
 			.orElse(null);
 	}
 
+	public static ReadByPart toReadByPart(final MessageReadByPartProjection projection) {
+		return ReadByPart.create()
+			.withPart(projection.part())
+			.withReadAt(projection.readAt());
+	}
+
 	public static ReadByStatistics toReadByStatistics(final long messageCount, final List<ReadByCountProjection> readByCounts, final List<ReadByPartCountProjection> readByPartCounts) {
 		return ReadByStatistics.create()
 			.withMessageCount(messageCount)
@@ -0,0 +1,139 @@
+package se.sundsvall.messageexchange.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Parses the {@code Range} header of a request for a representation of a known size, as described in RFC 9110.
+ * <p>
+ * Only byte ranges are supported. A header with invalid syntax, or with more ranges than {@link #MAX_RANGES}, is
+ * ignored, in which case the whole representation is sent. Overlapping and adjacent ranges are merged, so that no byte
+ * is sent twice.
+ */
+public final class ByteRanges {
+
+	/**
+	 * Largest number of ranges accepted in one request.
+	 */
+	public static final int MAX_RANGES = 20;
+
+	private static final String BYTES_UNIT = "bytes=";
+
+	private ByteRanges() {}
+
+	/**
+	 * Parses a range header.
+	 *
+	 * @param  header the value of the range header, may be null
+	 * @param  size   the size of the representation
+	 * @return        the satisfiable ranges in ascending order, or empty if the whole representation should be sent
+	 * @throws UnsatisfiableRangeException if the header is valid but none of its ranges overlaps the representation
+	 */
+	public static Optional<List<ByteRange>> parse(final String header, final long size) {
+		if (isBlank(header) || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+			return Optional.empty();
+		}
+
+		final var specs = header.substring(BYTES_UNIT.length()).split(",");
+		if (specs.length > MAX_RANGES) {
+			return Optional.empty();
+		}
+
+		final var ranges = new ArrayList<ByteRange>();
+		try {
+			for (final var spec : specs) {
+				parseSpec(spec.strip(), size).ifPresent(ranges::add);
+			}
+		} catch (final IllegalArgumentException e) {
+			return Optional.empty();
+		}
+		if (ranges.isEmpty()) {
+			throw new UnsatisfiableRangeException(size);
+		}
+		return Optional.of(merge(ranges));
+	}
+
+	/**
+	 * @return                          the range, or empty if the range does not overlap the representation
+	 * @throws IllegalArgumentException if the range is invalid
+	 */
+	private static Optional<ByteRange> parseSpec(final String spec, final long size) {
+		final var dash = spec.indexOf('-');
+		if (dash < 0) {
+			throw new IllegalArgumentException("Invalid range '%s'".formatted(spec));
+		}
+
+		if (dash == 0) {
+			final var suffixLength = Long.parseLong(spec.substring(1));
+			return suffixLength <= 0 || size == 0 ? Optional.empty() : Optional.of(new ByteRange(Math.max(0, size - suffixLength), size - 1));
+		}
+
+		final var start = Long.parseLong(spec.substring(0, dash));
+		final var last = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+		if (start < 0 || last < start) {
+			throw new IllegalArgumentException("Invalid range '%s'".formatted(spec));
+		}
+		return start >= size ? Optional.empty() : Optional.of(new ByteRange(start, Math.min(last, size - 1)));
+	}
+
+	private static List<ByteRange> merge(final List<ByteRange> ranges) {
+		ranges.sort(Comparator.comparingLong(ByteRange::start));
+		final var merged = new ArrayList<ByteRange>();
+		for (final var range : ranges) {
+			final var last = merged.isEmpty() ? null : merged.getLast();
+			if (last != null && range.start() <= last.end() + 1) {
+				merged.set(merged.size() - 1, new ByteRange(last.start(), Math.max(last.end(), range.end())));
+			} else {
+				merged.add(range);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * A range of bytes.
+	 *
+	 * @param start the position of the first byte
+	 * @param end   the position of the last byte, inclusive
+	 */
+	public record ByteRange(long start, long end) {
+
+		public long length() {
+			return end - start + 1;
+		}
+
+		/**
+		 * @param  size the size of the representation
+		 * @return      the value of the {@code Content-Range} header of the range
+		 */
+		public String contentRange(final long size) {
+			return "bytes %d-%d/%d".formatted(start, end, size);
+		}
+	}
+
+	/**
+	 * Thrown when none of the requested ranges overlaps the representation.
+	 */
+	public static class UnsatisfiableRangeException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long size;
+
+		public UnsatisfiableRangeException(final long size) {
+			super("None of the requested ranges is satisfiable");
+			this.size = size;
+		}
+
+		/**
+		 * @return the value of the {@code Content-Range} header of the response
+		 */
+		public String contentRange() {
+			return "bytes */%d".formatted(size);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package se.sundsvall.messageexchange.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.lang.Boolean.TRUE;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Writes local files to responses without passing their content through the Java heap where the container allows it.
+ * <p>
+ * Files of at least {@link #SENDFILE_THRESHOLD} bytes are handed to the container when it supports sendfile, in which
+ * case the content is written by the operating system after the request has been handled. Other files are written with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+ */
+public final class FileTransfer {
+
+	/**
+	 * Smallest number of bytes handed to the container for sendfile, below which a direct write is cheaper.
+	 */
+	public static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+	static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+	static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+	static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+	static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+	private FileTransfer() {}
+
+	/**
+	 * Writes a part of a file to a response. The headers of the response must be set before calling this method.
+	 *
+	 * @param  file        the file
+	 * @param  position    the position of the first byte to write
+	 * @param  count       the number of bytes to write
+	 * @param  request     the request
+	 * @param  response    the response
+	 * @throws IOException if the file could not be written
+	 */
+	public static void transfer(final Path file, final long position, final long count, final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+		if (count >= SENDFILE_THRESHOLD && request != null && TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+			request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+			request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+			return;
+		}
+		transfer(file, position, count, response.getOutputStream());
+	}
+
+	/**
+	 * Writes a part of a file to an output stream.
+	 *
+	 * @param  file         the file
+	 * @param  position     the position of the first byte to write
+	 * @param  count        the number of bytes to write
+	 * @param  outputStream the output stream, left open
+	 * @throws EOFException if the file ends before the requested number of bytes has been written
+	 * @throws IOException  if the file could not be written
+	 */
+	public static void transfer(final Path file, final long position, final long count, final OutputStream outputStream) throws IOException {
+		try (final var channel = FileChannel.open(file, READ)) {
+			final var target = Channels.newChannel(outputStream);
+			var transferred = 0L;
+			while (transferred < count) {
+				final var written = channel.transferTo(position + transferred, count - transferred, target);
+				if (written <= 0) {
+					throw new EOFException("File %s ended after %d of %d bytes".formatted(file.getFileName(), transferred, count));
+				}
+				transferred += written;
+			}
+		}
+	}
+}
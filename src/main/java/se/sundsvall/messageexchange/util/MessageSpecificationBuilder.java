@@ -5,23 +5,17 @@ import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
 
 import static java.util.Objects.nonNull;
 
-public class MessageSpecificationBuilder<T> {
+public class MessageSpecificationBuilder {
 
-	private static final MessageSpecificationBuilder<MessageEntity> MESSAGE_ENTITY_SPECIFICATION_BUILDER = new MessageSpecificationBuilder<>();
+	public static Specification<MessageEntity> withConversationId(final String conversationId) {
+		return (entity, cq, cb) -> nonNull(conversationId) ? cb.equal(entity.get("conversation").get("id"), conversationId) : cb.and();
+	}
 
-	public static Specification<MessageEntity> withConversation(final se.sundsvall.messageexchange.integration.db.model.ConversationEntity conversationEntity) {
-		return MESSAGE_ENTITY_SPECIFICATION_BUILDER.buildEqualFilter("conversation", conversationEntity);
+	public static Specification<MessageEntity> withSequenceNumberAfter(final Long sequenceNumber) {
+		return (entity, cq, cb) -> nonNull(sequenceNumber) ? cb.greaterThan(entity.<Long>get("sequenceNumber"), sequenceNumber) : cb.and();
 	}
 
-	/**
-	 * Method builds an equal filter if value is not null. If value is null, method returns an always-true predicate
-	 * (meaning no filtering will be applied for sent in attribute)
-	 *
-	 * @param  attribute name that will be used in filter
-	 * @param  value     value (or null) to compare against
-	 * @return           Specification<T> matching sent in comparison
-	 */
-	private Specification<T> buildEqualFilter(final String attribute, final Object value) {
-		return (entity, cq, cb) -> nonNull(value) ? cb.equal(entity.get(attribute), value) : cb.and();
+	public static Specification<MessageEntity> withSequenceNumberBefore(final Long sequenceNumber) {
+		return (entity, cq, cb) -> nonNull(sequenceNumber) ? cb.lessThan(entity.<Long>get("sequenceNumber"), sequenceNumber) : cb.and();
 	}
 }
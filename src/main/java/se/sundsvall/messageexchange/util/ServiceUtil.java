@@ -1,6 +1,5 @@
 package se.sundsvall.messageexchange.util;
 
-import java.io.InputStream;
 import org.apache.tika.Tika;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +8,11 @@ import static org.springframework.util.MimeTypeUtils.APPLICATION_OCTET_STREAM_VA
 
 public final class ServiceUtil {
 
+	/**
+	 * Number of bytes from the start of a file that are used to detect its mime type.
+	 */
+	public static final int MIME_TYPE_DETECTION_LENGTH = 64 * 1024;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(ServiceUtil.class);
 	private static final String MIME_ERROR_MSG = "Exception when detecting mime type of file with filename '%s'";
 	private static final Tika DETECTOR = new Tika();
@@ -20,9 +24,16 @@ public final class ServiceUtil {
 		return fileName == null ? "unknown" : fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
 	}
 
-	public static String detectMimeTypeFromStream(final String fileName, final InputStream stream) {
+	/**
+	 * Detects the mime type of a file from its name and the first bytes of its content.
+	 *
+	 * @param  fileName the name of the file, may be null
+	 * @param  prefix   the first bytes of the file, e.g. the first {@link #MIME_TYPE_DETECTION_LENGTH} bytes
+	 * @return          the detected mime type, or application/octet-stream if detection fails
+	 */
+	public static String detectMimeType(final String fileName, final byte[] prefix) {
 		try {
-			return DETECTOR.detect(stream, fileName);
+			return DETECTOR.detect(prefix, fileName);
 		} catch (final Exception e) {
 			LOGGER.warn(String.format(MIME_ERROR_MSG, sanitizeFileName(fileName)), e);
 			return APPLICATION_OCTET_STREAM_VALUE; // Return mime type for arbitrary binary files
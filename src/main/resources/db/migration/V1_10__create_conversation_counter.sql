@@ -0,0 +1,34 @@
+create table conversation_counter
+(
+    total           bigint       not null,
+    conversation_id varchar(255) not null,
+    counter_key     varchar(255) not null,
+    id              varchar(255) not null,
+    counter_type    VARCHAR(15)  not null,
+    message_type    VARCHAR(15)  not null,
+    primary key (id)
+) engine = InnoDB;
+
+alter table if exists conversation_counter
+    add constraint uq_conversation_counter unique (conversation_id, message_type, counter_type, counter_key);
+
+alter table if exists conversation_counter
+    add constraint fk_conversation_counter_conversation_id
+        foreign key (conversation_id)
+            references conversation (id)
+            on delete cascade;
+
+-- Populate the counters from the existing messages and read receipts
+insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+select uuid(), m.conversation_id, m.type, 'MESSAGES', '', count(*) from message m
+group by m.conversation_id, m.type;
+
+insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+select uuid(), m.conversation_id, m.type, 'READ_BY', r.identifier_id, count(*) from message m
+join message_read_by r on r.message_id = m.id
+group by m.conversation_id, m.type, r.identifier_id;
+
+insert into conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+select uuid(), m.conversation_id, m.type, 'READ_BY_PART', rp.part, count(*) from message m
+join message_read_by_part rp on rp.message_id = m.id
+group by m.conversation_id, m.type, rp.part;
@@ -0,0 +1,24 @@
+-- Moves the message sequence numbers off the global message_sequence table. The sequence number is kept as a plain
+-- column on message, unique within the conversation, and allocated in blocks reserved through
+-- conversation.sequence_block_end. The existing sequence numbers are globally unique and therefore already increase
+-- monotonically within each conversation, so they are kept as they are.
+alter table if exists conversation
+    add column if not exists sequence_block_end bigint;
+
+update conversation c
+set c.sequence_block_end = (select max(m.sequence_number) from message m where m.conversation_id = c.id);
+
+alter table if exists message
+    drop foreign key if exists fk_message_sequence_number;
+
+alter table if exists message
+    add constraint uq_message_conversation_id_sequence_number unique (conversation_id, sequence_number);
+
+alter table if exists message
+    drop index if exists uq_message_sequence_number;
+
+drop index if exists idx_message_conversation_id_sequence_number on message;
+
+drop table if exists message_sequence;
+
+drop sequence if exists message_sequence_id_generator;
@@ -0,0 +1,16 @@
+create table message_idempotency_key
+(
+    created    datetime(6)  not null,
+    id         varchar(255) not null,
+    message_id varchar(255) not null,
+    primary key (id)
+) engine = InnoDB;
+
+create index idx_message_idempotency_key_created
+    on message_idempotency_key (created);
+
+alter table if exists message_idempotency_key
+    add constraint fk_message_idempotency_key_message_id
+        foreign key (message_id)
+            references message (id)
+            on delete cascade;
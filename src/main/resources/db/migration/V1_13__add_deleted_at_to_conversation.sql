@@ -0,0 +1,5 @@
+alter table if exists conversation
+    add column if not exists deleted_at datetime(6);
+
+create index if not exists idx_conversation_deleted_at
+    on conversation (deleted_at);
@@ -0,0 +1,12 @@
+alter table if exists attachment_data
+    add column if not exists file_size integer,
+    add column if not exists reference_count integer,
+    add column if not exists hash varchar(64);
+
+update attachment_data d
+set d.hash            = (select max(a.hash) from attachment a where a.attachment_data_id = d.id),
+    d.file_size       = (select max(a.file_size) from attachment a where a.attachment_data_id = d.id),
+    d.reference_count = (select count(*) from attachment a where a.attachment_data_id = d.id);
+
+create index if not exists idx_attachment_data_hash_file_size
+    on attachment_data (hash, file_size);
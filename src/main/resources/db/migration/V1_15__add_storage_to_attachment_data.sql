@@ -0,0 +1,6 @@
+alter table if exists attachment_data
+    add column if not exists storage VARCHAR(15);
+
+update attachment_data
+set storage = 'DATABASE'
+where storage is null;
@@ -0,0 +1,3 @@
+update conversation c
+set c.last_activity_at = coalesce((select max(m.created) from message m where m.conversation_id = c.id), current_timestamp(6))
+where c.last_activity_at is null;
@@ -0,0 +1,29 @@
+-- Keys the identifier read markers on the identifier dictionary instead of the raw type and value. The dictionary id
+-- is computed with the same encoding as in V1_9, and is recomputed together with the other dictionary ids by V1_19.
+alter table if exists conversation_read_marker
+    add column if not exists identifier_id varchar(255);
+
+insert ignore into identifier (id, type, value)
+select distinct sha2(concat(coalesce(identifier_type, ''), '|', coalesce(identifier_value, '')), 256),
+                identifier_type, identifier_value
+from conversation_read_marker
+where part is null;
+
+update conversation_read_marker
+set identifier_id = sha2(concat(coalesce(identifier_type, ''), '|', coalesce(identifier_value, '')), 256)
+where part is null;
+
+alter table if exists conversation_read_marker
+    drop index if exists uq_conversation_read_marker_identifier;
+
+alter table if exists conversation_read_marker
+    drop column if exists identifier_type,
+    drop column if exists identifier_value;
+
+alter table if exists conversation_read_marker
+    add constraint uq_conversation_read_marker_identifier_id unique (conversation_id, identifier_id);
+
+alter table if exists conversation_read_marker
+    add constraint fk_conversation_read_marker_identifier_id
+        foreign key (identifier_id)
+            references identifier (id);
@@ -0,0 +1,4 @@
+-- Message sequence numbers are allocated one at a time by incrementing the last allocated number of the conversation,
+-- instead of in blocks. Numbers of blocks that were reserved but not used up are skipped.
+alter table if exists conversation
+    rename column if exists sequence_block_end to last_sequence_number;
@@ -0,0 +1,59 @@
+-- Recomputes the ids of the identifier dictionary so that null and empty parts get different ids. Each part is encoded
+-- as its length followed by a colon and the part itself, or as a dash when null, the same as in IdentifierResolver.
+-- Every reference, including the read by counters that are keyed on the identifier id, is moved to the recomputed id.
+-- Identifiers that only differed by a null or empty part were already merged by V1_9 and stay merged.
+
+-- The recomputed rows are added next to the existing rows before the references are moved
+alter table if exists identifier
+    drop index if exists uq_identifier_type_value;
+
+create table identifier_recompute
+(
+    old_id varchar(255) not null,
+    new_id varchar(255) not null,
+    primary key (old_id)
+) engine = InnoDB;
+
+insert into identifier_recompute (old_id, new_id)
+select id, new_id
+from (select id,
+             sha2(concat(if(type is null, '-', concat(char_length(type), ':', type)),
+                         if(value is null, '-', concat(char_length(value), ':', value))), 256) as new_id
+      from identifier) i
+where i.id <> i.new_id;
+
+insert ignore into identifier (id, type, value)
+select r.new_id, i.type, i.value
+from identifier i
+join identifier_recompute r on r.old_id = i.id;
+
+-- Move the references to the recomputed rows
+update conversation_participants p
+join identifier_recompute r on r.old_id = p.identifier_id
+set p.identifier_id = r.new_id;
+
+update message m
+join identifier_recompute r on r.old_id = m.created_by
+set m.created_by = r.new_id;
+
+update message_read_by rb
+join identifier_recompute r on r.old_id = rb.identifier_id
+set rb.identifier_id = r.new_id;
+
+update conversation_read_marker rm
+join identifier_recompute r on r.old_id = rm.identifier_id
+set rm.identifier_id = r.new_id;
+
+update conversation_counter c
+join identifier_recompute r on r.old_id = c.counter_key
+set c.counter_key = r.new_id
+where c.counter_type = 'READ_BY';
+
+-- Remove the rows that are no longer referenced
+delete i from identifier i
+join identifier_recompute r on r.old_id = i.id;
+
+drop table identifier_recompute;
+
+alter table if exists identifier
+    add constraint uq_identifier_type_value unique (type, value);
@@ -0,0 +1,7 @@
+alter table if exists conversation
+    add column if not exists latest_sequence_number bigint,
+    add column if not exists last_activity_at datetime(6);
+
+update conversation c
+set c.latest_sequence_number = (select max(m.sequence_number) from message m where m.conversation_id = c.id),
+    c.last_activity_at       = (select max(m.created) from message m where m.conversation_id = c.id);
@@ -0,0 +1,23 @@
+create table conversation_read_marker
+(
+    sequence_number  bigint       not null,
+    updated          datetime(6)  not null,
+    conversation_id  varchar(255) not null,
+    id               varchar(255) not null,
+    identifier_type  varchar(255),
+    identifier_value varchar(255),
+    part             varchar(255),
+    primary key (id)
+) engine = InnoDB;
+
+alter table if exists conversation_read_marker
+    add constraint uq_conversation_read_marker_identifier unique (conversation_id, identifier_type, identifier_value);
+
+alter table if exists conversation_read_marker
+    add constraint uq_conversation_read_marker_part unique (conversation_id, part);
+
+alter table if exists conversation_read_marker
+    add constraint fk_conversation_read_marker_conversation_id
+        foreign key (conversation_id)
+            references conversation (id)
+            on delete cascade;
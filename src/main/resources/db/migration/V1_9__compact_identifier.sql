@@ -0,0 +1,82 @@
+-- Turns the identifier table into a dictionary with one row per type and value. The id of the canonical row is the
+-- SHA-256 hash of type and value, the same id as assigned by IdentifierResolver. Every reference is moved to the
+-- canonical row, after which duplicated receipts and participants and the old identifier rows are removed.
+
+-- Keep the foreign keys covered by an index when the unique constraints on the referencing columns are dropped
+create index if not exists idx_conversation_participants_identifier_id
+   on conversation_participants (identifier_id);
+
+create index if not exists idx_message_created_by
+   on message (created_by);
+
+create index if not exists idx_message_read_by_identifier_id
+   on message_read_by (identifier_id);
+
+alter table if exists conversation_participants
+    drop index if exists uq_conversation_participants_identifier_id;
+
+alter table if exists message
+    drop index if exists uq_message_created_by;
+
+alter table if exists message_read_by
+    drop index if exists uq_message_read_by_identifier_id;
+
+-- Create the canonical rows and map every existing row to its canonical row
+create table identifier_compaction
+(
+    old_id varchar(255) not null,
+    new_id varchar(255) not null,
+    primary key (old_id)
+) engine = InnoDB;
+
+insert into identifier_compaction (old_id, new_id)
+select id, sha2(concat(coalesce(type, ''), '|', coalesce(value, '')), 256) from identifier;
+
+insert ignore into identifier (id, type, value)
+select distinct sha2(concat(coalesce(type, ''), '|', coalesce(value, '')), 256), type, value from identifier;
+
+-- Move the references to the canonical rows
+update conversation_participants p
+join identifier_compaction c on c.old_id = p.identifier_id
+set p.identifier_id = c.new_id;
+
+update message m
+join identifier_compaction c on c.old_id = m.created_by
+set m.created_by = c.new_id;
+
+update message_read_by r
+join identifier_compaction c on c.old_id = r.identifier_id
+set r.identifier_id = c.new_id;
+
+-- Remove duplicated receipts, keeping the earliest one, and duplicated participants
+delete r1 from message_read_by r1
+join message_read_by r2 on r2.message_id = r1.message_id
+    and r2.identifier_id = r1.identifier_id
+    and (r2.read_at < r1.read_at or (r2.read_at = r1.read_at and r2.id < r1.id));
+
+create table conversation_participants_compaction engine = InnoDB as
+select distinct conversation_id, identifier_id from conversation_participants;
+
+delete from conversation_participants;
+
+insert into conversation_participants (conversation_id, identifier_id)
+select conversation_id, identifier_id from conversation_participants_compaction;
+
+drop table conversation_participants_compaction;
+
+-- Remove the rows that are no longer referenced
+delete i from identifier i
+join identifier_compaction c on c.old_id = i.id;
+
+drop table identifier_compaction;
+
+alter table if exists identifier
+    add constraint uq_identifier_type_value unique (type, value);
+
+alter table if exists conversation_participants
+    add constraint uq_conversation_participants_conversation_id_identifier_id unique (conversation_id, identifier_id);
+
+alter table if exists message_read_by
+    add constraint uq_message_read_by_message_id_identifier_id unique (message_id, identifier_id);
+
+drop index if exists idx_message_read_by_message_id_identifier_id on message_read_by;
@@ -17,11 +17,14 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import se.sundsvall.messageexchange.Application;
 import se.sundsvall.messageexchange.api.model.Conversation;
 import se.sundsvall.messageexchange.api.model.ReadByStatistics;
+import se.sundsvall.messageexchange.api.model.Slice;
 import se.sundsvall.messageexchange.service.ConversationService;
 
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
@@ -119,6 +122,39 @@ class ConversationResourceTest {
 		verify(conversationServiceMock).readConversations(eq(NAMESPACE), eq(MUNICIPALITY_ID), ArgumentMatchers.any(), eq(pageable));
 	}
 
+	@Test
+	void getConversationsWithoutTotal() {
+		// Arrange
+		final var pageable = PageRequest.of(2, 10);
+		final var slice = Slice.<Conversation>create()
+			.withContent(List.of(Conversation.create()))
+			.withNumber(2)
+			.withSize(10)
+			.withHasNext(true);
+
+		when(conversationServiceMock.readConversationSlice(eq(NAMESPACE), eq(MUNICIPALITY_ID), ArgumentMatchers.any(), eq(pageable))).thenReturn(slice);
+
+		final var response = webTestClient.get()
+			.uri(builder -> builder.path(PATH)
+				.queryParam("withTotal", false)
+				.queryParam("page", 2)
+				.queryParam("size", 10)
+				.build(Map.of("namespace", NAMESPACE, "municipalityId", MUNICIPALITY_ID)))
+			.accept(APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(new ParameterizedTypeReference<Slice<Conversation>>() {
+
+			})
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isEqualTo(slice);
+		verify(conversationServiceMock).readConversationSlice(eq(NAMESPACE), eq(MUNICIPALITY_ID), ArgumentMatchers.any(), eq(pageable));
+		verify(conversationServiceMock, never()).readConversations(any(), any(), any(), any());
+	}
+
 	@Test
 	void getConversation() {
 
@@ -184,7 +220,7 @@ class ConversationResourceTest {
 		webTestClient.delete()
 			.uri(PATH + "/{id}", Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID))
 			.exchange()
-			.expectStatus().isNoContent();
+			.expectStatus().isAccepted();
 
 		verify(conversationServiceMock).deleteConversation(NAMESPACE, MUNICIPALITY_ID, CONVERSATION_ID);
 	}
@@ -0,0 +1,136 @@
+package se.sundsvall.messageexchange.api;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
+import se.sundsvall.dept44.problem.violations.Violation;
+import se.sundsvall.messageexchange.Application;
+import se.sundsvall.messageexchange.api.model.Message;
+import se.sundsvall.messageexchange.api.model.MessageBatchItem;
+import se.sundsvall.messageexchange.api.model.MessageBatchRequest;
+import se.sundsvall.messageexchange.service.MessageService;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("junit")
+class MessageBatchResourceFailureTest {
+
+	private static final String NAMESPACE = "namespace";
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	private static final String PATH = "/{municipalityId}/{namespace}/messages/batch";
+
+	@MockitoBean
+	private MessageService messageServiceMock;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void postMessagesWithInvalidMunicipalityId() {
+
+		final var request = MessageBatchRequest.create()
+			.withMessages(List.of(MessageBatchItem.create()
+				.withConversationId(randomUUID().toString())
+				.withMessage(Message.create())));
+
+		webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", "invalidMunicipalityId", "namespace", NAMESPACE))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isBadRequest();
+
+		verifyNoInteractions(messageServiceMock);
+	}
+
+	@Test
+	void postMessagesWithEmptyMessages() {
+
+		final var request = MessageBatchRequest.create()
+			.withMessages(List.of());
+
+		final var response = webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.contains("messages");
+		verifyNoInteractions(messageServiceMock);
+	}
+
+	@Test
+	void postMessagesWithInvalidConversationId() {
+
+		final var request = MessageBatchRequest.create()
+			.withMessages(List.of(MessageBatchItem.create()
+				.withConversationId("invalidConversationId")
+				.withMessage(Message.create())));
+
+		final var response = webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.contains("messages[0].conversationId");
+		verifyNoInteractions(messageServiceMock);
+	}
+
+	@Test
+	void postMessagesWithOneInvalidMessage() {
+
+		final var request = MessageBatchRequest.create()
+			.withMessages(List.of(
+				MessageBatchItem.create()
+					.withConversationId(randomUUID().toString())
+					.withMessage(Message.create()),
+				MessageBatchItem.create()
+					.withConversationId(randomUUID().toString())));
+
+		final var response = webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.containsExactly("messages[1].message");
+		verifyNoInteractions(messageServiceMock);
+	}
+}
@@ -0,0 +1,77 @@
+package se.sundsvall.messageexchange.api;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import se.sundsvall.messageexchange.Application;
+import se.sundsvall.messageexchange.api.model.Message;
+import se.sundsvall.messageexchange.api.model.MessageBatchItem;
+import se.sundsvall.messageexchange.api.model.MessageBatchRequest;
+import se.sundsvall.messageexchange.api.model.MessageBatchResponse;
+import se.sundsvall.messageexchange.api.model.MessageBatchResult;
+import se.sundsvall.messageexchange.service.MessageService;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static se.sundsvall.dept44.support.Identifier.HEADER_NAME;
+
+@SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("junit")
+class MessageBatchResourceTest {
+
+	private static final String NAMESPACE = "namespace";
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	private static final String CONVERSATION_ID = randomUUID().toString();
+
+	private static final String PATH = "/{municipalityId}/{namespace}/messages/batch";
+
+	@MockitoBean
+	private MessageService messageServiceMock;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void postMessages() {
+
+		final var request = MessageBatchRequest.create()
+			.withMessages(List.of(MessageBatchItem.create()
+				.withConversationId(CONVERSATION_ID)
+				.withMessage(Message.create().withContent("content"))));
+		final var batchResponse = MessageBatchResponse.create()
+			.withResults(List.of(MessageBatchResult.create()
+				.withConversationId(CONVERSATION_ID)
+				.withMessageId(randomUUID().toString())
+				.withSequenceNumber(1L)
+				.withStatus(201)));
+
+		when(messageServiceMock.createMessages(MUNICIPALITY_ID, NAMESPACE, request.getMessages())).thenReturn(batchResponse);
+
+		final var response = webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE))
+			.contentType(APPLICATION_JSON)
+			.header(HEADER_NAME, "type=adAccount; joe01doe")
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody(MessageBatchResponse.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isEqualTo(batchResponse);
+		verify(messageServiceMock).createMessages(MUNICIPALITY_ID, NAMESPACE, request.getMessages());
+	}
+}
@@ -16,6 +16,7 @@ import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.dept44.problem.violations.Violation;
 import se.sundsvall.messageexchange.Application;
 import se.sundsvall.messageexchange.api.model.MarkAsReadRequest;
+import se.sundsvall.messageexchange.api.model.MarkAsReadUpToRequest;
 import se.sundsvall.messageexchange.api.model.Message;
 import se.sundsvall.messageexchange.service.MessageService;
 
@@ -25,6 +26,7 @@ import static org.assertj.core.groups.Tuple.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -33,6 +35,7 @@ import static org.springframework.http.MediaType.APPLICATION_PDF;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 import static org.springframework.http.MediaType.TEXT_PLAIN;
 import static se.sundsvall.dept44.support.Identifier.HEADER_NAME;
+import static se.sundsvall.messageexchange.Constants.IDEMPOTENCY_KEY_HEADER;
 
 @SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
 @AutoConfigureWebTestClient
@@ -108,6 +111,32 @@ class MessageResourceFailureTest {
 			.expectStatus().isBadRequest();
 	}
 
+	@Test
+	void postMessageWithTooLongIdempotencyKey() {
+
+		final var request = new Message();
+		final var multipartBodyBuilder = new MultipartBodyBuilder();
+		multipartBodyBuilder.part("message", request, APPLICATION_JSON);
+		final var body = multipartBodyBuilder.build();
+
+		final var response = webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID))
+			.contentType(MULTIPART_FORM_DATA)
+			.header(IDEMPOTENCY_KEY_HEADER, "a".repeat(256))
+			.body(BodyInserters.fromMultipartData(body))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.containsExactly("postMessage.idempotencyKey");
+		verifyNoInteractions(messageServiceMock);
+	}
+
 	@Test
 	void postMessageWithEmptyAttachmentFile() {
 
@@ -147,7 +176,7 @@ class MessageResourceFailureTest {
 
 		doThrow(Problem.valueOf(NOT_FOUND, "Conversation not found"))
 			.when(messageServiceMock)
-			.createMessage(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), eq(new Message()), any());
+			.createMessage(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), eq(new Message()), any(), any());
 
 		webTestClient.post()
 			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID))
@@ -201,6 +230,27 @@ class MessageResourceFailureTest {
 			.expectStatus().isNotFound();
 	}
 
+	@Test
+	void getMessageWindowWithInvalidLimit() {
+
+		final var response = webTestClient.get()
+			.uri(builder -> builder.path(PATH)
+				.queryParam("limit", "0")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID)))
+			.accept(APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.containsExactly("getMessageWindow.limit");
+		verifyNoInteractions(messageServiceMock);
+	}
+
 	@Test
 	void markAsReadWithEmptyMessageIds() {
 
@@ -246,6 +296,29 @@ class MessageResourceFailureTest {
 			.contains("At least one of 'identifier' or 'part' must be provided");
 	}
 
+	@Test
+	void markAsReadUpToWithoutSequenceNumber() {
+
+		final var request = MarkAsReadUpToRequest.create()
+			.withPart("errand-123");
+
+		final var response = webTestClient.post()
+			.uri(PATH + "/mark-as-read-up-to", Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.contains("sequenceNumber");
+		verifyNoInteractions(messageServiceMock);
+	}
+
 	@Test
 	void deleteMessageWithInvalidMunicipalityId() {
 		webTestClient.delete()
@@ -354,7 +427,7 @@ class MessageResourceFailureTest {
 
 		doThrow(Problem.valueOf(NOT_FOUND, "Attachment not found"))
 			.when(messageServiceMock)
-			.readErrandAttachment(eq(NAMESPACE), eq(MUNICIPALITY_ID), eq(CONVERSATION_ID), eq(MESSAGE_ID), any(), any());
+			.readErrandAttachment(eq(NAMESPACE), eq(MUNICIPALITY_ID), eq(CONVERSATION_ID), eq(MESSAGE_ID), any(), any(), any());
 
 		webTestClient.get()
 			.uri(PATH + "/{messageId}/attachments/{attachmentId}", Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID, "messageId", MESSAGE_ID, "attachmentId", randomUUID().toString()))
@@ -14,18 +14,24 @@ import org.springframework.web.reactive.function.BodyInserters;
 import se.sundsvall.messageexchange.Application;
 import se.sundsvall.messageexchange.api.model.Identifier;
 import se.sundsvall.messageexchange.api.model.MarkAsReadRequest;
+import se.sundsvall.messageexchange.api.model.MarkAsReadUpToRequest;
 import se.sundsvall.messageexchange.api.model.Message;
 import se.sundsvall.messageexchange.service.MessageService;
 
 import static java.util.UUID.randomUUID;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 import static org.springframework.http.MediaType.TEXT_PLAIN;
 import static se.sundsvall.dept44.support.Identifier.HEADER_NAME;
+import static se.sundsvall.messageexchange.Constants.IDEMPOTENCY_KEY_HEADER;
 
 @SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
 @AutoConfigureWebTestClient
@@ -66,7 +72,29 @@ class MessageResourceTest {
 			.exchange()
 			.expectStatus().isCreated();
 
-		verify(messageServiceMock).createMessage(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), eq(request), any());
+		verify(messageServiceMock).createMessage(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), eq(request), any(), isNull());
+	}
+
+	@Test
+	void postMessageWithIdempotencyKey() {
+
+		final var request = new Message();
+		final var multipartBodyBuilder = new MultipartBodyBuilder();
+		multipartBodyBuilder.part("message", request, APPLICATION_JSON);
+		final var body = multipartBodyBuilder.build();
+
+		when(messageServiceMock.createMessage(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), eq(request), any(), eq("idempotencyKey"))).thenReturn(MESSAGE_ID);
+
+		webTestClient.post()
+			.uri(PATH, Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID))
+			.contentType(MULTIPART_FORM_DATA)
+			.header(IDEMPOTENCY_KEY_HEADER, "idempotencyKey")
+			.body(BodyInserters.fromMultipartData(body))
+			.exchange()
+			.expectStatus().isCreated()
+			.expectHeader().location("/" + MUNICIPALITY_ID + "/" + NAMESPACE + "/conversations/" + CONVERSATION_ID + "/messages/" + MESSAGE_ID);
+
+		verify(messageServiceMock).createMessage(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), eq(request), any(), eq("idempotencyKey"));
 	}
 
 	@Test
@@ -112,6 +140,67 @@ class MessageResourceTest {
 		verify(messageServiceMock).getMessages(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), any(), any(), eq(true));
 	}
 
+	@Test
+	void getMessagesWithoutTotal() {
+		webTestClient.get()
+			.uri(builder -> builder.path(PATH)
+				.queryParam("withTotal", "false")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID)))
+			.header(HEADER_NAME, "type=adAccount; joe01doe")
+			.accept(APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isOk();
+
+		verify(messageServiceMock).getMessageSlice(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), any(), any(), eq(true));
+		verify(messageServiceMock, never()).getMessages(any(), any(), any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void getMessagesWithTotal() {
+		webTestClient.get()
+			.uri(builder -> builder.path(PATH)
+				.queryParam("withTotal", "true")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID)))
+			.header(HEADER_NAME, "type=adAccount; joe01doe")
+			.accept(APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isOk();
+
+		verify(messageServiceMock).getMessages(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), any(), any(), eq(true));
+		verify(messageServiceMock, never()).getMessageSlice(any(), any(), any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void getMessageWindow() {
+		webTestClient.get()
+			.uri(builder -> builder.path(PATH)
+				.queryParam("afterSequence", "120")
+				.queryParam("limit", "50")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID)))
+			.header(HEADER_NAME, "type=adAccount; joe01doe")
+			.accept(APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isOk();
+
+		verify(messageServiceMock).getMessageWindow(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), any(), eq(120L), isNull(), isNull(), eq(50), eq(true));
+		verify(messageServiceMock, never()).getMessages(any(), any(), any(), any(), any(), anyBoolean());
+	}
+
+	@Test
+	void getMessageWindowWithCursor() {
+		webTestClient.get()
+			.uri(builder -> builder.path(PATH)
+				.queryParam("cursor", "QUZURVI6MTIw")
+				.queryParam("limit", "10")
+				.queryParam("setReadBy", "false")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID)))
+			.accept(APPLICATION_JSON)
+			.exchange()
+			.expectStatus().isOk();
+
+		verify(messageServiceMock).getMessageWindow(eq(MUNICIPALITY_ID), eq(NAMESPACE), eq(CONVERSATION_ID), any(), isNull(), isNull(), eq("QUZURVI6MTIw"), eq(10), eq(false));
+	}
+
 	@Test
 	void markAsRead() {
 
@@ -130,6 +219,24 @@ class MessageResourceTest {
 		verify(messageServiceMock).markMessagesAsRead(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, request);
 	}
 
+	@Test
+	void markAsReadUpTo() {
+
+		final var request = MarkAsReadUpToRequest.create()
+			.withSequenceNumber(42L)
+			.withIdentifier(Identifier.create().withType("adAccount").withValue("joe01doe"))
+			.withPart("errand-123");
+
+		webTestClient.post()
+			.uri(PATH + "/mark-as-read-up-to", Map.of("municipalityId", MUNICIPALITY_ID, "namespace", NAMESPACE, "id", CONVERSATION_ID))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isNoContent();
+
+		verify(messageServiceMock).markMessagesAsReadUpTo(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, request);
+	}
+
 	@Test
 	void deleteMessage() {
 
@@ -151,6 +258,6 @@ class MessageResourceTest {
 			.exchange()
 			.expectStatus().isOk();
 
-		verify(messageServiceMock).readErrandAttachment(eq(NAMESPACE), eq(MUNICIPALITY_ID), eq(CONVERSATION_ID), eq(MESSAGE_ID), any(), any());
+		verify(messageServiceMock).readErrandAttachment(eq(NAMESPACE), eq(MUNICIPALITY_ID), eq(CONVERSATION_ID), eq(MESSAGE_ID), any(), any(), any());
 	}
 }
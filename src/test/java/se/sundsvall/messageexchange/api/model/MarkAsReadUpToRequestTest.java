@@ -0,0 +1,84 @@
+package se.sundsvall.messageexchange.api.model;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MarkAsReadUpToRequestTest {
+
+	private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(MarkAsReadUpToRequest.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var sequenceNumber = 120L;
+		final var identifier = Identifier.create().withType("adAccount").withValue("joe01doe");
+		final var part = "errand-123";
+
+		// Act
+		final var result = MarkAsReadUpToRequest.create()
+			.withSequenceNumber(sequenceNumber)
+			.withIdentifier(identifier)
+			.withPart(part);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getSequenceNumber()).isEqualTo(sequenceNumber);
+		assertThat(result.getIdentifier()).isEqualTo(identifier);
+		assertThat(result.getPart()).isEqualTo(part);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(MarkAsReadUpToRequest.create()).hasAllNullFieldsOrProperties();
+		assertThat(new MarkAsReadUpToRequest()).hasAllNullFieldsOrProperties();
+	}
+
+	@Test
+	void validRequest() {
+		final var request = MarkAsReadUpToRequest.create()
+			.withSequenceNumber(1L)
+			.withPart("errand-123");
+
+		assertThat(VALIDATOR.validate(request)).isEmpty();
+	}
+
+	@Test
+	void invalidWhenNeitherIdentifierNorPart() {
+		final var request = MarkAsReadUpToRequest.create()
+			.withSequenceNumber(1L);
+
+		assertThat(VALIDATOR.validate(request))
+			.extracting("message")
+			.containsExactly("At least one of 'identifier' or 'part' must be provided");
+	}
+
+	@Test
+	void invalidWhenSequenceNumberMissing() {
+		final var request = MarkAsReadUpToRequest.create()
+			.withPart("errand-123");
+
+		assertThat(VALIDATOR.validate(request))
+			.extracting("propertyPath")
+			.anyMatch(path -> path.toString().equals("sequenceNumber"));
+	}
+}
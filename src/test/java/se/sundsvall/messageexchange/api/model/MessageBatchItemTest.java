@@ -0,0 +1,48 @@
+package se.sundsvall.messageexchange.api.model;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MessageBatchItemTest {
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(MessageBatchItem.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var conversationId = "b82bd8ac-1507-4d9a-958d-369261eecc15";
+		final var message = Message.create().withContent("content");
+
+		// Act
+		final var result = MessageBatchItem.create()
+			.withConversationId(conversationId)
+			.withMessage(message);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getConversationId()).isEqualTo(conversationId);
+		assertThat(result.getMessage()).isEqualTo(message);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(MessageBatchItem.create()).hasAllNullFieldsOrProperties();
+		assertThat(new MessageBatchItem()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,46 @@
+package se.sundsvall.messageexchange.api.model;
+
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MessageBatchRequestTest {
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(MessageBatchRequest.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var messages = List.of(MessageBatchItem.create().withConversationId("b82bd8ac-1507-4d9a-958d-369261eecc15"));
+
+		// Act
+		final var result = MessageBatchRequest.create()
+			.withMessages(messages);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getMessages()).isEqualTo(messages);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(MessageBatchRequest.create()).hasAllNullFieldsOrProperties();
+		assertThat(new MessageBatchRequest()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -1,5 +1,6 @@
-package se.sundsvall.messageexchange.integration.db.model;
+package se.sundsvall.messageexchange.api.model;
 
+import java.util.List;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.Test;
 
@@ -11,11 +12,11 @@ import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetter
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.allOf;
 
-class SequenceEntityTest {
+class MessageBatchResponseTest {
 
 	@Test
 	void testBean() {
-		MatcherAssert.assertThat(SequenceEntity.class, allOf(
+		MatcherAssert.assertThat(MessageBatchResponse.class, allOf(
 			hasValidBeanConstructor(),
 			hasValidGettersAndSetters(),
 			hasValidBeanHashCode(),
@@ -26,21 +27,20 @@ class SequenceEntityTest {
 	@Test
 	void builder() {
 		// Arrange
+		final var results = List.of(MessageBatchResult.create().withStatus(201));
 
 		// Act
-		final var result = SequenceEntity.create()
-			.withId(123L);
+		final var result = MessageBatchResponse.create()
+			.withResults(results);
 
 		// Assert
 		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
-		assertThat(result.getId()).isEqualTo(123L);
-
+		assertThat(result.getResults()).isEqualTo(results);
 	}
 
 	@Test
 	void testNoDirtOnCreatedBean() {
-		assertThat(SequenceEntity.create()).hasAllNullFieldsOrProperties();
-		assertThat(new SequenceEntity()).hasAllNullFieldsOrProperties();
+		assertThat(MessageBatchResponse.create()).hasAllNullFieldsOrProperties();
+		assertThat(new MessageBatchResponse()).hasAllNullFieldsOrProperties();
 	}
-
 }
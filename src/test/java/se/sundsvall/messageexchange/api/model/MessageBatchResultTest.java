@@ -0,0 +1,57 @@
+package se.sundsvall.messageexchange.api.model;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MessageBatchResultTest {
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(MessageBatchResult.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var conversationId = "b82bd8ac-1507-4d9a-958d-369261eecc15";
+		final var messageId = "7f77f9fd-d01d-4742-974a-714b911e3496";
+		final var sequenceNumber = 1L;
+		final var status = 404;
+		final var detail = "detail";
+
+		// Act
+		final var result = MessageBatchResult.create()
+			.withConversationId(conversationId)
+			.withMessageId(messageId)
+			.withSequenceNumber(sequenceNumber)
+			.withStatus(status)
+			.withDetail(detail);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getConversationId()).isEqualTo(conversationId);
+		assertThat(result.getMessageId()).isEqualTo(messageId);
+		assertThat(result.getSequenceNumber()).isEqualTo(sequenceNumber);
+		assertThat(result.getStatus()).isEqualTo(status);
+		assertThat(result.getDetail()).isEqualTo(detail);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(MessageBatchResult.create()).hasAllNullFieldsOrProperties();
+		assertThat(new MessageBatchResult()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,55 @@
+package se.sundsvall.messageexchange.api.model;
+
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MessageWindowTest {
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(MessageWindow.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var content = List.of(Message.create().withId("messageId"));
+		final var limit = 50;
+		final var hasNext = true;
+		final var nextCursor = "QUZURVI6MTIz";
+
+		// Act
+		final var result = MessageWindow.create()
+			.withContent(content)
+			.withLimit(limit)
+			.withHasNext(hasNext)
+			.withNextCursor(nextCursor);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getContent()).isEqualTo(content);
+		assertThat(result.getLimit()).isEqualTo(limit);
+		assertThat(result.getHasNext()).isEqualTo(hasNext);
+		assertThat(result.getNextCursor()).isEqualTo(nextCursor);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(MessageWindow.create()).hasAllNullFieldsOrProperties();
+		assertThat(new MessageWindow()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,55 @@
+package se.sundsvall.messageexchange.api.model;
+
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class SliceTest {
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(Slice.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var content = List.of(Message.create().withId("id"));
+		final var number = 2;
+		final var size = 20;
+		final var hasNext = true;
+
+		// Act
+		final var result = Slice.<Message>create()
+			.withContent(content)
+			.withNumber(number)
+			.withSize(size)
+			.withHasNext(hasNext);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getContent()).isEqualTo(content);
+		assertThat(result.getNumber()).isEqualTo(number);
+		assertThat(result.getSize()).isEqualTo(size);
+		assertThat(result.getHasNext()).isEqualTo(hasNext);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(Slice.create()).hasAllNullFieldsOrProperties();
+		assertThat(new Slice<>()).hasAllNullFieldsOrProperties();
+	}
+}
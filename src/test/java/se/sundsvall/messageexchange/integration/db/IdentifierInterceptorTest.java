@@ -0,0 +1,27 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import org.junit.jupiter.api.Test;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentifierInterceptorTest {
+
+	private final IdentifierInterceptor interceptor = new IdentifierInterceptor();
+
+	@Test
+	void identifierWithIdIsNotTransient() {
+		assertThat(interceptor.isTransient(IdentifierEntity.create().withId("id"))).isFalse();
+	}
+
+	@Test
+	void identifierWithoutIdIsLeftToHibernate() {
+		assertThat(interceptor.isTransient(IdentifierEntity.create())).isNull();
+	}
+
+	@Test
+	void otherEntitiesAreLeftToHibernate() {
+		assertThat(interceptor.isTransient(MessageEntity.create().withId("id"))).isNull();
+	}
+}
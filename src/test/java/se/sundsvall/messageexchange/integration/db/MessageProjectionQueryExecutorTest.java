@@ -0,0 +1,169 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageProjectionQueryExecutorTest {
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private CriteriaBuilder criteriaBuilderMock;
+
+	@Mock
+	private CriteriaQuery<MessageProjection> criteriaQueryMock;
+
+	@Mock
+	private CriteriaQuery<Long> countQueryMock;
+
+	@Mock(answer = RETURNS_DEEP_STUBS)
+	private Root<MessageEntity> rootMock;
+
+	@Mock
+	private Predicate predicateMock;
+
+	@Mock
+	private TypedQuery<MessageProjection> typedQueryMock;
+
+	@Mock
+	private TypedQuery<Long> countTypedQueryMock;
+
+	@InjectMocks
+	private MessageProjectionQueryExecutor messageProjectionQueryExecutor;
+
+	@Test
+	void findPageWithoutCount() {
+		// Arrange
+		final var pageable = PageRequest.of(0, 2);
+		final var projections = List.of(projection("1"));
+		final Specification<MessageEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(projections);
+
+		// Act
+		final var result = messageProjectionQueryExecutor.findPage(specification, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(MessageProjection::id).containsExactly("1");
+		assertThat(result.getTotalElements()).isOne();
+		verify(criteriaQueryMock).where(predicateMock);
+		verify(typedQueryMock).setFirstResult(0);
+		verify(typedQueryMock).setMaxResults(2);
+		verify(criteriaBuilderMock, never()).createQuery(Long.class);
+	}
+
+	@Test
+	void findPageWithCount() {
+		// Arrange
+		final var pageable = PageRequest.of(1, 2);
+		final var projections = List.of(projection("3"), projection("4"));
+		final Specification<MessageEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(projections);
+		when(criteriaBuilderMock.createQuery(Long.class)).thenReturn(countQueryMock);
+		when(countQueryMock.from(MessageEntity.class)).thenReturn(rootMock);
+		when(entityManagerMock.createQuery(countQueryMock)).thenReturn(countTypedQueryMock);
+		when(countTypedQueryMock.getSingleResult()).thenReturn(7L);
+
+		// Act
+		final var result = messageProjectionQueryExecutor.findPage(specification, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(MessageProjection::id).containsExactly("3", "4");
+		assertThat(result.getTotalElements()).isEqualTo(7L);
+		assertThat(result.getNumber()).isOne();
+		verify(countQueryMock).where(predicateMock);
+		verify(typedQueryMock).setFirstResult(2);
+		verify(typedQueryMock).setMaxResults(2);
+	}
+
+	@Test
+	void findSlice() {
+		// Arrange
+		final var pageable = PageRequest.of(1, 2);
+		final var projections = List.of(projection("3"), projection("4"), projection("5"));
+		final Specification<MessageEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(projections);
+
+		// Act
+		final var result = messageProjectionQueryExecutor.findSlice(specification, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(MessageProjection::id).containsExactly("3", "4");
+		assertThat(result.hasNext()).isTrue();
+		verify(criteriaQueryMock).where(predicateMock);
+		verify(typedQueryMock).setFirstResult(2);
+		verify(typedQueryMock).setMaxResults(3);
+		verify(criteriaBuilderMock, never()).createQuery(Long.class);
+	}
+
+	@Test
+	void findSliceOnLastSlice() {
+		// Arrange
+		final var pageable = PageRequest.of(0, 2);
+		final Specification<MessageEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(List.of(projection("1")));
+
+		// Act
+		final var result = messageProjectionQueryExecutor.findSlice(specification, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(MessageProjection::id).containsExactly("1");
+		assertThat(result.hasNext()).isFalse();
+	}
+
+	@Test
+	void findFirst() {
+		// Arrange
+		final var projections = List.of(projection("1"), projection("2"));
+		final Specification<MessageEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.setMaxResults(3)).thenReturn(typedQueryMock);
+		when(typedQueryMock.getResultList()).thenReturn(projections);
+
+		// Act
+		final var result = messageProjectionQueryExecutor.findFirst(specification, Sort.unsorted(), 3);
+
+		// Assert
+		assertThat(result).extracting(MessageProjection::id).containsExactly("1", "2");
+		verify(criteriaQueryMock).where(predicateMock);
+		verify(typedQueryMock, never()).setFirstResult(anyInt());
+	}
+
+	private void mockCriteriaQuery() {
+		when(entityManagerMock.getCriteriaBuilder()).thenReturn(criteriaBuilderMock);
+		when(criteriaBuilderMock.createQuery(MessageProjection.class)).thenReturn(criteriaQueryMock);
+		when(criteriaQueryMock.from(MessageEntity.class)).thenReturn(rootMock);
+		when(entityManagerMock.createQuery(criteriaQueryMock)).thenReturn(typedQueryMock);
+	}
+
+	private static MessageProjection projection(final String id) {
+		return new MessageProjection(id, 1L, null, null, null, null, "content", MessageType.USER_CREATED);
+	}
+}
@@ -0,0 +1,113 @@
+package se.sundsvall.messageexchange.integration.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SliceQueryExecutorTest {
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private CriteriaBuilder criteriaBuilderMock;
+
+	@Mock
+	private CriteriaQuery<ConversationEntity> criteriaQueryMock;
+
+	@Mock
+	private Root<ConversationEntity> rootMock;
+
+	@Mock
+	private Predicate predicateMock;
+
+	@Mock
+	private TypedQuery<ConversationEntity> typedQueryMock;
+
+	@InjectMocks
+	private SliceQueryExecutor sliceQueryExecutor;
+
+	@Test
+	void findSliceWithNextSlice() {
+		// Arrange
+		final var pageable = PageRequest.of(1, 2);
+		final var entities = List.of(ConversationEntity.create().withId("1"), ConversationEntity.create().withId("2"), ConversationEntity.create().withId("3"));
+		final Specification<ConversationEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(entities);
+
+		// Act
+		final var result = sliceQueryExecutor.findSlice(ConversationEntity.class, specification, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(ConversationEntity::getId).containsExactly("1", "2");
+		assertThat(result.hasNext()).isTrue();
+		assertThat(result.getNumber()).isEqualTo(1);
+		verify(criteriaQueryMock).where(predicateMock);
+		verify(typedQueryMock).setFirstResult(2);
+		verify(typedQueryMock).setMaxResults(3);
+	}
+
+	@Test
+	void findSliceWithoutNextSlice() {
+		// Arrange
+		final var pageable = PageRequest.of(0, 2);
+		final var entities = List.of(ConversationEntity.create().withId("1"));
+		final Specification<ConversationEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(entities);
+
+		// Act
+		final var result = sliceQueryExecutor.findSlice(ConversationEntity.class, specification, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(ConversationEntity::getId).containsExactly("1");
+		assertThat(result.hasNext()).isFalse();
+		verify(typedQueryMock).setFirstResult(0);
+		verify(typedQueryMock).setMaxResults(3);
+	}
+
+	@Test
+	void findSliceUnpaged() {
+		// Arrange
+		final var entities = List.of(ConversationEntity.create().withId("1"));
+		final Specification<ConversationEntity> specification = (root, query, cb) -> predicateMock;
+		mockCriteriaQuery();
+		when(typedQueryMock.getResultList()).thenReturn(entities);
+
+		// Act
+		final var result = sliceQueryExecutor.findSlice(ConversationEntity.class, specification, Pageable.unpaged());
+
+		// Assert
+		assertThat(result.getContent()).isEqualTo(entities);
+		assertThat(result.hasNext()).isFalse();
+		verify(typedQueryMock, never()).setMaxResults(anyInt());
+	}
+
+	private void mockCriteriaQuery() {
+		when(entityManagerMock.getCriteriaBuilder()).thenReturn(criteriaBuilderMock);
+		when(criteriaBuilderMock.createQuery(ConversationEntity.class)).thenReturn(criteriaQueryMock);
+		when(criteriaQueryMock.from(ConversationEntity.class)).thenReturn(rootMock);
+		when(entityManagerMock.createQuery(criteriaQueryMock)).thenReturn(typedQueryMock);
+	}
+}
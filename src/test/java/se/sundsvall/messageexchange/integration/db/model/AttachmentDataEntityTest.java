@@ -35,12 +35,20 @@ class AttachmentDataEntityTest {
 		// Act
 		final var attachmentData = AttachmentDataEntity.create()
 			.withId(id)
-			.withFile(blob);
+			.withFile(blob)
+			.withHash("hash")
+			.withFileSize(123)
+			.withReferenceCount(2)
+			.withStorage(StorageType.FILE_SYSTEM);
 
 		// Assert
 		assertThat(attachmentData).hasNoNullFieldsOrProperties();
 		assertThat(attachmentData.getFile()).isSameAs(blob);
 		assertThat(attachmentData.getId()).isEqualTo(id);
+		assertThat(attachmentData.getHash()).isEqualTo("hash");
+		assertThat(attachmentData.getFileSize()).isEqualTo(123);
+		assertThat(attachmentData.getReferenceCount()).isEqualTo(2);
+		assertThat(attachmentData.getStorage()).isEqualTo(StorageType.FILE_SYSTEM);
 
 	}
 
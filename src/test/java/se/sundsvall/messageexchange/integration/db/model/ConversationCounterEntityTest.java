@@ -0,0 +1,60 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class ConversationCounterEntityTest {
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(ConversationCounterEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var id = "id";
+		final var conversation = ConversationEntity.create().withId("conversationId");
+		final var messageType = MessageType.USER_CREATED;
+		final var counterType = CounterType.READ_BY_PART;
+		final var counterKey = "errand-123";
+		final var total = 42L;
+
+		// Act
+		final var result = ConversationCounterEntity.create()
+			.withId(id)
+			.withConversation(conversation)
+			.withMessageType(messageType)
+			.withCounterType(counterType)
+			.withCounterKey(counterKey)
+			.withTotal(total);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getId()).isEqualTo(id);
+		assertThat(result.getConversation()).isEqualTo(conversation);
+		assertThat(result.getMessageType()).isEqualTo(messageType);
+		assertThat(result.getCounterType()).isEqualTo(counterType);
+		assertThat(result.getCounterKey()).isEqualTo(counterKey);
+		assertThat(result.getTotal()).isEqualTo(total);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(ConversationCounterEntity.create()).hasAllNullFieldsOrProperties();
+		assertThat(new ConversationCounterEntity()).hasAllNullFieldsOrProperties();
+	}
+}
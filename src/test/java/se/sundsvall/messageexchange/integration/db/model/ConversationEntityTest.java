@@ -1,7 +1,10 @@
 package se.sundsvall.messageexchange.integration.db.model;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Random;
 import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
@@ -9,11 +12,18 @@ import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
 import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
 import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
 import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static java.time.OffsetDateTime.now;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.allOf;
 
 class ConversationEntityTest {
 
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> now().plusDays(new Random().nextInt()), OffsetDateTime.class);
+	}
+
 	@Test
 	void testBean() {
 		MatcherAssert.assertThat(ConversationEntity.class, allOf(
@@ -36,6 +46,10 @@ class ConversationEntityTest {
 		final var externalReferences = List.of(ExternalReferencesEntity.create());
 		final var topic = "topic";
 		final var messages = List.of(MessageEntity.create());
+		final var latestSequenceNumber = 123L;
+		final var lastSequenceNumber = 150L;
+		final var lastActivityAt = now();
+		final var deletedAt = now().plusDays(1);
 
 		// Act
 		final var result = ConversationEntity.create()
@@ -46,7 +60,11 @@ class ConversationEntityTest {
 			.withMetadata(metaData)
 			.withExternalReferences(externalReferences)
 			.withTopic(topic)
-			.withMessages(messages);
+			.withMessages(messages)
+			.withLatestSequenceNumber(latestSequenceNumber)
+			.withLastSequenceNumber(lastSequenceNumber)
+			.withLastActivityAt(lastActivityAt)
+			.withDeletedAt(deletedAt);
 
 		// Assert
 		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
@@ -58,6 +76,10 @@ class ConversationEntityTest {
 		assertThat(result.getExternalReferences()).isEqualTo(externalReferences);
 		assertThat(result.getTopic()).isEqualTo(topic);
 		assertThat(result.getMessages()).isEqualTo(messages);
+		assertThat(result.getLatestSequenceNumber()).isEqualTo(latestSequenceNumber);
+		assertThat(result.getLastSequenceNumber()).isEqualTo(lastSequenceNumber);
+		assertThat(result.getLastActivityAt()).isEqualTo(lastActivityAt);
+		assertThat(result.getDeletedAt()).isEqualTo(deletedAt);
 
 	}
 
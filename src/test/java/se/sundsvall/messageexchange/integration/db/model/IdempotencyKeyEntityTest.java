@@ -0,0 +1,61 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+import java.time.OffsetDateTime;
+import java.util.Random;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static java.time.OffsetDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class IdempotencyKeyEntityTest {
+
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> now().plusDays(new Random().nextInt()), OffsetDateTime.class);
+	}
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(IdempotencyKeyEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var id = "id";
+		final var message = MessageEntity.create().withId("messageId");
+		final var created = now();
+
+		// Act
+		final var result = IdempotencyKeyEntity.create()
+			.withId(id)
+			.withMessage(message)
+			.withCreated(created);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getId()).isEqualTo(id);
+		assertThat(result.getMessage()).isEqualTo(message);
+		assertThat(result.getCreated()).isEqualTo(created);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(IdempotencyKeyEntity.create()).hasAllNullFieldsOrProperties();
+		assertThat(new IdempotencyKeyEntity()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,70 @@
+package se.sundsvall.messageexchange.integration.db.model;
+
+import java.time.OffsetDateTime;
+import java.util.Random;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static java.time.OffsetDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class ReadMarkerEntityTest {
+
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> now().plusDays(new Random().nextInt()), OffsetDateTime.class);
+	}
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(ReadMarkerEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builder() {
+		// Arrange
+		final var id = "id";
+		final var conversation = ConversationEntity.create().withId("conversationId");
+		final var identifier = IdentifierEntity.create().withId("identifierId").withType("adAccount").withValue("joe01doe");
+		final var part = "errand-123";
+		final var sequenceNumber = 42L;
+		final var updated = now();
+
+		// Act
+		final var result = ReadMarkerEntity.create()
+			.withId(id)
+			.withConversation(conversation)
+			.withIdentifier(identifier)
+			.withPart(part)
+			.withSequenceNumber(sequenceNumber)
+			.withUpdated(updated);
+
+		// Assert
+		assertThat(result).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(result.getId()).isEqualTo(id);
+		assertThat(result.getConversation()).isEqualTo(conversation);
+		assertThat(result.getIdentifier()).isEqualTo(identifier);
+		assertThat(result.getPart()).isEqualTo(part);
+		assertThat(result.getSequenceNumber()).isEqualTo(sequenceNumber);
+		assertThat(result.getUpdated()).isEqualTo(updated);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(ReadMarkerEntity.create()).hasAllNullFieldsOrProperties();
+		assertThat(new ReadMarkerEntity()).hasAllNullFieldsOrProperties();
+	}
+}
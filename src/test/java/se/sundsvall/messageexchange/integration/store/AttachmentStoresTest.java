@@ -0,0 +1,84 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentStoresTest {
+
+	@Mock
+	private AttachmentStore databaseStoreMock;
+
+	@Mock
+	private AttachmentStore fileSystemStoreMock;
+
+	@Test
+	void forNamespace() {
+		// Arrange
+		when(databaseStoreMock.storageType()).thenReturn(DATABASE);
+		when(fileSystemStoreMock.storageType()).thenReturn(FILE_SYSTEM);
+		final var stores = new AttachmentStores(properties(Map.of("FILES", FILE_SYSTEM)), List.of(databaseStoreMock, fileSystemStoreMock));
+
+		// Act and assert
+		assertThat(stores.forNamespace("FILES")).isSameAs(fileSystemStoreMock);
+		assertThat(stores.forNamespace("OTHER")).isSameAs(databaseStoreMock);
+	}
+
+	@Test
+	void forAttachmentData() {
+		// Arrange
+		when(databaseStoreMock.storageType()).thenReturn(DATABASE);
+		when(fileSystemStoreMock.storageType()).thenReturn(FILE_SYSTEM);
+		final var stores = new AttachmentStores(properties(Map.of()), List.of(databaseStoreMock, fileSystemStoreMock));
+
+		// Act and assert
+		assertThat(stores.forAttachmentData(AttachmentDataEntity.create().withStorage(FILE_SYSTEM))).isSameAs(fileSystemStoreMock);
+		assertThat(stores.forAttachmentData(AttachmentDataEntity.create().withStorage(DATABASE))).isSameAs(databaseStoreMock);
+		// Rows written before the storage was recorded are kept in the database
+		assertThat(stores.forAttachmentData(AttachmentDataEntity.create())).isSameAs(databaseStoreMock);
+	}
+
+	@Test
+	void forAttachmentDataWithoutConfiguredStore() {
+		// Arrange
+		when(databaseStoreMock.storageType()).thenReturn(DATABASE);
+		final var stores = new AttachmentStores(properties(Map.of()), List.of(databaseStoreMock));
+		final var attachmentData = AttachmentDataEntity.create().withStorage(FILE_SYSTEM);
+
+		// Act and assert
+		assertThat(stores.get(FILE_SYSTEM)).isEmpty();
+		assertThatThrownBy(() -> stores.forAttachmentData(attachmentData))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("No attachment store of type FILE_SYSTEM is configured");
+	}
+
+	@Test
+	void namespaceWithoutConfiguredStore() {
+		// Arrange
+		when(databaseStoreMock.storageType()).thenReturn(DATABASE);
+		final var properties = properties(Map.of("FILES", FILE_SYSTEM));
+		final var attachmentStores = List.of(databaseStoreMock);
+
+		// Act and assert
+		assertThatThrownBy(() -> new AttachmentStores(properties, attachmentStores))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("No attachment store of type FILE_SYSTEM is configured");
+	}
+
+	private static AttachmentStoreProperties properties(final Map<String, StorageType> namespaces) {
+		return new AttachmentStoreProperties(DATABASE, namespaces, null, null);
+	}
+}
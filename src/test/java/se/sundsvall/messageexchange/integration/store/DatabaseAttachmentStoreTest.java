@@ -0,0 +1,183 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.SQLException;
+import javax.sql.rowset.serial.SerialBlob;
+import org.hibernate.LobHelper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseAttachmentStoreTest {
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private Session sessionMock;
+
+	@Mock
+	private LobHelper lobHelperMock;
+
+	@Mock
+	private Blob blobMock;
+
+	@InjectMocks
+	private DatabaseAttachmentStore store;
+
+	@TempDir
+	private Path directory;
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void storageType() {
+		assertThat(store.storageType()).isEqualTo(DATABASE);
+	}
+
+	@Test
+	void write() {
+		// Arrange
+		final var content = new ByteArrayInputStream("test".getBytes());
+		final var attachmentData = AttachmentDataEntity.create();
+		when(entityManagerMock.unwrap(Session.class)).thenReturn(sessionMock);
+		when(sessionMock.getLobHelper()).thenReturn(lobHelperMock);
+		when(lobHelperMock.createBlob(content, 4)).thenReturn(blobMock);
+
+		// Act
+		store.write(attachmentData, content, 4);
+
+		// Assert
+		assertThat(attachmentData.getFile()).isSameAs(blobMock);
+		assertThat(attachmentData.getStorage()).isEqualTo(DATABASE);
+	}
+
+	@Test
+	void writeStagingFile() throws IOException {
+		// Arrange
+		final var stagingFile = Files.writeString(directory.resolve("staging"), "test");
+		final var attachmentData = AttachmentDataEntity.create();
+		when(entityManagerMock.unwrap(Session.class)).thenReturn(sessionMock);
+		when(sessionMock.getLobHelper()).thenReturn(lobHelperMock);
+		when(lobHelperMock.createBlob(any(InputStream.class), eq(4L))).thenReturn(blobMock);
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		store.write(attachmentData, stagingFile, 4);
+
+		// Assert
+		assertThat(attachmentData.getFile()).isSameAs(blobMock);
+		assertThat(attachmentData.getStorage()).isEqualTo(DATABASE);
+		// The staging file is kept until the transaction completes
+		assertThat(stagingFile).exists();
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(STATUS_COMMITTED));
+		assertThat(stagingFile).doesNotExist();
+	}
+
+	@Test
+	void writeStagingFileOutsideTransaction() throws IOException {
+		// Arrange
+		final var stagingFile = Files.writeString(directory.resolve("staging"), "test");
+		final var attachmentData = AttachmentDataEntity.create();
+
+		// Act and assert
+		assertThatThrownBy(() -> store.write(attachmentData, stagingFile, 4))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Staged content can only be written within a transaction");
+		assertThat(stagingFile).doesNotExist();
+		verifyNoInteractions(entityManagerMock);
+	}
+
+	@Test
+	void read() throws Exception {
+		// Arrange
+		final var content = new ByteArrayInputStream("test".getBytes());
+		when(blobMock.getBinaryStream()).thenReturn(content);
+
+		// Act and assert
+		assertThat(store.read(AttachmentDataEntity.create().withFile(blobMock))).isSameAs(content);
+	}
+
+	@Test
+	void readWithoutContent() {
+		final var attachmentData = AttachmentDataEntity.create().withId("id");
+
+		assertThatThrownBy(() -> store.read(attachmentData))
+			.isInstanceOf(IOException.class)
+			.hasMessage("Attachment data with id 'id' has no content in the database");
+	}
+
+	@Test
+	void readThrowsSQLException() throws SQLException {
+		when(blobMock.getBinaryStream()).thenThrow(new SQLException("Failure"));
+		final var attachmentData = AttachmentDataEntity.create().withFile(blobMock);
+
+		assertThatThrownBy(() -> store.read(attachmentData))
+			.isInstanceOf(IOException.class)
+			.hasCauseInstanceOf(SQLException.class);
+	}
+
+	@Test
+	void transferTo() throws Exception {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withFile(new SerialBlob("file content".getBytes()));
+		final var outputStream = new ByteArrayOutputStream();
+
+		// Act
+		store.transferTo(attachmentData, 5, 7, outputStream);
+
+		// Assert
+		assertThat(outputStream.toString()).isEqualTo("content");
+	}
+
+	@Test
+	void transferToWithoutContent() {
+		final var attachmentData = AttachmentDataEntity.create().withId("id");
+		final var outputStream = new ByteArrayOutputStream();
+
+		assertThatThrownBy(() -> store.transferTo(attachmentData, 0, 1, outputStream))
+			.isInstanceOf(IOException.class)
+			.hasMessage("Attachment data with id 'id' has no content in the database");
+	}
+
+	@Test
+	void file() {
+		assertThat(store.file(AttachmentDataEntity.create().withFile(blobMock))).isEmpty();
+	}
+
+	@Test
+	void delete() {
+		store.delete("hash");
+
+		verifyNoInteractions(entityManagerMock);
+	}
+}
@@ -0,0 +1,166 @@
+package se.sundsvall.messageexchange.integration.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+class FileSystemAttachmentStoreTest {
+
+	// SHA-256("test") in hex
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@TempDir
+	private Path root;
+
+	private FileSystemAttachmentStore store;
+
+	@BeforeEach
+	void setup() {
+		store = new FileSystemAttachmentStore(new AttachmentStoreProperties(DATABASE, Map.of(), new AttachmentStoreProperties.FileSystem(root, 2), null));
+	}
+
+	@Test
+	void storageType() {
+		assertThat(store.storageType()).isEqualTo(FILE_SYSTEM);
+	}
+
+	@Test
+	void writeAndRead() throws IOException {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withHash(HASH).withFile(mock(Blob.class)).withStorage(DATABASE);
+
+		// Act
+		store.write(attachmentData, new ByteArrayInputStream("test".getBytes()), 4);
+
+		// Assert
+		assertThat(attachmentData.getFile()).isNull();
+		assertThat(attachmentData.getStorage()).isEqualTo(FILE_SYSTEM);
+		assertThat(root.resolve("9f").resolve("86").resolve(HASH)).hasContent("test");
+		try (final var content = store.read(attachmentData)) {
+			assertThat(content).hasContent("test");
+		}
+		// No temporary files are left behind
+		try (final var files = Files.list(root.resolve("9f").resolve("86"))) {
+			assertThat(files).containsExactly(root.resolve("9f").resolve("86").resolve(HASH));
+		}
+	}
+
+	@Test
+	void writeReplacesExistingFile() throws IOException {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withHash(HASH);
+		store.write(attachmentData, new ByteArrayInputStream("partial".getBytes()), 7);
+
+		// Act
+		store.write(attachmentData, new ByteArrayInputStream("test".getBytes()), 4);
+
+		// Assert
+		assertThat(store.path(HASH)).hasContent("test");
+	}
+
+	@Test
+	void writeStagingFile() throws IOException {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withHash(HASH).withFile(mock(Blob.class)).withStorage(DATABASE);
+		final var stagingFile = store.createStagingFile();
+		Files.writeString(stagingFile, "test");
+
+		// Act
+		store.write(attachmentData, stagingFile, 4);
+
+		// Assert
+		assertThat(stagingFile.getParent()).isEqualTo(root.toAbsolutePath().normalize().resolve("staging"));
+		assertThat(stagingFile).doesNotExist();
+		assertThat(attachmentData.getFile()).isNull();
+		assertThat(attachmentData.getStorage()).isEqualTo(FILE_SYSTEM);
+		assertThat(store.path(HASH)).hasContent("test");
+	}
+
+	@Test
+	void writeStagingFileWithInvalidHash() throws IOException {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withHash("invalid");
+		final var stagingFile = store.createStagingFile();
+
+		// Act and assert
+		assertThatThrownBy(() -> store.write(attachmentData, stagingFile, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(stagingFile).doesNotExist();
+	}
+
+	@Test
+	void transferTo() throws IOException {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withHash(HASH);
+		final var outputStream = new ByteArrayOutputStream();
+		store.write(attachmentData, new ByteArrayInputStream("file content".getBytes()), 12);
+
+		// Act
+		store.transferTo(attachmentData, 5, 7, outputStream);
+
+		// Assert
+		assertThat(outputStream.toString()).isEqualTo("content");
+	}
+
+	@Test
+	void file() {
+		final var attachmentData = AttachmentDataEntity.create().withHash(HASH);
+
+		assertThat(store.file(attachmentData)).contains(root.toAbsolutePath().normalize().resolve("9f").resolve("86").resolve(HASH));
+	}
+
+	@Test
+	void delete() throws IOException {
+		// Arrange
+		store.write(AttachmentDataEntity.create().withHash(HASH), new ByteArrayInputStream("test".getBytes()), 4);
+
+		// Act
+		store.delete(HASH);
+		store.delete(HASH);
+
+		// Assert
+		assertThat(store.path(HASH)).doesNotExist();
+	}
+
+	@Test
+	void readMissingFile() {
+		final var attachmentData = AttachmentDataEntity.create().withHash(HASH);
+
+		assertThatThrownBy(() -> store.read(attachmentData)).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void pathWithoutSharding() {
+		final var flatStore = new FileSystemAttachmentStore(new AttachmentStoreProperties(DATABASE, Map.of(), new AttachmentStoreProperties.FileSystem(root, 0), null));
+
+		assertThat(flatStore.path(HASH)).isEqualTo(root.toAbsolutePath().normalize().resolve(HASH));
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = {
+		"", "../../etc/passwd", "9F86D081884C7D659A2FEAA0C55AD015A3BF4F1B2B0B822CD15D6C15B0F00A08", "9f86d081"
+	})
+	void pathWithInvalidHash(final String hash) {
+		assertThatThrownBy(() -> store.path(hash))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Invalid content hash '%s'".formatted(hash));
+	}
+}
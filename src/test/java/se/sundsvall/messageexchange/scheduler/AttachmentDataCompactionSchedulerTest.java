@@ -0,0 +1,69 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.scheduling.config.Task;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import se.sundsvall.messageexchange.service.AttachmentDataCompactor;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentDataCompactionSchedulerTest {
+
+	@Mock
+	private AttachmentDataCompactor attachmentDataCompactorMock;
+
+	@Mock
+	private ScheduledTaskHolder scheduledTaskHolderMock;
+
+	@Mock
+	private ScheduledTask scheduledTaskMock;
+
+	@Mock
+	private Task taskMock;
+
+	@Mock
+	private ScheduledMethodRunnable runnableMock;
+
+	@InjectMocks
+	private AttachmentDataCompactionScheduler scheduler;
+
+	@Test
+	void compactAttachmentData() {
+		// Arrange
+		when(attachmentDataCompactorMock.compact()).thenReturn(new AttachmentDataCompactor.Result(2, 1, 5, Duration.ofSeconds(1)));
+
+		// Act
+		scheduler.compactAttachmentData();
+
+		// Assert
+		verify(attachmentDataCompactorMock).compact();
+		verifyNoInteractions(scheduledTaskHolderMock);
+	}
+
+	@Test
+	void compactAttachmentDataCancelsSelfWhenNothingToDo() throws NoSuchMethodException {
+		// Arrange
+		when(attachmentDataCompactorMock.compact()).thenReturn(new AttachmentDataCompactor.Result(0, 0, 0, Duration.ofMillis(5)));
+		when(runnableMock.getMethod()).thenReturn(AttachmentDataCompactionScheduler.class.getMethod("compactAttachmentData"));
+		when(taskMock.getRunnable()).thenReturn(runnableMock);
+		when(scheduledTaskMock.getTask()).thenReturn(taskMock);
+		when(scheduledTaskHolderMock.getScheduledTasks()).thenReturn(Set.of(scheduledTaskMock));
+
+		// Act
+		scheduler.compactAttachmentData();
+
+		// Assert
+		verify(scheduledTaskMock).cancel();
+	}
+}
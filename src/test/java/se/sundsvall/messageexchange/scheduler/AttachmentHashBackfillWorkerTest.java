@@ -41,6 +41,7 @@ class AttachmentHashBackfillWorkerTest {
 
 		final var attachment = AttachmentEntity.create()
 			.withId("att-1")
+			.withFileSize(content.length)
 			.withAttachmentData(new AttachmentDataEntity().withFile(blobMock));
 
 		when(attachmentRepositoryMock.findById("att-1")).thenReturn(Optional.of(attachment));
@@ -52,6 +53,8 @@ class AttachmentHashBackfillWorkerTest {
 			.isNotNull()
 			.hasSize(64)
 			.matches("[0-9a-f]{64}");
+		assertThat(attachmentCaptor.getValue().getAttachmentData().getHash()).isEqualTo(attachmentCaptor.getValue().getHash());
+		assertThat(attachmentCaptor.getValue().getAttachmentData().getFileSize()).isEqualTo(content.length);
 	}
 
 	@Test
@@ -0,0 +1,34 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.service.AttachmentStoreMigrator;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentStoreMigrationSchedulerTest {
+
+	@Mock
+	private AttachmentStoreMigrator attachmentStoreMigratorMock;
+
+	@InjectMocks
+	private AttachmentStoreMigrationScheduler scheduler;
+
+	@Test
+	void migrateAttachmentStore() {
+		// Arrange
+		when(attachmentStoreMigratorMock.migrate()).thenReturn(new AttachmentStoreMigrator.Result(2, 0, 1024, Duration.ofSeconds(1)));
+
+		// Act
+		scheduler.migrateAttachmentStore();
+
+		// Assert
+		verify(attachmentStoreMigratorMock).migrate();
+	}
+}
@@ -0,0 +1,87 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.service.ConversationCounters;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationCounterReconciliationSchedulerTest {
+
+	@Mock
+	private ConversationRepository conversationRepositoryMock;
+
+	@Mock
+	private ConversationCounters conversationCountersMock;
+
+	@InjectMocks
+	private ConversationCounterReconciliationScheduler scheduler;
+
+	@Test
+	void reconcileCounters() {
+		// Arrange
+		when(conversationRepositoryMock.findIdsAfter(eq(""), any(Pageable.class))).thenReturn(List.of("id1", "id2"));
+
+		// Act
+		scheduler.reconcileCounters();
+
+		// Assert
+		verify(conversationCountersMock).rebuild("id1");
+		verify(conversationCountersMock).rebuild("id2");
+		verify(conversationRepositoryMock).findIdsAfter(eq(""), any(Pageable.class));
+	}
+
+	@Test
+	void reconcileCountersInBatches() {
+		// Arrange
+		final var firstBatch = IntStream.range(0, 500).mapToObj(i -> "id%03d".formatted(i)).toList();
+		when(conversationRepositoryMock.findIdsAfter(eq(""), any(Pageable.class))).thenReturn(firstBatch);
+		when(conversationRepositoryMock.findIdsAfter(eq("id499"), any(Pageable.class))).thenReturn(List.of());
+
+		// Act
+		scheduler.reconcileCounters();
+
+		// Assert
+		verify(conversationCountersMock, times(500)).rebuild(any());
+		verify(conversationRepositoryMock).findIdsAfter(eq("id499"), any(Pageable.class));
+	}
+
+	@Test
+	void reconcileCountersContinuesAfterFailure() {
+		// Arrange
+		when(conversationRepositoryMock.findIdsAfter(eq(""), any(Pageable.class))).thenReturn(List.of("id1", "id2"));
+		doThrow(new IllegalStateException("error")).when(conversationCountersMock).rebuild("id1");
+
+		// Act
+		scheduler.reconcileCounters();
+
+		// Assert
+		verify(conversationCountersMock).rebuild("id2");
+	}
+
+	@Test
+	void reconcileCountersWithoutConversations() {
+		// Arrange
+		when(conversationRepositoryMock.findIdsAfter(eq(""), any(Pageable.class))).thenReturn(List.of());
+
+		// Act
+		scheduler.reconcileCounters();
+
+		// Assert
+		verify(conversationCountersMock, never()).rebuild(any());
+	}
+}
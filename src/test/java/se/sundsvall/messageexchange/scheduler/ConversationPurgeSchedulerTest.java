@@ -0,0 +1,46 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.service.ConversationPurger;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationPurgeSchedulerTest {
+
+	@Mock
+	private ConversationPurger conversationPurgerMock;
+
+	@InjectMocks
+	private ConversationPurgeScheduler scheduler;
+
+	@Test
+	void purgeConversations() {
+		// Arrange
+		when(conversationPurgerMock.purgeDeletedConversations()).thenReturn(new ConversationPurger.Result(2, 1, 1500, 20, Duration.ofSeconds(3)));
+
+		// Act
+		scheduler.purgeConversations();
+
+		// Assert
+		verify(conversationPurgerMock).purgeDeletedConversations();
+	}
+
+	@Test
+	void purgeConversationsWhenNothingIsDeleted() {
+		// Arrange
+		when(conversationPurgerMock.purgeDeletedConversations()).thenReturn(new ConversationPurger.Result(0, 0, 0, 0, Duration.ofMillis(5)));
+
+		// Act
+		scheduler.purgeConversations();
+
+		// Assert
+		verify(conversationPurgerMock).purgeDeletedConversations();
+	}
+}
@@ -0,0 +1,33 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.service.IdempotencyKeys;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyPurgeSchedulerTest {
+
+	@Mock
+	private IdempotencyKeys idempotencyKeysMock;
+
+	@InjectMocks
+	private IdempotencyKeyPurgeScheduler scheduler;
+
+	@Test
+	void purgeIdempotencyKeys() {
+		// Arrange
+		when(idempotencyKeysMock.purgeExpired()).thenReturn(2);
+
+		// Act
+		scheduler.purgeIdempotencyKeys();
+
+		// Assert
+		verify(idempotencyKeysMock).purgeExpired();
+	}
+}
@@ -0,0 +1,34 @@
+package se.sundsvall.messageexchange.scheduler;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.service.RetentionEnforcer;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionSchedulerTest {
+
+	@Mock
+	private RetentionEnforcer retentionEnforcerMock;
+
+	@InjectMocks
+	private RetentionScheduler scheduler;
+
+	@Test
+	void enforceRetention() {
+		// Arrange
+		when(retentionEnforcerMock.enforce()).thenReturn(new RetentionEnforcer.Result(1, 20, 2, Duration.ofSeconds(1)));
+
+		// Act
+		scheduler.enforceRetention();
+
+		// Assert
+		verify(retentionEnforcerMock).enforce();
+	}
+}
@@ -0,0 +1,95 @@
+package se.sundsvall.messageexchange.service;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository.DuplicateKey;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentDataCompactorTest {
+
+	private static final int BATCH_SIZE = 2;
+
+	@Mock
+	private AttachmentDataRepository attachmentDataRepositoryMock;
+
+	@Mock
+	private AttachmentDataResolver attachmentDataResolverMock;
+
+	@Mock
+	private PlatformTransactionManager transactionManagerMock;
+
+	private AttachmentDataCompactor attachmentDataCompactor;
+
+	@BeforeEach
+	void setup() {
+		attachmentDataCompactor = new AttachmentDataCompactor(attachmentDataRepositoryMock, attachmentDataResolverMock, transactionManagerMock, BATCH_SIZE);
+	}
+
+	@Test
+	void compact() {
+		// Arrange
+		when(attachmentDataRepositoryMock.findDuplicateKeys(BATCH_SIZE)).thenReturn(List.of(new Key("hash1", 10), new Key("hash2", 20)));
+		when(attachmentDataRepositoryMock.findIdsByHashAndFileSize("hash1", 10)).thenReturn(List.of("id1", "id2", "id3"));
+		when(attachmentDataRepositoryMock.findIdsByHashAndFileSize("hash2", 20)).thenReturn(List.of("id4", "id5"));
+		when(attachmentDataResolverMock.release(List.of("id1", "id2", "id3"))).thenReturn(2);
+		when(attachmentDataResolverMock.release(List.of("id4", "id5"))).thenReturn(1);
+
+		// Act
+		final var result = attachmentDataCompactor.compact();
+
+		// Assert
+		assertThat(result.groups()).isEqualTo(2);
+		assertThat(result.failed()).isZero();
+		assertThat(result.deleted()).isEqualTo(3);
+
+		final var inOrder = inOrder(attachmentDataRepositoryMock, attachmentDataResolverMock);
+		inOrder.verify(attachmentDataRepositoryMock).moveAttachments(List.of("id2", "id3"), "id1");
+		inOrder.verify(attachmentDataResolverMock).release(List.of("id1", "id2", "id3"));
+		inOrder.verify(attachmentDataRepositoryMock).moveAttachments(List.of("id5"), "id4");
+		inOrder.verify(attachmentDataResolverMock).release(List.of("id4", "id5"));
+		verify(transactionManagerMock, times(2)).commit(any());
+	}
+
+	@Test
+	void compactWhenMergeFails() {
+		// Arrange
+		when(attachmentDataRepositoryMock.findDuplicateKeys(BATCH_SIZE)).thenReturn(List.of(new Key("hash1", 10)));
+		when(attachmentDataRepositoryMock.findIdsByHashAndFileSize("hash1", 10)).thenThrow(new IllegalStateException("Failure"));
+
+		// Act
+		final var result = attachmentDataCompactor.compact();
+
+		// Assert
+		assertThat(result.groups()).isZero();
+		assertThat(result.failed()).isOne();
+		verify(attachmentDataRepositoryMock, never()).moveAttachments(any(), any());
+		verify(transactionManagerMock).rollback(any());
+	}
+
+	@Test
+	void mergeWithoutDuplicates() {
+		// Arrange
+		when(attachmentDataRepositoryMock.findIdsByHashAndFileSize("hash1", 10)).thenReturn(List.of("id1"));
+
+		// Act & Assert
+		assertThat(attachmentDataCompactor.merge("hash1", 10)).isZero();
+		verify(attachmentDataRepositoryMock, never()).moveAttachments(any(), any());
+	}
+
+	private record Key(String getHash, Integer getFileSize) implements DuplicateKey {
+	}
+}
@@ -0,0 +1,179 @@
+package se.sundsvall.messageexchange.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository.StoredContent;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+import se.sundsvall.messageexchange.service.AttachmentDataResolver.Content;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentDataResolverTest {
+
+	private static final Content CONTENT_1 = new Content("hash1", 10);
+	private static final Content CONTENT_2 = new Content("hash2", 20);
+
+	@Mock
+	private AttachmentDataRepository attachmentDataRepositoryMock;
+
+	@Mock
+	private AttachmentStores attachmentStoresMock;
+
+	@Mock
+	private AttachmentStore attachmentStoreMock;
+
+	@Mock
+	private PlatformTransactionManager transactionManagerMock;
+
+	@InjectMocks
+	private AttachmentDataResolver attachmentDataResolver;
+
+	@Test
+	void reuse() {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withId("id1");
+		when(attachmentDataRepositoryMock.findByHashesForUpdate(Set.of("hash1", "hash2"))).thenReturn(List.of(
+			new Stored("id1", "hash1", 10),
+			new Stored("id2", "hash1", 10),
+			new Stored("id3", "hash2", 30)));
+		when(attachmentDataRepositoryMock.getReferenceById("id1")).thenReturn(attachmentData);
+
+		// Act
+		final var result = attachmentDataResolver.reuse(List.of(CONTENT_1, CONTENT_2, CONTENT_1));
+
+		// Assert
+		assertThat(result).containsOnlyKeys(CONTENT_1).containsEntry(CONTENT_1, attachmentData);
+		verify(attachmentDataRepositoryMock).incrementReferenceCounts(Set.of("id1"), 2);
+	}
+
+	@Test
+	void reuseWhenNothingIsStored() {
+		// Arrange
+		when(attachmentDataRepositoryMock.findByHashesForUpdate(Set.of("hash1"))).thenReturn(List.of());
+
+		// Act
+		final var result = attachmentDataResolver.reuse(List.of(CONTENT_1));
+
+		// Assert
+		assertThat(result).isEmpty();
+		verify(attachmentDataRepositoryMock, never()).incrementReferenceCounts(any(), anyInt());
+	}
+
+	@Test
+	void reuseWithoutContents() {
+		assertThat(attachmentDataResolver.reuse(List.of())).isEmpty();
+		verifyNoInteractions(attachmentDataRepositoryMock);
+	}
+
+	@Test
+	void release() {
+		// Arrange
+		when(attachmentDataRepositoryMock.deleteUnreferenced(Set.of("id1", "id2"))).thenReturn(1);
+
+		// Act
+		final var result = attachmentDataResolver.release(List.of("id1", "id2", "id1"));
+
+		// Assert
+		assertThat(result).isOne();
+		final var inOrder = inOrder(attachmentDataRepositoryMock);
+		inOrder.verify(attachmentDataRepositoryMock).updateReferenceCounts(Set.of("id1", "id2"));
+		inOrder.verify(attachmentDataRepositoryMock).deleteUnreferenced(Set.of("id1", "id2"));
+		verifyNoInteractions(attachmentStoresMock);
+	}
+
+	@Test
+	void releaseDeletesUnreferencedFiles() throws IOException {
+		// Arrange
+		when(attachmentDataRepositoryMock.findUnreferencedHashes(Set.of("id1", "id2"), "FILE_SYSTEM")).thenReturn(List.of("hash1", "hash2"));
+		when(attachmentDataRepositoryMock.deleteUnreferenced(Set.of("id1", "id2"))).thenReturn(2);
+		when(attachmentStoresMock.get(FILE_SYSTEM)).thenReturn(Optional.of(attachmentStoreMock));
+		when(attachmentDataRepositoryMock.countByHashAndStorageForUpdate("hash1", "FILE_SYSTEM")).thenReturn(0L);
+		when(attachmentDataRepositoryMock.countByHashAndStorageForUpdate("hash2", "FILE_SYSTEM")).thenReturn(1L);
+		doThrow(new IOException("Failure")).when(attachmentStoreMock).delete("hash1");
+
+		// Act
+		final var result = attachmentDataResolver.release(List.of("id1", "id2"));
+
+		// Assert
+		assertThat(result).isEqualTo(2);
+		final var inOrder = inOrder(attachmentDataRepositoryMock, attachmentStoreMock);
+		inOrder.verify(attachmentDataRepositoryMock).deleteUnreferenced(Set.of("id1", "id2"));
+		inOrder.verify(attachmentDataRepositoryMock).countByHashAndStorageForUpdate("hash1", "FILE_SYSTEM");
+		inOrder.verify(attachmentStoreMock).delete("hash1");
+		verify(attachmentStoreMock, never()).delete("hash2");
+		verify(transactionManagerMock).rollback(any());
+		verify(transactionManagerMock).commit(any());
+	}
+
+	@Test
+	void releaseWithoutIds() {
+		assertThat(attachmentDataResolver.release(List.of())).isZero();
+		verifyNoInteractions(attachmentDataRepositoryMock);
+	}
+
+	@Test
+	void beforeWriteInsertsNewAttachmentData() {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withHash("hash1");
+		when(attachmentStoreMock.storageType()).thenReturn(FILE_SYSTEM);
+
+		// Act
+		attachmentDataResolver.beforeWrite(attachmentData, attachmentStoreMock);
+
+		// Assert
+		assertThat(attachmentData.getStorage()).isEqualTo(FILE_SYSTEM);
+		verify(attachmentDataRepositoryMock).saveAndFlush(attachmentData);
+		verify(attachmentDataRepositoryMock, never()).lockById(any());
+	}
+
+	@Test
+	void beforeWriteLocksExistingAttachmentData() {
+		// Arrange
+		final var attachmentData = AttachmentDataEntity.create().withId("id1").withHash("hash1");
+		when(attachmentStoreMock.storageType()).thenReturn(FILE_SYSTEM);
+
+		// Act
+		attachmentDataResolver.beforeWrite(attachmentData, attachmentStoreMock);
+
+		// Assert
+		verify(attachmentDataRepositoryMock).lockById("id1");
+		verify(attachmentDataRepositoryMock, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void beforeWriteToDatabase() {
+		// Arrange
+		when(attachmentStoreMock.storageType()).thenReturn(DATABASE);
+
+		// Act
+		attachmentDataResolver.beforeWrite(AttachmentDataEntity.create().withHash("hash1"), attachmentStoreMock);
+
+		// Assert
+		verifyNoInteractions(attachmentDataRepositoryMock);
+	}
+
+	private record Stored(String getId, String getHash, Integer getFileSize) implements StoredContent {
+	}
+}
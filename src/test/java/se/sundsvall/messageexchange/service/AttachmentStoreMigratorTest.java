@@ -0,0 +1,158 @@
+package se.sundsvall.messageexchange.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.AttachmentDataRepository;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.StorageType;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.FILE_SYSTEM;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentStoreMigratorTest {
+
+	private static final int BATCH_SIZE = 2;
+	private static final String NAMESPACE = "NAMESPACE";
+
+	@Mock
+	private AttachmentStores attachmentStoresMock;
+
+	@Mock
+	private AttachmentStore attachmentStoreMock;
+
+	@Mock
+	private AttachmentDataRepository attachmentDataRepositoryMock;
+
+	@Mock
+	private ConversationRepository conversationRepositoryMock;
+
+	@Mock
+	private PlatformTransactionManager transactionManagerMock;
+
+	@Mock
+	private AttachmentDataResolver attachmentDataResolverMock;
+
+	@Mock
+	private Blob blobMock;
+
+	@Test
+	void migrate() throws Exception {
+		// Arrange
+		final var migrator = migrator(Map.of(NAMESPACE, FILE_SYSTEM));
+		final var attachmentData = AttachmentDataEntity.create().withId("id1").withFile(blobMock);
+		final var content = new ByteArrayInputStream(new byte[5]);
+		when(attachmentStoresMock.get(FILE_SYSTEM)).thenReturn(Optional.of(attachmentStoreMock));
+		when(conversationRepositoryMock.findNamespaces()).thenReturn(List.of(NAMESPACE, "OTHER"));
+		when(attachmentDataRepositoryMock.findIdsStoredInDatabase(List.of(NAMESPACE), "", BATCH_SIZE)).thenReturn(List.of("id1", "id2"));
+		when(attachmentDataRepositoryMock.findIdsStoredInDatabase(List.of(NAMESPACE), "id2", BATCH_SIZE)).thenReturn(List.of());
+		when(attachmentDataRepositoryMock.findById("id1")).thenReturn(Optional.of(attachmentData));
+		when(attachmentDataRepositoryMock.findById("id2")).thenReturn(Optional.empty());
+		when(blobMock.length()).thenReturn(5L);
+		when(blobMock.getBinaryStream()).thenReturn(content);
+
+		// Act
+		final var result = migrator.migrate();
+
+		// Assert
+		assertThat(result.migrated()).isOne();
+		assertThat(result.failed()).isOne();
+		assertThat(result.bytes()).isEqualTo(5);
+		final var inOrder = inOrder(attachmentDataResolverMock, attachmentStoreMock);
+		inOrder.verify(attachmentDataResolverMock).beforeWrite(attachmentData, attachmentStoreMock);
+		inOrder.verify(attachmentStoreMock).write(attachmentData, content, 5);
+	}
+
+	@Test
+	void migrateWithoutNamespacesOnFileSystem() {
+		// Arrange
+		final var migrator = migrator(Map.of());
+		when(attachmentStoresMock.get(FILE_SYSTEM)).thenReturn(Optional.of(attachmentStoreMock));
+		when(conversationRepositoryMock.findNamespaces()).thenReturn(List.of(NAMESPACE));
+
+		// Act
+		final var result = migrator.migrate();
+
+		// Assert
+		assertThat(result.migrated()).isZero();
+		verify(attachmentDataRepositoryMock, never()).findIdsStoredInDatabase(any(), anyString(), anyInt());
+		verifyNoInteractions(transactionManagerMock);
+	}
+
+	@Test
+	void migrateWithoutFileSystemStore() {
+		// Arrange
+		final var migrator = migrator(Map.of(NAMESPACE, FILE_SYSTEM));
+		when(attachmentStoresMock.get(FILE_SYSTEM)).thenReturn(Optional.empty());
+
+		// Act
+		final var result = migrator.migrate();
+
+		// Assert
+		assertThat(result.migrated()).isZero();
+		verifyNoInteractions(attachmentDataRepositoryMock);
+	}
+
+	@Test
+	void moveWithoutContent() {
+		// Arrange
+		final var migrator = migrator(Map.of(NAMESPACE, FILE_SYSTEM));
+		when(attachmentDataRepositoryMock.findById("id1")).thenReturn(Optional.of(AttachmentDataEntity.create().withId("id1")));
+
+		// Act and assert
+		assertThatThrownBy(() -> migrator.move("id1", attachmentStoreMock))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Attachment data with id 'id1' has no content in the database");
+		verifyNoInteractions(attachmentStoreMock);
+	}
+
+	@Test
+	void moveWhenWriteFails() throws IOException, SQLException {
+		// Arrange
+		final var migrator = migrator(Map.of(NAMESPACE, FILE_SYSTEM));
+		final var attachmentData = AttachmentDataEntity.create().withId("id1").withFile(blobMock);
+		when(attachmentDataRepositoryMock.findById("id1")).thenReturn(Optional.of(attachmentData));
+		when(blobMock.length()).thenReturn(5L);
+		when(blobMock.getBinaryStream()).thenReturn(new ByteArrayInputStream(new byte[5]));
+		doThrow(new IOException("Failure")).when(attachmentStoreMock).write(any(), any(), anyLong());
+
+		// Act and assert
+		assertThatThrownBy(() -> migrator.move("id1", attachmentStoreMock))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Failed to move content of attachment data with id 'id1'")
+			.hasCauseInstanceOf(IOException.class);
+		assertThat(attachmentData.getFile()).isSameAs(blobMock);
+	}
+
+	private AttachmentStoreMigrator migrator(final Map<String, StorageType> namespaces) {
+		final var properties = new AttachmentStoreProperties(DATABASE, namespaces, null, new AttachmentStoreProperties.Migration(BATCH_SIZE, Duration.ofMillis(1)));
+		return new AttachmentStoreMigrator(properties, attachmentStoresMock, attachmentDataRepositoryMock, attachmentDataResolverMock, conversationRepositoryMock, transactionManagerMock);
+	}
+}
@@ -0,0 +1,138 @@
+package se.sundsvall.messageexchange.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.integration.db.ConversationCounterRepository;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageType;
+import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
+import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationCountersTest {
+
+	private static final String CONVERSATION_ID = "conversationId";
+
+	@Mock
+	private ConversationCounterRepository conversationCounterRepositoryMock;
+
+	@InjectMocks
+	private ConversationCounters conversationCounters;
+
+	@Test
+	void messageCreated() {
+		// Act
+		conversationCounters.messageCreated(message(MessageType.USER_CREATED));
+
+		// Assert
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "MESSAGES", "", 1);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY", "identifierId", 1);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY_PART", "errand-123", 1);
+		verifyNoMoreInteractions(conversationCounterRepositoryMock);
+	}
+
+	@Test
+	void systemMessageCreated() {
+		// Arrange
+		final var message = MessageEntity.create()
+			.withType(MessageType.SYSTEM_CREATED)
+			.withConversation(ConversationEntity.create().withId(CONVERSATION_ID));
+
+		// Act
+		conversationCounters.messageCreated(message);
+
+		// Assert
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "SYSTEM_CREATED", "MESSAGES", "", 1);
+		verifyNoMoreInteractions(conversationCounterRepositoryMock);
+	}
+
+	@Test
+	void messagesCreated() {
+		// Arrange
+		final var systemMessage = MessageEntity.create()
+			.withType(MessageType.SYSTEM_CREATED)
+			.withConversation(ConversationEntity.create().withId(CONVERSATION_ID));
+
+		// Act
+		conversationCounters.messagesCreated(List.of(message(MessageType.USER_CREATED), message(MessageType.USER_CREATED), systemMessage));
+
+		// Assert
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "MESSAGES", "", 2);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY", "identifierId", 2);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY_PART", "errand-123", 2);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "SYSTEM_CREATED", "MESSAGES", "", 1);
+		verifyNoMoreInteractions(conversationCounterRepositoryMock);
+	}
+
+	@Test
+	void messageDeleted() {
+		// Act
+		conversationCounters.messageDeleted(message(MessageType.USER_CREATED));
+
+		// Assert
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "MESSAGES", "", -1);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY", "identifierId", -1);
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY_PART", "errand-123", -1);
+		verifyNoMoreInteractions(conversationCounterRepositoryMock);
+	}
+
+	@Test
+	void readBy() {
+		// Act
+		conversationCounters.readBy(CONVERSATION_ID, MessageType.SYSTEM_CREATED, "identifierId", 3);
+
+		// Assert
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "SYSTEM_CREATED", "READ_BY", "identifierId", 3);
+	}
+
+	@Test
+	void readByPart() {
+		// Act
+		conversationCounters.readByPart(CONVERSATION_ID, MessageType.USER_CREATED, "errand-123", 2);
+
+		// Assert
+		verify(conversationCounterRepositoryMock).increment(CONVERSATION_ID, "USER_CREATED", "READ_BY_PART", "errand-123", 2);
+	}
+
+	@Test
+	void readByWithoutCount() {
+		// Act
+		conversationCounters.readBy(CONVERSATION_ID, MessageType.USER_CREATED, "identifierId", 0);
+
+		// Assert
+		verifyNoInteractions(conversationCounterRepositoryMock);
+	}
+
+	@Test
+	void rebuild() {
+		// Act
+		conversationCounters.rebuild(CONVERSATION_ID);
+
+		// Assert
+		final var inOrder = inOrder(conversationCounterRepositoryMock);
+		inOrder.verify(conversationCounterRepositoryMock).deleteByConversation(CONVERSATION_ID);
+		inOrder.verify(conversationCounterRepositoryMock).insertMessageCounters(CONVERSATION_ID);
+		inOrder.verify(conversationCounterRepositoryMock).insertReadByCounters(CONVERSATION_ID);
+		inOrder.verify(conversationCounterRepositoryMock).insertReadByPartCounters(CONVERSATION_ID);
+	}
+
+	private static MessageEntity message(final MessageType type) {
+		return MessageEntity.create()
+			.withType(type)
+			.withConversation(ConversationEntity.create().withId(CONVERSATION_ID))
+			.withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withId("identifierId")))))
+			.withReadByPart(new ArrayList<>(List.of(ReadByPartEntity.create().withPart("errand-123"))));
+	}
+}
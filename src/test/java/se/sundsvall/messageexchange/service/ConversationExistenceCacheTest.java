@@ -0,0 +1,137 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationExistenceCacheTest {
+
+	private static final String NAMESPACE = "namespace";
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Mock
+	private ConversationRepository conversationRepositoryMock;
+
+	@Test
+	void existsQueriesOnceAndCaches() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 10, Duration.ofMinutes(5));
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1")).thenReturn(true);
+
+		// Act
+		final var first = cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+		final var second = cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+
+		// Assert
+		assertThat(first).isTrue();
+		assertThat(second).isTrue();
+		assertThat(cache.getCacheSize()).isOne();
+		verify(conversationRepositoryMock).existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1");
+	}
+
+	@Test
+	void existsDoesNotCacheMissingConversation() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 10, Duration.ofMinutes(5));
+
+		// Act
+		final var first = cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+		final var second = cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+
+		// Assert
+		assertThat(first).isFalse();
+		assertThat(second).isFalse();
+		assertThat(cache.getCacheSize()).isZero();
+		verify(conversationRepositoryMock, times(2)).existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1");
+	}
+
+	@Test
+	void existsIsCachedPerNamespaceAndMunicipality() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 10, Duration.ofMinutes(5));
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1")).thenReturn(true);
+
+		// Act
+		final var existing = cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+		final var otherMunicipality = cache.exists(NAMESPACE, "2282", "id1");
+
+		// Assert
+		assertThat(existing).isTrue();
+		assertThat(otherMunicipality).isFalse();
+		verify(conversationRepositoryMock).existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, "2282", "id1");
+	}
+
+	@Test
+	void existsQueriesAgainWhenExpired() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 10, Duration.ZERO);
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1")).thenReturn(true);
+
+		// Act
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+
+		// Assert
+		verify(conversationRepositoryMock, times(2)).existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1");
+	}
+
+	@Test
+	void evict() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 10, Duration.ofMinutes(5));
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1")).thenReturn(true, false);
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+
+		// Act
+		cache.evict(NAMESPACE, MUNICIPALITY_ID, "id1");
+
+		// Assert
+		assertThat(cache.getCacheSize()).isZero();
+		assertThat(cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1")).isFalse();
+	}
+
+	@Test
+	void evictNamespace() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 10, Duration.ofMinutes(5));
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1")).thenReturn(true, false);
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId("OTHER_NAMESPACE", MUNICIPALITY_ID, "id2")).thenReturn(true);
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+		cache.exists("OTHER_NAMESPACE", MUNICIPALITY_ID, "id2");
+
+		// Act
+		cache.evictNamespace(NAMESPACE);
+
+		// Assert
+		assertThat(cache.getCacheSize()).isOne();
+		assertThat(cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1")).isFalse();
+		assertThat(cache.exists("OTHER_NAMESPACE", MUNICIPALITY_ID, "id2")).isTrue();
+		verify(conversationRepositoryMock).existsByNamespaceAndMunicipalityIdAndId("OTHER_NAMESPACE", MUNICIPALITY_ID, "id2");
+	}
+
+	@Test
+	void existsClearsCacheWhenCapacityIsReached() {
+		// Arrange
+		final var cache = new ConversationExistenceCache(conversationRepositoryMock, 2, Duration.ofMinutes(5));
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id1")).thenReturn(true);
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id2")).thenReturn(true);
+		when(conversationRepositoryMock.existsByNamespaceAndMunicipalityIdAndId(NAMESPACE, MUNICIPALITY_ID, "id3")).thenReturn(true);
+
+		// Act
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id1");
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id2");
+		cache.exists(NAMESPACE, MUNICIPALITY_ID, "id3");
+
+		// Assert
+		assertThat(cache.getCacheSize()).isOne();
+	}
+}
@@ -0,0 +1,113 @@
+package se.sundsvall.messageexchange.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.messageexchange.api.model.Conversation;
+import se.sundsvall.messageexchange.api.model.Identifier;
+import se.sundsvall.messageexchange.api.model.KeyValues;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreConfig;
+import se.sundsvall.messageexchange.integration.db.SliceQueryExecutor;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+import se.sundsvall.messageexchange.integration.store.DatabaseAttachmentStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import({
+	ConversationService.class, SliceQueryExecutor.class, IdentifierResolver.class, ConversationCounters.class, ConversationExistenceCache.class,
+	MessageSequenceAllocator.class, ConversationPurger.class, AttachmentDataResolver.class, AttachmentStores.class, DatabaseAttachmentStore.class,
+	AttachmentStoreConfig.class
+})
+class ConversationPurgerStatementCountTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String NAMESPACE = "namespace";
+
+	@Autowired
+	private ConversationService conversationService;
+
+	@Autowired
+	private ConversationPurger conversationPurger;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void purgeStatementCountIsIndependentOfNumberOfMessages() {
+		final var statementsForOneMessage = countStatementsForPurgeOfConversationWithMessages(1);
+		final var statementsForManyMessages = countStatementsForPurgeOfConversationWithMessages(20);
+
+		assertThat(statementsForManyMessages).isEqualTo(statementsForOneMessage);
+	}
+
+	@Test
+	void deletedConversationIsHiddenUntilPurged() {
+		final var conversationId = createDeletedConversationWithMessages(3);
+
+		assertThatThrownBy(() -> conversationService.readConversation(NAMESPACE, MUNICIPALITY_ID, conversationId))
+			.isInstanceOf(Problem.class);
+		assertThat(countRows("select count(*) from conversation where id = :id", conversationId)).isOne();
+
+		conversationPurger.purgeDeletedConversations();
+
+		assertThat(countRows("select count(*) from conversation where id = :id", conversationId)).isZero();
+		assertThat(countRows("select count(*) from message where conversation_id = :id", conversationId)).isZero();
+		assertThat(countRows("select count(*) from conversation_metadata where conversation_id = :id", conversationId)).isZero();
+		assertThat(countRows("select count(*) from conversation_participants where conversation_id = :id", conversationId)).isZero();
+	}
+
+	private long countStatementsForPurgeOfConversationWithMessages(final int numberOfMessages) {
+		final var conversationId = createDeletedConversationWithMessages(numberOfMessages);
+		assertThat(countRows("select count(*) from message where conversation_id = :id", conversationId)).isEqualTo(numberOfMessages);
+
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		final var result = conversationPurger.purge(conversationId);
+
+		assertThat(result.messages()).isEqualTo(numberOfMessages);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private String createDeletedConversationWithMessages(final int numberOfMessages) {
+		final var conversationId = conversationService.createConversation(NAMESPACE, MUNICIPALITY_ID, Conversation.create()
+			.withTopic("topic")
+			.withParticipants(List.of(Identifier.create().withType("adAccount").withValue("joe01doe")))
+			.withMetadata(List.of(KeyValues.create().withKey("key").withValues(List.of("value"))))
+			.withExternalReferences(List.of(KeyValues.create().withKey("key").withValues(List.of("value")))));
+
+		// Every change of topic adds a system message to the conversation created with one
+		IntStream.range(1, numberOfMessages).forEach(i -> {
+			conversationService.updateConversation(NAMESPACE, MUNICIPALITY_ID, conversationId, Conversation.create().withTopic("topic " + i));
+			entityManager.flush();
+			entityManager.clear();
+		});
+
+		conversationService.deleteConversation(NAMESPACE, MUNICIPALITY_ID, conversationId);
+		entityManager.flush();
+		entityManager.clear();
+		return conversationId;
+	}
+
+	private long countRows(final String query, final String id) {
+		return ((Number) entityManager.createNativeQuery(query).setParameter("id", id).getSingleResult()).longValue();
+	}
+}
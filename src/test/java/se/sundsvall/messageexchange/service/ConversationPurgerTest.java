@@ -0,0 +1,117 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.sundsvall.messageexchange.integration.db.ConversationPurgeRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationPurgerTest {
+
+	private static final int BATCH_SIZE = 2;
+
+	@Mock
+	private ConversationPurgeRepository conversationPurgeRepositoryMock;
+
+	@Mock
+	private AttachmentDataResolver attachmentDataResolverMock;
+
+	@Mock
+	private PlatformTransactionManager transactionManagerMock;
+
+	private ConversationPurger conversationPurger;
+
+	@BeforeEach
+	void setup() {
+		conversationPurger = new ConversationPurger(conversationPurgeRepositoryMock, attachmentDataResolverMock, transactionManagerMock, BATCH_SIZE);
+	}
+
+	@Test
+	void purgeDeletedConversations() {
+		// Arrange
+		final var firstBatch = List.of("messageId1", "messageId2");
+		final var secondBatch = List.of("messageId3");
+		when(conversationPurgeRepositoryMock.findDeletedConversationIds(BATCH_SIZE)).thenReturn(List.of("conversationId1", "conversationId2"));
+		when(conversationPurgeRepositoryMock.findMessageIds("conversationId1", BATCH_SIZE)).thenReturn(firstBatch, secondBatch);
+		when(conversationPurgeRepositoryMock.findMessageIds("conversationId2", BATCH_SIZE)).thenReturn(List.of());
+		when(conversationPurgeRepositoryMock.findAttachmentDataIds(firstBatch)).thenReturn(List.of("attachmentDataId1"));
+		when(conversationPurgeRepositoryMock.findAttachmentDataIds(secondBatch)).thenReturn(List.of());
+
+		// Act
+		final var result = conversationPurger.purgeDeletedConversations();
+
+		// Assert
+		assertThat(result.conversations()).isEqualTo(2);
+		assertThat(result.failed()).isZero();
+		assertThat(result.messages()).isEqualTo(3);
+		assertThat(result.attachments()).isOne();
+
+		final var inOrder = inOrder(conversationPurgeRepositoryMock, attachmentDataResolverMock);
+		inOrder.verify(conversationPurgeRepositoryMock).deleteReadBy(firstBatch);
+		inOrder.verify(conversationPurgeRepositoryMock).deleteReadByPart(firstBatch);
+		inOrder.verify(conversationPurgeRepositoryMock).deleteAttachments(firstBatch);
+		inOrder.verify(attachmentDataResolverMock).release(List.of("attachmentDataId1"));
+		inOrder.verify(conversationPurgeRepositoryMock).deleteMessages(firstBatch);
+		inOrder.verify(conversationPurgeRepositoryMock).deleteMessages(secondBatch);
+		inOrder.verify(conversationPurgeRepositoryMock).deleteParticipants("conversationId1");
+		inOrder.verify(conversationPurgeRepositoryMock).deleteMetadataValues("conversationId1");
+		inOrder.verify(conversationPurgeRepositoryMock).deleteMetadata("conversationId1");
+		inOrder.verify(conversationPurgeRepositoryMock).deleteExternalReferenceValues("conversationId1");
+		inOrder.verify(conversationPurgeRepositoryMock).deleteExternalReferences("conversationId1");
+		inOrder.verify(conversationPurgeRepositoryMock).deleteConversation("conversationId1");
+		inOrder.verify(conversationPurgeRepositoryMock).deleteConversation("conversationId2");
+		verify(attachmentDataResolverMock).release(List.of());
+		verify(transactionManagerMock, times(5)).commit(any());
+	}
+
+	@Test
+	void purgeDeletedConversationsWhenPurgeFails() {
+		// Arrange
+		when(conversationPurgeRepositoryMock.findDeletedConversationIds(BATCH_SIZE)).thenReturn(List.of("conversationId1", "conversationId2"));
+		when(conversationPurgeRepositoryMock.findMessageIds("conversationId1", BATCH_SIZE)).thenThrow(new IllegalStateException("Failure"));
+		when(conversationPurgeRepositoryMock.findMessageIds("conversationId2", BATCH_SIZE)).thenReturn(List.of());
+
+		// Act
+		final var result = conversationPurger.purgeDeletedConversations();
+
+		// Assert
+		assertThat(result.conversations()).isOne();
+		assertThat(result.failed()).isOne();
+		verify(conversationPurgeRepositoryMock, never()).deleteConversation("conversationId1");
+		verify(conversationPurgeRepositoryMock).deleteConversation("conversationId2");
+		verify(transactionManagerMock).rollback(any());
+	}
+
+	@Test
+	void purgeDeletedConversationsWhenNothingIsDeleted() {
+		// Arrange
+		when(conversationPurgeRepositoryMock.findDeletedConversationIds(BATCH_SIZE)).thenReturn(List.of());
+
+		// Act
+		final var result = conversationPurger.purgeDeletedConversations();
+
+		// Assert
+		assertThat(result.conversations()).isZero();
+		assertThat(result.failed()).isZero();
+		assertThat(result.messages()).isZero();
+	}
+
+	@Test
+	void messagesPerSecond() {
+		assertThat(new ConversationPurger.Result(1, 0, 3000, 0, Duration.ofSeconds(2)).messagesPerSecond()).isEqualTo(1500);
+		assertThat(new ConversationPurger.Result(1, 0, 10, 0, Duration.ZERO).messagesPerSecond()).isEqualTo(10);
+	}
+}
@@ -0,0 +1,112 @@
+package se.sundsvall.messageexchange.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.messageexchange.api.model.Conversation;
+import se.sundsvall.messageexchange.api.model.Identifier;
+import se.sundsvall.messageexchange.api.model.KeyValues;
+import se.sundsvall.messageexchange.integration.db.SliceQueryExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import({
+	ConversationService.class, SliceQueryExecutor.class, IdentifierResolver.class, ConversationCounters.class, ConversationExistenceCache.class,
+	MessageSequenceAllocator.class
+})
+class ConversationServiceStatementCountTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String NAMESPACE = "namespace";
+
+	@Autowired
+	private ConversationService conversationService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void createConversationStatementCountIsIndependentOfNumberOfKeyValues() {
+		// Warm up the participant identifier, so that both conversations are created the same way
+		countStatementsForConversationWithKeyValues(1);
+
+		final var statementsForOneKeyValue = countStatementsForConversationWithKeyValues(1);
+		final var statementsForManyKeyValues = countStatementsForConversationWithKeyValues(10);
+
+		assertThat(statementsForManyKeyValues).isEqualTo(statementsForOneKeyValue);
+	}
+
+	@Test
+	void updateConversationWithUnchangedCollectionsOnlyUpdatesConversation() {
+		final var conversationId = conversationService.createConversation(NAMESPACE, MUNICIPALITY_ID, conversationWithCollections("topic"));
+		entityManager.flush();
+
+		final var statementsWithoutCollections = countStatementsForUpdate(conversationId, Conversation.create().withTopic("new topic"));
+		final var statementsWithUnchangedCollections = countStatementsForUpdate(conversationId, conversationWithCollections("newer topic"));
+
+		assertThat(statementsWithUnchangedCollections).isEqualTo(statementsWithoutCollections);
+	}
+
+	private long countStatementsForUpdate(final String conversationId, final Conversation conversation) {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		conversationService.updateConversation(NAMESPACE, MUNICIPALITY_ID, conversationId, conversation);
+		entityManager.flush();
+
+		// Only the system message is inserted, and no collection rows are deleted or written again
+		assertThat(statistics.getEntityInsertCount()).isOne();
+		assertThat(statistics.getEntityDeleteCount()).isZero();
+		assertThat(statistics.getCollectionRemoveCount()).isZero();
+		assertThat(statistics.getCollectionRecreateCount()).isZero();
+		assertThat(statistics.getCollectionUpdateCount()).isZero();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static Conversation conversationWithCollections(final String topic) {
+		return Conversation.create()
+			.withTopic(topic)
+			.withParticipants(List.of(Identifier.create().withType("adAccount").withValue("joe01doe")))
+			.withMetadata(keyValues("metadata", 3))
+			.withExternalReferences(keyValues("reference", 3));
+	}
+
+	private long countStatementsForConversationWithKeyValues(final int numberOfKeyValues) {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		final var conversation = Conversation.create()
+			.withTopic("topic")
+			.withParticipants(List.of(Identifier.create().withType("adAccount").withValue("joe01doe")))
+			.withMetadata(keyValues("metadata", numberOfKeyValues))
+			.withExternalReferences(keyValues("reference", numberOfKeyValues));
+		conversationService.createConversation(NAMESPACE, MUNICIPALITY_ID, conversation);
+
+		// The conversation, its system message and one row per metadata and external reference
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(2L + 2L * numberOfKeyValues);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static List<KeyValues> keyValues(final String prefix, final int numberOfKeyValues) {
+		return IntStream.range(0, numberOfKeyValues)
+			.mapToObj(i -> KeyValues.create().withKey(prefix + i).withValues(List.of("value1", "value2")))
+			.toList();
+	}
+}
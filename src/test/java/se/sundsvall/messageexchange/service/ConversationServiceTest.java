@@ -1,29 +1,42 @@
 package se.sundsvall.messageexchange.service;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.support.Identifier;
 import se.sundsvall.messageexchange.api.model.Conversation;
+import se.sundsvall.messageexchange.integration.db.ConversationCounterRepository;
 import se.sundsvall.messageexchange.integration.db.ConversationRepository;
 import se.sundsvall.messageexchange.integration.db.MessageRepository;
 import se.sundsvall.messageexchange.integration.db.ReadByCountProjection;
 import se.sundsvall.messageexchange.integration.db.ReadByPartCountProjection;
+import se.sundsvall.messageexchange.integration.db.SliceQueryExecutor;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageType;
-import se.sundsvall.messageexchange.integration.db.model.SequenceEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -38,24 +51,90 @@ class ConversationServiceTest {
 	@Mock
 	private ConversationRepository conversationRepositoryMock;
 
+	@Mock
+	private SliceQueryExecutor sliceQueryExecutorMock;
+
+	@Mock
+	private IdentifierResolver identifierResolverMock;
+
+	@Mock
+	private ConversationCounters conversationCountersMock;
+
+	@Mock
+	private ConversationCounterRepository conversationCounterRepositoryMock;
+
+	@Mock
+	private ConversationExistenceCache conversationExistenceCacheMock;
+
+	@Mock
+	private MessageSequenceAllocator messageSequenceAllocatorMock;
+
 	@Captor
 	private ArgumentCaptor<MessageEntity> messageEntityArgumentCaptor;
 
 	@InjectMocks
 	private ConversationService conversationService;
 
+	@Test
+	void readConversations() {
+		// Arrange
+		final var namespace = "namespace";
+		final var municipalityId = "2281";
+		final var pageable = PageRequest.of(0, 10);
+		final var entities = List.of(
+			ConversationEntity.create().withId("conversationId1").withLatestSequenceNumber(123L),
+			ConversationEntity.create().withId("conversationId2"));
+
+		when(conversationRepositoryMock.findAll(ArgumentMatchers.<Specification<ConversationEntity>>any(), eq(pageable)))
+			.thenReturn(new PageImpl<>(entities, pageable, 2));
+
+		// Act
+		final var result = conversationService.readConversations(namespace, municipalityId, null, pageable);
+
+		// Assert
+		assertThat(result.getTotalElements()).isEqualTo(2);
+		assertThat(result.getContent()).extracting(Conversation::getId, Conversation::getLatestSequenceNumber)
+			.containsExactly(tuple("conversationId1", 123L), tuple("conversationId2", null));
+		verify(conversationRepositoryMock).findAll(ArgumentMatchers.<Specification<ConversationEntity>>any(), eq(pageable));
+		verifyNoInteractions(messageRepositoryMock);
+	}
+
+	@Test
+	void readConversationSlice() {
+		// Arrange
+		final var namespace = "namespace";
+		final var municipalityId = "2281";
+		final var pageable = PageRequest.of(1, 2);
+		final var entities = List.of(
+			ConversationEntity.create().withId("conversationId1").withLatestSequenceNumber(5L),
+			ConversationEntity.create().withId("conversationId2"));
+
+		when(sliceQueryExecutorMock.findSlice(eq(ConversationEntity.class), ArgumentMatchers.<Specification<ConversationEntity>>any(), eq(pageable)))
+			.thenReturn(new SliceImpl<>(entities, pageable, true));
+
+		// Act
+		final var result = conversationService.readConversationSlice(namespace, municipalityId, null, pageable);
+
+		// Assert
+		assertThat(result.getContent()).extracting(Conversation::getId, Conversation::getLatestSequenceNumber)
+			.containsExactly(tuple("conversationId1", 5L), tuple("conversationId2", null));
+		assertThat(result.getNumber()).isEqualTo(1);
+		assertThat(result.getSize()).isEqualTo(2);
+		assertThat(result.getHasNext()).isTrue();
+		verify(sliceQueryExecutorMock).findSlice(eq(ConversationEntity.class), ArgumentMatchers.<Specification<ConversationEntity>>any(), eq(pageable));
+		verifyNoInteractions(conversationRepositoryMock, messageRepositoryMock);
+	}
+
 	@Test
 	void readConversation() {
 		// Arrange
 		final var namespace = "namespace";
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
-		final var entity = new ConversationEntity();
+		final var entity = ConversationEntity.create().withLatestSequenceNumber(123L);
 
 		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
 			.thenReturn(Optional.of(entity));
-		when(messageRepositoryMock.findTopByConversationIdOrderBySequenceNumberDesc(conversationId))
-			.thenReturn(Optional.ofNullable(MessageEntity.create().withSequenceNumber(SequenceEntity.create().withId(123L))));
 
 		// Act
 		final var result = conversationService.readConversation(namespace, municipalityId, conversationId);
@@ -64,6 +143,7 @@ class ConversationServiceTest {
 		assertThat(result).isNotNull();
 		assertThat(result.getLatestSequenceNumber()).isEqualTo(123L);
 		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
+		verifyNoInteractions(messageRepositoryMock);
 	}
 
 	@Test
@@ -93,16 +173,14 @@ class ConversationServiceTest {
 		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
 			.thenReturn(Optional.of(entity));
 
-		when(messageRepositoryMock.findTopByConversationIdOrderBySequenceNumberDesc(conversationId))
-			.thenReturn(Optional.of(MessageEntity.create()));
 		// Act
 		final var result = conversationService.readConversation(namespace, municipalityId, conversationId);
 
 		// Assert
 		assertThat(result).isNotNull();
 		assertThat(result.getLatestSequenceNumber()).isNull();
-		verify(messageRepositoryMock).findTopByConversationIdOrderBySequenceNumberDesc(conversationId);
 		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
+		verifyNoInteractions(messageRepositoryMock);
 	}
 
 	@Test
@@ -114,6 +192,8 @@ class ConversationServiceTest {
 		final var entity = new ConversationEntity();
 		entity.setId("newConversationId");
 		when(conversationRepositoryMock.save(any(ConversationEntity.class))).thenReturn(entity);
+		when(messageSequenceAllocatorMock.next(entity)).thenReturn(7L);
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 		se.sundsvall.dept44.support.Identifier.set(Identifier.create().withType(Identifier.Type.AD_ACCOUNT).withValue("adUser"));
 
 		// Act
@@ -124,10 +204,12 @@ class ConversationServiceTest {
 		assertThat(result).isEqualTo("newConversationId");
 		verify(conversationRepositoryMock).save(any(ConversationEntity.class));
 		verify(messageRepositoryMock).save(messageEntityArgumentCaptor.capture());
+		verify(conversationRepositoryMock).updateLatestSequenceNumber(eq("newConversationId"), eq(7L), any(OffsetDateTime.class));
+		verify(conversationCountersMock).messageCreated(messageEntityArgumentCaptor.getValue());
 		assertThat(messageEntityArgumentCaptor.getValue()).satisfies(message -> {
 			assertThat(message.getType()).isEqualTo(MessageType.SYSTEM_CREATED);
 			assertThat(message.getConversation()).isSameAs(entity);
-			assertThat(message.getSequenceNumber()).isNotNull();
+			assertThat(message.getSequenceNumber()).isEqualTo(7L);
 			assertThat(message.getContent()).isEqualTo("Konversation skapad");
 			assertThat(message.getCreatedBy().getType()).isEqualTo("adAccount");
 			assertThat(message.getCreatedBy().getValue()).isEqualTo("adUser");
@@ -163,10 +245,12 @@ class ConversationServiceTest {
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
 		final var request = new Conversation().withTopic("x");
-		final var entity = new ConversationEntity().withTopic("y");
+		final var entity = new ConversationEntity().withId(conversationId).withTopic("y");
 		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
 			.thenReturn(Optional.of(entity));
 		when(conversationRepositoryMock.save(entity)).thenReturn(entity);
+		when(messageSequenceAllocatorMock.next(entity)).thenReturn(3L);
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 		se.sundsvall.dept44.support.Identifier.set(Identifier.create().withType(Identifier.Type.AD_ACCOUNT).withValue("adUser"));
 
 		// Act
@@ -177,16 +261,46 @@ class ConversationServiceTest {
 		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
 		verify(conversationRepositoryMock).save(entity);
 		verify(messageRepositoryMock).save(messageEntityArgumentCaptor.capture());
+		verify(conversationRepositoryMock).updateLatestSequenceNumber(eq(conversationId), eq(3L), any(OffsetDateTime.class));
+		verify(conversationCountersMock).messageCreated(messageEntityArgumentCaptor.getValue());
 		assertThat(messageEntityArgumentCaptor.getValue()).satisfies(message -> {
 			assertThat(message.getType()).isEqualTo(MessageType.SYSTEM_CREATED);
 			assertThat(message.getConversation()).isSameAs(entity);
-			assertThat(message.getSequenceNumber()).isNotNull();
+			assertThat(message.getSequenceNumber()).isEqualTo(3L);
 			assertThat(message.getContent()).isEqualTo("Ämnesrad ändrad från 'y' till 'x'.");
 			assertThat(message.getCreatedBy().getType()).isEqualTo("adAccount");
 			assertThat(message.getCreatedBy().getValue()).isEqualTo("adUser");
 		});
 	}
 
+	@Test
+	void updateConversationWithParticipants() {
+		// Arrange
+		final var namespace = "namespace";
+		final var municipalityId = "2281";
+		final var conversationId = "conversationId";
+		final var request = new Conversation().withParticipants(List.of(
+			se.sundsvall.messageexchange.api.model.Identifier.create().withType("adAccount").withValue("joe01doe")));
+		final var entity = new ConversationEntity().withParticipants(new ArrayList<>());
+		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
+			.thenReturn(Optional.of(entity));
+		when(conversationRepositoryMock.save(entity)).thenReturn(entity);
+		when(identifierResolverMock.resolveId("adAccount", "joe01doe")).thenReturn("identifierId");
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(invocation -> invocation.<IdentifierEntity>getArgument(0).withId("identifierId"));
+		se.sundsvall.dept44.support.Identifier.set(Identifier.create().withType(Identifier.Type.AD_ACCOUNT).withValue("adUser"));
+
+		// Act
+		final var result = conversationService.updateConversation(namespace, municipalityId, conversationId, request);
+
+		// Assert
+		assertThat(result.getParticipants()).extracting(se.sundsvall.messageexchange.api.model.Identifier::getValue).containsExactly("joe01doe");
+		assertThat(entity.getParticipants()).extracting(IdentifierEntity::getId, IdentifierEntity::getType, IdentifierEntity::getValue)
+			.containsExactly(tuple("identifierId", "adAccount", "joe01doe"));
+		final var inOrder = inOrder(identifierResolverMock, conversationRepositoryMock);
+		inOrder.verify(identifierResolverMock).resolveId("adAccount", "joe01doe");
+		inOrder.verify(conversationRepositoryMock).save(entity);
+	}
+
 	@Test
 	void updateConversationNotFound() {
 		// Arrange
@@ -210,16 +324,15 @@ class ConversationServiceTest {
 		final var namespace = "namespace";
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
-		final var entity = new ConversationEntity();
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(entity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
 
 		// Act
 		conversationService.deleteConversation(namespace, municipalityId, conversationId);
 
 		// Assert
-		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-		verify(conversationRepositoryMock).deleteById(conversationId);
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
+		verify(conversationRepositoryMock).markDeleted(eq(conversationId), any(OffsetDateTime.class));
+		verify(conversationExistenceCacheMock).evict(namespace, municipalityId, conversationId);
 	}
 
 	@Test
@@ -228,8 +341,7 @@ class ConversationServiceTest {
 		final var namespace = "namespace";
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.empty());
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(false);
 
 		// Act & Assert
 		assertThatThrownBy(() -> conversationService.deleteConversation(namespace, municipalityId, conversationId))
@@ -244,14 +356,12 @@ class ConversationServiceTest {
 		final var namespace = "namespace";
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
-		final var entity = new ConversationEntity();
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(entity));
-		when(messageRepositoryMock.countMessages(conversationId, false)).thenReturn(13L);
-		when(messageRepositoryMock.countReadByGroupedByIdentifier(conversationId, false))
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(conversationCounterRepositoryMock.countMessages(conversationId, false)).thenReturn(13L);
+		when(conversationCounterRepositoryMock.countReadByGroupedByIdentifier(conversationId, false))
 			.thenReturn(List.of(readByCountProjection("adAccount", "joe01doe", 4L)));
-		when(messageRepositoryMock.countReadByGroupedByPart(conversationId, false))
+		when(conversationCounterRepositoryMock.countReadByGroupedByPart(conversationId, false))
 			.thenReturn(List.of(readByPartCountProjection("errand-123", 6L)));
 
 		// Act
@@ -269,10 +379,10 @@ class ConversationServiceTest {
 			assertThat(counts.getFirst().getPart()).isEqualTo("errand-123");
 			assertThat(counts.getFirst().getCount()).isEqualTo(6L);
 		});
-		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-		verify(messageRepositoryMock).countMessages(conversationId, false);
-		verify(messageRepositoryMock).countReadByGroupedByIdentifier(conversationId, false);
-		verify(messageRepositoryMock).countReadByGroupedByPart(conversationId, false);
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
+		verify(conversationCounterRepositoryMock).countMessages(conversationId, false);
+		verify(conversationCounterRepositoryMock).countReadByGroupedByIdentifier(conversationId, false);
+		verify(conversationCounterRepositoryMock).countReadByGroupedByPart(conversationId, false);
 	}
 
 	@Test
@@ -281,13 +391,11 @@ class ConversationServiceTest {
 		final var namespace = "namespace";
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
-		final var entity = new ConversationEntity();
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(entity));
-		when(messageRepositoryMock.countMessages(conversationId, true)).thenReturn(14L);
-		when(messageRepositoryMock.countReadByGroupedByIdentifier(conversationId, true)).thenReturn(List.of());
-		when(messageRepositoryMock.countReadByGroupedByPart(conversationId, true)).thenReturn(List.of());
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(conversationCounterRepositoryMock.countMessages(conversationId, true)).thenReturn(14L);
+		when(conversationCounterRepositoryMock.countReadByGroupedByIdentifier(conversationId, true)).thenReturn(List.of());
+		when(conversationCounterRepositoryMock.countReadByGroupedByPart(conversationId, true)).thenReturn(List.of());
 
 		// Act
 		final var result = conversationService.countReadBy(namespace, municipalityId, conversationId, true);
@@ -296,9 +404,9 @@ class ConversationServiceTest {
 		assertThat(result.getMessageCount()).isEqualTo(14L);
 		assertThat(result.getReadByCount()).isEmpty();
 		assertThat(result.getReadByPartCount()).isEmpty();
-		verify(messageRepositoryMock).countMessages(conversationId, true);
-		verify(messageRepositoryMock).countReadByGroupedByIdentifier(conversationId, true);
-		verify(messageRepositoryMock).countReadByGroupedByPart(conversationId, true);
+		verify(conversationCounterRepositoryMock).countMessages(conversationId, true);
+		verify(conversationCounterRepositoryMock).countReadByGroupedByIdentifier(conversationId, true);
+		verify(conversationCounterRepositoryMock).countReadByGroupedByPart(conversationId, true);
 	}
 
 	@Test
@@ -307,8 +415,7 @@ class ConversationServiceTest {
 		final var namespace = "namespace";
 		final var municipalityId = "2281";
 		final var conversationId = "conversationId";
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.empty());
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(false);
 
 		// Act & Assert
 		assertThatThrownBy(() -> conversationService.countReadBy(namespace, municipalityId, conversationId, false))
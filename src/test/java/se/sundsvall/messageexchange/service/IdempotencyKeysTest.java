@@ -0,0 +1,125 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.messageexchange.integration.db.IdempotencyKeyRepository;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeysTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String NAMESPACE = "namespace";
+	private static final String CONVERSATION_ID = "conversationId";
+	private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+	private static final String ID = IdempotencyKeys.toId(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, IDEMPOTENCY_KEY);
+
+	@Mock
+	private IdempotencyKeyRepository idempotencyKeyRepositoryMock;
+
+	@Captor
+	private ArgumentCaptor<OffsetDateTime> dateTimeCaptor;
+
+	private IdempotencyKeys idempotencyKeys;
+
+	@BeforeEach
+	void setup() {
+		idempotencyKeys = new IdempotencyKeys(idempotencyKeyRepositoryMock, Duration.ofHours(24));
+	}
+
+	@Test
+	void findMessageId() {
+		// Arrange
+		when(idempotencyKeyRepositoryMock.findMessageId(ID)).thenReturn(Optional.of("messageId"));
+
+		// Act
+		final var result = idempotencyKeys.findMessageId(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, IDEMPOTENCY_KEY);
+
+		// Assert
+		assertThat(result).contains("messageId");
+	}
+
+	@Test
+	void findMessageIdWithoutKey() {
+		// Act
+		final var result = idempotencyKeys.findMessageId(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, null);
+
+		// Assert
+		assertThat(result).isEmpty();
+		verifyNoInteractions(idempotencyKeyRepositoryMock);
+	}
+
+	@Test
+	void register() {
+		// Act
+		idempotencyKeys.register(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, IDEMPOTENCY_KEY, "messageId");
+
+		// Assert
+		verify(idempotencyKeyRepositoryMock).insert(eq(ID), eq("messageId"), dateTimeCaptor.capture());
+		assertThat(dateTimeCaptor.getValue()).isCloseTo(OffsetDateTime.now(), within(5, SECONDS));
+	}
+
+	@Test
+	void registerWithoutKey() {
+		// Act
+		idempotencyKeys.register(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, null, "messageId");
+
+		// Assert
+		verifyNoInteractions(idempotencyKeyRepositoryMock);
+	}
+
+	@Test
+	void registerWhenKeyIsAlreadyInUse() {
+		// Arrange
+		when(idempotencyKeyRepositoryMock.insert(anyString(), anyString(), any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+		// Act & Assert
+		assertThatThrownBy(() -> idempotencyKeys.register(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, IDEMPOTENCY_KEY, "messageId"))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Idempotency key idempotencyKey is already in use by another request")
+			.extracting("status").isEqualTo(CONFLICT);
+	}
+
+	@Test
+	void purgeExpired() {
+		// Arrange
+		when(idempotencyKeyRepositoryMock.deleteByCreatedBefore(any())).thenReturn(3);
+
+		// Act
+		final var result = idempotencyKeys.purgeExpired();
+
+		// Assert
+		assertThat(result).isEqualTo(3);
+		verify(idempotencyKeyRepositoryMock).deleteByCreatedBefore(dateTimeCaptor.capture());
+		assertThat(dateTimeCaptor.getValue()).isCloseTo(OffsetDateTime.now().minusHours(24), within(5, SECONDS));
+	}
+
+	@Test
+	void toIdIsScopedToConversation() {
+		assertThat(IdempotencyKeys.toId(MUNICIPALITY_ID, NAMESPACE, CONVERSATION_ID, IDEMPOTENCY_KEY))
+			.hasSize(64)
+			.isEqualTo(ID)
+			.isNotEqualTo(IdempotencyKeys.toId(MUNICIPALITY_ID, NAMESPACE, "otherConversationId", IDEMPOTENCY_KEY));
+	}
+}
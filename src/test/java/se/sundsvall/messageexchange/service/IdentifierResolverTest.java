@@ -0,0 +1,143 @@
+package se.sundsvall.messageexchange.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.messageexchange.integration.db.IdentifierRepository;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class IdentifierResolverTest {
+
+	private static final String ID = "a8e6adf0b14b31f4114cca4d1437d220fd336ed5ebf89b2719a46a7b5ae0ca4c";
+
+	@Mock
+	private IdentifierRepository identifierRepositoryMock;
+
+	private IdentifierResolver identifierResolver;
+
+	@BeforeEach
+	void setup() {
+		identifierResolver = new IdentifierResolver(identifierRepositoryMock, 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.unbindResourceIfPossible(identifierResolver);
+	}
+
+	@Test
+	void toId() {
+		assertThat(IdentifierResolver.toId("adAccount", "joe01doe")).isEqualTo(ID);
+		assertThat(IdentifierResolver.toId(null, "joe01doe")).isEqualTo("fbee8601cd49c7d5732a66b15b047983b8c626183c137098be47b24d76b1e057");
+	}
+
+	@Test
+	void toIdKeepsNullAndEmptyApart() {
+		assertThat(IdentifierResolver.toId(null, "joe01doe")).isNotEqualTo(IdentifierResolver.toId("", "joe01doe"));
+		assertThat(IdentifierResolver.toId("adAccount", null)).isNotEqualTo(IdentifierResolver.toId("adAccount", ""));
+		assertThat(IdentifierResolver.toId("ad|Account", "joe01doe")).isNotEqualTo(IdentifierResolver.toId("ad", "Account|joe01doe"));
+	}
+
+	@Test
+	void resolveIdInsertsOnceAndCaches() {
+		// Act
+		final var first = identifierResolver.resolveId("adAccount", "joe01doe");
+		final var second = identifierResolver.resolveId("adAccount", "joe01doe");
+
+		// Assert
+		assertThat(first).isEqualTo(ID).isEqualTo(second);
+		assertThat(identifierResolver.getCacheSize()).isOne();
+		verify(identifierRepositoryMock).insertIgnore(ID, "adAccount", "joe01doe");
+	}
+
+	@Test
+	void resolveIdInTransactionIsCachedAfterCommit() {
+		// Arrange
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		identifierResolver.resolveId("adAccount", "joe01doe");
+		identifierResolver.resolveId("adAccount", "joe01doe");
+
+		// Assert
+		verify(identifierRepositoryMock).insertIgnore(ID, "adAccount", "joe01doe");
+		assertThat(identifierResolver.getCacheSize()).isZero();
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(identifierResolver.getCacheSize()).isOne();
+	}
+
+	@Test
+	void resolveIdInRolledBackTransactionIsNotCached() {
+		// Arrange
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		identifierResolver.resolveId("adAccount", "joe01doe");
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		TransactionSynchronizationManager.clearSynchronization();
+		identifierResolver.resolveId("adAccount", "joe01doe");
+
+		// Assert
+		verify(identifierRepositoryMock, times(2)).insertIgnore(ID, "adAccount", "joe01doe");
+	}
+
+	@Test
+	void resolveIdClearsCacheWhenFull() {
+		// Act
+		identifierResolver.resolveId("adAccount", "joe01doe");
+		identifierResolver.resolveId("adAccount", "jane01doe");
+		identifierResolver.resolveId("partyId", "e4c4d4f1-bfb6-4c6d-9d1b-2f4ce0c1e4a1");
+
+		// Assert
+		assertThat(identifierResolver.getCacheSize()).isOne();
+	}
+
+	@Test
+	void resolve() {
+		// Arrange
+		final var identifier = IdentifierEntity.create().withType("adAccount").withValue("joe01doe");
+
+		// Act
+		final var result = identifierResolver.resolve(identifier);
+
+		// Assert
+		assertThat(result).isSameAs(identifier);
+		assertThat(result.getId()).isEqualTo(ID);
+		verify(identifierRepositoryMock).insertIgnore(ID, "adAccount", "joe01doe");
+	}
+
+	@Test
+	void resolveWithExistingId() {
+		// Arrange
+		final var identifier = IdentifierEntity.create().withId("id").withType("adAccount").withValue("joe01doe");
+
+		// Act
+		final var result = identifierResolver.resolve(identifier);
+
+		// Assert
+		assertThat(result).isSameAs(identifier);
+		assertThat(result.getId()).isEqualTo("id");
+		verifyNoInteractions(identifierRepositoryMock);
+	}
+
+	@Test
+	void resolveNull() {
+		assertThat(identifierResolver.resolve(null)).isNull();
+		verifyNoInteractions(identifierRepositoryMock);
+	}
+}
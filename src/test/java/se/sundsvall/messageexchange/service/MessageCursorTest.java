@@ -0,0 +1,51 @@
+package se.sundsvall.messageexchange.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+class MessageCursorTest {
+
+	@Test
+	void encodeAndDecodeAfter() {
+		// Act
+		final var result = MessageCursor.decode(MessageCursor.after(123L).encode());
+
+		// Assert
+		assertThat(result).isEqualTo(MessageCursor.after(123L));
+		assertThat(result.isAscending()).isTrue();
+		assertThat(result.getSequenceNumber()).isEqualTo(123L);
+	}
+
+	@Test
+	void encodeAndDecodeBefore() {
+		// Act
+		final var result = MessageCursor.decode(MessageCursor.before(7L).encode());
+
+		// Assert
+		assertThat(result).isEqualTo(MessageCursor.before(7L));
+		assertThat(result.isAscending()).isFalse();
+		assertThat(result.getDirection()).isEqualTo(MessageCursor.Direction.BEFORE);
+	}
+
+	@Test
+	void encodeIsOpaque() {
+		assertThat(MessageCursor.after(120L).encode()).isEqualTo("QUZURVI6MTIw");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"not-base64!", "QUZURVI=", "U0lERVdBWVM6MQ", "QUZURVI6YWJj"
+	})
+	void decodeInvalid(final String cursor) {
+		assertThatThrownBy(() -> MessageCursor.decode(cursor))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Invalid cursor '%s'".formatted(cursor))
+			.extracting("status").isEqualTo(BAD_REQUEST);
+	}
+}
@@ -0,0 +1,60 @@
+package se.sundsvall.messageexchange.service;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageSequenceAllocatorTest {
+
+	private static final String CONVERSATION_ID = "conversationId";
+
+	@Mock
+	private ConversationRepository conversationRepositoryMock;
+
+	@InjectMocks
+	private MessageSequenceAllocator messageSequenceAllocator;
+
+	@Test
+	void next() {
+		// Arrange
+		when(conversationRepositoryMock.findLastSequenceNumber(CONVERSATION_ID)).thenReturn(Optional.of(1L), Optional.of(2L));
+
+		// Act & Assert
+		assertThat(messageSequenceAllocator.next(conversation())).isOne();
+		assertThat(messageSequenceAllocator.next(conversation())).isEqualTo(2L);
+
+		final var inOrder = inOrder(conversationRepositoryMock);
+		inOrder.verify(conversationRepositoryMock).incrementLastSequenceNumber(CONVERSATION_ID);
+		inOrder.verify(conversationRepositoryMock).findLastSequenceNumber(CONVERSATION_ID);
+		inOrder.verify(conversationRepositoryMock).incrementLastSequenceNumber(CONVERSATION_ID);
+		inOrder.verify(conversationRepositoryMock).findLastSequenceNumber(CONVERSATION_ID);
+		inOrder.verifyNoMoreInteractions();
+	}
+
+	@Test
+	void nextWhenConversationIsMissing() {
+		// Arrange
+		final var conversation = conversation();
+		when(conversationRepositoryMock.findLastSequenceNumber(CONVERSATION_ID)).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertThatThrownBy(() -> messageSequenceAllocator.next(conversation))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("No sequence number allocated for conversation with id conversationId");
+	}
+
+	private static ConversationEntity conversation() {
+		return ConversationEntity.create().withId(CONVERSATION_ID);
+	}
+}
@@ -0,0 +1,290 @@
+package se.sundsvall.messageexchange.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.multipart.MultipartFile;
+import se.sundsvall.messageexchange.api.model.Message;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreConfig;
+import se.sundsvall.messageexchange.integration.db.MessageProjectionQueryExecutor;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentEntity;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
+import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+import se.sundsvall.messageexchange.integration.store.DatabaseAttachmentStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace.NONE;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = NONE)
+@ActiveProfiles("junit")
+@Import({
+	MessageService.class, MessageProjectionQueryExecutor.class, IdentifierResolver.class, ConversationCounters.class,
+	ConversationExistenceCache.class, MessageSequenceAllocator.class, IdempotencyKeys.class, AttachmentDataResolver.class, AttachmentStores.class, DatabaseAttachmentStore.class,
+	AttachmentStoreConfig.class
+})
+class MessageServiceStatementCountTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String NAMESPACE = "namespace";
+	private static final int NUMBER_OF_MESSAGES = 25;
+
+	@Autowired
+	private MessageService messageService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockitoBean
+	private ReadReceiptBuffer readReceiptBufferMock;
+
+	private String conversationId;
+
+	@BeforeEach
+	void setup() {
+		final var conversation = ConversationEntity.create()
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withNamespace(NAMESPACE)
+			.withTopic("topic");
+		entityManager.persist(conversation);
+
+		IntStream.range(0, NUMBER_OF_MESSAGES).forEach(i -> {
+			final var message = MessageEntity.create()
+				.withConversation(conversation)
+				.withContent("content " + i)
+				.withSequenceNumber(i + 1L)
+				.withCreatedBy(identifier("adAccount", "user" + i))
+				.withReadBy(new ArrayList<>(List.of(
+					ReadByEntity.create().withIdentifier(identifier("adAccount", "reader" + i)).withReadAt(OffsetDateTime.now()))))
+				.withReadByPart(new ArrayList<>(List.of(
+					ReadByPartEntity.create().withPart("part").withReadAt(OffsetDateTime.now()))));
+			message.setAttachments(new ArrayList<>(List.of(AttachmentEntity.create()
+				.withFileName("file" + i + ".txt")
+				.withMimeType("text/plain")
+				.withFileSize(4)
+				.withAttachmentData(AttachmentDataEntity.create().withFile(BlobProxy.generateProxy("data".getBytes())))
+				.withMessageEntity(message))));
+
+			entityManager.persist(message);
+		});
+
+		entityManager.flush();
+		entityManager.clear();
+
+		conversationId = conversation.getId();
+	}
+
+	@Test
+	void getMessagesStatementCountIsIndependentOfPageSize() {
+		// Warm up the conversation existence cache, so that both pages are read the same way
+		countStatementsForPageOfSize(1);
+
+		final var statementsForSmallPage = countStatementsForPageOfSize(5);
+		final var statementsForLargePage = countStatementsForPageOfSize(20);
+
+		assertThat(statementsForLargePage).isEqualTo(statementsForSmallPage);
+	}
+
+	@Test
+	void getMessageSliceStatementCountIsIndependentOfPageSize() {
+		// Warm up the conversation existence cache, so that both slices are read the same way
+		countStatementsForSliceOfSize(1);
+
+		final var statementsForSmallSlice = countStatementsForSliceOfSize(5);
+		final var statementsForLargeSlice = countStatementsForSliceOfSize(20);
+
+		assertThat(statementsForLargeSlice).isEqualTo(statementsForSmallSlice);
+	}
+
+	@Test
+	void getMessageWindowStatementCountIsIndependentOfLimit() {
+		// Warm up the conversation existence cache, so that both windows are read the same way
+		countStatementsForWindowOfSize(1);
+
+		final var statementsForSmallWindow = countStatementsForWindowOfSize(5);
+		final var statementsForLargeWindow = countStatementsForWindowOfSize(20);
+
+		assertThat(statementsForLargeWindow).isEqualTo(statementsForSmallWindow);
+	}
+
+	@Test
+	void createMessageStatementCountIsIndependentOfNumberOfAttachments() {
+		// Warm up the sequence number block of the conversation, so that both messages are created the same way
+		countStatementsForMessageWithAttachments(1);
+
+		final var statementsForOneAttachment = countStatementsForMessageWithAttachments(1);
+		final var statementsForManyAttachments = countStatementsForMessageWithAttachments(10);
+
+		assertThat(statementsForManyAttachments).isEqualTo(statementsForOneAttachment);
+	}
+
+	@Test
+	void createMessageReusesStoredAttachmentData() {
+		final var firstMessageId = createMessageWithAttachment("same data");
+		final var secondMessageId = createMessageWithAttachment("same data");
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(countAttachmentData("same data")).isOne();
+		assertThat(referenceCount("same data")).isEqualTo(2);
+
+		messageService.deleteMessage(MUNICIPALITY_ID, NAMESPACE, conversationId, firstMessageId);
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(referenceCount("same data")).isOne();
+
+		messageService.deleteMessage(MUNICIPALITY_ID, NAMESPACE, conversationId, secondMessageId);
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(countAttachmentData("same data")).isZero();
+	}
+
+	@Test
+	void readAttachmentNotModifiedDoesNotReadAttachmentData() {
+		final var messageId = createMessageWithAttachment("cached data");
+		entityManager.flush();
+		entityManager.clear();
+		final var attachmentId = (String) entityManager.createNativeQuery("select id from attachment where message_id = :messageId")
+			.setParameter("messageId", messageId)
+			.getSingleResult();
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(IF_NONE_MATCH, "\"" + sha256("cached data") + "\"");
+
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		messageService.readErrandAttachment(NAMESPACE, MUNICIPALITY_ID, conversationId, messageId, attachmentId, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(NOT_MODIFIED.value());
+		assertThat(statistics.getEntityStatistics(AttachmentEntity.class.getName()).getLoadCount()).isOne();
+		assertThat(statistics.getEntityStatistics(AttachmentDataEntity.class.getName()).getLoadCount()).isZero();
+	}
+
+	private String createMessageWithAttachment(final String data) {
+		final var attachment = new MockMultipartFile("attachments", "file.txt", "text/plain", data.getBytes());
+		return messageService.createMessage(MUNICIPALITY_ID, NAMESPACE, conversationId, Message.create().withContent("content").withCreatedByPart("part"), List.of(attachment), null);
+	}
+
+	private long countAttachmentData(final String data) {
+		return ((Number) entityManager.createNativeQuery("select count(*) from attachment_data where hash = :hash")
+			.setParameter("hash", sha256(data))
+			.getSingleResult()).longValue();
+	}
+
+	private long referenceCount(final String data) {
+		return ((Number) entityManager.createNativeQuery("select reference_count from attachment_data where hash = :hash")
+			.setParameter("hash", sha256(data))
+			.getSingleResult()).longValue();
+	}
+
+	private static String sha256(final String data) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data.getBytes()));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private IdentifierEntity identifier(final String type, final String value) {
+		final var identifier = IdentifierEntity.create()
+			.withId(IdentifierResolver.toId(type, value))
+			.withType(type)
+			.withValue(value);
+		entityManager.persist(identifier);
+		return identifier;
+	}
+
+	private long countStatementsForPageOfSize(final int pageSize) {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		final Specification<MessageEntity> noFilter = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+		final var result = messageService.getMessages(MUNICIPALITY_ID, NAMESPACE, conversationId, noFilter, PageRequest.of(0, pageSize), false);
+
+		assertThat(result.getContent()).hasSize(pageSize).allSatisfy(MessageServiceStatementCountTest::assertFullyMapped);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private long countStatementsForSliceOfSize(final int pageSize) {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		final Specification<MessageEntity> noFilter = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+		final var result = messageService.getMessageSlice(MUNICIPALITY_ID, NAMESPACE, conversationId, noFilter, PageRequest.of(0, pageSize), false);
+
+		assertThat(result.getContent()).hasSize(pageSize).allSatisfy(MessageServiceStatementCountTest::assertFullyMapped);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private long countStatementsForWindowOfSize(final int limit) {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		final Specification<MessageEntity> noFilter = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+		final var result = messageService.getMessageWindow(MUNICIPALITY_ID, NAMESPACE, conversationId, noFilter, 0L, null, null, limit, false);
+
+		assertThat(result.getContent()).hasSize(limit).allSatisfy(MessageServiceStatementCountTest::assertFullyMapped);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private long countStatementsForMessageWithAttachments(final int numberOfAttachments) {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		final var attachments = IntStream.range(0, numberOfAttachments)
+			.<MultipartFile>mapToObj(i -> new MockMultipartFile("attachments", "file" + i + ".txt", "text/plain", ("data " + i).getBytes()))
+			.toList();
+		messageService.createMessage(MUNICIPALITY_ID, NAMESPACE, conversationId, Message.create().withContent("content").withCreatedByPart("part"), attachments, null);
+
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(2L + 2L * numberOfAttachments);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static void assertFullyMapped(final Message message) {
+		assertThat(message.getSequenceNumber()).isNotNull();
+		assertThat(message.getCreatedBy()).isNotNull();
+		assertThat(message.getReadBy()).hasSize(1);
+		assertThat(message.getReadByPart()).hasSize(1);
+		assertThat(message.getAttachments()).hasSize(1);
+	}
+}
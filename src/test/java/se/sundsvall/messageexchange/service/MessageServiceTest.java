@@ -1,17 +1,28 @@
 package se.sundsvall.messageexchange.service;
 
 import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Blob;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import javax.sql.rowset.serial.SerialBlob;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
@@ -21,42 +32,88 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.messageexchange.api.model.Attachment;
 import se.sundsvall.messageexchange.api.model.MarkAsReadRequest;
+import se.sundsvall.messageexchange.api.model.MarkAsReadUpToRequest;
 import se.sundsvall.messageexchange.api.model.Message;
+import se.sundsvall.messageexchange.api.model.MessageBatchItem;
+import se.sundsvall.messageexchange.api.model.MessageBatchResult;
+import se.sundsvall.messageexchange.api.model.ReadByPart;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
 import se.sundsvall.messageexchange.integration.db.AttachmentRepository;
 import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+import se.sundsvall.messageexchange.integration.db.MessageAttachmentProjection;
+import se.sundsvall.messageexchange.integration.db.MessageProjection;
+import se.sundsvall.messageexchange.integration.db.MessageProjectionQueryExecutor;
+import se.sundsvall.messageexchange.integration.db.MessageReadByPartProjection;
+import se.sundsvall.messageexchange.integration.db.MessageReadByProjection;
 import se.sundsvall.messageexchange.integration.db.MessageRepository;
+import se.sundsvall.messageexchange.integration.db.ReadMarkerRepository;
 import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
 import se.sundsvall.messageexchange.integration.db.model.AttachmentEntity;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.db.model.MessageType;
 import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
 import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.AttachmentStores;
+import se.sundsvall.messageexchange.integration.store.DatabaseAttachmentStore;
+import se.sundsvall.messageexchange.integration.store.FileSystemAttachmentStore;
+import se.sundsvall.messageexchange.util.FileTransfer;
 import se.sundsvall.messageexchange.util.MessageSpecificationBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.http.HttpHeaders.ACCEPT_RANGES;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
 import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.IF_RANGE;
+import static org.springframework.http.HttpHeaders.RANGE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
+import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static se.sundsvall.dept44.support.Identifier.Type.PARTY_ID;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
 
 @ExtendWith(MockitoExtension.class)
 class MessageServiceTest {
 
+	// SHA-256("test") in hex
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
 	@Mock
 	private AttachmentEntity attachmentMock;
 
@@ -66,12 +123,18 @@ class MessageServiceTest {
 	@Mock
 	private AttachmentDataEntity attachmentDataEntityMock;
 
+	@Mock
+	private HttpServletRequest httpServletRequestMock;
+
 	@Mock
 	private HttpServletResponse httpServletResponseMock;
 
 	@Mock
 	private ServletOutputStream servletOutputStreamMock;
 
+	@Mock
+	private MultipartFile multipartFileMock;
+
 	@Mock
 	private MessageRepository messageRepositoryMock;
 
@@ -81,14 +144,50 @@ class MessageServiceTest {
 	@Mock
 	private AttachmentRepository attachmentRepositoryMock;
 
+	@Mock
+	private MessageProjectionQueryExecutor messageProjectionQueryExecutorMock;
+
+	@Mock
+	private ReadReceiptBuffer readReceiptBufferMock;
+
+	@Mock
+	private ReadMarkerRepository readMarkerRepositoryMock;
+
+	@Mock
+	private IdentifierResolver identifierResolverMock;
+
+	@Mock
+	private ConversationCounters conversationCountersMock;
+
+	@Mock
+	private ConversationExistenceCache conversationExistenceCacheMock;
+
+	@Mock
+	private MessageSequenceAllocator messageSequenceAllocatorMock;
+
+	@Mock
+	private IdempotencyKeys idempotencyKeysMock;
+
+	@Mock
+	private AttachmentDataResolver attachmentDataResolverMock;
+
+	@Mock
+	private AttachmentStores attachmentStoresMock;
+
+	@Mock
+	private AttachmentStore attachmentStoreMock;
+
 	@InjectMocks
 	private MessageService messageService;
 
 	@Captor
-	private ArgumentCaptor<Page<MessageEntity>> messageEntityCaptor;
+	private ArgumentCaptor<ConversationEntity> conversationEntityCaptor;
 
 	@Captor
-	private ArgumentCaptor<ConversationEntity> conversationEntityCaptor;
+	private ArgumentCaptor<MessageEntity> messageEntityCaptor;
+
+	@Captor
+	private ArgumentCaptor<List<MessageEntity>> messageEntitiesCaptor;
 
 	@Test
 	void createMessage() {
@@ -98,7 +197,10 @@ class MessageServiceTest {
 		final var conversationId = "conversationId";
 		final var messageRequest = new Message();
 		final var conversationEntity = new ConversationEntity();
-		final var messageEntity = new MessageEntity();
+		final var created = OffsetDateTime.now();
+		final var messageEntity = new MessageEntity()
+			.withSequenceNumber(42L)
+			.withCreated(created);
 		messageEntity.setId("newMessageId");
 		final var attachments = List.<MultipartFile>of();
 		final var dept44Identifier = se.sundsvall.dept44.support.Identifier.create()
@@ -109,15 +211,23 @@ class MessageServiceTest {
 			mockedStatic.when(se.sundsvall.dept44.support.Identifier::get).thenReturn(dept44Identifier);
 			when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
 				.thenReturn(Optional.of(conversationEntity));
+			when(messageSequenceAllocatorMock.next(conversationEntity)).thenReturn(42L);
 			when(messageRepositoryMock.saveAndFlush(any(MessageEntity.class))).thenReturn(messageEntity);
+			when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 
 			// Act
-			final var result = messageService.createMessage(municipalityId, namespace, conversationId, messageRequest, attachments);
+			final var result = messageService.createMessage(municipalityId, namespace, conversationId, messageRequest, attachments, "idempotencyKey");
 
 			// Assert
 			assertThat(result).isEqualTo("newMessageId");
 			verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-			verify(messageRepositoryMock).saveAndFlush(any(MessageEntity.class));
+			verify(messageSequenceAllocatorMock).next(conversationEntity);
+			verify(messageRepositoryMock).saveAndFlush(messageEntityCaptor.capture());
+			assertThat(messageEntityCaptor.getValue().getSequenceNumber()).isEqualTo(42L);
+			verify(conversationRepositoryMock).updateLatestSequenceNumber(conversationId, 42L, created);
+			verify(idempotencyKeysMock).findMessageId(municipalityId, namespace, conversationId, "idempotencyKey");
+			verify(idempotencyKeysMock).register(municipalityId, namespace, conversationId, "idempotencyKey", "newMessageId");
+			verify(conversationCountersMock).messageCreated(messageEntity);
 			verify(conversationRepositoryMock).save(conversationEntityCaptor.capture());
 			assertThat(conversationEntityCaptor.getValue().getParticipants())
 				.hasSize(1).extracting(IdentifierEntity::getType, IdentifierEntity::getValue)
@@ -125,6 +235,24 @@ class MessageServiceTest {
 		}
 	}
 
+	@Test
+	void createMessageWithUsedIdempotencyKey() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+
+		when(idempotencyKeysMock.findMessageId(municipalityId, namespace, conversationId, "idempotencyKey")).thenReturn(Optional.of("existingMessageId"));
+
+		// Act
+		final var result = messageService.createMessage(municipalityId, namespace, conversationId, new Message(), List.of(multipartFileMock), "idempotencyKey");
+
+		// Assert
+		assertThat(result).isEqualTo("existingMessageId");
+		verifyNoInteractions(conversationRepositoryMock, messageRepositoryMock, messageSequenceAllocatorMock, conversationCountersMock, identifierResolverMock, multipartFileMock);
+		verifyNoMoreInteractions(idempotencyKeysMock);
+	}
+
 	@Test
 	void createMessageConversationNotFound() {
 		// Arrange
@@ -138,72 +266,128 @@ class MessageServiceTest {
 			.thenReturn(Optional.empty());
 
 		// Act & Assert
-		assertThatThrownBy(() -> messageService.createMessage(municipalityId, namespace, conversationId, messageRequest, attachments))
+		assertThatThrownBy(() -> messageService.createMessage(municipalityId, namespace, conversationId, messageRequest, attachments, "idempotencyKey"))
 			.isInstanceOf(Problem.class)
 			.hasMessageContaining("Conversation with id conversationId not found")
 			.extracting("status").isEqualTo(NOT_FOUND);
 	}
 
 	@Test
-	void getMessages() {
+	void createMessages() {
 		// Arrange
 		final var municipalityId = "2281";
 		final var namespace = "namespace";
-		final var conversationId = "conversationId";
-		final var pageable = PageRequest.of(0, 10);
-		final var conversationEntity = new ConversationEntity();
-		final var messageEntity = new MessageEntity().withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withType("partyId").withValue("ad012ad")))));
-		final var messagePage = new PageImpl<>(List.of(messageEntity), pageable, 1);
-		final var filter = MessageSpecificationBuilder.withConversation(conversationEntity);
-
+		final var conversationEntity = ConversationEntity.create().withId("conversationId");
+		final var items = List.of(
+			MessageBatchItem.create().withConversationId("conversationId").withMessage(Message.create().withContent("first")),
+			MessageBatchItem.create().withConversationId("missingConversationId").withMessage(Message.create().withContent("second")),
+			MessageBatchItem.create().withConversationId("conversationId").withMessage(Message.create().withContent("third")));
 		final var dept44Identifier = se.sundsvall.dept44.support.Identifier.create()
 			.withType(PARTY_ID)
 			.withValue("da012da");
 
 		try (final var mockedStatic = mockStatic(se.sundsvall.dept44.support.Identifier.class)) {
 			mockedStatic.when(se.sundsvall.dept44.support.Identifier::get).thenReturn(dept44Identifier);
-
-			when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-				.thenReturn(Optional.of(conversationEntity));
-			when(messageRepositoryMock.findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), eq(pageable))).thenReturn(messagePage);
+			when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndIdIn(eq(namespace), eq(municipalityId), ArgumentMatchers.<Set<String>>any()))
+				.thenReturn(List.of(conversationEntity));
+			when(messageSequenceAllocatorMock.next(conversationEntity)).thenReturn(7L, 8L);
+			when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 
 			// Act
-			final var result = messageService.getMessages(municipalityId, namespace, conversationId, filter, pageable, true);
+			final var result = messageService.createMessages(municipalityId, namespace, items);
 
 			// Assert
-			assertThat(result).isNotNull();
-			assertThat(result.getContent()).hasSize(1);
-			assertThat(result.getContent().getFirst().getReadBy()).hasSize(1);
-			verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-			verify(messageRepositoryMock).findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), eq(pageable));
-			verify(messageRepositoryMock).saveAll(messageEntityCaptor.capture());
-			assertThat(messageEntityCaptor.getValue().getContent().getFirst().getReadBy()).hasSize(2);
-
+			assertThat(result.getResults())
+				.extracting(MessageBatchResult::getConversationId, MessageBatchResult::getSequenceNumber, MessageBatchResult::getStatus, MessageBatchResult::getDetail)
+				.containsExactly(
+					Tuple.tuple("conversationId", 7L, 201, null),
+					Tuple.tuple("missingConversationId", null, 404, "Conversation with id missingConversationId not found"),
+					Tuple.tuple("conversationId", 8L, 201, null));
+
+			verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndIdIn(namespace, municipalityId, Set.of("conversationId", "missingConversationId"));
+			verify(conversationRepositoryMock).save(conversationEntityCaptor.capture());
+			assertThat(conversationEntityCaptor.getValue().getParticipants())
+				.hasSize(1).extracting(IdentifierEntity::getType, IdentifierEntity::getValue)
+				.containsExactly(Tuple.tuple("partyId", "da012da"));
+			verify(messageRepositoryMock).saveAll(messageEntitiesCaptor.capture());
+			assertThat(messageEntitiesCaptor.getValue())
+				.extracting(MessageEntity::getContent, MessageEntity::getSequenceNumber)
+				.containsExactly(Tuple.tuple("first", 7L), Tuple.tuple("third", 8L));
+			verify(messageRepositoryMock).flush();
+			verify(conversationCountersMock).messagesCreated(messageEntitiesCaptor.getValue());
+			verify(conversationRepositoryMock).updateLatestSequenceNumber(eq("conversationId"), eq(8L), any(OffsetDateTime.class));
+			verifyNoMoreInteractions(conversationRepositoryMock, messageRepositoryMock, conversationCountersMock);
 		}
 	}
 
 	@Test
-	void getMessagesAlreadyRead() {
+	void createMessagesWhenNoConversationExists() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var items = List.of(MessageBatchItem.create().withConversationId("missingConversationId").withMessage(Message.create()));
+
+		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndIdIn(namespace, municipalityId, Set.of("missingConversationId")))
+			.thenReturn(List.of());
+
+		// Act
+		final var result = messageService.createMessages(municipalityId, namespace, items);
+
+		// Assert
+		assertThat(result.getResults())
+			.extracting(MessageBatchResult::getStatus, MessageBatchResult::getMessageId)
+			.containsExactly(Tuple.tuple(404, null));
+		verify(messageRepositoryMock).saveAll(List.of());
+		verify(conversationCountersMock).messagesCreated(List.of());
+		verify(conversationRepositoryMock, never()).updateLatestSequenceNumber(anyString(), anyLong(), any());
+		verifyNoInteractions(messageSequenceAllocatorMock);
+	}
+
+	@Test
+	void createMessagesWhenWriteFails() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationEntity = ConversationEntity.create().withId("conversationId");
+		final var items = List.of(
+			MessageBatchItem.create().withConversationId("conversationId").withMessage(Message.create().withContent("first")),
+			MessageBatchItem.create().withConversationId("missingConversationId").withMessage(Message.create().withContent("second")));
+
+		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndIdIn(namespace, municipalityId, Set.of("conversationId", "missingConversationId")))
+			.thenReturn(List.of(conversationEntity));
+		when(messageSequenceAllocatorMock.next(conversationEntity)).thenReturn(7L);
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
+		when(messageRepositoryMock.saveAll(any())).thenThrow(new IllegalStateException("Write failed"));
+
+		// Act & Assert
+		assertThatThrownBy(() -> messageService.createMessages(municipalityId, namespace, items))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Write failed");
+		verify(messageRepositoryMock, never()).flush();
+		verifyNoInteractions(conversationCountersMock);
+		verify(conversationRepositoryMock, never()).updateLatestSequenceNumber(anyString(), anyLong(), any());
+	}
+
+	@Test
+	void getMessages() {
 		// Arrange
 		final var municipalityId = "2281";
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var pageable = PageRequest.of(0, 10);
-		final var conversationEntity = new ConversationEntity();
-		final var messageEntity = new MessageEntity().withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withType("partyId").withValue("value")))));
-		final var messagePage = new PageImpl<>(List.of(messageEntity), pageable, 1);
-		final var filter = MessageSpecificationBuilder.withConversation(conversationEntity);
+		final var projection = new MessageProjection("id1", 1L, null, OffsetDateTime.now(), "adAccount", "joe01doe", "content", MessageType.USER_CREATED);
+		final var filter = MessageSpecificationBuilder.withConversationId(conversationId);
 
 		final var dept44Identifier = se.sundsvall.dept44.support.Identifier.create()
 			.withType(PARTY_ID)
-			.withValue("value");
+			.withValue("da012da");
 
 		try (final var mockedStatic = mockStatic(se.sundsvall.dept44.support.Identifier.class)) {
 			mockedStatic.when(se.sundsvall.dept44.support.Identifier::get).thenReturn(dept44Identifier);
 
-			when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-				.thenReturn(Optional.of(conversationEntity));
-			when(messageRepositoryMock.findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), eq(pageable))).thenReturn(messagePage);
+			when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+			when(messageProjectionQueryExecutorMock.findPage(ArgumentMatchers.any(), eq(pageable))).thenReturn(new PageImpl<>(List.of(projection), pageable, 1));
+			when(messageRepositoryMock.findReadByProjections(List.of("id1"))).thenReturn(List.of(new MessageReadByProjection("id1", "partyId", "ad012ad", OffsetDateTime.now())));
 
 			// Act
 			final var result = messageService.getMessages(municipalityId, namespace, conversationId, filter, pageable, true);
@@ -212,11 +396,9 @@ class MessageServiceTest {
 			assertThat(result).isNotNull();
 			assertThat(result.getContent()).hasSize(1);
 			assertThat(result.getContent().getFirst().getReadBy()).hasSize(1);
-			verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-			verify(messageRepositoryMock).findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), eq(pageable));
-			verify(messageRepositoryMock).saveAll(messageEntityCaptor.capture());
-			assertThat(messageEntityCaptor.getValue().getContent().getFirst().getReadBy()).hasSize(1);
-
+			verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
+			verify(readReceiptBufferMock).add(List.of("id1"), "partyId", "da012da");
+			verify(messageRepositoryMock, never()).saveAll(any());
 		}
 	}
 
@@ -227,9 +409,8 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var pageable = PageRequest.of(0, 10);
-		final var filter = MessageSpecificationBuilder.withConversation(new ConversationEntity());
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.empty());
+		final var filter = MessageSpecificationBuilder.withConversationId(conversationId);
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(false);
 
 		// Act & Assert
 		assertThatThrownBy(() -> messageService.getMessages(municipalityId, namespace, conversationId, filter, pageable, true))
@@ -245,25 +426,179 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var pageable = PageRequest.of(0, 10);
-		final var conversationEntity = new ConversationEntity();
-		final var messageEntity = new MessageEntity().withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withType("partyId").withValue("ad012ad")))));
-		final var messagePage = new PageImpl<>(List.of(messageEntity), pageable, 1);
-		final var filter = MessageSpecificationBuilder.withConversation(conversationEntity);
+		final var created = OffsetDateTime.now();
+		final var projection = new MessageProjection("id1", 1L, "inReplyTo", created, "adAccount", "joe01doe", "content", MessageType.USER_CREATED);
+		final var filter = MessageSpecificationBuilder.withConversationId(conversationId);
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
-		when(messageRepositoryMock.findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), eq(pageable))).thenReturn(messagePage);
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageProjectionQueryExecutorMock.findPage(ArgumentMatchers.any(), eq(pageable))).thenReturn(new PageImpl<>(List.of(projection), pageable, 1));
+		when(messageRepositoryMock.findReadByProjections(List.of("id1"))).thenReturn(List.of(new MessageReadByProjection("id1", "partyId", "ad012ad", created)));
+		when(messageRepositoryMock.findReadByPartProjections(List.of("id1"))).thenReturn(List.of(new MessageReadByPartProjection("id1", "part", created)));
+		when(messageRepositoryMock.findAttachmentProjections(List.of("id1"))).thenReturn(List.of(new MessageAttachmentProjection("id1", "attachmentId", "file.txt", 10, "text/plain", "hash", created)));
 
 		// Act
 		final var result = messageService.getMessages(municipalityId, namespace, conversationId, filter, pageable, false);
 
 		// Assert
-		assertThat(result).isNotNull();
-		assertThat(result.getContent()).hasSize(1);
-		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-		verify(messageRepositoryMock).findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), eq(pageable));
+		assertThat(result.getTotalElements()).isOne();
+		assertThat(result.getContent()).hasSize(1).first().satisfies(message -> {
+			assertThat(message.getId()).isEqualTo("id1");
+			assertThat(message.getSequenceNumber()).isOne();
+			assertThat(message.getCreatedBy().getValue()).isEqualTo("joe01doe");
+			assertThat(message.getReadBy()).extracting(readBy -> readBy.getIdentifier().getValue()).containsExactly("ad012ad");
+			assertThat(message.getReadByPart()).extracting(ReadByPart::getPart).containsExactly("part");
+			assertThat(message.getAttachments()).extracting(Attachment::getId).containsExactly("attachmentId");
+		});
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
+		verify(messageRepositoryMock, never()).findAll(ArgumentMatchers.<Specification<MessageEntity>>any(), any(Pageable.class));
 		verify(messageRepositoryMock, never()).saveAll(any());
-		assertThat(messageEntity.getReadBy()).hasSize(1);
+	}
+
+	@Test
+	void getMessagesWithSetReadByFalseAndNoMatches() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var pageable = PageRequest.of(0, 10);
+		final var filter = MessageSpecificationBuilder.withConversationId(conversationId);
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageProjectionQueryExecutorMock.findPage(ArgumentMatchers.any(), eq(pageable))).thenReturn(Page.empty(pageable));
+
+		// Act
+		final var result = messageService.getMessages(municipalityId, namespace, conversationId, filter, pageable, false);
+
+		// Assert
+		assertThat(result.getContent()).isEmpty();
+		verifyNoInteractions(messageRepositoryMock);
+	}
+
+	@Test
+	void getMessageSlice() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var pageable = PageRequest.of(0, 1);
+		final var projection = new MessageProjection("id1", 1L, null, OffsetDateTime.now(), "adAccount", "joe01doe", "content", MessageType.USER_CREATED);
+		final var slice = new SliceImpl<>(List.of(projection), pageable, true);
+		final var dept44Identifier = se.sundsvall.dept44.support.Identifier.create()
+			.withType(PARTY_ID)
+			.withValue("da012da");
+
+		try (final var mockedStatic = mockStatic(se.sundsvall.dept44.support.Identifier.class)) {
+			mockedStatic.when(se.sundsvall.dept44.support.Identifier::get).thenReturn(dept44Identifier);
+			when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+			when(messageProjectionQueryExecutorMock.findSlice(ArgumentMatchers.any(), eq(pageable))).thenReturn(slice);
+
+			// Act
+			final var result = messageService.getMessageSlice(municipalityId, namespace, conversationId, null, pageable, true);
+
+			// Assert
+			assertThat(result.getContent()).extracting(Message::getId).containsExactly("id1");
+			assertThat(result.getNumber()).isZero();
+			assertThat(result.getSize()).isEqualTo(1);
+			assertThat(result.getHasNext()).isTrue();
+			verify(messageRepositoryMock).findReadByProjections(List.of("id1"));
+			verify(messageRepositoryMock).findReadByPartProjections(List.of("id1"));
+			verify(messageRepositoryMock).findAttachmentProjections(List.of("id1"));
+			verify(readReceiptBufferMock).add(List.of("id1"), "partyId", "da012da");
+			verify(messageRepositoryMock, never()).saveAll(any());
+		}
+	}
+
+	@Test
+	void getMessageSliceWithoutMatches() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var pageable = PageRequest.of(0, 1);
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageProjectionQueryExecutorMock.findSlice(ArgumentMatchers.any(), eq(pageable))).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+		// Act
+		final var result = messageService.getMessageSlice(municipalityId, namespace, conversationId, null, pageable, false);
+
+		// Assert
+		assertThat(result.getContent()).isEmpty();
+		assertThat(result.getHasNext()).isFalse();
+		verifyNoInteractions(messageRepositoryMock);
+	}
+
+	@Test
+	void getMessageWindowAfterSequence() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var projections = List.of(
+			projection("id1", 11L),
+			projection("id2", 12L),
+			projection("id3", 13L));
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageProjectionQueryExecutorMock.findFirst(ArgumentMatchers.any(), eq(Sort.by(ASC, "sequenceNumber")), eq(3))).thenReturn(projections);
+
+		// Act
+		final var result = messageService.getMessageWindow(municipalityId, namespace, conversationId, null, 10L, null, null, 2, false);
+
+		// Assert
+		assertThat(result.getContent()).extracting(Message::getId).containsExactly("id1", "id2");
+		assertThat(result.getLimit()).isEqualTo(2);
+		assertThat(result.getHasNext()).isTrue();
+		assertThat(result.getNextCursor()).isEqualTo(MessageCursor.after(12L).encode());
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
+		verify(messageRepositoryMock).findReadByProjections(List.of("id1", "id2"));
+		verify(messageRepositoryMock).findReadByPartProjections(List.of("id1", "id2"));
+		verify(messageRepositoryMock).findAttachmentProjections(List.of("id1", "id2"));
+		verify(messageRepositoryMock, never()).findBy(ArgumentMatchers.<Specification<MessageEntity>>any(), any());
+		verify(messageRepositoryMock, never()).saveAll(any());
+	}
+
+	@Test
+	void getMessageWindowWithCursorOnLastWindow() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var dept44Identifier = se.sundsvall.dept44.support.Identifier.create()
+			.withType(PARTY_ID)
+			.withValue("da012da");
+
+		try (final var mockedStatic = mockStatic(se.sundsvall.dept44.support.Identifier.class)) {
+			mockedStatic.when(se.sundsvall.dept44.support.Identifier::get).thenReturn(dept44Identifier);
+			when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+			when(messageProjectionQueryExecutorMock.findFirst(ArgumentMatchers.any(), eq(Sort.by(DESC, "sequenceNumber")), eq(11))).thenReturn(List.of(projection("id1", 1L)));
+
+			// Act
+			final var result = messageService.getMessageWindow(municipalityId, namespace, conversationId, null, null, null, MessageCursor.before(5L).encode(), 10, true);
+
+			// Assert
+			assertThat(result.getContent()).extracting(Message::getId).containsExactly("id1");
+			assertThat(result.getHasNext()).isFalse();
+			assertThat(result.getNextCursor()).isNull();
+			verify(readReceiptBufferMock).add(List.of("id1"), "partyId", "da012da");
+		}
+	}
+
+	@Test
+	void getMessageWindowWithBothAfterAndBeforeSequence() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+
+		// Act & Assert
+		assertThatThrownBy(() -> messageService.getMessageWindow(municipalityId, namespace, conversationId, null, 1L, 5L, null, 10, false))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Only one of afterSequence and beforeSequence can be provided")
+			.extracting("status").isEqualTo(BAD_REQUEST);
+		verifyNoInteractions(messageRepositoryMock);
 	}
 
 	@Test
@@ -273,27 +608,28 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var messageId = "messageId";
-		final var conversationEntity = new ConversationEntity();
 		final var messageEntity = new MessageEntity().withReadBy(new ArrayList<>());
 		final var request = MarkAsReadRequest.create()
 			.withMessageIds(List.of(messageId))
 			.withIdentifier(se.sundsvall.messageexchange.api.model.Identifier.create().withType("adAccount").withValue("joe01doe"));
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
 		when(messageRepositoryMock.findByConversationIdAndIdIn(conversationId, request.getMessageIds())).thenReturn(List.of(messageEntity));
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 
 		// Act
 		messageService.markMessagesAsRead(municipalityId, namespace, conversationId, request);
 
 		// Assert
-		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
 		verify(messageRepositoryMock).findByConversationIdAndIdIn(conversationId, request.getMessageIds());
 		verify(messageRepositoryMock).saveAll(List.of(messageEntity));
 		assertThat(messageEntity.getReadBy()).hasSize(1)
 			.extracting(rb -> rb.getIdentifier().getType(), rb -> rb.getIdentifier().getValue())
 			.containsExactly(Tuple.tuple("adAccount", "joe01doe"));
 		assertThat(messageEntity.getReadByPart()).isNullOrEmpty();
+		verify(conversationCountersMock).readBy(conversationId, MessageType.USER_CREATED, null, 1L);
+		verifyNoMoreInteractions(conversationCountersMock);
 	}
 
 	@Test
@@ -303,16 +639,15 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var messageId = "messageId";
-		final var conversationEntity = new ConversationEntity();
 		final var messageEntity = new MessageEntity()
 			.withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withType(null).withValue("joe01doe")))));
 		final var request = MarkAsReadRequest.create()
 			.withMessageIds(List.of(messageId))
 			.withIdentifier(se.sundsvall.messageexchange.api.model.Identifier.create().withType("adAccount").withValue("joe01doe"));
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
 		when(messageRepositoryMock.findByConversationIdAndIdIn(conversationId, request.getMessageIds())).thenReturn(List.of(messageEntity));
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 
 		// Act
 		messageService.markMessagesAsRead(municipalityId, namespace, conversationId, request);
@@ -331,14 +666,12 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var messageId = "messageId";
-		final var conversationEntity = new ConversationEntity();
 		final var messageEntity = new MessageEntity().withReadByPart(new ArrayList<>());
 		final var request = MarkAsReadRequest.create()
 			.withMessageIds(List.of(messageId))
 			.withPart("errand-123");
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
 		when(messageRepositoryMock.findByConversationIdAndIdIn(conversationId, request.getMessageIds())).thenReturn(List.of(messageEntity));
 
 		// Act
@@ -348,6 +681,8 @@ class MessageServiceTest {
 		verify(messageRepositoryMock).saveAll(List.of(messageEntity));
 		assertThat(messageEntity.getReadByPart()).hasSize(1).extracting(ReadByPartEntity::getPart).containsExactly("errand-123");
 		assertThat(messageEntity.getReadBy()).isNullOrEmpty();
+		verify(conversationCountersMock).readByPart(conversationId, MessageType.USER_CREATED, "errand-123", 1L);
+		verifyNoMoreInteractions(conversationCountersMock);
 	}
 
 	@Test
@@ -357,7 +692,6 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var messageId = "messageId";
-		final var conversationEntity = new ConversationEntity();
 		final var messageEntity = new MessageEntity()
 			.withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withType("adAccount").withValue("joe01doe")))))
 			.withReadByPart(new ArrayList<>(List.of(ReadByPartEntity.create().withPart("errand-123"))));
@@ -366,9 +700,9 @@ class MessageServiceTest {
 			.withIdentifier(se.sundsvall.messageexchange.api.model.Identifier.create().withType("adAccount").withValue("joe01doe"))
 			.withPart("errand-123");
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
 		when(messageRepositoryMock.findByConversationIdAndIdIn(conversationId, request.getMessageIds())).thenReturn(List.of(messageEntity));
+		when(identifierResolverMock.resolve(any(IdentifierEntity.class))).thenAnswer(returnsFirstArg());
 
 		// Act
 		messageService.markMessagesAsRead(municipalityId, namespace, conversationId, request);
@@ -377,6 +711,7 @@ class MessageServiceTest {
 		verify(messageRepositoryMock).saveAll(List.of(messageEntity));
 		assertThat(messageEntity.getReadBy()).hasSize(1);
 		assertThat(messageEntity.getReadByPart()).hasSize(1);
+		verifyNoInteractions(conversationCountersMock);
 	}
 
 	@Test
@@ -387,8 +722,7 @@ class MessageServiceTest {
 		final var conversationId = "conversationId";
 		final var request = MarkAsReadRequest.create().withMessageIds(List.of("messageId")).withPart("errand-123");
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.empty());
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(false);
 
 		// Act & Assert
 		assertThatThrownBy(() -> messageService.markMessagesAsRead(municipalityId, namespace, conversationId, request))
@@ -399,6 +733,69 @@ class MessageServiceTest {
 		verify(messageRepositoryMock, never()).saveAll(any());
 	}
 
+	@Test
+	void markMessagesAsReadUpToByIdentifierAndPart() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var request = MarkAsReadUpToRequest.create()
+			.withSequenceNumber(42L)
+			.withIdentifier(se.sundsvall.messageexchange.api.model.Identifier.create().withType("adAccount").withValue("joe01doe"))
+			.withPart("errand-123");
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(identifierResolverMock.resolveId("adAccount", "joe01doe")).thenReturn("identifierId");
+
+		// Act
+		messageService.markMessagesAsReadUpTo(municipalityId, namespace, conversationId, request);
+
+		// Assert
+		verify(readMarkerRepositoryMock).upsertReadMarker(eq(conversationId), eq("identifierId"), isNull(), eq(42L), any(LocalDateTime.class));
+		verify(readMarkerRepositoryMock).upsertReadMarker(eq(conversationId), isNull(), eq("errand-123"), eq(42L), any(LocalDateTime.class));
+		verifyNoInteractions(messageRepositoryMock);
+	}
+
+	@Test
+	void markMessagesAsReadUpToByPart() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var request = MarkAsReadUpToRequest.create()
+			.withSequenceNumber(7L)
+			.withPart("errand-123");
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+
+		// Act
+		messageService.markMessagesAsReadUpTo(municipalityId, namespace, conversationId, request);
+
+		// Assert
+		verify(readMarkerRepositoryMock).upsertReadMarker(eq(conversationId), isNull(), eq("errand-123"), eq(7L), any(LocalDateTime.class));
+		verify(readMarkerRepositoryMock, never()).upsertReadMarker(anyString(), anyString(), isNull(), anyLong(), any(LocalDateTime.class));
+		verifyNoInteractions(identifierResolverMock);
+	}
+
+	@Test
+	void markMessagesAsReadUpToConversationNotFound() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var request = MarkAsReadUpToRequest.create().withSequenceNumber(7L).withPart("errand-123");
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(false);
+
+		// Act & Assert
+		assertThatThrownBy(() -> messageService.markMessagesAsReadUpTo(municipalityId, namespace, conversationId, request))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("Conversation with id conversationId not found")
+			.extracting("status").isEqualTo(NOT_FOUND);
+
+		verifyNoInteractions(readMarkerRepositoryMock);
+	}
+
 	@Test
 	void deleteMessage() {
 		// Arrange
@@ -406,17 +803,65 @@ class MessageServiceTest {
 		final var namespace = "namespace";
 		final var conversationId = "conversationId";
 		final var messageId = "messageId";
-		final var conversationEntity = new ConversationEntity();
+		final var messageEntity = MessageEntity.create().withId(messageId);
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageRepositoryMock.findByIdAndConversationId(messageId, conversationId)).thenReturn(Optional.of(messageEntity));
+
+		// Act
+		messageService.deleteMessage(municipalityId, namespace, conversationId, messageId);
+
+		// Assert
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
+		final var inOrder = inOrder(conversationCountersMock, messageRepositoryMock);
+		inOrder.verify(messageRepositoryMock).findByIdAndConversationId(messageId, conversationId);
+		inOrder.verify(conversationCountersMock).messageDeleted(messageEntity);
+		inOrder.verify(messageRepositoryMock).delete(messageEntity);
+		verifyNoInteractions(attachmentDataResolverMock);
+	}
+
+	@Test
+	void deleteMessageInOtherConversation() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var messageId = "messageId";
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageRepositoryMock.findByIdAndConversationId(messageId, conversationId)).thenReturn(Optional.empty());
+
+		// Act
+		messageService.deleteMessage(municipalityId, namespace, conversationId, messageId);
+
+		// Assert
+		verify(messageRepositoryMock).findByIdAndConversationId(messageId, conversationId);
+		verifyNoMoreInteractions(messageRepositoryMock);
+		verifyNoInteractions(conversationCountersMock, attachmentDataResolverMock);
+	}
+
+	@Test
+	void deleteMessageWithAttachments() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var namespace = "namespace";
+		final var conversationId = "conversationId";
+		final var messageId = "messageId";
+		final var messageEntity = MessageEntity.create().withId(messageId).withAttachments(List.of(
+			AttachmentEntity.create().withAttachmentData(AttachmentDataEntity.create().withId("attachmentDataId1")),
+			AttachmentEntity.create().withAttachmentData(AttachmentDataEntity.create().withId("attachmentDataId2"))));
+
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
+		when(messageRepositoryMock.findByIdAndConversationId(messageId, conversationId)).thenReturn(Optional.of(messageEntity));
 
 		// Act
 		messageService.deleteMessage(municipalityId, namespace, conversationId, messageId);
 
 		// Assert
-		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
-		verify(messageRepositoryMock).deleteById(messageId);
+		final var inOrder = inOrder(messageRepositoryMock, attachmentDataResolverMock);
+		inOrder.verify(messageRepositoryMock).delete(messageEntity);
+		inOrder.verify(messageRepositoryMock).flush();
+		inOrder.verify(attachmentDataResolverMock).release(List.of("attachmentDataId1", "attachmentDataId2"));
 	}
 
 	@Test
@@ -427,8 +872,7 @@ class MessageServiceTest {
 		final var conversationId = "conversationId";
 		final var messageId = "messageId";
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.empty());
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(false);
 
 		// Act & Assert
 		assertThatThrownBy(() -> messageService.deleteMessage(municipalityId, namespace, conversationId, messageId))
@@ -446,7 +890,6 @@ class MessageServiceTest {
 		final var messageId = "messageId";
 		final var attachmentId = "attachmentId";
 
-		final var conversationEntity = new ConversationEntity();
 		final var attachmentEntity = AttachmentEntity.create()
 			.withId(attachmentId)
 			.withFileSize(100)
@@ -456,17 +899,17 @@ class MessageServiceTest {
 		final byte[] fileContent = "file content".getBytes();
 		final ByteArrayInputStream inputStream = new ByteArrayInputStream(fileContent);
 
-		when(conversationRepositoryMock.findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId))
-			.thenReturn(Optional.of(conversationEntity));
+		when(conversationExistenceCacheMock.exists(namespace, municipalityId, conversationId)).thenReturn(true);
 		when(httpServletResponseMock.getOutputStream()).thenReturn(servletOutputStreamMock);
 		when(blobMock.getBinaryStream()).thenReturn(inputStream);
 		when(attachmentRepositoryMock.findByIdAndMessageEntityId(attachmentId, messageId)).thenReturn(Optional.of(attachmentEntity));
+		when(attachmentStoresMock.forAttachmentData(attachmentEntity.getAttachmentData())).thenReturn(new DatabaseAttachmentStore(null));
 
 		// Act
-		messageService.readErrandAttachment(namespace, municipalityId, conversationId, messageId, attachmentId, httpServletResponseMock);
+		messageService.readErrandAttachment(namespace, municipalityId, conversationId, messageId, attachmentId, httpServletRequestMock, httpServletResponseMock);
 
 		// Assert
-		verify(conversationRepositoryMock).findByNamespaceAndMunicipalityIdAndId(namespace, municipalityId, conversationId);
+		verify(conversationExistenceCacheMock).exists(namespace, municipalityId, conversationId);
 		verify(attachmentRepositoryMock).findByIdAndMessageEntityId(attachmentId, messageId);
 	}
 
@@ -477,17 +920,19 @@ class MessageServiceTest {
 
 		when(httpServletResponseMock.getOutputStream()).thenReturn(servletOutputStreamMock);
 		when(attachmentMock.getAttachmentData()).thenReturn(attachmentDataEntityMock);
+		when(attachmentStoresMock.forAttachmentData(attachmentDataEntityMock)).thenReturn(new DatabaseAttachmentStore(null));
 		when(attachmentDataEntityMock.getFile()).thenReturn(blobMock);
 		when(blobMock.getBinaryStream()).thenReturn(inputStream);
 		when(attachmentMock.getMimeType()).thenReturn("application/pdf");
 		when(attachmentMock.getFileName()).thenReturn("test.pdf");
 		when(attachmentMock.getFileSize()).thenReturn(fileContent.length);
 
-		messageService.streamAttachmentData(attachmentMock, httpServletResponseMock);
+		messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock);
 
 		verify(httpServletResponseMock).addHeader(CONTENT_TYPE, "application/pdf");
 		verify(httpServletResponseMock).addHeader(CONTENT_DISPOSITION, "attachment; filename=\"test.pdf\"");
-		verify(httpServletResponseMock).setContentLength(fileContent.length);
+		verify(httpServletResponseMock).setContentLengthLong(fileContent.length);
+		verify(httpServletResponseMock).setHeader(CACHE_CONTROL, "max-age=31536000, immutable");
 		verify(servletOutputStreamMock).write(any(byte[].class), eq(0), eq(fileContent.length));
 	}
 
@@ -495,13 +940,89 @@ class MessageServiceTest {
 	void streamAttachmentDataThrowsSQLException() throws SQLException {
 		final byte[] fileContent = "file content".getBytes();
 		when(attachmentMock.getAttachmentData()).thenReturn(attachmentDataEntityMock);
+		when(attachmentStoresMock.forAttachmentData(attachmentDataEntityMock)).thenReturn(new DatabaseAttachmentStore(null));
 		when(attachmentDataEntityMock.getFile()).thenReturn(blobMock);
 		when(blobMock.getBinaryStream()).thenThrow(new SQLException("Test SQLException"));
 		when(attachmentMock.getFileSize()).thenReturn(fileContent.length);
 
-		assertThatThrownBy(() -> messageService.streamAttachmentData(attachmentMock, httpServletResponseMock))
+		assertThatThrownBy(() -> messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock))
 			.isInstanceOf(Problem.class)
-			.hasMessageContaining("SQLException occurred when copying file with attachment id");
+			.hasMessageContaining("IOException occurred when copying file with attachment id");
+
+		verify(httpServletResponseMock, never()).addHeader(eq(CONTENT_TYPE), anyString());
+	}
+
+	@Test
+	void streamAttachmentDataFromOtherStore() throws IOException {
+		final byte[] fileContent = "file content".getBytes();
+		when(httpServletResponseMock.getOutputStream()).thenReturn(servletOutputStreamMock);
+		when(attachmentMock.getAttachmentData()).thenReturn(attachmentDataEntityMock);
+		when(attachmentStoresMock.forAttachmentData(attachmentDataEntityMock)).thenReturn(attachmentStoreMock);
+		when(attachmentStoreMock.file(attachmentDataEntityMock)).thenReturn(Optional.empty());
+		when(attachmentStoreMock.read(attachmentDataEntityMock)).thenReturn(new ByteArrayInputStream(fileContent));
+		when(attachmentMock.getMimeType()).thenReturn("application/pdf");
+		when(attachmentMock.getFileName()).thenReturn("test.pdf");
+		when(attachmentMock.getFileSize()).thenReturn(fileContent.length);
+
+		messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock);
+
+		verify(httpServletResponseMock).setContentLengthLong(fileContent.length);
+		verify(servletOutputStreamMock).write(any(byte[].class), eq(0), eq(fileContent.length));
+		verifyNoInteractions(blobMock);
+	}
+
+	@Test
+	void streamAttachmentDataFromFile(@TempDir final Path directory) throws IOException {
+		final byte[] fileContent = "file content".getBytes();
+		final var file = Files.write(directory.resolve("file"), fileContent);
+		when(httpServletResponseMock.getOutputStream()).thenReturn(servletOutputStreamMock);
+		when(attachmentMock.getAttachmentData()).thenReturn(attachmentDataEntityMock);
+		when(attachmentStoresMock.forAttachmentData(attachmentDataEntityMock)).thenReturn(attachmentStoreMock);
+		when(attachmentStoreMock.file(attachmentDataEntityMock)).thenReturn(Optional.of(file));
+		when(attachmentMock.getMimeType()).thenReturn("application/pdf");
+		when(attachmentMock.getFileName()).thenReturn("test.pdf");
+		when(attachmentMock.getFileSize()).thenReturn(fileContent.length);
+
+		messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock);
+
+		verify(httpServletResponseMock).addHeader(CONTENT_TYPE, "application/pdf");
+		verify(httpServletResponseMock).setContentLengthLong(fileContent.length);
+		verify(servletOutputStreamMock).write(any(byte[].class), eq(0), eq(fileContent.length));
+		verify(attachmentStoreMock, never()).read(any());
+	}
+
+	@Test
+	void streamAttachmentDataFromFileWithSendfile(@TempDir final Path directory) throws IOException {
+		final var fileContent = new byte[(int) FileTransfer.SENDFILE_THRESHOLD];
+		final var file = Files.write(directory.resolve("file"), fileContent);
+		when(httpServletRequestMock.getAttribute("org.apache.tomcat.sendfile.support")).thenReturn(true);
+		when(attachmentMock.getAttachmentData()).thenReturn(attachmentDataEntityMock);
+		when(attachmentStoresMock.forAttachmentData(attachmentDataEntityMock)).thenReturn(attachmentStoreMock);
+		when(attachmentStoreMock.file(attachmentDataEntityMock)).thenReturn(Optional.of(file));
+		when(attachmentMock.getMimeType()).thenReturn("application/pdf");
+		when(attachmentMock.getFileName()).thenReturn("test.pdf");
+		when(attachmentMock.getFileSize()).thenReturn(fileContent.length);
+
+		messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock);
+
+		// The content is written by the container, after the request has been handled
+		verify(httpServletResponseMock).setContentLengthLong(fileContent.length);
+		verify(httpServletRequestMock).setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+		verify(httpServletRequestMock).setAttribute("org.apache.tomcat.sendfile.start", 0L);
+		verify(httpServletRequestMock).setAttribute("org.apache.tomcat.sendfile.end", (long) fileContent.length);
+		verify(httpServletResponseMock, never()).getOutputStream();
+	}
+
+	@Test
+	void streamAttachmentDataFromMissingFile(@TempDir final Path directory) {
+		when(attachmentMock.getAttachmentData()).thenReturn(attachmentDataEntityMock);
+		when(attachmentStoresMock.forAttachmentData(attachmentDataEntityMock)).thenReturn(attachmentStoreMock);
+		when(attachmentStoreMock.file(attachmentDataEntityMock)).thenReturn(Optional.of(directory.resolve("missing")));
+		when(attachmentMock.getFileSize()).thenReturn(10);
+
+		assertThatThrownBy(() -> messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock))
+			.isInstanceOf(Problem.class)
+			.hasMessageContaining("NoSuchFileException occurred when copying file with attachment id");
 
 		verify(httpServletResponseMock, never()).addHeader(eq(CONTENT_TYPE), anyString());
 	}
@@ -510,50 +1031,235 @@ class MessageServiceTest {
 	void streamAttachmentDataFileSizeZero() {
 		when(attachmentMock.getFileSize()).thenReturn(0);
 
-		assertThatThrownBy(() -> messageService.streamAttachmentData(attachmentMock, httpServletResponseMock))
+		assertThatThrownBy(() -> messageService.streamAttachmentData(attachmentMock, httpServletRequestMock, httpServletResponseMock))
 			.isInstanceOf(Problem.class)
 			.hasMessageContaining("Attachment with id '%s' has no data".formatted(attachmentMock.getId()));
 
 		verify(httpServletResponseMock, never()).addHeader(eq(CONTENT_TYPE), anyString());
 		verify(httpServletResponseMock, never()).addHeader(eq(CONTENT_DISPOSITION), anyString());
-		verify(httpServletResponseMock, never()).setContentLength(anyInt());
+		verify(httpServletResponseMock, never()).setContentLengthLong(anyLong());
+	}
+
+	@Test
+	void streamAttachmentDataRange() throws SQLException {
+		final var attachment = attachmentStoredInDatabase("file content");
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(RANGE, "bytes=2-5");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(PARTIAL_CONTENT.value());
+		assertThat(response.getHeader(ACCEPT_RANGES)).isEqualTo("bytes");
+		assertThat(response.getHeader(ETAG)).isEqualTo("\"" + HASH + "\"");
+		assertThat(response.getHeader(CONTENT_RANGE)).isEqualTo("bytes 2-5/12");
+		assertThat(response.getContentLengthLong()).isEqualTo(4);
+		assertThat(response.getContentAsString()).isEqualTo("le c");
+	}
+
+	@Test
+	void streamAttachmentDataMultipleRanges() throws Exception {
+		final var attachment = attachmentStoredInDatabase("file content");
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(RANGE, "bytes=8-, 0-1, 1-3");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(PARTIAL_CONTENT.value());
+		assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+		final var boundary = response.getContentType().substring("multipart/byteranges; boundary=".length());
+		assertThat(response.getContentAsString()).isEqualTo(("\r\n--%1$s\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-3/12\r\n\r\nfile"
+			+ "\r\n--%1$s\r\nContent-Type: text/plain\r\nContent-Range: bytes 8-11/12\r\n\r\ntent"
+			+ "\r\n--%1$s--\r\n").formatted(boundary));
+		assertThat(response.getContentLengthLong()).isEqualTo(response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void streamAttachmentDataRangeFromFile(@TempDir final Path directory) throws IOException {
+		final var store = new FileSystemAttachmentStore(new AttachmentStoreProperties(DATABASE, Map.of(), new AttachmentStoreProperties.FileSystem(directory, 2), null));
+		final var attachment = AttachmentEntity.create()
+			.withFileSize(12)
+			.withHash(HASH)
+			.withMimeType("text/plain")
+			.withAttachmentData(AttachmentDataEntity.create().withHash(HASH));
+		store.write(attachment.getAttachmentData(), new ByteArrayInputStream("file content".getBytes()), 12);
+		when(attachmentStoresMock.forAttachmentData(attachment.getAttachmentData())).thenReturn(store);
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(RANGE, "bytes=-7");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(PARTIAL_CONTENT.value());
+		assertThat(response.getHeader(CONTENT_RANGE)).isEqualTo("bytes 5-11/12");
+		assertThat(response.getContentAsString()).isEqualTo("content");
+	}
+
+	@Test
+	void streamAttachmentDataRangeWithMatchingIfRange() throws SQLException {
+		final var attachment = attachmentStoredInDatabase("file content");
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(RANGE, "bytes=5-");
+		request.addHeader(IF_RANGE, "\"" + HASH + "\"");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(PARTIAL_CONTENT.value());
+		assertThat(response.getContentAsString()).isEqualTo("content");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"\"otherHash\"", "W/\"9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08\"", "Wed, 21 Oct 2015 07:28:00 GMT"
+	})
+	void streamAttachmentDataRangeWithOtherIfRange(final String ifRange) throws SQLException {
+		final var attachment = attachmentStoredInDatabase("file content");
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(RANGE, "bytes=5-");
+		request.addHeader(IF_RANGE, ifRange);
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		// The representation has changed, or is not validated strongly, so the whole content is sent
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(CONTENT_RANGE)).isNull();
+		assertThat(response.getContentAsString()).isEqualTo("file content");
+	}
+
+	@Test
+	void streamAttachmentDataUnsatisfiableRange() throws SQLException {
+		final var attachment = attachmentStoredInDatabase("file content");
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(RANGE, "bytes=12-");
+
+		assertThatThrownBy(() -> messageService.streamAttachmentData(attachment, request, response))
+			.isInstanceOf(Problem.class)
+			.extracting("status").isEqualTo(REQUESTED_RANGE_NOT_SATISFIABLE);
+
+		assertThat(response.getHeader(CONTENT_RANGE)).isEqualTo("bytes */12");
+		verifyNoInteractions(attachmentStoresMock);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"\"" + HASH + "\"", "W/\"" + HASH + "\"", "\"other\", \"" + HASH + "\"", "*"
+	})
+	void streamAttachmentDataNotModified(final String ifNoneMatch) {
+		final var attachment = AttachmentEntity.create()
+			.withId("attachmentId")
+			.withFileSize(12)
+			.withHash(HASH)
+			.withAttachmentData(attachmentDataEntityMock);
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(IF_NONE_MATCH, ifNoneMatch);
+		request.addHeader(RANGE, "bytes=0-1");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(NOT_MODIFIED.value());
+		assertThat(response.getHeader(ETAG)).isEqualTo("\"" + HASH + "\"");
+		assertThat(response.getHeader(CACHE_CONTROL)).isEqualTo("max-age=31536000, immutable");
+		assertThat(response.getContentAsByteArray()).isEmpty();
+		verifyNoInteractions(attachmentDataEntityMock, attachmentStoresMock);
+	}
+
+	@Test
+	void streamAttachmentDataModified() throws SQLException {
+		final var attachment = attachmentStoredInDatabase("file content");
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(IF_NONE_MATCH, "\"other\"");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(ETAG)).isEqualTo("\"" + HASH + "\"");
+		assertThat(response.getHeader(CACHE_CONTROL)).isEqualTo("max-age=31536000, immutable");
+		assertThat(response.getContentAsString()).isEqualTo("file content");
+	}
+
+	@Test
+	void streamAttachmentDataWithoutHashIsNeverNotModified() throws SQLException {
+		final var attachment = attachmentStoredInDatabase("file content").withHash(null);
+		final var request = new MockHttpServletRequest();
+		final var response = new MockHttpServletResponse();
+		request.addHeader(IF_NONE_MATCH, "*");
+
+		messageService.streamAttachmentData(attachment, request, response);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(ETAG)).isNull();
+		assertThat(response.getContentAsString()).isEqualTo("file content");
+	}
+
+	@Test
+	void matchesAny() {
+		final var entityTag = "\"" + HASH + "\"";
+
+		assertThat(MessageService.matchesAny(null, entityTag)).isFalse();
+		assertThat(MessageService.matchesAny("", entityTag)).isFalse();
+		assertThat(MessageService.matchesAny("\"other\"", entityTag)).isFalse();
+		assertThat(MessageService.matchesAny(HASH, entityTag)).isFalse();
+		assertThat(MessageService.matchesAny(entityTag, entityTag)).isTrue();
+		assertThat(MessageService.matchesAny("W/" + entityTag, entityTag)).isTrue();
+		assertThat(MessageService.matchesAny("\"other\",W/" + entityTag, entityTag)).isTrue();
+		assertThat(MessageService.matchesAny("*", entityTag)).isTrue();
+	}
+
+	private static MessageProjection projection(final String id, final long sequenceNumber) {
+		return new MessageProjection(id, sequenceNumber, null, OffsetDateTime.now(), "adAccount", "joe01doe", "content", MessageType.USER_CREATED);
+	}
+
+	private AttachmentEntity attachmentStoredInDatabase(final String content) throws SQLException {
+		final var attachment = AttachmentEntity.create()
+			.withId("attachmentId")
+			.withFileName("file.txt")
+			.withFileSize(content.length())
+			.withHash(HASH)
+			.withMimeType("text/plain")
+			.withAttachmentData(AttachmentDataEntity.create().withFile(new SerialBlob(content.getBytes())));
+		lenient().when(attachmentStoresMock.forAttachmentData(attachment.getAttachmentData())).thenReturn(new DatabaseAttachmentStore(null));
+		return attachment;
 	}
 
 	@Test
-	void updateReadByAddsReadByEntity() {
+	void updateReadByAddsReceiptsToBuffer() {
 		// Arrange
 		final var identifier = Identifier.create().withValue("testIdentifier").withType(PARTY_ID);
-
-		final var messageEntity = new MessageEntity().withReadBy(new ArrayList<>(List.of(ReadByEntity.create().withIdentifier(IdentifierEntity.create().withType("adAccount").withValue("existingIdentifier")))));
-		final var messagePage = new PageImpl<>(List.of(messageEntity));
+		final var messageIds = List.of("id1", "id2");
 
 		try (final var mockedStatic = mockStatic(Identifier.class)) {
 			mockedStatic.when(Identifier::get).thenReturn(identifier);
 
 			// Act
-			messageService.updateReadBy(messagePage);
+			messageService.updateReadBy(messageIds);
 
 			// Assert
-			assertThat(messageEntity.getReadBy()).isNotNull();
-			assertThat(messageEntity.getReadBy()).hasSize(2);
-			assertThat(messageEntity.getReadBy().getFirst().getIdentifier().getValue()).isEqualTo("existingIdentifier");
-			assertThat(messageEntity.getReadBy().getFirst().getIdentifier().getType()).isEqualTo("adAccount");
-			assertThat(messageEntity.getReadBy().getLast().getIdentifier().getValue()).isEqualTo("testIdentifier");
-			assertThat(messageEntity.getReadBy().getLast().getIdentifier().getType()).isEqualTo("partyId");
+			verify(readReceiptBufferMock).add(messageIds, "partyId", "testIdentifier");
 		}
 	}
 
 	@Test
-	void updateReadByDoesNothingForEmptyPage() {
-		// Arrange
-		final var emptyPage = new PageImpl<MessageEntity>(List.of());
+	void updateReadByWithoutIdentifier() {
+		// Act
+		messageService.updateReadBy(List.of("id1"));
 
+		// Assert
+		verifyNoInteractions(readReceiptBufferMock);
+	}
+
+	@Test
+	void updateReadByDoesNothingForEmptyPage() {
 		// Act
-		messageService.updateReadBy(emptyPage);
+		messageService.updateReadBy(List.of());
 
 		// Assert
-		// No exception should be thrown, and no changes should occur
-		assertThat(emptyPage.getContent()).isEmpty();
+		verifyNoInteractions(readReceiptBufferMock);
 	}
 
 }
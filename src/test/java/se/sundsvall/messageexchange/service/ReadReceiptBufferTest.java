@@ -0,0 +1,152 @@
+package se.sundsvall.messageexchange.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReceiptBufferTest {
+
+	@Mock
+	private ReadReceiptWriter readReceiptWriterMock;
+
+	@Captor
+	private ArgumentCaptor<Collection<String>> messageIdsCaptor;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void addCoalescesDuplicateReceipts() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 100, 100);
+
+		// Act
+		buffer.add(List.of("id1", "id2"), "adAccount", "joe01doe");
+		buffer.add(List.of("id2", "id3"), "adAccount", "joe01doe");
+
+		// Assert
+		assertThat(buffer.getDepth()).isEqualTo(3);
+		assertThat(meterRegistry.get("message.read.receipt.buffer.depth").gauge().value()).isEqualTo(3);
+		verifyNoInteractions(readReceiptWriterMock);
+	}
+
+	@Test
+	void flushWritesOneBatchPerIdentifier() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 100, 100);
+		buffer.add(List.of("id1", "id2"), "adAccount", "joe01doe");
+		buffer.add(List.of("id1"), "partyId", "party");
+
+		// Act
+		buffer.flush();
+
+		// Assert
+		verify(readReceiptWriterMock).write(messageIdsCaptor.capture(), eq("adAccount"), eq("joe01doe"), any(LocalDateTime.class));
+		assertThat(messageIdsCaptor.getValue()).containsExactlyInAnyOrder("id1", "id2");
+		verify(readReceiptWriterMock).write(eq(List.of("id1")), eq("partyId"), eq("party"), any(LocalDateTime.class));
+		assertThat(buffer.getDepth()).isZero();
+		assertThat(meterRegistry.get("message.read.receipt.buffer.flush").timer().count()).isOne();
+	}
+
+	@Test
+	void flushOnEmptyBufferDoesNothing() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 100, 100);
+
+		// Act
+		buffer.flush();
+
+		// Assert
+		verifyNoInteractions(readReceiptWriterMock);
+	}
+
+	@Test
+	void addFlushesWhenThresholdIsReached() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 100, 2);
+
+		// Act
+		buffer.add(List.of("id1", "id2"), "adAccount", "joe01doe");
+
+		// Assert
+		verify(readReceiptWriterMock).write(messageIdsCaptor.capture(), eq("adAccount"), eq("joe01doe"), any(LocalDateTime.class));
+		assertThat(messageIdsCaptor.getValue()).containsExactlyInAnyOrder("id1", "id2");
+		assertThat(buffer.getDepth()).isZero();
+	}
+
+	@Test
+	void addWritesDirectlyWhenBufferIsFull() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 1, 100);
+
+		// Act
+		buffer.add(List.of("id1", "id2"), "adAccount", "joe01doe");
+
+		// Assert
+		verify(readReceiptWriterMock).write(eq(List.of("id2")), eq("adAccount"), eq("joe01doe"), any(LocalDateTime.class));
+		assertThat(buffer.getDepth()).isOne();
+	}
+
+	@Test
+	void addWritesDirectlyWhenDisabled() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, false, 100, 100);
+
+		// Act
+		buffer.add(List.of("id1"), "adAccount", "joe01doe");
+
+		// Assert
+		verify(readReceiptWriterMock).write(eq(List.of("id1")), eq("adAccount"), eq("joe01doe"), any(LocalDateTime.class));
+		assertThat(buffer.getDepth()).isZero();
+	}
+
+	@Test
+	void flushCountsFailedReceipts() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 100, 100);
+		buffer.add(List.of("id1", "id2"), "adAccount", "joe01doe");
+		doThrow(new IllegalStateException("failure")).when(readReceiptWriterMock).write(anyCollection(), eq("adAccount"), eq("joe01doe"), any(LocalDateTime.class));
+
+		// Act
+		buffer.flush();
+
+		// Assert
+		assertThat(buffer.getDepth()).isZero();
+		assertThat(meterRegistry.get("message.read.receipt.buffer.failed").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void flushOnShutdown() {
+		// Arrange
+		final var buffer = new ReadReceiptBuffer(readReceiptWriterMock, meterRegistry, true, 100, 100);
+		buffer.add(List.of("id1"), "adAccount", "joe01doe");
+
+		// Act
+		buffer.flushOnShutdown();
+
+		// Assert
+		verify(readReceiptWriterMock).write(eq(List.of("id1")), eq("adAccount"), eq("joe01doe"), any(LocalDateTime.class));
+		assertThat(buffer.getDepth()).isZero();
+	}
+}
@@ -0,0 +1,64 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messageexchange.integration.db.ConversationCounterRepository;
+import se.sundsvall.messageexchange.integration.db.MessageRepository;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReceiptWriterTest {
+
+	@Mock
+	private MessageRepository messageRepositoryMock;
+
+	@Mock
+	private IdentifierResolver identifierResolverMock;
+
+	@Mock
+	private ConversationCounterRepository conversationCounterRepositoryMock;
+
+	@InjectMocks
+	private ReadReceiptWriter readReceiptWriter;
+
+	@Test
+	void write() {
+		// Arrange
+		final var messageIds = List.of("id1", "id2");
+		final var readAt = LocalDateTime.now();
+		when(identifierResolverMock.resolveId("adAccount", "joe01doe")).thenReturn("identifierId");
+		when(messageRepositoryMock.insertMissingReadBy(messageIds, "identifierId", readAt)).thenReturn(List.of("id2"));
+
+		// Act
+		readReceiptWriter.write(messageIds, "adAccount", "joe01doe", readAt);
+
+		// Assert
+		final var inOrder = inOrder(identifierResolverMock, messageRepositoryMock, conversationCounterRepositoryMock);
+		inOrder.verify(identifierResolverMock).resolveId("adAccount", "joe01doe");
+		inOrder.verify(messageRepositoryMock).insertMissingReadBy(messageIds, "identifierId", readAt);
+		inOrder.verify(conversationCounterRepositoryMock).incrementReadBy(List.of("id2"), "identifierId");
+	}
+
+	@Test
+	void writeWhenAllMessagesAreAlreadyRead() {
+		// Arrange
+		final var messageIds = List.of("id1", "id2");
+		final var readAt = LocalDateTime.now();
+		when(identifierResolverMock.resolveId("adAccount", "joe01doe")).thenReturn("identifierId");
+		when(messageRepositoryMock.insertMissingReadBy(messageIds, "identifierId", readAt)).thenReturn(List.of());
+
+		// Act
+		readReceiptWriter.write(messageIds, "adAccount", "joe01doe", readAt);
+
+		// Assert
+		verifyNoInteractions(conversationCounterRepositoryMock);
+	}
+}
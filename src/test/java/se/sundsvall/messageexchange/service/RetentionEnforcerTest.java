@@ -0,0 +1,134 @@
+package se.sundsvall.messageexchange.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.sundsvall.messageexchange.configuration.RetentionProperties;
+import se.sundsvall.messageexchange.integration.db.ConversationPurgeRepository;
+import se.sundsvall.messageexchange.integration.db.ConversationRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionEnforcerTest {
+
+	private static final int BATCH_SIZE = 2;
+	private static final String NAMESPACE = "NAMESPACE";
+
+	@Mock
+	private ConversationRepository conversationRepositoryMock;
+
+	@Mock
+	private ConversationPurgeRepository conversationPurgeRepositoryMock;
+
+	@Mock
+	private ConversationPurger conversationPurgerMock;
+
+	@Mock
+	private ConversationCounters conversationCountersMock;
+
+	@Mock
+	private ConversationExistenceCache conversationExistenceCacheMock;
+
+	@Mock
+	private PlatformTransactionManager transactionManagerMock;
+
+	@Captor
+	private ArgumentCaptor<OffsetDateTime> createdBeforeCaptor;
+
+	@Test
+	void enforce() {
+		// Arrange
+		final var retentionEnforcer = retentionEnforcer(Map.of(NAMESPACE, Period.ofYears(1)));
+		when(conversationRepositoryMock.markInactiveDeleted(eq(NAMESPACE), createdBeforeCaptor.capture(), any())).thenReturn(1);
+		when(conversationRepositoryMock.findIdsByNamespaceAfter(NAMESPACE, "", PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of("conversationId1", "conversationId2"));
+		when(conversationRepositoryMock.findIdsByNamespaceAfter(NAMESPACE, "conversationId2", PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of());
+		when(conversationPurgeRepositoryMock.findMessageIdsCreatedBefore(eq("conversationId1"), any(), eq(BATCH_SIZE)))
+			.thenReturn(List.of("messageId1", "messageId2"), List.of("messageId3"));
+		when(conversationPurgeRepositoryMock.findMessageIdsCreatedBefore(eq("conversationId2"), any(), eq(BATCH_SIZE))).thenReturn(List.of());
+		when(conversationPurgerMock.deleteMessages(List.of("messageId1", "messageId2"))).thenReturn(1);
+		when(conversationPurgerMock.deleteMessages(List.of("messageId3"))).thenReturn(0);
+
+		// Act
+		final var result = retentionEnforcer.enforce();
+
+		// Assert
+		assertThat(result.conversations()).isOne();
+		assertThat(result.messages()).isEqualTo(3);
+		assertThat(result.attachments()).isOne();
+		assertThat(createdBeforeCaptor.getValue()).isCloseTo(OffsetDateTime.now().minusYears(1), within(Duration.ofMinutes(1)));
+		verify(conversationExistenceCacheMock).evictNamespace(NAMESPACE);
+		verify(conversationCountersMock).rebuild("conversationId1");
+		verify(conversationCountersMock, never()).rebuild("conversationId2");
+	}
+
+	@Test
+	void enforceWhenNamespaceFails() {
+		// Arrange
+		final var retentionEnforcer = retentionEnforcer(Map.of("A", Period.ofDays(30), "B", Period.ofDays(30)));
+		when(conversationRepositoryMock.markInactiveDeleted(eq("A"), any(), any())).thenThrow(new IllegalStateException("Failure"));
+		when(conversationRepositoryMock.markInactiveDeleted(eq("B"), any(), any())).thenReturn(2);
+		when(conversationRepositoryMock.findIdsByNamespaceAfter("B", "", PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of());
+
+		// Act
+		final var result = retentionEnforcer.enforce();
+
+		// Assert
+		assertThat(result.conversations()).isEqualTo(2);
+		assertThat(result.messages()).isZero();
+		verify(conversationRepositoryMock, never()).findIdsByNamespaceAfter(eq("A"), any(), any());
+		verify(conversationExistenceCacheMock, never()).evictNamespace("A");
+		verify(conversationExistenceCacheMock).evictNamespace("B");
+	}
+
+	@Test
+	void enforceWithoutInactiveConversations() {
+		// Arrange
+		final var retentionEnforcer = retentionEnforcer(Map.of(NAMESPACE, Period.ofYears(1)));
+		when(conversationRepositoryMock.markInactiveDeleted(eq(NAMESPACE), any(), any())).thenReturn(0);
+		when(conversationRepositoryMock.findIdsByNamespaceAfter(NAMESPACE, "", PageRequest.ofSize(BATCH_SIZE))).thenReturn(List.of());
+
+		// Act
+		final var result = retentionEnforcer.enforce();
+
+		// Assert
+		assertThat(result.conversations()).isZero();
+		verify(conversationExistenceCacheMock, never()).evictNamespace(any());
+	}
+
+	@Test
+	void enforceWithoutPolicies() {
+		// Arrange
+		final var retentionEnforcer = retentionEnforcer(null);
+
+		// Act
+		final var result = retentionEnforcer.enforce();
+
+		// Assert
+		assertThat(result.conversations()).isZero();
+		assertThat(result.messages()).isZero();
+		verify(conversationRepositoryMock, never()).markInactiveDeleted(any(), any(), any());
+	}
+
+	private RetentionEnforcer retentionEnforcer(final Map<String, Period> namespaces) {
+		final var properties = new RetentionProperties(BATCH_SIZE, Duration.ofMillis(1), namespaces);
+		return new RetentionEnforcer(properties, conversationRepositoryMock, conversationPurgeRepositoryMock, conversationPurgerMock, conversationCountersMock,
+			conversationExistenceCacheMock, transactionManagerMock);
+	}
+}
@@ -3,19 +3,42 @@ package se.sundsvall.messageexchange.service.mapper;
 import jakarta.persistence.EntityManager;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.sql.Blob;
 import java.time.OffsetDateTime;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import org.hibernate.LobHelper;
 import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.messageexchange.configuration.AttachmentStoreProperties;
+import se.sundsvall.messageexchange.integration.db.model.AttachmentDataEntity;
 import se.sundsvall.messageexchange.integration.db.model.AttachmentEntity;
 import se.sundsvall.messageexchange.integration.db.model.MessageEntity;
+import se.sundsvall.messageexchange.integration.store.AttachmentStore;
+import se.sundsvall.messageexchange.integration.store.DatabaseAttachmentStore;
+import se.sundsvall.messageexchange.integration.store.FileSystemAttachmentStore;
+import se.sundsvall.messageexchange.service.AttachmentDataResolver;
+import se.sundsvall.messageexchange.service.AttachmentDataResolver.Content;
 
 import static java.time.OffsetDateTime.now;
 import static java.time.temporal.ChronoUnit.SECONDS;
@@ -24,11 +47,23 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
+import static se.sundsvall.messageexchange.integration.db.model.StorageType.DATABASE;
+import static se.sundsvall.messageexchange.util.ServiceUtil.MIME_TYPE_DETECTION_LENGTH;
 
 @ExtendWith(MockitoExtension.class)
 class AttachmentMapperTest {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentMapperTest.class);
+
 	private static final String ATTACHMENT_ID = "attachmentId";
 
 	private static final String FILE_NAME = "fileName";
@@ -52,6 +87,23 @@ class AttachmentMapperTest {
 	@Mock
 	private Blob blobMock;
 
+	@Mock
+	private AttachmentDataResolver attachmentDataResolverMock;
+
+	@Mock
+	private AttachmentStore attachmentStoreMock;
+
+	@TempDir
+	private Path stagingDirectory;
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(STATUS_COMMITTED));
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
 	@Test
 	void toAttachmentEntity() throws IOException {
 
@@ -63,12 +115,11 @@ class AttachmentMapperTest {
 		when(sessionMock.getLobHelper()).thenReturn(lobHelperMock);
 		when(lobHelperMock.createBlob(any(), anyLong())).thenReturn(blobMock);
 		when(multipartFileMock.getOriginalFilename()).thenReturn(FILE_NAME);
-		when(multipartFileMock.getInputStream())
-			.thenReturn(new ByteArrayInputStream("test".getBytes()))
-			.thenReturn(new ByteArrayInputStream("test".getBytes()))
-			.thenReturn(new ByteArrayInputStream("test".getBytes()));
+		when(multipartFileMock.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+		when(attachmentDataResolverMock.reuse(List.of(new Content(expectedHash, 4)))).thenReturn(Map.of());
+		TransactionSynchronizationManager.initSynchronization();
 
-		final var result = AttachmentMapper.toAttachmentEntity(multipartFileMock, entityManagerMock, entity);
+		final var result = AttachmentMapper.toAttachmentEntity(multipartFileMock, entity, attachmentDataResolverMock, new DatabaseAttachmentStore(entityManagerMock));
 
 		assertThat(result).isNotNull().hasNoNullFieldsOrPropertiesExcept("id", "created");
 		assertThat(result.getFileName()).isEqualTo(FILE_NAME);
@@ -76,22 +127,137 @@ class AttachmentMapperTest {
 		assertThat(result.getMimeType()).isEqualTo("text/plain");
 		assertThat(result.getMessageEntity()).isSameAs(entity);
 		assertThat(result.getHash()).isEqualTo(expectedHash);
+		assertThat(result.getAttachmentData().getHash()).isEqualTo(expectedHash);
+		assertThat(result.getAttachmentData().getFileSize()).isEqualTo(4);
+		assertThat(result.getAttachmentData().getReferenceCount()).isOne();
+	}
+
+	@Test
+	void toAttachmentEntityReusesExistingAttachmentData() throws IOException {
+
+		final var existingData = AttachmentDataEntity.create().withId("attachmentDataId");
+		final var expectedHash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+		when(multipartFileMock.getOriginalFilename()).thenReturn(FILE_NAME);
+		when(multipartFileMock.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+		when(attachmentStoreMock.createStagingFile()).thenAnswer(invocation -> Files.createTempFile(stagingDirectory, "attachment-", ".staging"));
+		when(attachmentDataResolverMock.reuse(List.of(new Content(expectedHash, 4)))).thenReturn(Map.of(new Content(expectedHash, 4), existingData));
+
+		final var result = AttachmentMapper.toAttachmentEntity(multipartFileMock, MessageEntity.create(), attachmentDataResolverMock, attachmentStoreMock);
+
+		assertThat(result.getAttachmentData()).isSameAs(existingData);
+		assertThat(result.getHash()).isEqualTo(expectedHash);
+		assertThat(result.getFileSize()).isEqualTo(4);
+		// The content is already stored, so the staging file is deleted
+		assertThat(stagingDirectory).isEmptyDirectory();
+		verify(multipartFileMock).getInputStream();
+		verify(attachmentStoreMock, never()).write(any(), any(Path.class), anyLong());
+	}
+
+	@Test
+	void toAttachmentEntitiesSharesNewAttachmentDataBetweenEqualUploads() throws IOException {
+
+		final var content = new Content("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08", 4);
+		final var otherMultipartFile = new MockMultipartFile("attachments", "other.txt", "text/plain", "test".getBytes());
+
+		when(entityManagerMock.unwrap(Session.class)).thenReturn(sessionMock);
+		when(sessionMock.getLobHelper()).thenReturn(lobHelperMock);
+		when(lobHelperMock.createBlob(any(), anyLong())).thenReturn(blobMock);
+		when(multipartFileMock.getOriginalFilename()).thenReturn(FILE_NAME);
+		when(multipartFileMock.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+		when(attachmentDataResolverMock.reuse(List.of(content, content))).thenReturn(Map.of());
+		TransactionSynchronizationManager.initSynchronization();
+
+		final var result = AttachmentMapper.toAttachmentEntities(List.of(multipartFileMock, otherMultipartFile), MessageEntity.create(), attachmentDataResolverMock, new DatabaseAttachmentStore(entityManagerMock));
+
+		assertThat(result).hasSize(2).extracting(AttachmentEntity::getFileName).containsExactly(FILE_NAME, "other.txt");
+		assertThat(result.get(1).getAttachmentData()).isSameAs(result.getFirst().getAttachmentData());
+		assertThat(result.getFirst().getAttachmentData().getReferenceCount()).isEqualTo(2);
+		verify(lobHelperMock, times(1)).createBlob(any(), anyLong());
+	}
+
+	@Test
+	void toAttachmentEntityWritesNewContentToAttachmentStore() throws IOException {
+
+		final var stagingFile = Files.createTempFile(stagingDirectory, "attachment-", ".staging");
+		when(multipartFileMock.getOriginalFilename()).thenReturn(FILE_NAME);
+		when(multipartFileMock.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+		when(attachmentStoreMock.createStagingFile()).thenReturn(stagingFile);
+		when(attachmentDataResolverMock.reuse(any())).thenReturn(Map.of());
+
+		final var result = AttachmentMapper.toAttachmentEntity(multipartFileMock, MessageEntity.create(), attachmentDataResolverMock, attachmentStoreMock);
+
+		final var inOrder = inOrder(attachmentDataResolverMock, attachmentStoreMock);
+		inOrder.verify(attachmentDataResolverMock).beforeWrite(result.getAttachmentData(), attachmentStoreMock);
+		inOrder.verify(attachmentStoreMock).write(result.getAttachmentData(), stagingFile, 4);
+		// The staging file is handed to the attachment store as it is
+		assertThat(stagingFile).hasContent("test");
+		verify(multipartFileMock).getInputStream();
+		verifyNoInteractions(entityManagerMock);
+	}
+
+	@Test
+	void toAttachmentEntitiesFromNullInput() {
+
+		assertThat(AttachmentMapper.toAttachmentEntities(null, MessageEntity.create(), attachmentDataResolverMock, new DatabaseAttachmentStore(entityManagerMock))).isEmpty();
+		verifyNoInteractions(attachmentDataResolverMock);
+	}
+
+	@Test
+	void toAttachmentEntityReadsUploadOnceBeforeInsert() throws IOException {
+
+		final var content = new byte[3 * MIME_TYPE_DETECTION_LENGTH];
+		final var inspectedStream = new CountingInputStream(content);
+
+		when(entityManagerMock.unwrap(Session.class)).thenReturn(sessionMock);
+		when(sessionMock.getLobHelper()).thenReturn(lobHelperMock);
+		when(lobHelperMock.createBlob(any(), eq((long) content.length))).thenReturn(blobMock);
+		when(multipartFileMock.getInputStream()).thenReturn(inspectedStream);
+		when(attachmentDataResolverMock.reuse(any())).thenReturn(Map.of());
+		TransactionSynchronizationManager.initSynchronization();
+
+		final var result = AttachmentMapper.toAttachmentEntity(multipartFileMock, MessageEntity.create(), attachmentDataResolverMock, new DatabaseAttachmentStore(entityManagerMock));
+
+		assertThat(result.getFileSize()).isEqualTo(content.length);
+		assertThat(result.getAttachmentData().getFile()).isSameAs(blobMock);
+		// The upload is read once by the mapper, while the blob is streamed from the staging file by the database driver
+		assertThat(inspectedStream.bytesRead).isEqualTo(content.length);
+		verify(multipartFileMock).getInputStream();
+	}
+
+	@Test
+	void inspect() throws Exception {
+
+		final var content = new byte[MIME_TYPE_DETECTION_LENGTH + 10];
+		content[0] = 1;
+		final var stagingFile = Files.createTempFile(stagingDirectory, "attachment-", ".staging");
+		when(multipartFileMock.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+		when(attachmentStoreMock.createStagingFile()).thenReturn(stagingFile);
+
+		final var result = AttachmentMapper.inspect(multipartFileMock, attachmentStoreMock);
+
+		assertThat(result.size()).isEqualTo(content.length);
+		assertThat(result.prefix()).hasSize(MIME_TYPE_DETECTION_LENGTH).startsWith((byte) 1);
+		assertThat(result.hash()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+		assertThat(result.stagingFile()).isEqualTo(stagingFile).hasBinaryContent(content);
 	}
 
 	@Test
 	void toAttachmentEntityThrowsIOException() throws IOException {
 
 		when(multipartFileMock.getInputStream()).thenThrow(new IOException("test exception"));
+		when(attachmentStoreMock.createStagingFile()).thenAnswer(invocation -> Files.createTempFile(stagingDirectory, "attachment-", ".staging"));
 
-		assertThatThrownBy(() -> AttachmentMapper.toAttachmentEntity(multipartFileMock, entityManagerMock, MessageEntity.create()))
+		assertThatThrownBy(() -> AttachmentMapper.toAttachmentEntity(multipartFileMock, MessageEntity.create(), attachmentDataResolverMock, attachmentStoreMock))
 			.isInstanceOf(Problem.class)
 			.hasMessageContaining("Could not read input stream!");
+		assertThat(stagingDirectory).isEmptyDirectory();
 	}
 
 	@Test
 	void toAttachmentEntityAllNulls() {
 
-		assertThat(AttachmentMapper.toAttachmentEntity(null, null, null)).isNull();
+		assertThat(AttachmentMapper.toAttachmentEntity(null, null, null, null)).isNull();
 	}
 
 	@Test
@@ -117,4 +283,82 @@ class AttachmentMapperTest {
 		assertThat(AttachmentMapper.toAttachments(null))
 			.isNotNull().isEmpty();
 	}
+
+	/**
+	 * Compares the throughput of ingesting uploads to the file system store by reading each upload twice, once for the
+	 * hash and once for the write, with the throughput of the single pass that spools the upload to a staging file. Run
+	 * with {@code mvn test -Dtest=AttachmentMapperTest -Dbenchmark=true}.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmark(@TempDir final Path directory) throws Exception {
+		final var size = 64 * 1024 * 1024;
+		final var rounds = 20;
+		final var content = new byte[size];
+		new Random(size).nextBytes(content);
+		final var file = Files.write(directory.resolve("upload"), content);
+		final var upload = mock(MultipartFile.class);
+		when(upload.getInputStream()).thenAnswer(invocation -> Files.newInputStream(file));
+		when(attachmentDataResolverMock.reuse(any())).thenReturn(Map.of());
+		final var store = new FileSystemAttachmentStore(new AttachmentStoreProperties(DATABASE, Map.of(), new AttachmentStoreProperties.FileSystem(directory.resolve("store"), 2), null));
+
+		for (var warmup = 0; warmup < 3; warmup++) {
+			ingestTwice(upload, size, store);
+			AttachmentMapper.toAttachmentEntity(upload, MessageEntity.create(), attachmentDataResolverMock, store);
+		}
+
+		final var twiceStarted = System.nanoTime();
+		for (var round = 0; round < rounds; round++) {
+			ingestTwice(upload, size, store);
+		}
+		final var twiceNanos = System.nanoTime() - twiceStarted;
+
+		final var onceStarted = System.nanoTime();
+		for (var round = 0; round < rounds; round++) {
+			assertThat(AttachmentMapper.toAttachmentEntity(upload, MessageEntity.create(), attachmentDataResolverMock, store).getFileSize()).isEqualTo(size);
+		}
+		final var onceNanos = System.nanoTime() - onceStarted;
+
+		LOGGER.info("Read twice: {} MB/s, read once: {} MB/s", throughput(size, rounds, twiceNanos), throughput(size, rounds, onceNanos));
+	}
+
+	/**
+	 * The previous ingest, which read the upload once for the hash and once more when writing it to the store.
+	 */
+	private static void ingestTwice(final MultipartFile upload, final long size, final AttachmentStore store) throws Exception {
+		final var digest = MessageDigest.getInstance("SHA-256");
+		try (var stream = new DigestInputStream(upload.getInputStream(), digest)) {
+			stream.transferTo(OutputStream.nullOutputStream());
+		}
+		try (var stream = upload.getInputStream()) {
+			store.write(AttachmentDataEntity.create().withHash(HexFormat.of().formatHex(digest.digest())), stream, size);
+		}
+	}
+
+	private static long throughput(final long size, final int rounds, final long nanos) {
+		return size * rounds / (1024 * 1024) * TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+
+	private static final class CountingInputStream extends ByteArrayInputStream {
+
+		private long bytesRead;
+
+		private CountingInputStream(final byte[] content) {
+			super(content);
+		}
+
+		@Override
+		public synchronized int read(final byte[] b, final int off, final int len) {
+			final var read = super.read(b, off, len);
+			bytesRead += Math.max(read, 0);
+			return read;
+		}
+
+		@Override
+		public synchronized int read() {
+			final var read = super.read();
+			bytesRead += read == -1 ? 0 : 1;
+			return read;
+		}
+	}
 }
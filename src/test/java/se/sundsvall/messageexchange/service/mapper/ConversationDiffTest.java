@@ -0,0 +1,275 @@
+package se.sundsvall.messageexchange.service.mapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.messageexchange.api.model.Conversation;
+import se.sundsvall.messageexchange.api.model.Identifier;
+import se.sundsvall.messageexchange.api.model.KeyValues;
+import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
+import se.sundsvall.messageexchange.integration.db.model.ExternalReferencesEntity;
+import se.sundsvall.messageexchange.integration.db.model.IdentifierEntity;
+import se.sundsvall.messageexchange.integration.db.model.MetadataEntity;
+
+import static java.util.Optional.ofNullable;
+import static java.util.function.Function.identity;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationDiffTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConversationDiffTest.class);
+
+	@Test
+	void of() {
+		// Arrange
+		final var entity = ConversationEntity.create()
+			.withTopic("Old topic")
+			.withParticipants(List.of(
+				IdentifierEntity.create().withId("id1").withType("type").withValue("1"),
+				IdentifierEntity.create().withId("id2").withType("type").withValue("2")))
+			.withMetadata(List.of(MetadataEntity.create().withKey("metadataKey").withValues(List.of("a", "b"))))
+			.withExternalReferences(List.of(
+				ExternalReferencesEntity.create().withKey("key1").withValues(List.of("1")),
+				ExternalReferencesEntity.create().withKey("key2").withValues(List.of("2"))));
+		final var conversation = Conversation.create()
+			.withTopic("New topic")
+			.withParticipants(List.of(Identifier.create().withType("type").withValue("2"), Identifier.create().withType("type").withValue("3")))
+			.withMetadata(List.of(KeyValues.create().withKey("metadataKey").withValues(List.of("b", "c"))))
+			.withExternalReferences(List.of(KeyValues.create().withKey("key1").withValues(List.of("1", "2"))));
+
+		// Act
+		final var result = ConversationDiff.of(entity, conversation);
+
+		// Assert
+		assertThat(result.isEmpty()).isFalse();
+		assertThat(result.isTopicChanged()).isTrue();
+		assertThat(result.previousTopic()).isEqualTo("Old topic");
+		assertThat(result.topic()).isEqualTo("New topic");
+		assertThat(result.addedParticipants()).containsExactly(Identifier.create().withType("type").withValue("3"));
+		assertThat(result.removedParticipants()).containsExactly(Identifier.create().withType("type").withValue("1"));
+		assertThat(result.addedMetadata()).isEqualTo(Map.of("metadataKey", Set.of("c")));
+		assertThat(result.removedMetadata()).isEqualTo(Map.of("metadataKey", Set.of("a")));
+		assertThat(result.addedExternalReferences()).isEqualTo(Map.of("key1", Set.of("2")));
+		assertThat(result.removedExternalReferences()).isEqualTo(Map.of("key2", Set.of("2")));
+	}
+
+	@Test
+	void ofWhenNothingIsChanged() {
+		// Arrange
+		final var entity = ConversationEntity.create()
+			.withTopic("topic")
+			.withParticipants(List.of(IdentifierEntity.create().withId("id1").withType("type").withValue("1")))
+			.withExternalReferences(List.of(ExternalReferencesEntity.create().withKey("key").withValues(List.of("1", "2"))));
+		final var conversation = Conversation.create()
+			.withTopic("topic")
+			.withParticipants(List.of(Identifier.create().withType("type").withValue("1")))
+			.withExternalReferences(List.of(KeyValues.create().withKey("key").withValues(List.of("2", "1"))));
+
+		// Act
+		final var result = ConversationDiff.of(entity, conversation);
+
+		// Assert
+		assertThat(result.isEmpty()).isTrue();
+		assertThat(result.isTopicChanged()).isFalse();
+		assertThat(result.previousTopic()).isNull();
+		assertThat(result.topic()).isNull();
+	}
+
+	@Test
+	void ofWhenCollectionsAreNotInRequest() {
+		// Arrange
+		final var entity = ConversationEntity.create()
+			.withTopic("topic")
+			.withParticipants(List.of(IdentifierEntity.create().withType("type").withValue("1")))
+			.withMetadata(List.of(MetadataEntity.create().withKey("key").withValues(List.of("1"))))
+			.withExternalReferences(List.of(ExternalReferencesEntity.create().withKey("key").withValues(List.of("1"))));
+
+		// Act
+		final var result = ConversationDiff.of(entity, Conversation.create());
+
+		// Assert
+		assertThat(result.isEmpty()).isTrue();
+	}
+
+	@Test
+	void ofWhenEntityHasNoCollections() {
+		// Arrange
+		final var conversation = Conversation.create()
+			.withParticipants(List.of(Identifier.create().withType("type").withValue("1")))
+			.withMetadata(List.of(KeyValues.create().withKey("key").withValues(List.of("1"))))
+			.withExternalReferences(List.of(KeyValues.create().withKey("key").withValues(null)));
+
+		// Act
+		final var result = ConversationDiff.of(ConversationEntity.create(), conversation);
+
+		// Assert
+		assertThat(result.addedParticipants()).hasSize(1);
+		assertThat(result.addedMetadata()).isEqualTo(Map.of("key", Set.of("1")));
+		assertThat(result.addedExternalReferences()).isEmpty();
+		assertThat(result.removedParticipants()).isEmpty();
+		assertThat(result.removedMetadata()).isEmpty();
+		assertThat(result.removedExternalReferences()).isEmpty();
+	}
+
+	@Test
+	void ofUsesFirstOccurrenceOfKey() {
+		// Arrange
+		final var entity = ConversationEntity.create()
+			.withExternalReferences(List.of(
+				ExternalReferencesEntity.create().withKey("key").withValues(List.of("1")),
+				ExternalReferencesEntity.create().withKey("key").withValues(List.of("2"))));
+		final var conversation = Conversation.create()
+			.withExternalReferences(List.of(KeyValues.create().withKey("key").withValues(List.of("1"))));
+
+		// Act
+		final var result = ConversationDiff.of(entity, conversation);
+
+		// Assert
+		assertThat(result.isEmpty()).isTrue();
+	}
+
+	@Test
+	void ofWithManyExternalReferences() {
+		// Arrange
+		final var entity = ConversationEntity.create()
+			.withExternalReferences(IntStream.range(0, 1000)
+				.mapToObj(i -> ExternalReferencesEntity.create().withKey("key" + i).withValues(List.of("value" + i)))
+				.toList());
+		final var conversation = Conversation.create()
+			.withExternalReferences(IntStream.range(1, 1001)
+				.mapToObj(i -> KeyValues.create().withKey("key" + i).withValues(List.of("value" + i)))
+				.toList());
+
+		// Act
+		final var result = ConversationDiff.of(entity, conversation);
+
+		// Assert
+		assertThat(result.addedExternalReferences()).isEqualTo(Map.of("key1000", Set.of("value1000")));
+		assertThat(result.removedExternalReferences()).isEqualTo(Map.of("key0", Set.of("value0")));
+	}
+
+	/**
+	 * Compares the time per diff of the previous nested loop diff, which looked up the values of each external reference
+	 * key by scanning both lists, with {@link ConversationDiff#of}, for conversations with 10, 200 and 2000 participants
+	 * and external references. Only the last external reference differs, so the nested loops scan all keys. Run with
+	 * {@code mvn test -Dtest=ConversationDiffTest -Dbenchmark=true}.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmark() {
+		for (final var size : List.of(10, 200, 2000)) {
+			final var entity = ConversationEntity.create()
+				.withTopic("topic")
+				.withParticipants(IntStream.range(0, size)
+					.mapToObj(i -> IdentifierEntity.create().withType("type").withValue(String.valueOf(i)))
+					.toList())
+				.withExternalReferences(IntStream.range(0, size)
+					.mapToObj(i -> ExternalReferencesEntity.create().withKey("key" + i).withValues(List.of("value" + i)))
+					.toList());
+			final var conversation = Conversation.create()
+				.withTopic("topic")
+				.withParticipants(IntStream.range(1, size + 1)
+					.mapToObj(i -> Identifier.create().withType("type").withValue(String.valueOf(i)))
+					.toList())
+				.withExternalReferences(IntStream.range(0, size)
+					.mapToObj(i -> KeyValues.create().withKey("key" + i).withValues(List.of(i == size - 1 ? "changed" : "value" + i)))
+					.toList());
+			final var rounds = Math.max(20, 200_000 / size);
+
+			assertThat(nestedLoopDiffMessage(entity, conversation)).isEqualTo(Mapper.conversationDiffMessage(ConversationDiff.of(entity, conversation)));
+			for (var warmup = 0; warmup < rounds / 10; warmup++) {
+				nestedLoopDiffMessage(entity, conversation);
+				ConversationDiff.of(entity, conversation);
+			}
+
+			final var nestedStarted = System.nanoTime();
+			for (var round = 0; round < rounds; round++) {
+				nestedLoopDiffMessage(entity, conversation);
+			}
+			final var nestedNanos = System.nanoTime() - nestedStarted;
+
+			final var indexedStarted = System.nanoTime();
+			for (var round = 0; round < rounds; round++) {
+				assertThat(ConversationDiff.of(entity, conversation).isEmpty()).isFalse();
+			}
+			final var indexedNanos = System.nanoTime() - indexedStarted;
+
+			LOGGER.info("Size {}: nested loops {} µs per diff, indexed {} µs per diff", size, micros(rounds, nestedNanos), micros(rounds, indexedNanos));
+		}
+	}
+
+	/**
+	 * The previous diff of participants and external references, which scanned both external reference lists for the
+	 * values of every key.
+	 */
+	private static Optional<String> nestedLoopDiffMessage(final ConversationEntity entity, final Conversation conversation) {
+		final var changes = new ArrayList<String>();
+
+		final var added = addedObjects(entity.getParticipants(), conversation.getParticipants(), Mapper::toIdentifier);
+		if (!added.isEmpty()) {
+			changes.add("%s deltagare tillagd".formatted(added.size()));
+		}
+		final var removed = removedObjects(entity.getParticipants().stream().map(Mapper::toIdentifier).toList(), conversation.getParticipants(), identity());
+		if (!removed.isEmpty()) {
+			changes.add("%s deltagare borttagen".formatted(removed.size()));
+		}
+
+		for (final var key : conversation.getExternalReferences().stream().map(KeyValues::getKey).toList()) {
+			if (!addedObjects(externalReferenceValues(entity, key), externalReferenceValues(conversation, key), identity()).isEmpty()) {
+				changes.add("Referens tillagd i konversation");
+				break;
+			}
+		}
+		for (final var key : entity.getExternalReferences().stream().map(ExternalReferencesEntity::getKey).toList()) {
+			if (!removedObjects(externalReferenceValues(entity, key), externalReferenceValues(conversation, key), identity()).isEmpty()) {
+				changes.add("Referens borttagen i konversation");
+				break;
+			}
+		}
+
+		return changes.isEmpty() ? Optional.empty() : Optional.of(String.join(". ", changes).concat("."));
+	}
+
+	private static List<String> externalReferenceValues(final ConversationEntity entity, final String key) {
+		return entity.getExternalReferences().stream()
+			.filter(item -> item.getKey().equals(key))
+			.findFirst()
+			.map(ExternalReferencesEntity::getValues)
+			.orElse(new ArrayList<>());
+	}
+
+	private static List<String> externalReferenceValues(final Conversation conversation, final String key) {
+		return conversation.getExternalReferences().stream()
+			.filter(item -> item.getKey().equals(key))
+			.findFirst()
+			.map(KeyValues::getValues)
+			.orElse(new ArrayList<>());
+	}
+
+	private static <T, R> Set<R> addedObjects(final List<T> before, final List<R> after, final Function<T, R> converter) {
+		final var added = new HashSet<>(after);
+		added.removeAll(ofNullable(before).orElse(new ArrayList<>()).stream().map(converter).collect(Collectors.toSet()));
+		return added;
+	}
+
+	private static <T, R> Set<R> removedObjects(final List<R> before, final List<T> after, final Function<T, R> converter) {
+		final var removed = new HashSet<>(before);
+		removed.removeAll(ofNullable(after).orElse(new ArrayList<>()).stream().map(converter).collect(Collectors.toSet()));
+		return removed;
+	}
+
+	private static long micros(final int rounds, final long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos) / rounds;
+	}
+}
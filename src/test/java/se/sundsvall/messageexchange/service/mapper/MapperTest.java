@@ -2,6 +2,7 @@ package se.sundsvall.messageexchange.service.mapper;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +12,11 @@ import se.sundsvall.messageexchange.api.model.Identifier;
 import se.sundsvall.messageexchange.api.model.KeyValues;
 import se.sundsvall.messageexchange.api.model.Message;
 import se.sundsvall.messageexchange.api.model.ReadBy;
+import se.sundsvall.messageexchange.api.model.ReadByPart;
+import se.sundsvall.messageexchange.integration.db.MessageAttachmentProjection;
+import se.sundsvall.messageexchange.integration.db.MessageProjection;
+import se.sundsvall.messageexchange.integration.db.MessageReadByPartProjection;
+import se.sundsvall.messageexchange.integration.db.MessageReadByProjection;
 import se.sundsvall.messageexchange.integration.db.ReadByCountProjection;
 import se.sundsvall.messageexchange.integration.db.ReadByPartCountProjection;
 import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
@@ -21,9 +27,10 @@ import se.sundsvall.messageexchange.integration.db.model.MessageType;
 import se.sundsvall.messageexchange.integration.db.model.MetadataEntity;
 import se.sundsvall.messageexchange.integration.db.model.ReadByEntity;
 import se.sundsvall.messageexchange.integration.db.model.ReadByPartEntity;
-import se.sundsvall.messageexchange.integration.db.model.SequenceEntity;
+import se.sundsvall.messageexchange.integration.db.model.ReadMarkerEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Answers.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mockStatic;
 import static se.sundsvall.dept44.support.Identifier.Type.PARTY_ID;
@@ -189,7 +196,7 @@ class MapperTest {
 		final var entity = ConversationEntity.create();
 
 		// Act
-		final var result = Mapper.updateConversationEntity(entity, conversationRequest);
+		final var result = Mapper.updateConversationEntity(entity, conversationRequest, ConversationDiff.of(entity, conversationRequest));
 
 		// Assert
 		assertThat(result.getTopic()).isEqualTo(topic);
@@ -198,11 +205,95 @@ class MapperTest {
 		assertThat(result.getExternalReferences()).hasSize(1);
 	}
 
+	@Test
+	void updateConversationEntityWithUnchangedCollections() {
+		// Arrange
+		final var participant = IdentifierEntity.create().withId("identifierId").withType("type").withValue("value");
+		final var metadata = MetadataEntity.create().withId("metadataId").withKey("key").withValues(new ArrayList<>(List.of("value1", "value2")));
+		final var externalReference = ExternalReferencesEntity.create().withId("externalReferenceId").withKey("key").withValues(new ArrayList<>(List.of("value")));
+		final var entity = ConversationEntity.create()
+			.withParticipants(new ArrayList<>(List.of(participant)))
+			.withMetadata(new ArrayList<>(List.of(metadata)))
+			.withExternalReferences(new ArrayList<>(List.of(externalReference)));
+
+		final var conversationRequest = Conversation.create()
+			.withParticipants(List.of(Identifier.create().withType("type").withValue("value")))
+			.withMetadata(List.of(KeyValues.create().withKey("key").withValues(List.of("value1", "value2"))))
+			.withExternalReferences(List.of(KeyValues.create().withKey("key").withValues(List.of("value"))));
+
+		// Act
+		final var result = Mapper.updateConversationEntity(entity, conversationRequest, ConversationDiff.of(entity, conversationRequest));
+
+		// Assert
+		assertThat(result.getParticipants()).containsExactly(participant);
+		assertThat(result.getParticipants().getFirst()).isSameAs(participant);
+		assertThat(result.getMetadata().getFirst()).isSameAs(metadata);
+		assertThat(result.getMetadata()).hasSize(1);
+		assertThat(result.getExternalReferences().getFirst()).isSameAs(externalReference);
+		assertThat(result.getExternalReferences()).hasSize(1);
+	}
+
+	@Test
+	void updateConversationEntityWithChangedCollections() {
+		// Arrange
+		final var keptParticipant = IdentifierEntity.create().withId("identifierId1").withType("type").withValue("value1");
+		final var removedParticipant = IdentifierEntity.create().withId("identifierId2").withType("type").withValue("value2");
+		final var keptMetadata = MetadataEntity.create().withId("metadataId1").withKey("key1").withValues(new ArrayList<>(List.of("value")));
+		final var changedMetadata = MetadataEntity.create().withId("metadataId2").withKey("key2").withValues(new ArrayList<>(List.of("value")));
+		final var removedExternalReference = ExternalReferencesEntity.create().withId("externalReferenceId").withKey("key").withValues(new ArrayList<>(List.of("value")));
+		final var entity = ConversationEntity.create()
+			.withParticipants(new ArrayList<>(List.of(keptParticipant, removedParticipant)))
+			.withMetadata(new ArrayList<>(List.of(keptMetadata, changedMetadata)))
+			.withExternalReferences(new ArrayList<>(List.of(removedExternalReference)));
+
+		final var conversationRequest = Conversation.create()
+			.withParticipants(List.of(Identifier.create().withType("type").withValue("value1"), Identifier.create().withType("type").withValue("value3")))
+			.withMetadata(List.of(KeyValues.create().withKey("key1").withValues(List.of("value")), KeyValues.create().withKey("key2").withValues(List.of("value", "otherValue"))))
+			.withExternalReferences(List.of());
+
+		// Act
+		final var result = Mapper.updateConversationEntity(entity, conversationRequest, ConversationDiff.of(entity, conversationRequest));
+
+		// Assert
+		assertThat(result.getParticipants()).extracting(IdentifierEntity::getId, IdentifierEntity::getValue)
+			.containsExactly(tuple("identifierId1", "value1"), tuple(null, "value3"));
+		assertThat(result.getMetadata()).extracting(MetadataEntity::getId, MetadataEntity::getKey, MetadataEntity::getValues)
+			.containsExactly(tuple("metadataId1", "key1", List.of("value")), tuple(null, "key2", List.of("value", "otherValue")));
+		assertThat(result.getMetadata().getFirst()).isSameAs(keptMetadata);
+		assertThat(result.getExternalReferences()).isEmpty();
+	}
+
+	@Test
+	void updateConversationEntityWithReorderedValues() {
+		// Arrange
+		final var metadata = MetadataEntity.create().withId("metadataId").withKey("key").withValues(new ArrayList<>(List.of("value1", "value2")));
+		final var externalReference = ExternalReferencesEntity.create().withId("externalReferenceId").withKey("key").withValues(new ArrayList<>(List.of("value1", "value2")));
+		final var entity = ConversationEntity.create()
+			.withMetadata(new ArrayList<>(List.of(metadata)))
+			.withExternalReferences(new ArrayList<>(List.of(externalReference)));
+
+		final var conversationRequest = Conversation.create()
+			.withMetadata(List.of(KeyValues.create().withKey("key").withValues(List.of("value2", "value1"))))
+			.withExternalReferences(List.of(
+				KeyValues.create().withKey("key").withValues(List.of("value2", "value1")),
+				KeyValues.create().withKey("newKey").withValues(List.of())));
+
+		// Act
+		final var result = Mapper.updateConversationEntity(entity, conversationRequest, ConversationDiff.of(entity, conversationRequest));
+
+		// Assert
+		assertThat(result.getMetadata()).containsExactly(metadata);
+		assertThat(result.getMetadata().getFirst()).isSameAs(metadata);
+		assertThat(result.getExternalReferences()).extracting(ExternalReferencesEntity::getId, ExternalReferencesEntity::getKey)
+			.containsExactly(tuple("externalReferenceId", "key"), tuple(null, "newKey"));
+		assertThat(result.getExternalReferences().getFirst()).isSameAs(externalReference);
+	}
+
 	@Test
 	void toMessages() {
 		// Arrange
 		final var id = "id";
-		final var sequenceNumber = SequenceEntity.create().withId(222L);
+		final var sequenceNumber = 222L;
 		final var inReplyTo = "inReplyTo";
 		final var createdByType = "type";
 		final var createdByValue = "value";
@@ -223,7 +314,7 @@ class MapperTest {
 		// Assert
 		assertThat(result).hasSize(1);
 		assertThat(result.getFirst().getId()).isEqualTo(id);
-		assertThat(result.getFirst().getSequenceNumber()).isEqualTo(sequenceNumber.getId());
+		assertThat(result.getFirst().getSequenceNumber()).isEqualTo(sequenceNumber);
 		assertThat(result.getFirst().getInReplyToMessageId()).isEqualTo(inReplyTo);
 		assertThat(result.getFirst().getCreatedBy().getType()).isEqualTo(createdByType);
 		assertThat(result.getFirst().getCreatedBy().getValue()).isEqualTo(createdByValue);
@@ -231,11 +322,98 @@ class MapperTest {
 		assertThat(result.getFirst().getType()).isEqualTo(se.sundsvall.messageexchange.api.model.MessageType.SYSTEM_CREATED);
 	}
 
+	@Test
+	void toMessagesFromProjections() {
+		// Arrange
+		final var created = OffsetDateTime.now();
+		final var messages = List.of(
+			new MessageProjection("id1", 1L, "inReplyTo", created, "type", "value", "content", MessageType.USER_CREATED),
+			new MessageProjection("id2", 2L, null, created, null, null, "content2", MessageType.SYSTEM_CREATED));
+		final var readBy = List.of(new MessageReadByProjection("id1", "adAccount", "joe01doe", created));
+		final var readByPart = List.of(new MessageReadByPartProjection("id1", "part", created));
+		final var attachments = List.of(new MessageAttachmentProjection("id1", "attachmentId", "file.txt", 10, "text/plain", "hash", created));
+
+		// Act
+		final var result = Mapper.toMessages(messages, readBy, readByPart, attachments);
+
+		// Assert
+		assertThat(result).hasSize(2);
+		assertThat(result.getFirst()).isNotNull().hasNoNullFieldsOrPropertiesExcept("createdByPart");
+		assertThat(result.getFirst().getId()).isEqualTo("id1");
+		assertThat(result.getFirst().getSequenceNumber()).isEqualTo(1L);
+		assertThat(result.getFirst().getInReplyToMessageId()).isEqualTo("inReplyTo");
+		assertThat(result.getFirst().getCreated()).isEqualTo(created);
+		assertThat(result.getFirst().getCreatedBy().getType()).isEqualTo("type");
+		assertThat(result.getFirst().getCreatedBy().getValue()).isEqualTo("value");
+		assertThat(result.getFirst().getContent()).isEqualTo("content");
+		assertThat(result.getFirst().getReadBy()).hasSize(1);
+		assertThat(result.getFirst().getReadBy().getFirst().getIdentifier().getValue()).isEqualTo("joe01doe");
+		assertThat(result.getFirst().getReadBy().getFirst().getReadAt()).isEqualTo(created);
+		assertThat(result.getFirst().getReadByPart()).hasSize(1);
+		assertThat(result.getFirst().getReadByPart().getFirst().getPart()).isEqualTo("part");
+		assertThat(result.getFirst().getAttachments()).hasSize(1);
+		assertThat(result.getFirst().getAttachments().getFirst().getId()).isEqualTo("attachmentId");
+		assertThat(result.getFirst().getAttachments().getFirst().getFileName()).isEqualTo("file.txt");
+		assertThat(result.getFirst().getAttachments().getFirst().getFileSize()).isEqualTo(10);
+		assertThat(result.getFirst().getAttachments().getFirst().getMimeType()).isEqualTo("text/plain");
+		assertThat(result.getFirst().getAttachments().getFirst().getHash()).isEqualTo("hash");
+		assertThat(result.getFirst().getType()).isEqualTo(se.sundsvall.messageexchange.api.model.MessageType.USER_CREATED);
+		assertThat(result.getLast().getId()).isEqualTo("id2");
+		assertThat(result.getLast().getCreatedBy()).isNull();
+		assertThat(result.getLast().getReadBy()).isEmpty();
+		assertThat(result.getLast().getReadByPart()).isEmpty();
+		assertThat(result.getLast().getAttachments()).isEmpty();
+	}
+
+	@Test
+	void applyReadMarkers() {
+		// Arrange
+		final var readAt = OffsetDateTime.now().minusDays(1);
+		final var markerUpdated = OffsetDateTime.now();
+		final var messages = List.of(
+			Message.create().withId("id1").withSequenceNumber(1L)
+				.withReadBy(new ArrayList<>(List.of(ReadBy.create().withIdentifier(Identifier.create().withType("adAccount").withValue("joe01doe")).withReadAt(readAt))))
+				.withReadByPart(new ArrayList<>()),
+			Message.create().withId("id2").withSequenceNumber(2L).withReadBy(new ArrayList<>()).withReadByPart(new ArrayList<>()),
+			Message.create().withId("id3").withSequenceNumber(3L).withReadBy(new ArrayList<>()).withReadByPart(new ArrayList<>()));
+		final var readMarkers = List.of(
+			ReadMarkerEntity.create().withIdentifier(IdentifierEntity.create().withId("identifierId").withType("adAccount").withValue("joe01doe")).withSequenceNumber(2L).withUpdated(markerUpdated),
+			ReadMarkerEntity.create().withPart("errand-123").withSequenceNumber(1L).withUpdated(markerUpdated));
+
+		// Act
+		final var result = Mapper.applyReadMarkers(messages, readMarkers);
+
+		// Assert
+		assertThat(result).hasSize(3);
+		assertThat(result.getFirst().getReadBy()).hasSize(1)
+			.extracting(ReadBy::getReadAt).containsExactly(readAt);
+		assertThat(result.getFirst().getReadByPart()).hasSize(1)
+			.extracting(ReadByPart::getPart, ReadByPart::getReadAt).containsExactly(tuple("errand-123", markerUpdated));
+		assertThat(result.get(1).getReadBy()).hasSize(1)
+			.extracting(readBy -> readBy.getIdentifier().getValue(), ReadBy::getReadAt).containsExactly(tuple("joe01doe", markerUpdated));
+		assertThat(result.get(1).getReadByPart()).isEmpty();
+		assertThat(result.getLast().getReadBy()).isEmpty();
+		assertThat(result.getLast().getReadByPart()).isEmpty();
+	}
+
+	@Test
+	void applyReadMarkersWithoutMarkers() {
+		// Arrange
+		final var messages = List.of(Message.create().withId("id1").withSequenceNumber(1L));
+
+		// Act
+		final var result = Mapper.applyReadMarkers(messages, List.of());
+
+		// Assert
+		assertThat(result).isSameAs(messages);
+		assertThat(result.getFirst().getReadBy()).isNull();
+	}
+
 	@Test
 	void toMessage() {
 		// Arrange
 		final var id = "id";
-		final var sequenceNumber = SequenceEntity.create().withId(222L);
+		final var sequenceNumber = 222L;
 		final var inReplyTo = "inReplyTo";
 		final var createdByType = "type";
 		final var createdByValue = "value";
@@ -256,7 +434,7 @@ class MapperTest {
 		// Assert
 		assertThat(result).isNotNull().hasNoNullFieldsOrPropertiesExcept("created", "createdByPart");
 		assertThat(result.getId()).isEqualTo(id);
-		assertThat(result.getSequenceNumber()).isEqualTo(sequenceNumber.getId());
+		assertThat(result.getSequenceNumber()).isEqualTo(sequenceNumber);
 		assertThat(result.getInReplyToMessageId()).isEqualTo(inReplyTo);
 		assertThat(result.getCreatedBy().getType()).isEqualTo(createdByType);
 		assertThat(result.getCreatedBy().getValue()).isEqualTo(createdByValue);
@@ -1124,9 +1302,20 @@ class MapperTest {
 			.withParticipants(List.of(Identifier.create().withType("type").withValue("2"), Identifier.create().withType("type").withValue("3")))
 			.withExternalReferences(List.of(KeyValues.create().withKey("key").withValues(List.of("1", "2"))));
 
-		var diff = Mapper.conversationDiffMessage(conversationEntity, conversation);
+		var diff = Mapper.conversationDiffMessage(ConversationDiff.of(conversationEntity, conversation));
 		assertThat(diff).hasValue("Ämnesrad ändrad från 'Old topic' till 'New topic'. 1 deltagare tillagd. 1 deltagare borttagen. Referens tillagd i konversation.");
 
 	}
 
+	@Test
+	void conversationDiffMessageWithPersistedParticipants() {
+		var conversationEntity = ConversationEntity.create()
+			.withParticipants(List.of(IdentifierEntity.create().withId("id1").withType("type").withValue("1"), IdentifierEntity.create().withId("id2").withType("type").withValue("2")));
+		var conversation = Conversation.create()
+			.withParticipants(List.of(Identifier.create().withType("type").withValue("1"), Identifier.create().withType("type").withValue("2")));
+
+		var diff = Mapper.conversationDiffMessage(ConversationDiff.of(conversationEntity, conversation));
+		assertThat(diff).isEmpty();
+	}
+
 }
@@ -0,0 +1,81 @@
+package se.sundsvall.messageexchange.util;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sundsvall.messageexchange.util.ByteRanges.ByteRange;
+import se.sundsvall.messageexchange.util.ByteRanges.UnsatisfiableRangeException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteRangesTest {
+
+	private static final long SIZE = 100;
+
+	@Test
+	void parseSingleRange() {
+		assertThat(ByteRanges.parse("bytes=10-19", SIZE)).contains(List.of(new ByteRange(10, 19)));
+	}
+
+	@Test
+	void parseOpenEndedRange() {
+		assertThat(ByteRanges.parse("bytes=90-", SIZE)).contains(List.of(new ByteRange(90, 99)));
+	}
+
+	@Test
+	void parseSuffixRange() {
+		assertThat(ByteRanges.parse("bytes=-10", SIZE)).contains(List.of(new ByteRange(90, 99)));
+		assertThat(ByteRanges.parse("bytes=-1000", SIZE)).contains(List.of(new ByteRange(0, 99)));
+	}
+
+	@Test
+	void parseRangeBeyondEnd() {
+		assertThat(ByteRanges.parse("bytes=50-1000", SIZE)).contains(List.of(new ByteRange(50, 99)));
+	}
+
+	@Test
+	void parseMultipleRangesSortsAndMerges() {
+		assertThat(ByteRanges.parse("BYTES=50-59, 0-9,5-14 ,15-19,200-", SIZE))
+			.contains(List.of(new ByteRange(0, 19), new ByteRange(50, 59)));
+	}
+
+	@ParameterizedTest
+	@NullAndEmptySource
+	@ValueSource(strings = {
+		"items=0-9", "bytes=", "bytes=abc", "bytes=9-0", "bytes=-", "bytes=0-9,x", "bytes=5"
+	})
+	void parseIgnoresInvalidHeader(final String header) {
+		assertThat(ByteRanges.parse(header, SIZE)).isEmpty();
+	}
+
+	@Test
+	void parseIgnoresTooManyRanges() {
+		final var header = IntStream.rangeClosed(0, ByteRanges.MAX_RANGES)
+			.mapToObj(i -> "%d-%d".formatted(i * 2, i * 2))
+			.collect(Collectors.joining(",", "bytes=", ""));
+
+		assertThat(ByteRanges.parse(header, SIZE)).isEmpty();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"bytes=100-", "bytes=-0", "bytes=100-200,150-"
+	})
+	void parseUnsatisfiableRange(final String header) {
+		assertThatThrownBy(() -> ByteRanges.parse(header, SIZE))
+			.isInstanceOfSatisfying(UnsatisfiableRangeException.class, e -> assertThat(e.contentRange()).isEqualTo("bytes */100"));
+	}
+
+	@Test
+	void byteRange() {
+		final var range = new ByteRange(10, 19);
+
+		assertThat(range.length()).isEqualTo(10);
+		assertThat(range.contentRange(SIZE)).isEqualTo("bytes 10-19/100");
+	}
+}
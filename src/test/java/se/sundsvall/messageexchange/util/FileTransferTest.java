@@ -0,0 +1,165 @@
+package se.sundsvall.messageexchange.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.sql.rowset.serial.SerialBlob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messageexchange.util.FileTransfer.SENDFILE_END_ATTRIBUTE;
+import static se.sundsvall.messageexchange.util.FileTransfer.SENDFILE_FILENAME_ATTRIBUTE;
+import static se.sundsvall.messageexchange.util.FileTransfer.SENDFILE_START_ATTRIBUTE;
+import static se.sundsvall.messageexchange.util.FileTransfer.SENDFILE_SUPPORT_ATTRIBUTE;
+import static se.sundsvall.messageexchange.util.FileTransfer.SENDFILE_THRESHOLD;
+
+@ExtendWith(MockitoExtension.class)
+class FileTransferTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileTransferTest.class);
+
+	@TempDir
+	private Path directory;
+
+	@Mock
+	private HttpServletRequest requestMock;
+
+	@Mock
+	private HttpServletResponse responseMock;
+
+	@Test
+	void transferWithSendfile() throws IOException {
+		// Arrange
+		final var file = write(SENDFILE_THRESHOLD + 100);
+		when(requestMock.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)).thenReturn(true);
+
+		// Act
+		FileTransfer.transfer(file, 100, SENDFILE_THRESHOLD, requestMock, responseMock);
+
+		// Assert
+		verify(requestMock).setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+		verify(requestMock).setAttribute(SENDFILE_START_ATTRIBUTE, 100L);
+		verify(requestMock).setAttribute(SENDFILE_END_ATTRIBUTE, SENDFILE_THRESHOLD + 100);
+		verifyNoInteractions(responseMock);
+	}
+
+	@Test
+	void transferWithoutSendfileSupport() throws IOException {
+		// Arrange
+		final var file = write(SENDFILE_THRESHOLD);
+		final var response = new MockHttpServletResponse();
+
+		// Act
+		FileTransfer.transfer(file, 0, SENDFILE_THRESHOLD, requestMock, response);
+
+		// Assert
+		assertThat(response.getContentAsByteArray()).isEqualTo(Files.readAllBytes(file));
+		verify(requestMock, never()).setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+	}
+
+	@Test
+	void transferBelowSendfileThreshold() throws IOException {
+		// Arrange
+		final var file = write(10);
+		final var response = new MockHttpServletResponse();
+
+		// Act
+		FileTransfer.transfer(file, 0, 10, requestMock, response);
+
+		// Assert
+		assertThat(response.getContentAsByteArray()).isEqualTo(Files.readAllBytes(file));
+		verifyNoInteractions(requestMock);
+	}
+
+	@Test
+	void transferPartOfFile() throws IOException {
+		// Arrange
+		final var file = write(100);
+		final var outputStream = new ByteArrayOutputStream();
+
+		// Act
+		FileTransfer.transfer(file, 10, 20, outputStream);
+
+		// Assert
+		assertThat(outputStream.toByteArray()).isEqualTo(Arrays.copyOfRange(Files.readAllBytes(file), 10, 30));
+	}
+
+	@Test
+	void transferBeyondEndOfFile() throws IOException {
+		// Arrange
+		final var file = write(10);
+		final var outputStream = new ByteArrayOutputStream();
+
+		// Act and assert
+		assertThatThrownBy(() -> FileTransfer.transfer(file, 5, 10, outputStream))
+			.isInstanceOf(EOFException.class)
+			.hasMessage("File file ended after 5 of 10 bytes");
+	}
+
+	/**
+	 * Compares the throughput of downloads from a file with the throughput of downloads from a blob. Run with
+	 * {@code mvn test -Dtest=FileTransferTest -Dbenchmark=true}.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmark() throws Exception {
+		final var size = 64 * 1024 * 1024;
+		final var rounds = 20;
+		final var file = write(size);
+		final var blob = new SerialBlob(Files.readAllBytes(file));
+		final var discard = OutputStream.nullOutputStream();
+
+		for (var warmup = 0; warmup < 3; warmup++) {
+			StreamUtils.copy(blob.getBinaryStream(), discard);
+			FileTransfer.transfer(file, 0, size, discard);
+		}
+
+		final var blobStarted = System.nanoTime();
+		for (var round = 0; round < rounds; round++) {
+			try (final var content = blob.getBinaryStream()) {
+				assertThat(StreamUtils.copy(content, discard)).isEqualTo(size);
+			}
+		}
+		final var blobNanos = System.nanoTime() - blobStarted;
+
+		final var fileStarted = System.nanoTime();
+		for (var round = 0; round < rounds; round++) {
+			FileTransfer.transfer(file, 0, size, discard);
+		}
+		final var fileNanos = System.nanoTime() - fileStarted;
+
+		LOGGER.info("Blob: {} MB/s, file: {} MB/s", throughput(size, rounds, blobNanos), throughput(size, rounds, fileNanos));
+	}
+
+	private static long throughput(final long size, final int rounds, final long nanos) {
+		return size * rounds / (1024 * 1024) * TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+
+	private Path write(final long size) throws IOException {
+		final var content = new byte[Math.toIntExact(size)];
+		new Random(size).nextBytes(content);
+		return Files.write(directory.resolve("file"), content);
+	}
+}
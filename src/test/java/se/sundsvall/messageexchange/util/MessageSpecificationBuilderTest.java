@@ -6,7 +6,6 @@ import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import org.junit.jupiter.api.Test;
-import se.sundsvall.messageexchange.integration.db.model.ConversationEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -19,31 +18,30 @@ import static org.mockito.Mockito.when;
 class MessageSpecificationBuilderTest {
 
 	@Test
-	void withConversation_whenConversationIsNotNull() {
+	void withConversationId_whenConversationIdIsNotNull() {
 		// Arrange
-		final var conversationEntity = mock(ConversationEntity.class);
 		final var root = mock(Root.class);
 		final var criteriaQuery = mock(CriteriaQuery.class);
 		final var criteriaBuilder = mock(CriteriaBuilder.class);
-		final var path = mock(Path.class);
+		final var conversationPath = mock(Path.class);
+		final var idPath = mock(Path.class);
 		final var expectedPredicate = mock(Predicate.class);
 
-		when(root.get("conversation")).thenReturn(path);
-		when(criteriaBuilder.equal(path, conversationEntity)).thenReturn(expectedPredicate);
+		when(root.get("conversation")).thenReturn(conversationPath);
+		when(conversationPath.get("id")).thenReturn(idPath);
+		when(criteriaBuilder.equal(idPath, "conversationId")).thenReturn(expectedPredicate);
 
 		// Act
-		final var result = MessageSpecificationBuilder.withConversation(conversationEntity);
+		final var result = MessageSpecificationBuilder.withConversationId("conversationId");
 		final var predicate = result.toPredicate(root, criteriaQuery, criteriaBuilder);
 
 		// Assert
-		assertThat(result).isNotNull();
 		assertThat(predicate).isSameAs(expectedPredicate);
-		verify(root).get("conversation");
-		verify(criteriaBuilder).equal(path, conversationEntity);
+		verify(criteriaBuilder).equal(idPath, "conversationId");
 	}
 
 	@Test
-	void withConversation_whenConversationIsNull() {
+	void withConversationId_whenConversationIdIsNull() {
 		// Arrange
 		final var root = mock(Root.class);
 		final var criteriaQuery = mock(CriteriaQuery.class);
@@ -53,11 +51,68 @@ class MessageSpecificationBuilderTest {
 		when(criteriaBuilder.and()).thenReturn(emptyPredicate);
 
 		// Act
-		final var result = MessageSpecificationBuilder.withConversation(null);
+		final var result = MessageSpecificationBuilder.withConversationId(null);
 		final var predicate = result.toPredicate(root, criteriaQuery, criteriaBuilder);
 
 		// Assert
-		assertThat(result).isNotNull();
+		assertThat(predicate).isSameAs(emptyPredicate);
+		verify(criteriaBuilder).and();
+	}
+
+	@Test
+	void withSequenceNumberAfter() {
+		// Arrange
+		final var root = mock(Root.class);
+		final var criteriaQuery = mock(CriteriaQuery.class);
+		final var criteriaBuilder = mock(CriteriaBuilder.class);
+		final var sequencePath = mock(Path.class);
+		final var expectedPredicate = mock(Predicate.class);
+
+		when(root.get("sequenceNumber")).thenReturn(sequencePath);
+		when(criteriaBuilder.greaterThan(sequencePath, 10L)).thenReturn(expectedPredicate);
+
+		// Act
+		final var predicate = MessageSpecificationBuilder.withSequenceNumberAfter(10L).toPredicate(root, criteriaQuery, criteriaBuilder);
+
+		// Assert
+		assertThat(predicate).isSameAs(expectedPredicate);
+		verify(criteriaBuilder).greaterThan(sequencePath, 10L);
+	}
+
+	@Test
+	void withSequenceNumberBefore() {
+		// Arrange
+		final var root = mock(Root.class);
+		final var criteriaQuery = mock(CriteriaQuery.class);
+		final var criteriaBuilder = mock(CriteriaBuilder.class);
+		final var sequencePath = mock(Path.class);
+		final var expectedPredicate = mock(Predicate.class);
+
+		when(root.get("sequenceNumber")).thenReturn(sequencePath);
+		when(criteriaBuilder.lessThan(sequencePath, 10L)).thenReturn(expectedPredicate);
+
+		// Act
+		final var predicate = MessageSpecificationBuilder.withSequenceNumberBefore(10L).toPredicate(root, criteriaQuery, criteriaBuilder);
+
+		// Assert
+		assertThat(predicate).isSameAs(expectedPredicate);
+		verify(criteriaBuilder).lessThan(sequencePath, 10L);
+	}
+
+	@Test
+	void withSequenceNumberAfter_whenSequenceNumberIsNull() {
+		// Arrange
+		final var root = mock(Root.class);
+		final var criteriaQuery = mock(CriteriaQuery.class);
+		final var criteriaBuilder = mock(CriteriaBuilder.class);
+		final var emptyPredicate = mock(Predicate.class);
+
+		when(criteriaBuilder.and()).thenReturn(emptyPredicate);
+
+		// Act
+		final var predicate = MessageSpecificationBuilder.withSequenceNumberAfter(null).toPredicate(root, criteriaQuery, criteriaBuilder);
+
+		// Assert
 		assertThat(predicate).isSameAs(emptyPredicate);
 		verify(criteriaBuilder).and();
 	}
@@ -1,15 +1,11 @@
 package se.sundsvall.messageexchange.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.ClassPathResource;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.spy;
 
 class ServiceUtilTest {
 
@@ -21,35 +17,25 @@ class ServiceUtilTest {
 	private static final String TXT_FILE_NAME = "document.txt";
 
 	@Test
-	void detectMimeTypeThrowsException() throws IOException {
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, null)).isEqualTo("application/octet-stream");
-
-		final InputStream inputStream = spy(new ByteArrayInputStream("data".getBytes()));
-		doThrow(new IOException()).when(inputStream).read(any(byte[].class));
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, inputStream)).isEqualTo("application/octet-stream");
+	void detectMimeTypeFromPrefix() throws IOException {
+		assertThat(ServiceUtil.detectMimeType(IMG_FILE_NAME, getPrefix(PATH + IMG_FILE_NAME))).isEqualTo("image/jpeg");
+		assertThat(ServiceUtil.detectMimeType(null, getPrefix(PATH + IMG_FILE_NAME))).isEqualTo("image/jpeg");
+		assertThat(ServiceUtil.detectMimeType(DOC_FILE_NAME, getPrefix(PATH + DOC_FILE_NAME))).isEqualTo("application/msword");
+		assertThat(ServiceUtil.detectMimeType(DOCX_FILE_NAME, getPrefix(PATH + DOCX_FILE_NAME))).isEqualTo("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+		assertThat(ServiceUtil.detectMimeType(PDF_FILE_NAME, getPrefix(PATH + PDF_FILE_NAME))).isEqualTo("application/pdf");
+		assertThat(ServiceUtil.detectMimeType(null, getPrefix(PATH + PDF_FILE_NAME))).isEqualTo("application/pdf");
+		assertThat(ServiceUtil.detectMimeType(TXT_FILE_NAME, getPrefix(PATH + TXT_FILE_NAME))).isEqualTo("text/plain");
 	}
 
 	@Test
-	void detectMimeType() throws IOException {
-		// IMAGE
-		assertThat(ServiceUtil.detectMimeTypeFromStream(IMG_FILE_NAME, getStream(PATH + IMG_FILE_NAME))).isEqualTo("image/jpeg");
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, getStream(PATH + IMG_FILE_NAME))).isEqualTo("image/jpeg");
-
-		// DOC
-		assertThat(ServiceUtil.detectMimeTypeFromStream(DOC_FILE_NAME, getStream(PATH + DOC_FILE_NAME))).isEqualTo("application/msword");
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, getStream(PATH + DOC_FILE_NAME))).isEqualTo("application/x-tika-msoffice");
-
-		// DOCX
-		assertThat(ServiceUtil.detectMimeTypeFromStream(DOCX_FILE_NAME, getStream(PATH + DOCX_FILE_NAME))).isEqualTo("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, getStream(PATH + DOCX_FILE_NAME))).isEqualTo("application/x-tika-ooxml");
-
-		// PDF
-		assertThat(ServiceUtil.detectMimeTypeFromStream(PDF_FILE_NAME, getStream(PATH + PDF_FILE_NAME))).isEqualTo("application/pdf");
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, getStream(PATH + PDF_FILE_NAME))).isEqualTo("application/pdf");
-
-		// TEXT
-		assertThat(ServiceUtil.detectMimeTypeFromStream(TXT_FILE_NAME, getStream(PATH + TXT_FILE_NAME))).isEqualTo("text/plain");
-		assertThat(ServiceUtil.detectMimeTypeFromStream(null, getStream(PATH + TXT_FILE_NAME))).isEqualTo("text/plain");
+	void detectMimeTypeFromPrefixThrowsException() {
+		assertThat(ServiceUtil.detectMimeType(null, null)).isEqualTo("application/octet-stream");
+	}
+
+	private byte[] getPrefix(final String path) throws IOException {
+		try (final var inputStream = getStream(path)) {
+			return inputStream.readNBytes(ServiceUtil.MIME_TYPE_DETECTION_LENGTH);
+		}
 	}
 
 	private InputStream getStream(final String path) throws IOException {
@@ -1,6 +1,4 @@
 
-    create sequence message_sequence_id_generator start with 1 increment by 1 nocache;
-
     create table attachment (
         file_size integer,
         created datetime(6),
@@ -14,12 +12,20 @@
     ) engine=InnoDB;
 
     create table attachment_data (
+        file_size integer,
+        reference_count integer,
+        hash varchar(64),
         id varchar(255) not null,
         file longblob,
+        storage VARCHAR(15),
         primary key (id)
     ) engine=InnoDB;
 
     create table conversation (
+        deleted_at datetime(6),
+        last_activity_at datetime(6),
+        latest_sequence_number bigint,
+        last_sequence_number bigint,
         id varchar(255) not null,
         municipality_id varchar(255),
         namespace varchar(255),
@@ -27,6 +33,16 @@
         primary key (id)
     ) engine=InnoDB;
 
+    create table conversation_counter (
+        total bigint not null,
+        conversation_id varchar(255) not null,
+        counter_key varchar(255) not null,
+        id varchar(255) not null,
+        counter_type VARCHAR(15) not null,
+        message_type VARCHAR(15) not null,
+        primary key (id)
+    ) engine=InnoDB;
+
     create table conversation_external_reference (
         conversation_id varchar(255) not null,
         id varchar(255) not null,
@@ -56,6 +72,16 @@
         identifier_id varchar(255) not null
     ) engine=InnoDB;
 
+    create table conversation_read_marker (
+        sequence_number bigint not null,
+        updated datetime(6) not null,
+        conversation_id varchar(255) not null,
+        id varchar(255) not null,
+        identifier_id varchar(255),
+        part varchar(255),
+        primary key (id)
+    ) engine=InnoDB;
+
     create table identifier (
         id varchar(255) not null,
         type varchar(255),
@@ -75,6 +101,13 @@
         primary key (id)
     ) engine=InnoDB;
 
+    create table message_idempotency_key (
+        created datetime(6) not null,
+        id varchar(255) not null,
+        message_id varchar(255) not null,
+        primary key (id)
+    ) engine=InnoDB;
+
     create table message_read_by (
         read_at datetime(6) not null,
         id varchar(255) not null,
@@ -91,10 +124,8 @@
         primary key (id)
     ) engine=InnoDB;
 
-    create table message_sequence (
-        id bigint not null,
-        primary key (id)
-    ) engine=InnoDB;
+    create index idx_attachment_data_hash_file_size 
+       on attachment_data (hash, file_size);
 
     create index idx_conversation_topic 
        on conversation (topic);
@@ -102,14 +133,32 @@
     create index idx_conversation_namespace_municipality_id_id 
        on conversation (namespace, municipality_id, id);
 
+    create index idx_conversation_deleted_at 
+       on conversation (deleted_at);
+
+    alter table if exists conversation_counter 
+       add constraint uq_conversation_counter unique (conversation_id, message_type, counter_type, counter_key);
+
     create index idx_conversation_external_reference_key 
        on conversation_external_reference (`key`);
 
     create index idx_conversation_metadata_id 
        on conversation_metadata (conversation_id, `key`);
 
+    create index idx_conversation_participants_identifier_id 
+       on conversation_participants (identifier_id);
+
     alter table if exists conversation_participants 
-       add constraint uq_conversation_participants_identifier_id unique (identifier_id);
+       add constraint uq_conversation_participants_conversation_id_identifier_id unique (conversation_id, identifier_id);
+
+    alter table if exists conversation_read_marker 
+       add constraint uq_conversation_read_marker_identifier_id unique (conversation_id, identifier_id);
+
+    alter table if exists conversation_read_marker 
+       add constraint uq_conversation_read_marker_part unique (conversation_id, part);
+
+    alter table if exists identifier 
+       add constraint uq_identifier_type_value unique (type, value);
 
     create index idx_message_conversation_id 
        on message (conversation_id);
@@ -117,23 +166,23 @@
     create index idx_message_conversation_id_created 
        on message (conversation_id, created);
 
-    create index idx_message_conversation_id_sequence_number 
-       on message (conversation_id, sequence_number);
+    create index idx_message_created_by 
+       on message (created_by);
 
     create index idx_message_in_reply_to_message_id 
        on message (in_reply_to_message_id);
 
     alter table if exists message 
-       add constraint uq_message_sequence_number unique (sequence_number);
+       add constraint uq_message_conversation_id_sequence_number unique (conversation_id, sequence_number);
 
-    alter table if exists message 
-       add constraint uq_message_created_by unique (created_by);
+    create index idx_message_idempotency_key_created 
+       on message_idempotency_key (created);
 
-    create index idx_message_read_by_message_id_identifier_id 
-       on message_read_by (message_id, identifier_id);
+    create index idx_message_read_by_identifier_id 
+       on message_read_by (identifier_id);
 
-    alter table if exists message_read_by
-       add constraint uq_message_read_by_identifier_id unique (identifier_id);
+    alter table if exists message_read_by 
+       add constraint uq_message_read_by_message_id_identifier_id unique (message_id, identifier_id);
 
     create index idx_message_read_by_part_message_id_part
        on message_read_by_part (message_id, part);
@@ -148,6 +197,12 @@
        foreign key (message_id) 
        references message (id);
 
+    alter table if exists conversation_counter 
+       add constraint fk_conversation_counter_conversation_id 
+       foreign key (conversation_id) 
+       references conversation (id) 
+       on delete cascade;
+
     alter table if exists conversation_external_reference 
        add constraint fk_external_references_conversation_id 
        foreign key (conversation_id) 
@@ -178,6 +233,17 @@
        foreign key (conversation_id) 
        references conversation (id);
 
+    alter table if exists conversation_read_marker 
+       add constraint fk_conversation_read_marker_conversation_id 
+       foreign key (conversation_id) 
+       references conversation (id) 
+       on delete cascade;
+
+    alter table if exists conversation_read_marker 
+       add constraint fk_conversation_read_marker_identifier_id 
+       foreign key (identifier_id) 
+       references identifier (id);
+
     alter table if exists message 
        add constraint fk_message_conversation_id 
        foreign key (conversation_id) 
@@ -188,10 +254,11 @@
        foreign key (created_by) 
        references identifier (id);
 
-    alter table if exists message 
-       add constraint fk_message_sequence_number 
-       foreign key (sequence_number) 
-       references message_sequence (id);
+    alter table if exists message_idempotency_key 
+       add constraint fk_message_idempotency_key_message_id 
+       foreign key (message_id) 
+       references message (id) 
+       on delete cascade;
 
     alter table if exists message_read_by 
        add constraint fk_read_by_identifier_id 
@@ -7,9 +7,9 @@ VALUES ('ec677eb3-604c-4935-bff7-f8f0b500c8f4',
         '89504E470D0A1A0A0000000D494844520000001000000010080200000090916836000000017352474200AECE1CE90000000467414D410000B18F0BFC6105000000097048597300000EC300000EC301C76FA8640000001E49444154384F6350DAE843126220493550F1A80662426C349406472801006AC91F1040F796BD0000000049454E44AE426082');
 
 -- Insert data into `conversation`
-INSERT INTO conversation (id, municipality_id, namespace, topic)
-VALUES ('c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', '2281', 'NAMESPACE-1', 'Topic 1'),
-       ('c2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', '2282', 'NAMESPACE-2', 'Topic 2');
+INSERT INTO conversation (id, municipality_id, namespace, topic, latest_sequence_number, sequence_block_end, last_activity_at)
+VALUES ('c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', '2281', 'NAMESPACE-1', 'Topic 1', 2, 2, '2023-01-01 11:00:00'),
+       ('c2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', '2282', 'NAMESPACE-2', 'Topic 2', null, null, null);
 
 -- Insert data into `conversation_metadata`
 INSERT INTO conversation_metadata (id, conversation_id, `key`)
@@ -31,39 +31,32 @@ INSERT INTO conversation_external_reference_values (conversation_external_refere
 VALUES ('ext1', 'external-value-1'),
        ('ext2', 'external-value-2');
 
--- Insert data into `identifier`
+-- Insert data into `identifier`, the ids are the SHA-256 hash of the length prefixed type and value
 INSERT INTO identifier (id, type, value)
-VALUES ('user1', 'user', 'user1@example.com'),
-       ('user2', 'user', 'user2@example.com'),
-       ('user3', 'user', 'user3@example.com'),
-       ('user4', 'user', 'user4@example.com'),
-       ('user5', 'user', 'user5@example.com'),
-       ('user6', 'user', 'user6@example.com');
+VALUES ('4e2ab0a9f51dc8dc58da64c57c9b9bdfdb9914589c7f9a5923a54d02d10dfefa', 'user', 'user1@example.com'),
+       ('0e6bb0ffd55f38b0fe098daf064f7c32a858f06bf038feeb5b481d3de202dcf3', 'user', 'user2@example.com'),
+       ('1ef4e3c52a6c0217cc231046b5789e65e1e846b5320e5768cf4b49add6370dc8', 'user', 'user3@example.com'),
+       ('67b20b462be4e376da2aa7362ca987ba1eaf84f2e78331cd8f0720d0902dc57a', 'user', 'user4@example.com'),
+       ('023109e2e5139bff99d578010f8c8ca97a4111909c1e2442f74bd9407b60cef0', 'user', 'user5@example.com'),
+       ('998f7f7e98f185a76401454eae207ad23031918b9ef1582f496969da5e4fa438', 'user', 'user6@example.com');
 
 
 -- Insert data into `conversation_participants`
 INSERT INTO conversation_participants (conversation_id, identifier_id)
-VALUES ('c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 'user3'),
-       ('c2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', 'user4');
-
--- Insert data into `message_sequence`
-INSERT INTO message_sequence (id)
-VALUES (1),
-       (2);
-
-alter sequence message_sequence_id_generator restart with 3;
+VALUES ('c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', '1ef4e3c52a6c0217cc231046b5789e65e1e846b5320e5768cf4b49add6370dc8'),
+       ('c2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', '67b20b462be4e376da2aa7362ca987ba1eaf84f2e78331cd8f0720d0902dc57a');
 
 -- Insert data into `message`
 INSERT INTO message (id, created, conversation_id, created_by, in_reply_to_message_id, content, sequence_number)
-VALUES ('d82bd8ac-1507-4d9a-958d-369261eecc15', '2023-01-01 10:00:00', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 'user1',
+VALUES ('d82bd8ac-1507-4d9a-958d-369261eecc15', '2023-01-01 10:00:00', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', '4e2ab0a9f51dc8dc58da64c57c9b9bdfdb9914589c7f9a5923a54d02d10dfefa',
         NULL, 'Message 1 content', 1),
-       ('m2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', '2023-01-01 11:00:00', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 'user2',
+       ('m2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', '2023-01-01 11:00:00', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', '0e6bb0ffd55f38b0fe098daf064f7c32a858f06bf038feeb5b481d3de202dcf3',
         'd82bd8ac-1507-4d9a-958d-369261eecc15', 'Message 2 content', 2);
 
 -- Insert data into `message_read_by`
 INSERT INTO message_read_by (id, read_at, identifier_id, message_id)
-VALUES ('read1', '2023-01-01 10:30:00', 'user5', 'd82bd8ac-1507-4d9a-958d-369261eecc15'),
-       ('read2', '2023-01-01 11:30:00', 'user6', 'm2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6');
+VALUES ('read1', '2023-01-01 10:30:00', '023109e2e5139bff99d578010f8c8ca97a4111909c1e2442f74bd9407b60cef0', 'd82bd8ac-1507-4d9a-958d-369261eecc15'),
+       ('read2', '2023-01-01 11:30:00', '998f7f7e98f185a76401454eae207ad23031918b9ef1582f496969da5e4fa438', 'm2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6');
 
 -- Insert data into `attachment`
 INSERT INTO attachment (id, file_size, created, attachment_data_id, file_name, message_id, mime_type, hash)
@@ -71,3 +64,13 @@ VALUES ('a1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 5068, '2023-01-01 10:05:00', 'ec
         'file1.txt', 'd82bd8ac-1507-4d9a-958d-369261eecc15', 'image/jpeg', '367a3839a1ff937698f921defd2550c57867307173a7fe7385fbd6fa3fb673ac'),
        ('a2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', 2048, '2023-01-01 11:05:00', 'd1f2c8d4-d234-4504-a483-b74570a7941d',
         'file2.txt', 'm2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', 'text/plain', '1a19017e8f247d057a2addc92c059eebcb0c10d5e83e0f607a516149e82aa8d6');
+
+-- Insert data into `message_idempotency_key`, for a message posted with the key 'retry-key-1'
+INSERT INTO message_idempotency_key (id, message_id, created)
+VALUES ('3fe989777e7d8d5162f1c30baa1d0b4a6e62de737c0e56ccde29ff2a1c584c41', 'm2a2b3c4-d5e6-f7a8-b9c0-d1e2f3a4b5c6', '2023-01-01 11:00:00');
+
+-- Insert data into `conversation_counter`, matching the messages and read receipts above
+INSERT INTO conversation_counter (id, conversation_id, message_type, counter_type, counter_key, total)
+VALUES ('counter1', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 'USER_CREATED', 'MESSAGES', '', 2),
+       ('counter2', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 'USER_CREATED', 'READ_BY', '023109e2e5139bff99d578010f8c8ca97a4111909c1e2442f74bd9407b60cef0', 1),
+       ('counter3', 'c1a1b2c3-d4e5-f6a7-b8c9-d0e1f2a3b4c5', 'USER_CREATED', 'READ_BY', '998f7f7e98f185a76401454eae207ad23031918b9ef1582f496969da5e4fa438', 1);